@@ -23,6 +23,8 @@ internal class TestPostListDataSource(
         isListFullyFetched: Boolean
     ): List<RemoteId> = remoteItemIds
 
+    override fun hasOneItemPerRemoteId(listDescriptor: PostListDescriptor) = true
+
     override fun fetchList(listDescriptor: PostListDescriptor, offset: Long) {
         val fetchPostListPayload = FetchPostListPayload(listDescriptor, offset)
         dispatcher.dispatch(PostActionBuilder.newFetchPostListAction(fetchPostListPayload))
@@ -23,6 +23,8 @@ internal class TestWCOrderListDataSource(
         isListFullyFetched: Boolean
     ): List<RemoteId> = remoteItemIds
 
+    override fun hasOneItemPerRemoteId(listDescriptor: WCOrderListDescriptor) = true
+
     override fun fetchList(listDescriptor: WCOrderListDescriptor, offset: Long) {
         val fetchOrderListPayload = FetchOrderListPayload(listDescriptor, offset)
         dispatcher.dispatch(WCOrderActionBuilder.newFetchOrderListAction(fetchOrderListPayload))
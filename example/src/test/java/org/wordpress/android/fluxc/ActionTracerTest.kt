@@ -0,0 +1,47 @@
+package org.wordpress.android.fluxc
+
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.ActionTracer.Level
+import org.wordpress.android.fluxc.action.MediaAction
+import org.wordpress.android.fluxc.annotations.action.Action
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class ActionTracerTest {
+    private val uploadedMediaAction = Action<Void>(MediaAction.UPLOADED_MEDIA, null)
+
+    @After
+    fun tearDown() {
+        ActionTracer.setLevel(Level.OFF)
+        ActionTracer.resetStats()
+    }
+
+    @Test
+    fun testNothingIsRecordedByDefault() {
+        assertEquals(Level.OFF, ActionTracer.getLevel())
+
+        Dispatcher().dispatch(uploadedMediaAction)
+
+        assertTrue(ActionTracer.getStats().isEmpty())
+    }
+
+    @Test
+    fun testDispatchedActionsAreCountedPerType() {
+        ActionTracer.setLevel(Level.METRICS)
+        val dispatcher = Dispatcher()
+
+        dispatcher.dispatch(uploadedMediaAction)
+        dispatcher.dispatch(uploadedMediaAction)
+        dispatcher.dispatch(Action<Void>(MediaAction.FETCH_MEDIA_LIST, null))
+
+        val stats = ActionTracer.getStats()
+        assertEquals(2, stats.getValue(MediaAction.UPLOADED_MEDIA).dispatchCount)
+        assertEquals(1, stats.getValue(MediaAction.FETCH_MEDIA_LIST).dispatchCount)
+        // Actions posted to the bus aren't timed
+        assertEquals(0, stats.getValue(MediaAction.UPLOADED_MEDIA).handledCount)
+    }
+}
@@ -8,6 +8,10 @@ import com.yarolegovich.wellsql.WellTableManager;
 import com.yarolegovich.wellsql.core.Identifiable;
 import com.yarolegovich.wellsql.core.TableClass;
 
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.model.PostModel;
+import org.wordpress.android.fluxc.persistence.MediaSearchIndex;
+import org.wordpress.android.fluxc.persistence.PostSearchIndex;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 
 import java.util.ArrayList;
@@ -45,6 +49,12 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
         for (Class<? extends Identifiable> clazz : mStoreClassList) {
             helper.createTable(clazz);
         }
+        if (mStoreClassList.contains(PostModel.class)) {
+            PostSearchIndex.createTable(db);
+        }
+        if (mStoreClassList.contains(MediaModel.class)) {
+            MediaSearchIndex.createTable(db);
+        }
     }
 
     /**
@@ -58,5 +68,11 @@ public class SingleStoreWellSqlConfigForTests extends WellSqlConfig {
             db.execSQL("DROP TABLE " + table.getTableName());
             db.execSQL(table.createStatement());
         }
+        if (mStoreClassList.contains(PostModel.class)) {
+            PostSearchIndex.rebuild(db);
+        }
+        if (mStoreClassList.contains(MediaModel.class)) {
+            MediaSearchIndex.rebuild(db);
+        }
     }
 }
@@ -11,6 +11,8 @@ import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.list.datasource.InternalPagedListDataSource
 import org.wordpress.android.fluxc.model.list.datasource.ListItemDataSourceInterface
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
 
 private const val NUMBER_OF_ITEMS = 71
 private const val IS_LIST_FULLY_FETCHED = false
@@ -83,6 +85,78 @@ internal class InternalPagedListDataSourceTest {
         verify(mockItemDataSource).getItemsAndFetchIfNecessary(eq(testListDescriptor), any())
     }
 
+    @Test
+    fun `getItemsInRange only reads the requested range for lists with one item per remote id`() {
+        val (startPosition, endPosition) = testStartAndEndPosition
+        val rangeRemoteItemIds = (startPosition until endPosition).map { RemoteId(it.toLong()) }
+        val rangeIdentifiers: List<TestListIdentifier> = rangeRemoteItemIds.map { it.value }
+        whenever(mockItemDataSource.getItemIdentifiers(testListDescriptor, rangeRemoteItemIds, IS_LIST_FULLY_FETCHED))
+                .thenReturn(rangeIdentifiers)
+        val requestedRanges = mutableListOf<Pair<Int, Int>>()
+        val internalDataSource = InternalPagedListDataSource(
+                listDescriptor = testListDescriptor,
+                totalSize = NUMBER_OF_ITEMS,
+                getRemoteItemIdsInRange = { start, end ->
+                    requestedRanges.add(Pair(start, end))
+                    rangeRemoteItemIds
+                },
+                hasListChanged = { false },
+                isListFullyFetched = IS_LIST_FULLY_FETCHED,
+                itemDataSource = mockItemDataSource
+        )
+        assertEquals(NUMBER_OF_ITEMS, internalDataSource.totalSize)
+        assertTrue(requestedRanges.isEmpty())
+
+        internalDataSource.getItemsInRange(startPosition, endPosition)
+
+        assertEquals(listOf(testStartAndEndPosition), requestedRanges)
+        verify(mockItemDataSource).getItemsAndFetchIfNecessary(testListDescriptor, rangeIdentifiers)
+        assertFalse(internalDataSource.isOutdated)
+    }
+
+    @Test
+    fun `a range with missing items marks the data source as outdated`() {
+        whenever(mockItemDataSource.getItemIdentifiers(eq(testListDescriptor), any(), any())).thenReturn(emptyList())
+        val internalDataSource = InternalPagedListDataSource(
+                listDescriptor = testListDescriptor,
+                totalSize = NUMBER_OF_ITEMS,
+                getRemoteItemIdsInRange = { _, _ -> emptyList() },
+                hasListChanged = { false },
+                isListFullyFetched = IS_LIST_FULLY_FETCHED,
+                itemDataSource = mockItemDataSource
+        )
+
+        val (startPosition, endPosition) = testStartAndEndPosition
+        internalDataSource.getItemsInRange(startPosition, endPosition)
+
+        assertTrue(internalDataSource.isOutdated)
+    }
+
+    @Test
+    fun `a full range of a changed list marks the data source as outdated`() {
+        val (startPosition, endPosition) = testStartAndEndPosition
+        val rangeRemoteItemIds = (startPosition until endPosition).map { RemoteId(it.toLong()) }
+        whenever(mockItemDataSource.getItemIdentifiers(eq(testListDescriptor), any(), any()))
+                .thenReturn(rangeRemoteItemIds.map { it.value })
+        var hasListChanged = false
+        val internalDataSource = InternalPagedListDataSource(
+                listDescriptor = testListDescriptor,
+                totalSize = NUMBER_OF_ITEMS,
+                getRemoteItemIdsInRange = { _, _ -> rangeRemoteItemIds },
+                hasListChanged = { hasListChanged },
+                isListFullyFetched = IS_LIST_FULLY_FETCHED,
+                itemDataSource = mockItemDataSource
+        )
+
+        internalDataSource.getItemsInRange(startPosition, endPosition)
+        assertFalse(internalDataSource.isOutdated)
+
+        // An item was inserted before the range, which now holds the same number of different items
+        hasListChanged = true
+        internalDataSource.getItemsInRange(startPosition, endPosition)
+        assertTrue(internalDataSource.isOutdated)
+    }
+
     private fun createInternalPagedListDataSource(
         dataSource: TestListItemDataSource
     ): TestInternalPagedListDataSource {
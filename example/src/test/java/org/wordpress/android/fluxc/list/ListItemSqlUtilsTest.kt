@@ -2,12 +2,18 @@ package org.wordpress.android.fluxc.list
 
 import com.yarolegovich.wellsql.WellSql
 import org.junit.Before
+import org.junit.Ignore
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.RuntimeEnvironment
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.list.ListDescriptor
+import org.wordpress.android.fluxc.model.list.ListItemChanges
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Inserted
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Moved
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Removed
 import org.wordpress.android.fluxc.model.list.ListItemModel
 import org.wordpress.android.fluxc.model.list.ListModel
 import org.wordpress.android.fluxc.model.list.PostListDescriptor.PostListDescriptorForRestSite
@@ -15,8 +21,12 @@ import org.wordpress.android.fluxc.model.list.PostListDescriptor.PostListDescrip
 import org.wordpress.android.fluxc.persistence.ListItemSqlUtils
 import org.wordpress.android.fluxc.persistence.ListSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.util.concurrent.TimeUnit
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNotEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertTrue
 
@@ -201,6 +211,158 @@ class ListItemSqlUtilsTest {
         assertEquals(insertedItemList[0].id, updatedItemList[0].id)
     }
 
+    @Test
+    fun testReplaceItemListOnlyWritesChangedItems() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, listOf(1L, 2L, 3L, 4L))
+        val idsBefore = listItemSqlUtils.getListItems(testList.id).associate { it.remoteItemId to it.id }
+
+        /**
+         * 1. Insert an item at the top, remove one and move another one
+         * 2. Verify that the list has the new order and the records of the items that are still in the list are kept
+         * 3. Verify that the changes turn the previous items into the new ones
+         */
+        val newRemoteItemIds = listOf(5L, 1L, 4L, 2L)
+        val changes = listItemSqlUtils.replaceItemList(testList.id, newRemoteItemIds)
+
+        val items = listItemSqlUtils.getListItems(testList.id)
+        assertEquals(newRemoteItemIds, items.map { it.remoteItemId })
+        assertEquals((0..3).toList(), items.map { it.position })
+        items.filter { idsBefore.containsKey(it.remoteItemId) }.forEach {
+            assertEquals(idsBefore[it.remoteItemId], it.id)
+        }
+        assertEquals(listOf(null, 1L, 4L, 2L), applyChanges(listOf(1L, 2L, 3L, 4L), changes))
+    }
+
+    @Test
+    fun testReplaceLargeItemListReportsMovesAsRemovalsAndInsertions() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        val remoteItemIds = (0L until 1000L).toList()
+        listItemSqlUtils.replaceItemList(testList.id, remoteItemIds)
+
+        /**
+         * 1. Move the last item of a list too large to detect the moves to the top
+         * 2. Verify that the changes turn the previous items into the new ones without any move
+         */
+        val newRemoteItemIds = listOf(999L) + (0L until 999L)
+        val changes = listItemSqlUtils.replaceItemList(testList.id, newRemoteItemIds)
+
+        assertTrue(changes.operations.none { it is Moved })
+        assertEquals(listOf<Long?>(null) + (0L until 999L), applyChanges(remoteItemIds, changes))
+        assertEquals(newRemoteItemIds, listItemSqlUtils.getListItems(testList.id).map { it.remoteItemId })
+    }
+
+    @Test
+    fun testReplaceItemListWithSameItems() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, listOf(1L, 2L, 3L))
+
+        val changes = listItemSqlUtils.replaceItemList(testList.id, listOf(1L, 2L, 3L))
+
+        assertTrue(changes.isEmpty())
+        assertEquals(listOf(1L, 2L, 3L), listItemSqlUtils.getListItems(testList.id).map { it.remoteItemId })
+    }
+
+    @Test
+    fun testAppendItemListIgnoresExistingItems() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, listOf(1L, 2L, 3L))
+
+        val changes = listItemSqlUtils.appendItemList(testList.id, listOf(3L, 4L, 5L))
+
+        assertEquals(listOf<Operation>(Inserted(position = 3, count = 2)), changes.operations)
+        val items = listItemSqlUtils.getListItems(testList.id)
+        assertEquals(listOf(1L, 2L, 3L, 4L, 5L), items.map { it.remoteItemId })
+        assertEquals((0..4).toList(), items.map { it.position })
+    }
+
+    @Test
+    fun testGetListItemsInRange() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        val otherList = insertTestList(PostListDescriptorForXmlRpcSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, (100L until 120L).toList())
+        listItemSqlUtils.replaceItemList(otherList.id, (200L until 220L).toList())
+
+        val items = listItemSqlUtils.getListItemsInRange(testList.id, 5, 10)
+
+        assertEquals((105L until 110L).toList(), items.map { it.remoteItemId })
+        assertTrue(listItemSqlUtils.getListItemsInRange(testList.id, 20, 30).isEmpty())
+    }
+
+    @Test
+    fun testDeletingItemsKeepsPositionsContiguous() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, (1L..10L).toList())
+
+        listItemSqlUtils.deleteItemsFromLists(listOf(testList.id), listOf(2L, 5L))
+        listItemSqlUtils.deleteItem(listOf(testList.id), 9L)
+
+        val items = listItemSqlUtils.getListItems(testList.id)
+        assertEquals(listOf(1L, 3L, 4L, 6L, 7L, 8L, 10L), items.map { it.remoteItemId })
+        assertEquals((0..6).toList(), items.map { it.position })
+        assertEquals(listOf(6L, 7L), listItemSqlUtils.getListItemsInRange(testList.id, 3, 5).map { it.remoteItemId })
+    }
+
+    @Test
+    fun testListVersionChangesWithItemsOfTheList() {
+        val testList = insertTestList(PostListDescriptorForRestSite(testSite()))
+        val otherList = insertTestList(PostListDescriptorForXmlRpcSite(testSite()))
+        listItemSqlUtils.replaceItemList(testList.id, listOf(1L, 2L, 3L))
+        val otherListVersion = listItemSqlUtils.getListVersion(otherList.id)
+
+        var version = listItemSqlUtils.getListVersion(testList.id)
+        listItemSqlUtils.appendItemList(testList.id, listOf(4L))
+        assertNotEquals(version, listItemSqlUtils.getListVersion(testList.id))
+
+        version = listItemSqlUtils.getListVersion(testList.id)
+        listItemSqlUtils.deleteItem(listOf(testList.id), 2L)
+        assertNotEquals(version, listItemSqlUtils.getListVersion(testList.id))
+
+        version = listItemSqlUtils.getListVersion(testList.id)
+        listItemSqlUtils.getListItemsInRange(testList.id, 0, 2)
+        assertEquals(version, listItemSqlUtils.getListVersion(testList.id))
+        assertEquals(otherListVersion, listItemSqlUtils.getListVersion(otherList.id))
+    }
+
+    /**
+     * Compares the time it takes to read the first pages of a list after it's invalidated, by reading all of its
+     * remote ids like lists with section headers do, and by reading only the ranges that are loaded.
+     */
+    @Ignore("Benchmark, run manually")
+    @Test
+    fun benchmarkInvalidateThenScroll() {
+        listOf(1_000, 10_000, 50_000).forEach { count ->
+            val testList = insertTestList(PostListDescriptorForRestSite(testSite(count)))
+            listItemSqlUtils.replaceItemList(testList.id, (1L..count).toList())
+
+            val allItemsMs = measureMillis {
+                val remoteItemIds = listItemSqlUtils.getListItems(testList.id).map { it.remoteItemId }
+                (0 until BENCHMARK_SCROLLED_PAGES).forEach { page ->
+                    remoteItemIds.subList(page * BENCHMARK_PAGE_SIZE, (page + 1) * BENCHMARK_PAGE_SIZE)
+                }
+            }
+            val rangesMs = measureMillis {
+                listItemSqlUtils.getListItemsCount(testList.id)
+                (0 until BENCHMARK_SCROLLED_PAGES).forEach { page ->
+                    listItemSqlUtils.getListItemsInRange(
+                            testList.id,
+                            page * BENCHMARK_PAGE_SIZE,
+                            (page + 1) * BENCHMARK_PAGE_SIZE
+                    )
+                }
+            }
+            AppLog.i(T.TESTS, "Invalidate then scroll $count items, all items: $allItemsMs ms, ranges: $rangesMs ms")
+        }
+    }
+
+    private fun measureMillis(block: () -> Unit): Long {
+        // Warm up
+        block()
+        val start = System.nanoTime()
+        repeat(BENCHMARK_REPETITIONS) { block() }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / BENCHMARK_REPETITIONS
+    }
+
     private fun generateInsertAndAssertListItems(listDescriptor: ListDescriptor, count: Int = 20): ListModel {
         /**
          * 1. Since a [ListItemModel] requires a [ListModel] in the DB due to the foreign key restriction, a test list
@@ -232,10 +394,31 @@ class ListItemSqlUtilsTest {
     private fun generateItemList(listModel: ListModel, count: Int): List<ListItemModel> =
             (1..count).map { ListItemModel(listModel.id, it.toLong()) }
 
+    /**
+     * Applies the [changes] to the [remoteItemIds], with null for the inserted items.
+     */
+    private fun applyChanges(remoteItemIds: List<Long>, changes: ListItemChanges): List<Long?> {
+        val updatedList = remoteItemIds.toMutableList<Long?>()
+        changes.operations.forEach { operation ->
+            when (operation) {
+                is Inserted -> repeat(operation.count) { updatedList.add(operation.position, null) }
+                is Removed -> repeat(operation.count) { updatedList.removeAt(operation.position) }
+                is Moved -> updatedList.add(operation.toPosition, updatedList.removeAt(operation.fromPosition))
+            }
+        }
+        return updatedList
+    }
+
     private fun testSite(localSiteId: Int = 111): SiteModel {
         val site = SiteModel()
         site.id = localSiteId
         site.siteId = 222
         return site
     }
+
+    companion object {
+        private const val BENCHMARK_PAGE_SIZE = 20
+        private const val BENCHMARK_SCROLLED_PAGES = 5
+        private const val BENCHMARK_REPETITIONS = 10
+    }
 }
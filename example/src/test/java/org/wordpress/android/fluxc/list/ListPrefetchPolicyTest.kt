@@ -0,0 +1,87 @@
+package org.wordpress.android.fluxc.list
+
+import org.junit.Test
+import org.wordpress.android.fluxc.model.list.ListConfig
+import org.wordpress.android.fluxc.model.list.ListPrefetchPolicy
+import org.wordpress.android.fluxc.model.list.ListPrefetchStats
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+private const val TOTAL_SIZE = 200
+
+class ListPrefetchPolicyTest {
+    private var time = 0L
+    private val config = ListConfig(
+            networkPageSize = 100,
+            initialLoadSize = 100,
+            dbPageSize = 10,
+            prefetchDistance = 10
+    )
+    private val policy = ListPrefetchPolicy(config) { time }
+
+    @Test
+    fun testPrefetchDistanceGrowsWithScrollVelocityAndPageLatency() {
+        assertEquals(10, policy.getPrefetchDistance())
+
+        policy.onItemsLoaded(20, TOTAL_SIZE)
+        time = 100
+        policy.onItemsLoaded(30, TOTAL_SIZE)
+        assertEquals(45, policy.getPrefetchDistance())
+
+        policy.onPageFetchStarted(isPrefetch = true)
+        time = 3100
+        policy.onPageFetchFinished(succeeded = true)
+        assertEquals(72, policy.getPrefetchDistance())
+
+        // A long pause means the user stopped scrolling
+        time = 5000
+        policy.onItemsLoaded(31, TOTAL_SIZE)
+        assertEquals(10, policy.getPrefetchDistance())
+    }
+
+    @Test
+    fun testPrefetchDistanceIsCappedAtNetworkPageSize() {
+        policy.onItemsLoaded(0, TOTAL_SIZE)
+        time = 10
+        policy.onItemsLoaded(100, TOTAL_SIZE)
+
+        assertEquals(config.networkPageSize, policy.getPrefetchDistance())
+    }
+
+    @Test
+    fun testNextPageIsNotRequestedWhileOneIsLoading() {
+        assertFalse(policy.onItemsLoaded(180, TOTAL_SIZE))
+        assertTrue(policy.onItemsLoaded(195, TOTAL_SIZE))
+
+        policy.onPageFetchStarted(isPrefetch = true)
+        assertFalse(policy.onItemsLoaded(196, TOTAL_SIZE))
+
+        policy.onPageFetchFinished(succeeded = false)
+        assertTrue(policy.onItemsLoaded(197, TOTAL_SIZE))
+    }
+
+    @Test
+    fun testHitsAndMissesAreCounted() {
+        var reportedStats: ListPrefetchStats? = null
+        policy.onStatsChanged = { reportedStats = it }
+
+        policy.onPageFetchStarted(isPrefetch = true)
+        policy.onPageFetchFinished(succeeded = true)
+        assertEquals(ListPrefetchStats(hits = 1, misses = 0), policy.getStats())
+
+        // The user catches up with a prefetch, only counted once
+        policy.onPageFetchStarted(isPrefetch = true)
+        policy.onEndReached()
+        policy.onEndReached()
+        policy.onPageFetchFinished(succeeded = true)
+        assertEquals(ListPrefetchStats(hits = 1, misses = 1), policy.getStats())
+
+        // The user reaches the end before anything was prefetched
+        policy.onEndReached()
+        policy.onPageFetchStarted(isPrefetch = false)
+        policy.onPageFetchFinished(succeeded = true)
+        assertEquals(ListPrefetchStats(hits = 1, misses = 2), policy.getStats())
+        assertEquals(policy.getStats(), reportedStats)
+    }
+}
@@ -0,0 +1,94 @@
+package org.wordpress.android.fluxc.list
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.atLeastOnce
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.yarolegovich.wellsql.WellSql
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.TEST_SCOPE
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.list.PostListDescriptor
+import org.wordpress.android.fluxc.model.list.PostListDescriptor.PostListDescriptorForRestSite
+import org.wordpress.android.fluxc.model.list.datasource.ListItemDataSourceInterface
+import org.wordpress.android.fluxc.persistence.ListItemSqlUtils
+import org.wordpress.android.fluxc.persistence.ListSqlUtils
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.fluxc.store.ListStore
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+private const val ITEM_COUNT = 100
+
+@ExperimentalCoroutinesApi
+@RunWith(RobolectricTestRunner::class)
+class ListStoreTest {
+    @get:Rule
+    val rule = InstantTaskExecutorRule()
+
+    private lateinit var listSqlUtils: ListSqlUtils
+    private lateinit var listItemSqlUtils: ListItemSqlUtils
+    private lateinit var listStore: ListStore
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+
+        listSqlUtils = ListSqlUtils()
+        listItemSqlUtils = ListItemSqlUtils()
+        listStore = ListStore(listSqlUtils, listItemSqlUtils, TEST_SCOPE.coroutineContext, mock(), mock())
+    }
+
+    @Test
+    fun `lists with one item per remote id only read the remote ids of the loaded ranges`() {
+        val listDescriptor = PostListDescriptorForRestSite(testSite())
+        listSqlUtils.insertOrUpdateList(listDescriptor)
+        val listModel = listSqlUtils.getList(listDescriptor)
+        assertNotNull(listModel)
+        listItemSqlUtils.replaceItemList(listModel!!.id, (1L..ITEM_COUNT).toList())
+
+        val dataSource = mock<ListItemDataSourceInterface<PostListDescriptor, RemoteId, String>>()
+        whenever(dataSource.hasOneItemPerRemoteId(listDescriptor)).thenReturn(true)
+        whenever(dataSource.getItemIdentifiers(eq(listDescriptor), any(), any())).thenAnswer {
+            it.getArgument<List<RemoteId>>(1)
+        }
+        whenever(dataSource.getItemsAndFetchIfNecessary(eq(listDescriptor), any())).thenAnswer {
+            it.getArgument<List<RemoteId>>(1).map { remoteId -> remoteId.value.toString() }
+        }
+
+        val data = listStore.getList(listDescriptor, dataSource, mock()).data
+        data.observeForever { }
+        val pagedList = data.value
+
+        assertNotNull(pagedList)
+        assertEquals(ITEM_COUNT, pagedList!!.size)
+        assertEquals("1", pagedList[0])
+        val remoteItemIdsCaptor = argumentCaptor<List<RemoteId>>()
+        verify(dataSource, atLeastOnce()).getItemIdentifiers(eq(listDescriptor), remoteItemIdsCaptor.capture(), any())
+        remoteItemIdsCaptor.allValues.forEach { remoteItemIds ->
+            assertTrue(remoteItemIds.size <= listDescriptor.config.initialLoadSize)
+        }
+    }
+
+    private fun testSite(): SiteModel {
+        val site = SiteModel()
+        site.id = 111
+        site.siteId = 222
+        return site
+    }
+}
@@ -8,6 +8,7 @@ import androidx.lifecycle.Observer
 import androidx.paging.PagedList
 import com.nhaarman.mockitokotlin2.firstValue
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import kotlinx.coroutines.ExperimentalCoroutinesApi
@@ -21,6 +22,8 @@ import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.TEST_SCOPE
 import org.wordpress.android.fluxc.model.list.ListDescriptor
 import org.wordpress.android.fluxc.model.list.ListDescriptorTypeIdentifier
+import org.wordpress.android.fluxc.model.list.ListItemChanges
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Inserted
 import org.wordpress.android.fluxc.model.list.ListState
 import org.wordpress.android.fluxc.model.list.PagedListWrapper
 import org.wordpress.android.fluxc.store.ListStore.ListError
@@ -128,6 +131,18 @@ class PagedListWrapperTest {
         verify(mockInvalidate).invoke()
     }
 
+    @Test
+    fun `onListChanged does not invalidate when none of the items changed`() {
+        triggerOnListChanged(changes = ListItemChanges(emptyList()))
+        verify(mockInvalidate, never()).invoke()
+    }
+
+    @Test
+    fun `onListChanged invalidates when items changed`() {
+        triggerOnListChanged(changes = ListItemChanges(listOf(Inserted(position = 0, count = 1))))
+        verify(mockInvalidate).invoke()
+    }
+
     @Test
     fun `onListRequiresRefresh invokes refresh`() {
         triggerOnListRequiresRefresh()
@@ -165,13 +180,15 @@ class PagedListWrapperTest {
 
     private fun triggerOnListChanged(
         causeOfListChange: CauseOfListChange = FIRST_PAGE_FETCHED,
-        error: ListError? = null
+        error: ListError? = null,
+        changes: ListItemChanges? = null
     ) {
         val pagedListWrapper = createPagedListWrapper()
         val event = OnListChanged(
                 listDescriptors = listOf(mockListDescriptor),
                 causeOfChange = causeOfListChange,
-                error = error
+                error = error,
+                changes = changes
         )
         pagedListWrapper.onListChanged(event)
     }
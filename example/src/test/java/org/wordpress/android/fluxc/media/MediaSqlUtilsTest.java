@@ -182,6 +182,88 @@ public class MediaSqlUtilsTest {
         }
     }
 
+    // Inserts media with HTML captions, verifies the search ignores the case and the markup and matches prefixes
+    @Test
+    public void testMediaFullTextSearch() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel image = getTestMedia(1, "Sunset over Lisbon", "", "<em>Golden</em> hour");
+        image.setMimeType(MediaUtils.MIME_TYPE_IMAGE + "jpeg");
+        image.setAlt("Red tram on a hill");
+        MediaModel video = getTestMedia(2, "Lisbon trams", "", "");
+        video.setMimeType(MediaUtils.MIME_TYPE_VIDEO + "mp4");
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(image));
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(video));
+
+        Assert.assertEquals(2, MediaSqlUtils.searchSiteMedia(site, "LISB").size());
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "golden hour").size());
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "hill").size());
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "tram hill").size());
+        // The MIME type is only searched without a type filter
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "jpeg").size());
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteImages(site, "image").size());
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteVideos(site, "video").size());
+        SiteModel otherSite = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID + 1);
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteMedia(otherSite, "lisbon").size());
+
+        List<MediaModel> images = MediaSqlUtils.searchSiteImages(site, "lisbon");
+        Assert.assertEquals(1, images.size());
+        Assert.assertEquals(image.getMediaId(), images.get(0).getMediaId());
+
+        Cursor cursor = MediaSqlUtils.searchSiteMediaAsCursor(site, "lisbon", MediaUtils.MIME_TYPE_VIDEO);
+        Assert.assertEquals(1, cursor.getCount());
+        cursor.close();
+    }
+
+    // Inserts media whose words contain the search term past their start, verifies the search still finds them
+    @Test
+    public void testMediaSearchMatchesTextInsideWords() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel photo = getTestMedia(1, "vacation.jpg", "", "");
+        MediaModel otherPhoto = getTestMedia(2, "Location scouting", "", "");
+        MediaModel cjkPhoto = getTestMedia(3, "東京タワーの夜景", "", "");
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(photo));
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(otherPhoto));
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(cjkPhoto));
+
+        Assert.assertEquals(2, MediaSqlUtils.searchSiteMedia(site, "cation").size());
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "scout").size());
+        List<MediaModel> cjkMedia = MediaSqlUtils.searchSiteMedia(site, "タワー");
+        Assert.assertEquals(1, cjkMedia.size());
+        Assert.assertEquals(cjkPhoto.getMediaId(), cjkMedia.get(0).getMediaId());
+    }
+
+    // Updates and deletes media, verifies the search follows
+    @Test
+    public void testMediaFullTextSearchAfterUpdateAndDelete() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel media = getTestMedia(1, "First title", "", "");
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(media));
+
+        media.setTitle("Second title");
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(media));
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteMedia(site, "first").size());
+        Assert.assertEquals(1, MediaSqlUtils.searchSiteMedia(site, "second").size());
+
+        Assert.assertEquals(1, MediaSqlUtils.deleteMedia(media));
+        Assert.assertEquals(0, MediaSqlUtils.searchSiteMedia(site, "second").size());
+    }
+
+    // Inserts media with an upper-case MIME type, verifies it's listed with its normalized media type
+    @Test
+    public void testMediaTypeFollowsMimeType() {
+        MediaModel image = getTestMedia(1);
+        image.setMimeType("IMAGE/PNG");
+        Assert.assertEquals("image", image.getMediaType());
+        Assert.assertEquals(1, MediaSqlUtils.insertOrUpdateMedia(image));
+
+        List<MediaModel> images = MediaSqlUtils.getSiteImages(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID));
+        Assert.assertEquals(1, images.size());
+        Assert.assertEquals("image", images.get(0).getMediaType());
+        Assert.assertEquals(0, MediaSqlUtils.getSiteVideos(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID)).size());
+        Assert.assertEquals(1, MediaSqlUtils
+                .getSiteMediaWithTypeAsCursor(getTestSiteWithLocalId(TEST_LOCAL_SITE_ID), null).getCount());
+    }
+
     // Inserts many media with compounding titles, gets media with exact title and verifies
     @Test
     public void testMatchSiteMediaColumn() {
@@ -425,6 +507,47 @@ public class MediaSqlUtilsTest {
         Assert.assertEquals(mediaModel.getLocalSiteId(), finalMedia.getLocalSiteId());
     }
 
+    @Test
+    public void testUploadedMediaIsFoundByContentHash() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel uploaded = getTestMedia(42);
+        uploaded.setContentHash("hash");
+        uploaded.setUploadState(MediaUploadState.UPLOADED);
+        MediaSqlUtils.insertOrUpdateMedia(uploaded);
+        MediaModel uploading = getTestMedia(0);
+        uploading.setContentHash("other-hash");
+        uploading.setUploadState(MediaUploadState.UPLOADING);
+        MediaSqlUtils.insertOrUpdateMedia(uploading);
+
+        MediaModel found = MediaSqlUtils.getUploadedSiteMediaWithContentHash(site, "hash");
+        Assert.assertNotNull(found);
+        Assert.assertEquals(42, found.getMediaId());
+        Assert.assertNull(MediaSqlUtils.getUploadedSiteMediaWithContentHash(site, "other-hash"));
+        Assert.assertNull(MediaSqlUtils.getUploadedSiteMediaWithContentHash(getTestSiteWithLocalId(1), "hash"));
+    }
+
+    @Test
+    public void testContentHashIsKeptWhenUpdatingFromRemoteMedia() {
+        SiteModel site = getTestSiteWithLocalId(TEST_LOCAL_SITE_ID);
+        MediaModel media = getTestMedia(42);
+        media.setContentHash("hash");
+        media.setUploadState(MediaUploadState.UPLOADED);
+        MediaSqlUtils.insertOrUpdateMedia(media);
+
+        // Fetched media doesn't come with a hash
+        MediaModel fetchedMedia = getTestMedia(42);
+        fetchedMedia.setTitle("Fetched");
+        fetchedMedia.setUploadState(MediaUploadState.UPLOADED);
+        MediaSqlUtils.insertOrUpdateMedia(fetchedMedia);
+
+        MediaModel storedMedia = MediaSqlUtils.getSiteMediaWithId(site, 42).get(0);
+        Assert.assertEquals("Fetched", storedMedia.getTitle());
+        Assert.assertEquals("hash", storedMedia.getContentHash());
+
+        MediaSqlUtils.updateContentHash(storedMedia.getId(), "new-hash");
+        Assert.assertEquals("new-hash", MediaSqlUtils.getMediaWithLocalId(storedMedia.getId()).getContentHash());
+    }
+
     // Utilities
 
     private long[] insertBasicTestItems(int num) {
@@ -7,11 +7,15 @@ import com.yarolegovich.wellsql.WellSql;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests;
+import org.wordpress.android.fluxc.action.UploadAction;
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.MediaActionBuilder;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.PostModel;
@@ -21,8 +25,13 @@ import org.wordpress.android.fluxc.network.xmlrpc.media.MediaXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.MediaSqlUtils;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.MediaStore;
+import org.wordpress.android.fluxc.store.MediaStore.ProgressPayload;
+import org.wordpress.android.fluxc.store.MediaStore.UploadMediaPayload;
 import org.wordpress.android.fluxc.utils.MediaUtils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -711,6 +720,75 @@ public class MediaStoreTest {
         assertTrue(mMediaStore.getSiteMediaCount(testSite2) == 0);
     }
 
+    @Test
+    public void testUploadingFileUploadedForAnotherPostReusesRemoteMedia() throws IOException {
+        Dispatcher dispatcher = Mockito.mock(Dispatcher.class);
+        MediaXMLRPCClient xmlrpcClient = Mockito.mock(MediaXMLRPCClient.class);
+        MediaStore mediaStore = new MediaStore(dispatcher, Mockito.mock(MediaRestClient.class), xmlrpcClient);
+        final int testSiteId = 5;
+        SiteModel testSite = getTestSiteWithLocalId(testSiteId);
+        File file = File.createTempFile("media", ".jpg");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[]{1, 2, 3});
+        outputStream.close();
+
+        MediaModel uploadedMedia = generateMediaFromPath(testSiteId, 42, file.getPath());
+        uploadedMedia.setUrl("https://example.com/media.jpg");
+        uploadedMedia.setUploadState(MediaUploadState.UPLOADED);
+        uploadedMedia.setContentHash(MediaUtils.getContentHash(file.getPath()));
+        // The media already uploaded belongs to another post
+        PostModel otherPost = new PostModel();
+        otherPost.setId(7);
+        uploadedMedia.setLocalPostId(otherPost.getId());
+        insertMediaIntoDatabase(uploadedMedia);
+
+        PostModel post = new PostModel();
+        post.setId(8);
+        MediaModel media = mediaStore.instantiateMediaModel();
+        media.setLocalSiteId(testSiteId);
+        media.setLocalPostId(post.getId());
+        media.setFilePath(file.getPath());
+        media.setMimeType("image/jpeg");
+        mediaStore.onAction(MediaActionBuilder.newUploadMediaAction(new UploadMediaPayload(testSite, media, false)));
+
+        // The upload is reported as done without uploading the file
+        ArgumentCaptor<Action> actionCaptor = ArgumentCaptor.forClass(Action.class);
+        Mockito.verify(dispatcher).dispatch(actionCaptor.capture());
+        Mockito.verify(xmlrpcClient, Mockito.never()).uploadMedia(Mockito.any(SiteModel.class),
+                Mockito.any(MediaModel.class));
+        assertEquals(UploadAction.UPLOADED_MEDIA, actionCaptor.getValue().getType());
+        ProgressPayload uploadedPayload = (ProgressPayload) actionCaptor.getValue().getPayload();
+        assertTrue(uploadedPayload.completed);
+        mediaStore.onAction(MediaActionBuilder.newUploadedMediaAction(uploadedPayload));
+
+        // The uploaded media keeps its local id and its post, and shares the remote media with the other post's
+        MediaModel storedMedia = mediaStore.getMediaWithLocalId(media.getId());
+        assertNotNull(storedMedia);
+        assertEquals(42, storedMedia.getMediaId());
+        assertEquals("https://example.com/media.jpg", storedMedia.getUrl());
+        assertEquals(MediaUploadState.UPLOADED, MediaUploadState.fromString(storedMedia.getUploadState()));
+        assertEquals(post.getId(), storedMedia.getLocalPostId());
+        assertEquals(2, MediaSqlUtils.getSiteMediaWithId(testSite, 42).size());
+
+        // The media of the other post is left untouched
+        List<MediaModel> otherPostMedia = mediaStore.getMediaForPost(otherPost);
+        assertEquals(1, otherPostMedia.size());
+        assertEquals(uploadedMedia.getId(), otherPostMedia.get(0).getId());
+        assertEquals(42, otherPostMedia.get(0).getMediaId());
+        assertEquals(1, mediaStore.getMediaForPost(post).size());
+
+        // Fetching the remote media updates both rows, which keep their posts
+        MediaModel fetchedMedia = generateMediaFromPath(testSiteId, 42, file.getPath());
+        fetchedMedia.setTitle("Fetched title");
+        fetchedMedia.setUploadState(MediaUploadState.UPLOADED);
+        MediaSqlUtils.insertOrUpdateMedia(fetchedMedia);
+        assertEquals("Fetched title", mediaStore.getMediaWithLocalId(media.getId()).getTitle());
+        assertEquals("Fetched title", mediaStore.getMediaWithLocalId(uploadedMedia.getId()).getTitle());
+        assertEquals(1, mediaStore.getMediaForPost(otherPost).size());
+        assertEquals(1, mediaStore.getMediaForPost(post).size());
+    }
+
     private MediaModel getBasicMedia() {
         return generateMedia("Test Title", "Test Description", "Test Caption", "Test Alt");
     }
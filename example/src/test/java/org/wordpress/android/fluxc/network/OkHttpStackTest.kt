@@ -0,0 +1,148 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.Request.Method
+import com.android.volley.Response
+import com.android.volley.toolbox.HttpStack
+import com.android.volley.toolbox.StringRequest
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class OkHttpStackTest {
+    private lateinit var server: MockWebServer
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun testClientsAreCachedByTimeoutAndShareTheBaseConnectionPool() {
+        val baseClient = OkHttpClient.Builder().build()
+        val stack = OkHttpStack(baseClient)
+
+        val client = stack.getClientForTimeout(TIMEOUT_MS)
+
+        assertSame(client, stack.getClientForTimeout(TIMEOUT_MS))
+        assertNotSame(client, stack.getClientForTimeout(TIMEOUT_MS * 2))
+        assertSame(baseClient.connectionPool(), client.connectionPool())
+        assertSame(baseClient.dispatcher(), client.dispatcher())
+        assertEquals(TIMEOUT_MS, client.connectTimeoutMillis())
+        assertEquals(TIMEOUT_MS, client.readTimeoutMillis())
+        assertEquals(TIMEOUT_MS, client.writeTimeoutMillis())
+    }
+
+    @Test
+    fun testBaseClientIsUsedWhenTimeoutsMatch() {
+        val baseClient = OkHttpClient.Builder()
+                .connectTimeout(TIMEOUT_MS.toLong(), TimeUnit.MILLISECONDS)
+                .readTimeout(TIMEOUT_MS.toLong(), TimeUnit.MILLISECONDS)
+                .writeTimeout(TIMEOUT_MS.toLong(), TimeUnit.MILLISECONDS)
+                .build()
+
+        assertSame(baseClient, OkHttpStack(baseClient).getClientForTimeout(TIMEOUT_MS))
+    }
+
+    @Test
+    fun testRequestsReuseASingleConnection() {
+        val baseClient = OkHttpClient.Builder().build()
+        val stack = OkHttpStack(baseClient)
+
+        performRequests(stack, 10)
+
+        assertEquals(10, server.requestCount)
+        assertEquals(1, baseClient.connectionPool().connectionCount())
+    }
+
+    /**
+     * Compares the shared client stack against the previous behavior of building a new client for every request.
+     * Results are logged, the only assertion is that the shared stack doesn't allocate more than the legacy one.
+     */
+    @Test
+    fun benchmarkSharedClientAgainstPerRequestClient() {
+        val legacyStack = PerRequestClientStack(OkHttpClient.Builder())
+        val sharedStack = OkHttpStack(OkHttpClient.Builder().build())
+
+        // Warm up both code paths
+        performRequests(legacyStack, WARM_UP_REQUESTS)
+        performRequests(sharedStack, WARM_UP_REQUESTS)
+
+        val legacy = measure(legacyStack)
+        val shared = measure(sharedStack)
+
+        AppLog.i(T.TESTS, "OkHttpStack benchmark - per-request client: ${legacy.requestsPerSecond} req/s, " +
+                "${legacy.bytesPerRequest} B/req")
+        AppLog.i(T.TESTS, "OkHttpStack benchmark - shared client: ${shared.requestsPerSecond} req/s, " +
+                "${shared.bytesPerRequest} B/req")
+
+        if (legacy.bytesPerRequest > 0) {
+            assertTrue(shared.bytesPerRequest <= legacy.bytesPerRequest)
+        }
+    }
+
+    private fun measure(stack: HttpStack): BenchmarkResult {
+        val allocatedBefore = currentThreadAllocatedBytes()
+        val start = System.nanoTime()
+        performRequests(stack, BENCHMARK_REQUESTS)
+        val elapsedNanos = System.nanoTime() - start
+        val allocated = currentThreadAllocatedBytes() - allocatedBefore
+        return BenchmarkResult(
+                BENCHMARK_REQUESTS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                allocated / BENCHMARK_REQUESTS
+        )
+    }
+
+    private fun performRequests(stack: HttpStack, count: Int) {
+        val url = server.url("/").toString()
+        for (i in 0 until count) {
+            server.enqueue(MockResponse().setBody("{}"))
+            val request = StringRequest(Method.GET, url, Response.Listener { }, Response.ErrorListener { })
+            stack.performRequest(request, emptyMap()).entity.content.close()
+        }
+    }
+
+    private fun currentThreadAllocatedBytes(): Long {
+        val threadBean = ManagementFactory.getThreadMXBean()
+        return (threadBean as? com.sun.management.ThreadMXBean)?.getThreadAllocatedBytes(Thread.currentThread().id)
+                ?: 0L
+    }
+
+    private data class BenchmarkResult(val requestsPerSecond: Long, val bytesPerRequest: Long)
+
+    /**
+     * Reproduces the previous [OkHttpStack] behavior: mutate the shared builder and build a client per request.
+     */
+    private class PerRequestClientStack(private val builder: OkHttpClient.Builder) : HttpStack {
+        override fun performRequest(request: com.android.volley.Request<*>, additionalHeaders: Map<String, String>) =
+                OkHttpStack(builder.connectTimeout(request.timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                        .readTimeout(request.timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                        .writeTimeout(request.timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                        .build()).performRequest(request, additionalHeaders)
+    }
+
+    companion object {
+        private const val TIMEOUT_MS = 5000
+        private const val WARM_UP_REQUESTS = 50
+        private const val BENCHMARK_REQUESTS = 500
+    }
+}
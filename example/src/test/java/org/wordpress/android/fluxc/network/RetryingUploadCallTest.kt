@@ -0,0 +1,125 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.MediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody
+import okhttp3.Response
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.IOException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class RetryingUploadCallTest {
+    private lateinit var server: MockWebServer
+    private val client = OkHttpClient.Builder().retryOnConnectionFailure(false).build()
+    private val latch = CountDownLatch(1)
+    private var responseCode: Int? = null
+    private var failure: IOException? = null
+    private val callback = object : Callback {
+        override fun onResponse(call: Call, response: Response) {
+            responseCode = response.code()
+            response.close()
+            latch.countDown()
+        }
+
+        override fun onFailure(call: Call, e: IOException) {
+            failure = e
+            latch.countDown()
+        }
+    }
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun testUploadIsSentAgainAfterDisconnectDuringBody() {
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_DURING_REQUEST_BODY))
+        server.enqueue(MockResponse().setResponseCode(200))
+        val call = RetryingUploadCall(client, buildRequest(), 3, 0)
+
+        call.enqueue(callback)
+
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertEquals(200, responseCode)
+        assertNull(failure)
+        assertEquals(2, call.attemptCount)
+    }
+
+    @Test
+    fun testUploadIsNotSentAgainAfterTheWholeBodyWasSent() {
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST))
+        server.enqueue(MockResponse().setResponseCode(200))
+        val call = RetryingUploadCall(client, buildRequest(), 3, 0)
+
+        call.enqueue(callback)
+
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertNotNull(failure)
+        assertNull(responseCode)
+        assertEquals(1, call.attemptCount)
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test
+    fun testLastFailureIsReportedWhenAttemptsRunOut() {
+        repeat(2) {
+            server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_DURING_REQUEST_BODY))
+        }
+        server.enqueue(MockResponse().setResponseCode(200))
+        val call = RetryingUploadCall(client, buildRequest(), 2, 0)
+
+        call.enqueue(callback)
+
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertNotNull(failure)
+        assertNull(responseCode)
+        assertEquals(2, call.attemptCount)
+    }
+
+    @Test
+    fun testCanceledUploadIsNotRetried() {
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_DURING_REQUEST_BODY))
+        val call = RetryingUploadCall(client, buildRequest(), 3, TimeUnit.MINUTES.toMillis(1))
+
+        call.enqueue(callback)
+        call.cancel()
+
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertNotNull(failure)
+        assertTrue(call.isCanceled)
+        assertEquals(1, call.attemptCount)
+    }
+
+    private fun buildRequest() = Request.Builder()
+            .url(server.url("/upload"))
+            .post(RequestBody.create(MediaType.parse("application/octet-stream"), ByteArray(BODY_SIZE)))
+            .build()
+
+    companion object {
+        private const val BODY_SIZE = 1024 * 1024
+        private const val TIMEOUT_SECONDS = 10L
+    }
+}
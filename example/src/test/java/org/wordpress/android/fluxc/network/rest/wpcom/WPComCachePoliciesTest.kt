@@ -0,0 +1,41 @@
+package org.wordpress.android.fluxc.network.rest.wpcom
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMV2
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class WPComCachePoliciesTest {
+    @Test
+    fun testListedEndpointsAreCached() {
+        assertTrue(WPComCachePolicies.getTimeToLive(WPCOMREST.domains.supported_countries.urlV1_1) > 0)
+        assertTrue(WPComCachePolicies.getTimeToLive(WPCOMREST.domains.supported_states.countryCode("US").urlV1_1) > 0)
+    }
+
+    @Test
+    fun testQueryParametersAreIgnored() {
+        val url = WPCOMREST.themes.urlV1_2 + "?number=500&locale=fr"
+
+        assertEquals(WPComCachePolicies.getTimeToLive(WPCOMREST.themes.urlV1_2), WPComCachePolicies.getTimeToLive(url))
+        assertTrue(WPComCachePolicies.getTimeToLive(url) > 0)
+    }
+
+    @Test
+    fun testOtherEndpointsAreNotCached() {
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).themes.mine.urlV1_1))
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).plugins.urlV1_2))
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.me.sites.urlV1_1))
+        // The app changes these itself, when switching plans or themes
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).plans.urlV1_3))
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).post_formats.urlV1_1))
+        // These depend on the user, and the cache is keyed by URL only
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.sites.site(123).roles.urlV1_1))
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMV2.plans.mobile.url))
+        // Only the endpoint itself is cached, not its children
+        assertEquals(0, WPComCachePolicies.getTimeToLive(WPCOMREST.themes.urlV1_2 + "twentynineteen/"))
+    }
+}
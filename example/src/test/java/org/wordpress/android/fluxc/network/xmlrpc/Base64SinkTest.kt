@@ -0,0 +1,69 @@
+package org.wordpress.android.fluxc.network.xmlrpc
+
+import android.util.Base64
+import com.nhaarman.mockitokotlin2.mock
+import okio.Buffer
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.model.MediaModel
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.xmlrpc.media.Base64Sink
+import org.wordpress.android.fluxc.network.xmlrpc.media.XmlrpcUploadRequestBody
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class Base64SinkTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
+    @Test
+    fun testOutputMatchesAndroidBase64() {
+        listOf(0, 1, 2, 3, 56, 57, 58, 114, 8190, 8191, 100_000).forEach { size ->
+            val bytes = Random(size).nextBytes(size)
+            val expected = Base64.encodeToString(bytes, Base64.DEFAULT)
+
+            val output = Buffer()
+            val sink = Base64Sink(output)
+            // Writes of uneven sizes, so groups of 3 bytes span writes
+            bytes.toList().chunked(1000).forEach { sink.write(Buffer().write(it.toByteArray()), it.size.toLong()) }
+            sink.close()
+
+            assertEquals(expected, output.readUtf8(), "Encoding $size bytes")
+            assertEquals(expected.length.toLong(), Base64Sink.encodedSize(size.toLong()), "Size of $size bytes")
+        }
+    }
+
+    @Test
+    fun testEncodedSizeDoesNotOverflowForLargeFiles() {
+        val size = 3L * 1024 * 1024 * 1024
+
+        assertEquals(size / 3 * 4 + size / 3 * 4 / 76 + 1, Base64Sink.encodedSize(size))
+    }
+
+    @Test
+    fun testUploadRequestBodyWritesItsContentLength() {
+        val file = tempFolder.newFile("image.jpg").apply { writeBytes(Random(1).nextBytes(10_000)) }
+        val media = MediaModel().apply {
+            filePath = file.path
+            fileName = "imagé.jpg"
+            mimeType = "image/jpeg"
+        }
+        val site = SiteModel().apply {
+            username = "usér"
+            password = "password"
+        }
+        val body = XmlrpcUploadRequestBody(media, mock(), site)
+
+        val output = Buffer()
+        body.writeTo(output)
+
+        assertEquals(body.contentLength(), output.size())
+        val xml = output.readUtf8()
+        val encodedFile = xml.substringAfter("<base64>").substringBefore("</base64>")
+        assertTrue(Base64.decode(encodedFile, Base64.DEFAULT).contentEquals(file.readBytes()))
+    }
+}
@@ -0,0 +1,186 @@
+package org.wordpress.android.fluxc.network.xmlrpc
+
+import com.android.volley.NetworkResponse
+import com.android.volley.Response.Listener
+import com.android.volley.VolleyError
+import com.nhaarman.mockitokotlin2.mock
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC
+import org.wordpress.android.fluxc.network.BaseRequest.BaseErrorListener
+import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
+import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class XMLRPCMulticallBatcherTest {
+    private val sentRequests = CopyOnWriteArrayList<XMLRPCRequest>()
+    private lateinit var sentLatch: CountDownLatch
+    private lateinit var batcher: XMLRPCMulticallBatcher
+
+    @Before
+    fun setUp() {
+        batcher = XMLRPCMulticallBatcher(XMLRPCMulticallBatcher.RequestSender { request ->
+            sentRequests.add(request)
+            sentLatch.countDown()
+        })
+    }
+
+    @Test
+    fun testRequestsToTheSameEndpointAreBatched() {
+        sentLatch = CountDownLatch(4)
+        val first = newRequest(SITE_URL, XMLRPC.GET_PROFILE)
+        val second = newRequest(SITE_URL, XMLRPC.GET_OPTIONS)
+        val third = newRequest(SITE_URL, XMLRPC.GET_POST_FORMATS)
+        val other = newRequest(OTHER_SITE_URL, XMLRPC.GET_OPTIONS)
+        val lastOther = newRequest(OTHER_SITE_URL, XMLRPC.GET_PROFILE)
+
+        batcher.enqueue(first)
+        batcher.enqueue(second)
+        batcher.enqueue(third)
+        batcher.enqueue(other)
+        batcher.enqueue(lastOther)
+
+        assertTrue(sentLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        assertEquals(4, sentRequests.size)
+        // The first request to each endpoint doesn't wait for the others
+        assertEquals(listOf(first, other), sentRequests.subList(0, 2))
+        val multicall = sentRequests.filterIsInstance<XMLRPCMulticallRequest>().single()
+        assertEquals(listOf(second, third), multicall.requests)
+        assertEquals(SITE_URL, multicall.url)
+        // A request alone in its batch is sent as it is
+        assertSame(lastOther, sentRequests.last { it !is XMLRPCMulticallRequest })
+    }
+
+    @Test
+    fun testLoneRequestIsSentWithoutWaiting() {
+        sentLatch = CountDownLatch(1)
+        val request = newRequest(SITE_URL, XMLRPC.GET_PROFILE)
+
+        batcher.enqueue(request)
+
+        assertEquals(listOf(request), sentRequests)
+        // The window it opened must not send anything else
+        Thread.sleep(XMLRPCMulticallBatcher.BATCH_WINDOW_MS * 3)
+        assertEquals(listOf(request), sentRequests)
+    }
+
+    @Test
+    fun testFullBatchIsSentImmediately() {
+        sentLatch = CountDownLatch(2)
+        val first = newRequest(SITE_URL, XMLRPC.GET_PROFILE)
+        val requests = (1..XMLRPCMulticallBatcher.MAX_CALLS_PER_MULTICALL).map {
+            newRequest(SITE_URL, XMLRPC.GET_TERM)
+        }
+
+        batcher.enqueue(first)
+        requests.forEach { batcher.enqueue(it) }
+
+        assertEquals(2, sentRequests.size)
+        assertSame(first, sentRequests[0])
+        assertEquals(requests, (sentRequests[1] as XMLRPCMulticallRequest).requests)
+        // The scheduled flush must not send the full batch a second time
+        Thread.sleep(XMLRPCMulticallBatcher.BATCH_WINDOW_MS * 3)
+        assertEquals(2, sentRequests.size)
+    }
+
+    @Test
+    fun testResultsAreFannedOutToEachRequest() {
+        var profileResponse: Any? = null
+        var optionsError: BaseNetworkError? = null
+        val profileRequest = newRequest(SITE_URL, XMLRPC.GET_PROFILE, listener = Listener { profileResponse = it })
+        val optionsRequest = newRequest(SITE_URL, XMLRPC.GET_OPTIONS, errorListener = BaseErrorListener {
+            optionsError = it
+        })
+        val multicall = XMLRPCMulticallRequest(SITE_URL, listOf(profileRequest, optionsRequest), batcher)
+
+        val profile = mapOf("user_id" to "1")
+        multicall.deliverResponse(arrayOf(arrayOf<Any>(profile),
+                mapOf("faultCode" to 404, "faultString" to "Not found")))
+
+        assertEquals(profile, profileResponse)
+        assertEquals(GenericErrorType.NOT_FOUND, optionsError?.type)
+        assertEquals("Not found", optionsError?.message)
+    }
+
+    @Test
+    fun testFallsBackToSingleCallsWhenMulticallIsRejected() {
+        sentLatch = CountDownLatch(2)
+        var error: BaseNetworkError? = null
+        val requests = listOf(newRequest(SITE_URL, XMLRPC.GET_PROFILE, errorListener = BaseErrorListener {
+            error = it
+        }), newRequest(SITE_URL, XMLRPC.GET_OPTIONS))
+        val multicall = XMLRPCMulticallRequest(SITE_URL, requests, batcher)
+
+        multicall.deliverError(VolleyError(XMLRPCFault("Method not found", -32601)))
+
+        assertTrue(sentLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        assertEquals(requests, sentRequests)
+        assertNull(error)
+        assertTrue(batcher.isMulticallUnsupported(SITE_URL))
+
+        // Later requests to the same endpoint aren't batched anymore
+        sentLatch = CountDownLatch(1)
+        val later = newRequest(SITE_URL, XMLRPC.GET_POST_FORMATS)
+        batcher.enqueue(later)
+        assertSame(later, sentRequests.last())
+    }
+
+    @Test
+    fun testFallsBackToSingleCallsWhenMulticallIsBlocked() {
+        listOf(403, 405).forEach { statusCode ->
+            sentRequests.clear()
+            sentLatch = CountDownLatch(2)
+            val url = "http://example$statusCode.com/xmlrpc.php"
+            val requests = listOf(newRequest(url, XMLRPC.GET_PROFILE), newRequest(url, XMLRPC.GET_OPTIONS))
+            val multicall = XMLRPCMulticallRequest(url, requests, batcher)
+
+            multicall.deliverError(VolleyError(NetworkResponse(statusCode, ByteArray(0), mapOf(), false)))
+
+            assertTrue(sentLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+            assertEquals(requests, sentRequests)
+            assertTrue(batcher.isMulticallUnsupported(url))
+        }
+    }
+
+    @Test
+    fun testNetworkErrorIsDeliveredToEachRequest() {
+        val errors = mutableListOf<BaseNetworkError>()
+        val requests = listOf(
+                newRequest(SITE_URL, XMLRPC.GET_PROFILE, errorListener = BaseErrorListener { errors.add(it) }),
+                newRequest(SITE_URL, XMLRPC.GET_OPTIONS, errorListener = BaseErrorListener { errors.add(it) }))
+        val multicall = XMLRPCMulticallRequest(SITE_URL, requests, batcher)
+
+        multicall.deliverError(VolleyError("timeout"))
+
+        assertEquals(2, errors.size)
+        assertTrue(sentRequests.isEmpty())
+        assertTrue(!batcher.isMulticallUnsupported(SITE_URL))
+    }
+
+    private fun newRequest(
+        url: String,
+        method: XMLRPC,
+        listener: Listener<Any> = Listener { },
+        errorListener: BaseErrorListener = BaseErrorListener { }
+    ): XMLRPCRequest {
+        return XMLRPCRequest(url, method, listOf<Any>(1, "username", "password"), listener, errorListener).apply {
+            setOnAuthFailedListener(mock())
+            setOnParseErrorListener(mock())
+        }
+    }
+
+    companion object {
+        private const val SITE_URL = "http://example.com/xmlrpc.php"
+        private const val OTHER_SITE_URL = "http://example.org/xmlrpc.php"
+        private const val TIMEOUT_MS = 1000L
+    }
+}
@@ -0,0 +1,66 @@
+package org.wordpress.android.fluxc.network.xmlrpc.post
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.UnitTestUtils
+import org.wordpress.android.fluxc.model.PostModel
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.xmlrpc.XMLSerializerUtils
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class PostModelDecoderTest {
+    private val site = SiteModel().apply { id = 5 }
+
+    @Test
+    fun `decoder builds the same posts as the response map mapping`() {
+        val xml = UnitTestUtils.getStringFromResourceFile(javaClass, "xmlrpc/get-posts-response.xml")
+
+        val decoder = PostXMLRPCClient.PostModelDecoder(site)
+        val decodedPosts = XMLSerializerUtils.deserializeStructArray(xml.byteInputStream(), "UTF-8", decoder)
+        val response = XMLSerializerUtils.deserialize(xml.byteInputStream()) as Array<*>
+        @Suppress("UNCHECKED_CAST")
+        val mappedPosts = response.map {
+            PostXMLRPCClient.postResponseObjectToPostModel(it as Map<Any?, Any?>, site)
+        }
+
+        assertEquals(3, decoder.decodedStructCount)
+        assertNull(mappedPosts[2])
+        val expectedPosts = mappedPosts.filterNotNull()
+        assertEquals(expectedPosts.size, decodedPosts.size)
+        expectedPosts.zip(decodedPosts).forEach { (expected, decoded) ->
+            assertPostsEqual(expected, decoded)
+        }
+    }
+
+    @Test
+    fun `decoder reads posts and pages`() {
+        val xml = UnitTestUtils.getStringFromResourceFile(javaClass, "xmlrpc/get-posts-response.xml")
+
+        val (post, page) = XMLSerializerUtils.deserializeStructArray(xml.byteInputStream(), "UTF-8",
+                PostXMLRPCClient.PostModelDecoder(site))
+
+        assertEquals(101L, post.remotePostId)
+        assertEquals(55, post.featuredImageId)
+        assertEquals("image", post.postFormat)
+        assertEquals("weekend-in-lisbon", post.slug)
+        assertEquals(listOf(7L), post.categoryIdList)
+        assertEquals(listOf("portugal"), post.tagNameList)
+        assertTrue(post.hasLocation())
+        assertEquals(102L, page.remotePostId)
+        assertTrue(page.isPage)
+        assertEquals(100L, page.parentId)
+        assertEquals("Company", page.parentTitle)
+        assertEquals("about", page.slug)
+        assertEquals(0, page.featuredImageId)
+    }
+
+    private fun assertPostsEqual(expected: PostModel, decoded: PostModel) {
+        assertEquals(expected, decoded)
+        assertEquals(expected.lastModified, decoded.lastModified)
+        assertEquals(expected.remoteLastModified, decoded.remoteLastModified)
+    }
+}
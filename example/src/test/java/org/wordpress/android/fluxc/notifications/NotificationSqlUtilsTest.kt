@@ -1,6 +1,11 @@
 package org.wordpress.android.fluxc.notifications
 
 import com.google.gson.Gson
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.spy
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.WellSql
 import org.junit.Before
@@ -20,7 +25,9 @@ import org.wordpress.android.fluxc.persistence.NotificationSqlUtils.Notification
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
 import kotlin.test.assertNull
+import kotlin.test.assertSame
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
@@ -57,6 +64,40 @@ class NotificationSqlUtilsTest {
         assertEquals(7, updatedList.size)
     }
 
+    @Test
+    fun testInsertOrUpdateNotificationsInBulk() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = getNotificationsFromApiResponse()
+
+        // Test inserting notifications
+        assertEquals(6, notificationSqlUtils.insertOrUpdateNotifications(notesList))
+        assertEquals(6L, notificationSqlUtils.getNotificationsCount())
+
+        // Test updating notifications, fetched again without a local id, along with a new one
+        val updatedNote = notesList[0].copy(read = !notesList[0].read)
+        val newNote = notesList[0].copy(remoteNoteId = 333)
+        assertEquals(7, notificationSqlUtils.insertOrUpdateNotifications(notesList.drop(1) + updatedNote + newNote))
+
+        assertEquals(7L, notificationSqlUtils.getNotificationsCount())
+        assertEquals(updatedNote.read, notificationSqlUtils.getNotificationByRemoteId(updatedNote.remoteNoteId)?.read)
+    }
+
+    @Test
+    fun testGetNoteHashesAndDeleteNotificationsInBulk() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = getNotificationsFromApiResponse()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+
+        val expectedHashes = notesList.associate { it.remoteNoteId to it.noteHash }
+        assertEquals(expectedHashes, notificationSqlUtils.getNoteHashesByRemoteId())
+
+        val deletedIds = notesList.take(2).map { it.remoteNoteId }
+        assertEquals(2, notificationSqlUtils.deleteNotificationsByRemoteIds(deletedIds + 1L))
+
+        assertEquals(notesList.drop(2).map { it.remoteNoteId }.toSet(),
+                notificationSqlUtils.getNoteHashesByRemoteId().keys)
+    }
+
     @Test
     fun testGetNotifications() {
         // Insert notifications
@@ -388,4 +429,90 @@ class NotificationSqlUtilsTest {
         // Verify notification not in database
         assertNull(notificationSqlUtils.getNotificationByRemoteId(noteId))
     }
+
+    @Test
+    fun testFormattableContentIsDecodedLazily() {
+        val formattableContentMapper = spy(FormattableContentMapper(Gson()))
+        val notificationSqlUtils = NotificationSqlUtils(formattableContentMapper)
+        val notesList = getNotificationsFromApiResponse()
+        notificationSqlUtils.insertOrUpdateNotifications(notesList)
+
+        val notifications = notificationSqlUtils.getNotifications()
+        assertEquals(notesList.size, notifications.size)
+        verify(formattableContentMapper, never()).mapToFormattableContentList(any())
+        verify(formattableContentMapper, never()).mapToFormattableMeta(any())
+
+        val notification = notifications.first { it.remoteNoteId == notesList[0].remoteNoteId }
+        assertEquals(notesList[0].body, notification.body)
+        assertEquals(notesList[0].body, notification.body)
+        verify(formattableContentMapper, times(1)).mapToFormattableContentList(any())
+        verify(formattableContentMapper, never()).mapToFormattableMeta(any())
+    }
+
+    @Test
+    fun testFormattableContentIsCachedByNoteHash() {
+        val formattableContentMapper = spy(FormattableContentMapper(Gson()))
+        val notificationSqlUtils = NotificationSqlUtils(formattableContentMapper)
+        val note = getNotificationsFromApiResponse()[0]
+        notificationSqlUtils.insertOrUpdateNotification(note)
+
+        val firstRead = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        val secondRead = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        assertSame(firstRead.subject, secondRead.subject)
+        verify(formattableContentMapper, times(1)).mapToFormattableContentList(any())
+
+        // A new version of the notification is decoded again
+        val updatedNote = note.copy(noteHash = note.noteHash + 1, subject = note.body)
+        notificationSqlUtils.insertOrUpdateNotification(updatedNote)
+        val updatedRead = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        assertNotSame(firstRead.subject, updatedRead.subject)
+        assertEquals(note.body, updatedRead.subject)
+    }
+
+    @Test
+    fun testHashingStoredNotificationsDoesNotDecodeThem() {
+        val formattableContentMapper = spy(FormattableContentMapper(Gson()))
+        val notificationSqlUtils = NotificationSqlUtils(formattableContentMapper)
+        val note = getNotificationsFromApiResponse()[0]
+        notificationSqlUtils.insertOrUpdateNotification(note)
+
+        val firstRead = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        val secondRead = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        assertEquals(1, hashSetOf(firstRead, secondRead).size)
+        assertEquals(firstRead, secondRead)
+        verify(formattableContentMapper, never()).mapToFormattableContentList(any())
+        verify(formattableContentMapper, never()).mapToFormattableMeta(any())
+    }
+
+    @Test
+    fun testCopyingStoredNotificationsDoesNotDecodeThem() {
+        val formattableContentMapper = spy(FormattableContentMapper(Gson()))
+        val notificationSqlUtils = NotificationSqlUtils(formattableContentMapper)
+        val note = getNotificationsFromApiResponse()[0]
+        notificationSqlUtils.insertOrUpdateNotification(note)
+
+        val storedNote = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        val readNote = storedNote.copy(read = true)
+        notificationSqlUtils.insertOrUpdateNotification(readNote)
+        verify(formattableContentMapper, never()).mapToFormattableContentList(any())
+        verify(formattableContentMapper, never()).mapToFormattableMeta(any())
+
+        // Only the replaced fields differ from the stored ones
+        val updatedNote = storedNote.copy(subject = note.body)
+        assertEquals(note.body, updatedNote.subject)
+        assertEquals(note.body, updatedNote.body)
+        assertEquals(note.meta, updatedNote.meta)
+        val storedReadNote = assertNotNull(notificationSqlUtils.getNotificationByRemoteId(note.remoteNoteId))
+        assertEquals(true, storedReadNote.read)
+        assertEquals(note.body, storedReadNote.body)
+    }
+
+    private fun getNotificationsFromApiResponse(): List<NotificationModel> {
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        return apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+    }
 }
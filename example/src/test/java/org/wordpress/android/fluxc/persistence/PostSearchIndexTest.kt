@@ -0,0 +1,209 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.wellsql.generated.PostModelTable
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Ignore
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import org.wordpress.android.fluxc.model.PostModel
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class PostSearchIndexTest {
+    private val postSqlUtils = PostSqlUtils()
+    private val site = SiteModel().apply { id = 100 }
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `search matches word prefixes ignoring the case`() {
+        val post = insertPost(title = "Weekend in Lisbon", content = "<p>Pastéis de nata</p>")
+        insertPost(title = "Weekly report", content = "Nothing to see")
+
+        assertThat(search("lisb")).containsExactly(LocalId(post.id))
+        assertThat(search("WEEKEND  Lis")).containsExactly(LocalId(post.id))
+        assertThat(search("PASTÉIS")).containsExactly(LocalId(post.id))
+        assertThat(search("week")).hasSize(2)
+        assertThat(search("porto")).isEmpty()
+        assertThat(search(" !? ")).isEmpty()
+    }
+
+    @Test
+    fun `search matches words in any order and across the HTML markup`() {
+        val post = insertPost(
+                title = "Recipes",
+                content = "<!-- wp:paragraph --><p class=\"lead\">Fish &amp; chips</p><!-- /wp:paragraph -->"
+        )
+
+        assertThat(search("fish chips")).containsExactly(LocalId(post.id))
+        assertThat(search("chips recipes")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `search keeps the substring matches`() {
+        val post = insertPost(title = "Homemade bread", content = "<p class=\"lead\">Flour</p>")
+        val prefixMatch = insertPost(title = "Made in Lisbon")
+
+        assertThat(search("made")).containsExactlyInAnyOrder(LocalId(post.id), LocalId(prefixMatch.id))
+        assertThat(search("lead")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `search matches scripts written without spaces`() {
+        val post = insertPost(title = "東京タワーの夜景", content = "<p>ถนนข้าวสาร</p>")
+        insertPost(title = "大阪城")
+
+        assertThat(search("タワー")).containsExactly(LocalId(post.id))
+        assertThat(search("夜景")).containsExactly(LocalId(post.id))
+        assertThat(search("ข้าว")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `search only returns the local drafts of the site`() {
+        val post = insertPost(title = "About")
+        insertPost(title = "About", isPage = true)
+        insertPost(title = "About", localSiteId = site.id + 1)
+        insertPost(title = "About", isLocalDraft = false)
+
+        assertThat(search("about")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `index follows post updates and deletions`() {
+        val post = insertPost(title = "First draft")
+
+        post.setTitle("Final version")
+        postSqlUtils.insertOrUpdatePostOverwritingLocalChanges(post)
+
+        assertThat(search("draft first")).isEmpty()
+        assertThat(search("version final")).containsExactly(LocalId(post.id))
+
+        postSqlUtils.deletePost(post)
+
+        assertThat(search("version final")).isEmpty()
+    }
+
+    @Test
+    fun `index is rebuilt from the existing posts`() {
+        val post = insertPost(title = "Migrated old post")
+
+        PostSearchIndex.rebuild(WellSql.giveMeWritableDb())
+
+        assertThat(search("post migrated")).containsExactly(LocalId(post.id))
+    }
+
+    @Test
+    fun `removing a duplicate post removes its index row`() {
+        val fetchedPost = insertPost(title = "Race condition", isLocalDraft = false, remotePostId = 42)
+        val pushedPost = insertPost(title = "Race condition", isLocalDraft = false)
+
+        pushedPost.setRemotePostId(42)
+        postSqlUtils.insertOrUpdatePostOverwritingLocalChanges(pushedPost)
+
+        val cursor = WellSql.giveMeWritableDb().rawQuery(
+                "SELECT docid FROM ${PostSearchIndex.TABLE_NAME}", null
+        )
+        val indexedIds = cursor.use { generateSequence { if (it.moveToNext()) it.getInt(0) else null }.toList() }
+        assertThat(indexedIds).containsExactly(pushedPost.id)
+        assertThat(fetchedPost.id).isNotEqualTo(pushedPost.id)
+    }
+
+    /**
+     * Compares the latency of the local draft filter with the LIKE query it extends, over 10k posts.
+     */
+    @Ignore("Benchmark, run manually")
+    @Test
+    fun `benchmark search against the LIKE query`() {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            for (i in 0 until BENCHMARK_POST_COUNT) {
+                insertPost(title = "Post $i about ${WORDS[i % WORDS.size]}", content = createContent(i))
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+
+        var likeResultCount = 0
+        val likeNanos = measure {
+            likeResultCount = WellSql.select(PostModel::class.java)
+                    .columns(PostModelTable.ID)
+                    .where().beginGroup()
+                    .equals(PostModelTable.LOCAL_SITE_ID, site.id)
+                    .equals(PostModelTable.IS_PAGE, false)
+                    .equals(PostModelTable.IS_LOCAL_DRAFT, true)
+                    .endGroup()
+                    .beginGroup()
+                    .contains(PostModelTable.TITLE, "zebra").or()
+                    .contains(PostModelTable.CONTENT, "zebra")
+                    .endGroup().endWhere()
+                    .asModel.size
+        }
+        var ftsResultCount = 0
+        val ftsNanos = measure {
+            ftsResultCount = search("zebra").size
+        }
+
+        AppLog.i(T.TESTS, "LIKE: ${likeNanos / 1000} us, FTS: ${ftsNanos / 1000} us")
+        assertThat(ftsResultCount).isEqualTo(likeResultCount)
+    }
+
+    private fun search(query: String) = postSqlUtils.getLocalPostIdsForFilter(
+            site, false, query, PostModelTable.DATE_CREATED, SelectQuery.ORDER_DESCENDING
+    )
+
+    private fun insertPost(
+        title: String,
+        content: String = "",
+        isPage: Boolean = false,
+        isLocalDraft: Boolean = true,
+        localSiteId: Int = site.id,
+        remotePostId: Long = 0
+    ) = postSqlUtils.insertPostForResult(PostModel().apply {
+        setLocalSiteId(localSiteId)
+        setRemotePostId(remotePostId)
+        setTitle(title)
+        setContent(content)
+        setIsPage(isPage)
+        setIsLocalDraft(isLocalDraft)
+    })
+
+    private fun createContent(seed: Int) = (0 until 200).joinToString(" ", "<p>", "</p>") {
+        WORDS[(seed * 31 + it * 7) % WORDS.size]
+    }
+
+    private fun measure(block: () -> Unit): Long {
+        // Warm up the statement cache first
+        block()
+        val start = System.nanoTime()
+        repeat(BENCHMARK_RUNS) { block() }
+        return (System.nanoTime() - start) / BENCHMARK_RUNS
+    }
+
+    companion object {
+        private const val BENCHMARK_POST_COUNT = 10_000
+        private const val BENCHMARK_RUNS = 10
+        private val WORDS = listOf(
+                "apple", "banana", "cherry", "garden", "travel", "recipe", "music", "lisbon", "zebra", "winter",
+                "summer", "river", "mountain", "coffee", "letter", "bridge", "forest", "window", "silver", "market"
+        )
+    }
+}
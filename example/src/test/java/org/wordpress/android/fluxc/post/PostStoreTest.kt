@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.post
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.argThat
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.verifyNoMoreInteractions
 import com.nhaarman.mockitokotlin2.whenever
@@ -24,9 +25,12 @@ import org.wordpress.android.fluxc.persistence.PostSqlUtils
 import org.wordpress.android.fluxc.store.ListStore.FetchedListItemsPayload
 import org.wordpress.android.fluxc.store.PostStore
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListResponsePayload
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsPayload
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsResponsePayload
 import org.wordpress.android.fluxc.store.PostStore.PostError
 import org.wordpress.android.fluxc.store.PostStore.PostErrorType.GENERIC_ERROR
 import org.wordpress.android.fluxc.store.PostStore.PostListItem
+import org.wordpress.android.fluxc.store.PostStore.RemotePostPayload
 
 @RunWith(MockitoJUnitRunner::class)
 class PostStoreTest {
@@ -109,7 +113,7 @@ class PostStoreTest {
     }
 
     @Test
-    fun `handleFetchedPostList emits FetchPostAction when post changed in remote`() {
+    fun `handleFetchedPostList emits FetchPostsByIdsAction when post changed in remote`() {
         // Arrange
         val postInLocalDb = createPostModel()
         whenever(postSqlUtils.getPostsByRemoteIds(any(), any())).thenReturn(listOf(postInLocalDb))
@@ -122,7 +126,7 @@ class PostStoreTest {
 
         // Assert
         verify(dispatcher).dispatch(argThat {
-            (this.type == PostAction.FETCH_POST)
+            (this.type == PostAction.FETCH_POSTS_BY_IDS)
         })
         verify(dispatcher).dispatch(argThat {
             (this.type == ListAction.FETCHED_LIST_ITEMS)
@@ -193,7 +197,7 @@ class PostStoreTest {
     }
 
     @Test
-    fun `handleFetchedPostList emits FetchPostAction when post status changed in remote`() {
+    fun `handleFetchedPostList emits FetchPostsByIdsAction when post status changed in remote`() {
         // Arrange
         val postInLocalDb = createPostModel()
         whenever(postSqlUtils.getPostsByRemoteIds(any(), any())).thenReturn(listOf(postInLocalDb))
@@ -206,7 +210,7 @@ class PostStoreTest {
 
         // Assert
         verify(dispatcher).dispatch(argThat {
-            (this.type == PostAction.FETCH_POST)
+            (this.type == PostAction.FETCH_POSTS_BY_IDS)
         })
         verify(dispatcher).dispatch(argThat {
             (this.type == ListAction.FETCHED_LIST_ITEMS)
@@ -215,7 +219,7 @@ class PostStoreTest {
     }
 
     @Test
-    fun `handleFetchedPostList emits FetchPostAction when autosave object changed in remote`() {
+    fun `handleFetchedPostList emits FetchPostsByIdsAction when autosave object changed in remote`() {
         // Arrange
         val postInLocalDb = createPostModel()
         whenever(postSqlUtils.getPostsByRemoteIds(any(), any())).thenReturn(listOf(postInLocalDb))
@@ -228,7 +232,7 @@ class PostStoreTest {
 
         // Assert
         verify(dispatcher).dispatch(argThat {
-            (this.type == PostAction.FETCH_POST)
+            (this.type == PostAction.FETCH_POSTS_BY_IDS)
         })
         verify(dispatcher).dispatch(argThat {
             (this.type == ListAction.FETCHED_LIST_ITEMS)
@@ -292,6 +296,78 @@ class PostStoreTest {
         verifyNoMoreInteractions(dispatcher)
     }
 
+    @Test
+    fun `handleFetchedPostList fetches changed posts in batches`() {
+        // Arrange
+        val postCount = PostStore.NUM_POSTS_PER_BATCH_FETCH + 5
+        val postsInLocalDb = (1..postCount).map { createPostModel(remotePostId = it.toLong()) }
+        whenever(postSqlUtils.getPostsByRemoteIds(any(), any())).thenReturn(postsInLocalDb)
+
+        val remotePostListItems = postsInLocalDb.map {
+            createRemotePostListItem(it, lastModified = "modified in remote")
+        }
+        val action = createFetchedPostListAction(postListItems = remotePostListItems)
+
+        // Act
+        store.onAction(action)
+
+        // Assert
+        verify(dispatcher).dispatch(argThat {
+            this.type == PostAction.FETCH_POSTS_BY_IDS &&
+                    (this.payload as FetchPostsByIdsPayload).posts.size == PostStore.NUM_POSTS_PER_BATCH_FETCH
+        })
+        verify(dispatcher).dispatch(argThat {
+            this.type == PostAction.FETCH_POSTS_BY_IDS && (this.payload as FetchPostsByIdsPayload).posts.size == 5
+        })
+        verify(dispatcher).dispatch(argThat {
+            (this.type == ListAction.FETCHED_LIST_ITEMS)
+        })
+        verifyNoMoreInteractions(dispatcher)
+    }
+
+    @Test
+    fun `handleFetchPostsByIdsCompleted stores fetched posts and fetches missing ones individually`() {
+        // Arrange
+        val requestedPosts = listOf(createPostModel(remotePostId = 1), createPostModel(remotePostId = 2))
+        val fetchedPost = createPostModel(remotePostId = 1)
+        whenever(postSqlUtils.insertOrUpdatePostsOverwritingLocalChanges(any())).thenReturn(listOf(1))
+        val action = PostActionBuilder.newFetchedPostsByIdsAction(
+                FetchPostsByIdsResponsePayload(requestedPosts, listOf(fetchedPost), site)
+        )
+
+        // Act
+        store.onAction(action)
+
+        // Assert
+        verify(postSqlUtils).insertOrUpdatePostsOverwritingLocalChanges(listOf(fetchedPost))
+        verify(dispatcher).emitChange(any())
+        verify(dispatcher).dispatch(argThat {
+            (this.type == ListAction.LIST_DATA_INVALIDATED)
+        })
+        verify(dispatcher).dispatch(argThat {
+            this.type == PostAction.FETCH_POST && (this.payload as RemotePostPayload).post.remotePostId == 2L
+        })
+        verifyNoMoreInteractions(dispatcher)
+    }
+
+    @Test
+    fun `handleFetchPostsByIdsCompleted falls back to individual fetches on error`() {
+        // Arrange
+        val requestedPosts = listOf(createPostModel(remotePostId = 1), createPostModel(remotePostId = 2))
+        val action = PostActionBuilder.newFetchedPostsByIdsAction(
+                FetchPostsByIdsResponsePayload(requestedPosts, site, PostError(GENERIC_ERROR))
+        )
+
+        // Act
+        store.onAction(action)
+
+        // Assert
+        verify(dispatcher, times(2)).dispatch(argThat {
+            (this.type == PostAction.FETCH_POST)
+        })
+        verifyNoMoreInteractions(dispatcher)
+    }
+
     private fun createFetchedPostListAction(
         postListItems: List<PostListItem> = listOf(),
         listDescriptor: PostListDescriptor = mockedListDescriptor,
@@ -306,9 +382,13 @@ class PostStoreTest {
             )
     )
 
-    private fun createPostModel(isLocallyChanged: Boolean = false, postStatus: PostStatus = PUBLISHED): PostModel {
+    private fun createPostModel(
+        isLocallyChanged: Boolean = false,
+        postStatus: PostStatus = PUBLISHED,
+        remotePostId: Long = 1
+    ): PostModel {
         val post = PostModel()
-        post.setRemotePostId(1)
+        post.setRemotePostId(remotePostId)
         post.setStatus(postStatus.toString())
         post.setIsLocallyChanged(isLocallyChanged)
         post.setAutoSaveModified("1955-11-05T14:15:00Z")
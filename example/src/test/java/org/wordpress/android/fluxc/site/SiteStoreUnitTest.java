@@ -22,6 +22,7 @@ import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils.DuplicateSiteException;
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SitesSyncResult;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.SiteStore;
 import org.wordpress.android.fluxc.store.SiteStore.UpdateSitesResult;
@@ -823,4 +824,89 @@ public class SiteStoreUnitTest {
             assertTrue(mSiteStore.getSiteBySiteId(site.getSiteId()) != null);
         }
     }
+
+    @Test
+    public void testInsertOrUpdateSitesUpdatesMatchingRows() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        List<SiteModel> siteList = new ArrayList<>();
+        siteList.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        siteList.add(generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true));
+        SitesSyncResult result = SiteSqlUtils.insertOrUpdateSites(siteList);
+
+        assertEquals(2, result.rowsAffected);
+        SiteModel storedSite = mSiteStore.getSiteBySiteId(1);
+        storedSite.setMobileEditor("gutenberg");
+        SiteSqlUtils.insertOrUpdateSite(storedSite);
+
+        // Refreshed sites match the existing rows by remote id, and keep the editor stored locally
+        List<SiteModel> refreshedSites = new ArrayList<>();
+        refreshedSites.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        refreshedSites.get(0).setName("Pony 1");
+        refreshedSites.add(generateTestSite(3, "https://pony3.com", "https://pony3.com/xmlrpc.php", true, true));
+        result = SiteSqlUtils.insertOrUpdateSites(refreshedSites);
+
+        assertEquals(2, result.rowsAffected);
+        assertFalse(result.duplicateSiteFound);
+        assertEquals(0, result.rowsRemoved);
+        assertEquals(3, mSiteStore.getSitesCount());
+        SiteModel updatedSite = mSiteStore.getSiteBySiteId(1);
+        assertEquals(storedSite.getId(), updatedSite.getId());
+        assertEquals("Pony 1", updatedSite.getName());
+        assertEquals("gutenberg", updatedSite.getMobileEditor());
+    }
+
+    @Test
+    public void testInsertOrUpdateSitesSkipsDuplicates() {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        List<SiteModel> siteList = new ArrayList<>();
+        siteList.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        // Same XML-RPC url with another scheme and a different remote id
+        siteList.add(generateTestSite(2, "http://pony1.com", "http://pony1.com/xmlrpc.php", true, true));
+        SitesSyncResult result = SiteSqlUtils.insertOrUpdateSites(siteList);
+
+        assertTrue(result.duplicateSiteFound);
+        assertEquals(1, result.rowsAffected);
+        assertEquals(1, mSiteStore.getSitesCount());
+    }
+
+    @Test
+    public void testInsertOrUpdateWPComRestSitesRemovesAbsentSites() {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        List<SiteModel> siteList = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            siteList.add(generateTestSite(i, "https://pony" + i + ".com", "https://pony" + i + ".com/xmlrpc.php",
+                    true, true));
+        }
+        SiteModel selfHostedSite = generateSelfHostedNonJPSite();
+        siteList.add(selfHostedSite);
+        SiteSqlUtils.insertOrUpdateSites(siteList);
+        assertEquals(6, mSiteStore.getSitesCount());
+
+        SitesSyncResult result = SiteSqlUtils.insertOrUpdateWPComRestSites(mPostSqlUtils, siteList.subList(0, 2));
+
+        assertEquals(2, result.rowsAffected);
+        assertEquals(3, result.rowsRemoved);
+        // The self hosted site isn't accessed through the REST API and is kept
+        assertEquals(3, mSiteStore.getSitesCount());
+        assertNotNull(mSiteStore.getSiteBySiteId(1));
+        assertNotNull(mSiteStore.getSiteBySiteId(2));
+        assertNull(mSiteStore.getSiteBySiteId(3));
+        assertNotNull(mSiteStore.getSiteByLocalId(selfHostedSite.getId()));
+    }
+
+    @Test
+    public void testInsertOrUpdateSitesWithoutAccountSkipsWPComSites() {
+        List<SiteModel> siteList = new ArrayList<>();
+        siteList.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        siteList.add(generateSelfHostedNonJPSite());
+
+        SitesSyncResult result = SiteSqlUtils.insertOrUpdateSites(siteList);
+
+        assertEquals(1, result.rowsAffected);
+        assertEquals(1, mSiteStore.getSitesCount());
+        assertNull(mSiteStore.getSiteBySiteId(1));
+    }
 }
@@ -0,0 +1,214 @@
+package org.wordpress.android.fluxc.store
+
+import com.nhaarman.mockitokotlin2.mock
+import kotlinx.coroutines.Dispatchers
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.ActionMetrics
+import org.wordpress.android.fluxc.ActionMetrics.OperationStats
+import org.wordpress.android.fluxc.ActionMetrics.Reporter
+import org.wordpress.android.fluxc.ActionScheduler
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.action.MediaAction
+import org.wordpress.android.fluxc.action.PostAction
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
+import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.CoroutineEngine
+import org.wordpress.android.util.AppLog.T
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class ActionMetricsTest {
+    private val snapshots = mutableListOf<Map<String, OperationStats>>()
+    private val reporter = Reporter { snapshots.add(it) }
+
+    @After
+    fun tearDown() {
+        ActionMetrics.disable()
+        ActionMetrics.reset()
+    }
+
+    @Test
+    fun testNothingIsRecordedWhenMetricsAreOff() {
+        val dispatcher = Dispatcher()
+        val postStore = PostActionsStore(dispatcher)
+        MediaActionsStore(dispatcher)
+
+        dispatcher.dispatch(Action<Void>(PostAction.FETCH_POSTS, null))
+
+        assertTrue(postStore.awaitChange())
+        assertTrue(ActionMetrics.getSnapshot().isEmpty())
+        assertNull(ActionMetrics.getCurrentTrace())
+    }
+
+    @Test
+    fun testChangesAreAttributedToTheFirstActionWhenPostedOnTheBus() {
+        ActionMetrics.enable(reporter)
+        val dispatcher = Dispatcher()
+        val postStore = PostActionsStore(dispatcher)
+        val mediaStore = MediaActionsStore(dispatcher)
+
+        dispatcher.dispatch(Action<Void>(PostAction.FETCH_POSTS, null))
+
+        assertTrue(postStore.awaitChange())
+        assertTrue(mediaStore.awaitChange())
+        val stats = ActionMetrics.getSnapshot().getValue("PostAction-FETCH_POSTS")
+        // One change emitted by each store
+        assertEquals(2, stats.sampleCount)
+        assertTrue(stats.averageDbTimeMs >= DB_CALL_MS)
+        assertTrue(stats.maxLatencyMs >= stats.averageLatencyMs)
+        assertEquals(setOf("PostAction-FETCH_POSTS"), ActionMetrics.getSnapshot().keys)
+    }
+
+    @Test
+    fun testChangesAreAttributedToTheFirstActionWhenRouted() {
+        ActionMetrics.enable(reporter)
+        val dispatcher = Dispatcher(ActionScheduler(2))
+        val postStore = PostActionsStore(dispatcher)
+        val mediaStore = MediaActionsStore(dispatcher)
+
+        dispatcher.dispatch(Action<Void>(PostAction.FETCH_POSTS, null))
+
+        assertTrue(postStore.awaitChange())
+        assertTrue(mediaStore.awaitChange())
+        assertEquals(2, ActionMetrics.getSnapshot().getValue("PostAction-FETCH_POSTS").sampleCount)
+    }
+
+    @Test
+    fun testStoresSubscribingInOnActionReceiveEachActionOnce() {
+        val dispatcher = Dispatcher()
+        val store = SubscribingStore(dispatcher)
+
+        dispatcher.dispatch(Action<Void>(PostAction.FETCH_POSTS, null))
+
+        assertTrue(store.actionLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        // Leave time for a second delivery
+        Thread.sleep(DB_CALL_MS)
+        assertEquals(1, store.actionCount.get())
+    }
+
+    @Test
+    fun testCoroutineEngineCallsAreTraced() = test {
+        ActionMetrics.enable(reporter)
+        val coroutineEngine = CoroutineEngine(Dispatchers.Unconfined, mock())
+
+        coroutineEngine.withDefaultContext(T.STATS, this@ActionMetricsTest, "fetchInsights") {
+            simulateDbCall()
+        }
+        coroutineEngine.run(T.STATS, this@ActionMetricsTest, "getInsights") {}
+
+        val snapshot = ActionMetrics.getSnapshot()
+        assertEquals(1, snapshot.getValue("ActionMetricsTest-fetchInsights").sampleCount)
+        assertTrue(snapshot.getValue("ActionMetricsTest-fetchInsights").averageDbTimeMs >= DB_CALL_MS)
+        assertEquals(1, snapshot.getValue("ActionMetricsTest-getInsights").sampleCount)
+        assertNull(ActionMetrics.getCurrentTrace())
+    }
+
+    @Test
+    fun testNestedDbCallsAreTimedOnce() {
+        ActionMetrics.enable(reporter)
+        val trace = ActionMetrics.startTrace("operation")
+        val previousTrace = ActionMetrics.resumeTrace(trace)
+        try {
+            val dbTimerStart = ActionMetrics.startDbTimer()
+            try {
+                simulateDbCall()
+            } finally {
+                ActionMetrics.stopDbTimer(dbTimerStart)
+            }
+        } finally {
+            ActionMetrics.resumeTrace(previousTrace)
+        }
+        ActionMetrics.finishTrace(trace)
+
+        val stats = ActionMetrics.getSnapshot().getValue("operation")
+        assertTrue(stats.averageDbTimeMs >= DB_CALL_MS)
+        assertTrue(stats.averageDbTimeMs < 2 * DB_CALL_MS)
+    }
+
+    @Test
+    fun testReportSendsTheSnapshotToTheReporter() {
+        ActionMetrics.report()
+        assertTrue(snapshots.isEmpty())
+
+        ActionMetrics.enable(reporter)
+        ActionMetrics.finishTrace(ActionMetrics.startTrace("operation"))
+        ActionMetrics.report()
+
+        assertEquals(1, snapshots.size)
+        assertEquals(1, snapshots[0].getValue("operation").sampleCount)
+    }
+
+    private abstract class ChangeEmittingStore(dispatcher: Dispatcher) : Store(dispatcher) {
+        private val changeLatch = CountDownLatch(1)
+
+        protected fun emitTestChange() {
+            emitChange(OnChanged<OnChangedError>())
+            changeLatch.countDown()
+        }
+
+        override fun onRegister() {}
+
+        fun awaitChange() = changeLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+    }
+
+    @HandlesActions(PostAction::class)
+    private class PostActionsStore(dispatcher: Dispatcher) : ChangeEmittingStore(dispatcher) {
+        override fun onAction(action: Action<*>) {
+            if (action.type != PostAction.FETCH_POSTS) {
+                return
+            }
+            simulateDbCall()
+            // Chained action, like the ones dispatched once a request completes
+            mDispatcher.dispatch(Action<Void>(MediaAction.FETCH_MEDIA_LIST, null))
+            emitTestChange()
+        }
+    }
+
+    @HandlesActions(MediaAction::class)
+    private class MediaActionsStore(dispatcher: Dispatcher) : ChangeEmittingStore(dispatcher) {
+        override fun onAction(action: Action<*>) {
+            if (action.type == MediaAction.FETCH_MEDIA_LIST) {
+                emitTestChange()
+            }
+        }
+    }
+
+    // Subscribes in onAction like the stores written before Store.onActionDispatched
+    class SubscribingStore(dispatcher: Dispatcher) : Store(dispatcher) {
+        val actionCount = AtomicInteger()
+        val actionLatch = CountDownLatch(1)
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        override fun onAction(action: Action<*>) {
+            actionCount.incrementAndGet()
+            actionLatch.countDown()
+        }
+
+        override fun onRegister() {}
+    }
+
+    companion object {
+        private const val TIMEOUT_MS = 1000L
+        private const val DB_CALL_MS = 20L
+
+        private fun simulateDbCall() {
+            val dbTimerStart = ActionMetrics.startDbTimer()
+            try {
+                Thread.sleep(DB_CALL_MS)
+            } finally {
+                ActionMetrics.stopDbTimer(dbTimerStart)
+            }
+        }
+    }
+}
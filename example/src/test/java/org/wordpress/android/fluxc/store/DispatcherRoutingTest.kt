@@ -0,0 +1,211 @@
+package org.wordpress.android.fluxc.store
+
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.ActionScheduler
+import org.wordpress.android.fluxc.ActionScheduler.Priority.BACKGROUND
+import org.wordpress.android.fluxc.ActionScheduler.Priority.USER_INITIATED
+import org.wordpress.android.fluxc.ActionTracer
+import org.wordpress.android.fluxc.ActionTracer.Level.METRICS
+import org.wordpress.android.fluxc.ActionTracer.Level.OFF
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.action.MediaAction
+import org.wordpress.android.fluxc.action.PostAction
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class DispatcherRoutingTest {
+    @Test
+    fun testActionsAreRoutedToTheStoresHandlingTheirType() {
+        val dispatcher = Dispatcher(ActionScheduler(2))
+        val postStore = PostActionsStore(dispatcher, expectedActions = 1)
+        val mediaStore = MediaActionsStore(dispatcher, expectedActions = 1)
+        val allActionsStore = AllActionsStore(dispatcher, expectedActions = 2)
+
+        val postAction = Action<Void>(PostAction.FETCH_POSTS, null)
+        val mediaAction = Action<Void>(MediaAction.FETCH_MEDIA_LIST, null)
+        dispatcher.dispatch(postAction)
+        dispatcher.dispatch(mediaAction)
+
+        assertTrue(postStore.await())
+        assertTrue(mediaStore.await())
+        assertTrue(allActionsStore.await())
+        assertEquals(listOf<Action<*>>(postAction), postStore.received)
+        assertEquals(listOf<Action<*>>(mediaAction), mediaStore.received)
+        assertEquals(setOf<Action<*>>(postAction, mediaAction), allActionsStore.received.toSet())
+    }
+
+    @Test
+    fun testUnregisteredStoresDontReceiveActions() {
+        val dispatcher = Dispatcher(ActionScheduler(1))
+        val postStore = PostActionsStore(dispatcher, expectedActions = 1)
+        val allActionsStore = AllActionsStore(dispatcher, expectedActions = 1)
+        dispatcher.unregister(postStore)
+
+        dispatcher.dispatch(Action<Void>(PostAction.FETCH_POSTS, null))
+
+        assertTrue(allActionsStore.await())
+        Thread.sleep(50)
+        assertTrue(postStore.received.isEmpty())
+    }
+
+    @Test
+    fun testUserInitiatedActionsRunBeforeBackgroundActions() {
+        val scheduler = ActionScheduler(1)
+        val dispatcher = Dispatcher(scheduler)
+        val store = PostActionsStore(dispatcher, expectedActions = 4)
+        val blockingAction = Action<Void>(PostAction.FETCH_POSTS, null)
+        val releaseLatch = CountDownLatch(1)
+        val startedLatch = CountDownLatch(1)
+        store.onActionStarted = { action ->
+            if (action === blockingAction) {
+                startedLatch.countDown()
+                releaseLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            }
+        }
+
+        // Keep the only thread busy while the other actions are queued
+        dispatcher.dispatch(blockingAction, USER_INITIATED)
+        assertTrue(startedLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        val firstBackgroundAction = Action<Void>(PostAction.FETCH_PAGES, null)
+        val secondBackgroundAction = Action<Void>(PostAction.FETCH_POST, null)
+        val userAction = Action<Void>(PostAction.FETCH_POST_STATUS, null)
+        dispatcher.dispatch(firstBackgroundAction, BACKGROUND)
+        dispatcher.dispatch(secondBackgroundAction, BACKGROUND)
+        dispatcher.dispatch(userAction, USER_INITIATED)
+
+        assertEquals(2, scheduler.getQueuedActionCount(BACKGROUND))
+        assertEquals(1, scheduler.getQueuedActionCount(USER_INITIATED))
+        assertEquals(3, scheduler.peakQueuedActionCount)
+
+        releaseLatch.countDown()
+        assertTrue(store.await())
+        assertEquals(listOf<Action<*>>(blockingAction, userAction, firstBackgroundAction, secondBackgroundAction),
+                store.received)
+        assertEquals(0, scheduler.queuedActionCount)
+    }
+
+    @Test
+    fun testRoutedActionsLatencyIsTraced() {
+        ActionTracer.setLevel(METRICS)
+        try {
+            val dispatcher = Dispatcher(ActionScheduler(1))
+            val store = MediaActionsStore(dispatcher, expectedActions = 1)
+
+            dispatcher.dispatch(Action<Void>(MediaAction.UPLOADED_MEDIA, null))
+            assertTrue(store.await())
+            // The latency is recorded right after the store handled the action
+            Thread.sleep(50)
+
+            val stats = ActionTracer.getStats().getValue(MediaAction.UPLOADED_MEDIA)
+            assertEquals(1, stats.dispatchCount)
+            assertEquals(1, stats.handledCount)
+            assertEquals(1, stats.latencyHistogram.sum())
+        } finally {
+            ActionTracer.setLevel(OFF)
+            ActionTracer.resetStats()
+        }
+    }
+
+    @Test
+    fun testStoresHandleEachActionInTheOrderOfTheirPriority() {
+        val dispatcher = Dispatcher(ActionScheduler(4))
+        val handledBy = CopyOnWriteArrayList<Pair<String, Action<*>>>()
+        // Registered first, like MediaStore may be before UploadStore
+        val mediaStore = MediaActionsStore(dispatcher, expectedActions = ACTION_COUNT)
+        mediaStore.onActionStarted = { action -> handledBy.add("media" to action) }
+        val uploadStore = FirstMediaActionsStore(dispatcher, expectedActions = ACTION_COUNT)
+        uploadStore.onActionStarted = { action ->
+            // Give the other store a chance to overtake it if both ran in parallel
+            Thread.sleep(2)
+            handledBy.add("upload" to action)
+        }
+
+        val actions = (1..ACTION_COUNT).map { Action<Void>(MediaAction.UPLOADED_MEDIA, null) }
+        actions.forEach { dispatcher.dispatch(it, BACKGROUND) }
+
+        assertTrue(uploadStore.await())
+        assertTrue(mediaStore.await())
+        actions.forEach { action ->
+            val uploadIndex = handledBy.indexOfFirst { it.first == "upload" && it.second === action }
+            val mediaIndex = handledBy.indexOfFirst { it.first == "media" && it.second === action }
+            assertTrue(uploadIndex in 0 until mediaIndex)
+        }
+    }
+
+    @Test
+    fun testOtherActionSubscribersStillReceiveActions() {
+        val dispatcher = Dispatcher(ActionScheduler(2))
+        val store = PostActionsStore(dispatcher, expectedActions = 1)
+        val subscriber = ActionSubscriber()
+        dispatcher.register(subscriber)
+
+        val action = Action<Void>(PostAction.FETCH_POSTS, null)
+        dispatcher.dispatch(action)
+
+        assertTrue(store.await())
+        assertTrue(subscriber.latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+        // The store doesn't receive the action from the bus as well
+        Thread.sleep(50)
+        assertEquals(listOf<Action<*>>(action), store.received)
+    }
+
+    class ActionSubscriber {
+        val latch = CountDownLatch(1)
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        fun onAction(@Suppress("UNUSED_PARAMETER") action: Action<*>) {
+            latch.countDown()
+        }
+    }
+
+    private abstract class RecordingStore(dispatcher: Dispatcher, expectedActions: Int) : Store(dispatcher) {
+        val received = CopyOnWriteArrayList<Action<*>>()
+        var onActionStarted: (Action<*>) -> Unit = {}
+        private val latch = CountDownLatch(expectedActions)
+
+        override fun onAction(action: Action<*>) {
+            onActionStarted(action)
+            received.add(action)
+            latch.countDown()
+        }
+
+        override fun onRegister() {}
+
+        fun await() = latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+    }
+
+    @HandlesActions(PostAction::class)
+    private class PostActionsStore(dispatcher: Dispatcher, expectedActions: Int) :
+            RecordingStore(dispatcher, expectedActions)
+
+    @HandlesActions(MediaAction::class)
+    private class MediaActionsStore(dispatcher: Dispatcher, expectedActions: Int) :
+            RecordingStore(dispatcher, expectedActions)
+
+    @HandlesActions(MediaAction::class)
+    private class FirstMediaActionsStore(dispatcher: Dispatcher, expectedActions: Int) :
+            RecordingStore(dispatcher, expectedActions) {
+        @Subscribe(threadMode = ThreadMode.ASYNC, priority = 1)
+        override fun onActionDispatched(action: Action<*>) {
+            super.onActionDispatched(action)
+        }
+    }
+
+    private class AllActionsStore(dispatcher: Dispatcher, expectedActions: Int) :
+            RecordingStore(dispatcher, expectedActions)
+
+    companion object {
+        private const val TIMEOUT_MS = 1000L
+        private const val ACTION_COUNT = 20
+    }
+}
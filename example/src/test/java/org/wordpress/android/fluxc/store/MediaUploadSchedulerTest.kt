@@ -0,0 +1,125 @@
+package org.wordpress.android.fluxc.store
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.model.MediaModel
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class MediaUploadSchedulerTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
+    private var time = 0L
+    private val priorityMediaIds = mutableSetOf<Int>()
+    private val startedMediaIds = mutableListOf<Int>()
+    private val scheduler = MediaUploadScheduler(
+            MediaUploadScheduler.PriorityPolicy { priorityMediaIds.contains(it.id) },
+            MediaUploadScheduler.Clock { time }
+    )
+
+    @Test
+    fun testUploadsWaitForAFreeSlot() {
+        scheduler.setMaxInFlight(2)
+        val media = (1..4).map { newMedia(it, siteId = 1) }
+
+        media.forEach { scheduleUpload(it) }
+
+        assertEquals(listOf(1, 2), startedMediaIds)
+        assertEquals(2, scheduler.queuedCount)
+
+        scheduler.onUploadFinished(media[0], false)
+        assertEquals(listOf(1, 2, 3), startedMediaIds)
+        assertEquals(2, scheduler.inFlightCount)
+    }
+
+    @Test
+    fun testSitesTakeTurns() {
+        scheduler.setMaxInFlight(1)
+        val media = listOf(newMedia(1, siteId = 1), newMedia(2, siteId = 1), newMedia(3, siteId = 1),
+                newMedia(4, siteId = 2))
+
+        media.forEach { scheduleUpload(it) }
+        repeat(media.size) { scheduler.onUploadFinished(media.first { it.id == startedMediaIds.last() }, false) }
+
+        assertEquals(listOf(1, 4, 2, 3), startedMediaIds)
+    }
+
+    @Test
+    fun testMediaOfPendingPostsStartFirst() {
+        scheduler.setMaxInFlight(1)
+        priorityMediaIds.add(3)
+        val media = (1..3).map { newMedia(it, siteId = 1) }
+        media.forEach { scheduleUpload(it) }
+
+        scheduler.onUploadFinished(media[0], false)
+
+        assertEquals(listOf(1, 3), startedMediaIds)
+    }
+
+    @Test
+    fun testMediaOfPostsRegisteredLaterStartFirst() {
+        scheduler.setMaxInFlight(1)
+        val media = (1..3).map { newMedia(it, siteId = 1) }
+        media.forEach { scheduleUpload(it) }
+
+        // The post is registered after its media was scheduled, the policy isn't asked again
+        priorityMediaIds.add(2)
+        scheduler.prioritize(listOf(3))
+        scheduler.onUploadFinished(media[0], false)
+
+        assertEquals(listOf(1, 3), startedMediaIds)
+    }
+
+    @Test
+    fun testCancelledUploadsNeverStart() {
+        scheduler.setMaxInFlight(1)
+        val media = (1..3).map { newMedia(it, siteId = 1) }
+        media.forEach { scheduleUpload(it) }
+
+        assertTrue(scheduler.cancel(media[1]))
+        assertFalse(scheduler.cancel(media[0]))
+
+        assertEquals(listOf(1, 3), startedMediaIds)
+        assertEquals(0, scheduler.queuedCount)
+    }
+
+    @Test
+    fun testConcurrencyAdaptsToThroughput() {
+        scheduler.setMaxInFlight(4)
+        assertEquals(2, scheduler.concurrencyLimit)
+
+        // Concurrent uploads finishing as fast as a single one would: more concurrency helps
+        uploadRound(count = 2, durationMs = 1000)
+        assertEquals(3, scheduler.concurrencyLimit)
+        uploadRound(count = 3, durationMs = 1000)
+        assertEquals(4, scheduler.concurrencyLimit)
+
+        // Uploads slowing down as much as there are more of them: the connection is saturated
+        uploadRound(count = 4, durationMs = 1400)
+        assertEquals(4, scheduler.concurrencyLimit)
+        uploadRound(count = 4, durationMs = 4000)
+        assertEquals(3, scheduler.concurrencyLimit)
+    }
+
+    private fun uploadRound(count: Int, durationMs: Long) {
+        val media = (1..count).map { newMedia(startedMediaIds.size + it, siteId = 1, size = 1000) }
+        media.forEach { scheduleUpload(it) }
+        time += durationMs
+        media.forEach { scheduler.onUploadFinished(it, true) }
+    }
+
+    private fun scheduleUpload(media: MediaModel) {
+        scheduler.schedule(media) { startedMediaIds.add(media.id) }
+    }
+
+    private fun newMedia(id: Int, siteId: Int, size: Int = 1) = MediaModel().apply {
+        this.id = id
+        localSiteId = siteId
+        filePath = tempFolder.newFile("media-$id").apply { writeBytes(ByteArray(size)) }.path
+    }
+}
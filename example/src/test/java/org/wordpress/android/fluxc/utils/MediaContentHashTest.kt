@@ -0,0 +1,35 @@
+package org.wordpress.android.fluxc.utils
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+@RunWith(RobolectricTestRunner::class)
+class MediaContentHashTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
+    @Test
+    fun testContentHashIsSha256OfTheFile() {
+        val file = tempFolder.newFile().apply { writeText("abc") }
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                MediaUtils.getContentHash(file.path))
+    }
+
+    @Test
+    fun testContentHashOfFileLargerThanTheBuffer() {
+        val file = tempFolder.newFile().apply { writeBytes(ByteArray(1_000_000) { 'a'.toByte() }) }
+
+        assertEquals("cdc76e5c9914fb9281a1c7e284d73e67f1809a48a497200e046d39ccc7112cd0",
+                MediaUtils.getContentHash(file.path))
+    }
+
+    @Test
+    fun testMissingFileHasNoHash() {
+        assertNull(MediaUtils.getContentHash(tempFolder.root.resolve("missing").path))
+    }
+}
@@ -185,4 +185,17 @@ public class MediaUtilsTest {
             Assert.assertNull(mimeType);
         }
     }
+
+    @Test
+    public void testMediaTypeOfMimeTypesAndPrefixes() {
+        Assert.assertEquals("image", MediaUtils.getMediaType("image/jpeg"));
+        Assert.assertEquals("video", MediaUtils.getMediaType("Video/MP4"));
+        Assert.assertEquals("image", MediaUtils.getMediaType(MediaUtils.MIME_TYPE_IMAGE));
+        Assert.assertEquals("video", MediaUtils.getMediaType(MediaUtils.MIME_TYPE_VIDEO));
+        Assert.assertEquals("audio", MediaUtils.getMediaType(MediaUtils.MIME_TYPE_AUDIO));
+        Assert.assertEquals("application", MediaUtils.getMediaType(MediaUtils.MIME_TYPE_APPLICATION));
+        Assert.assertNull(MediaUtils.getMediaType(null));
+        Assert.assertNull(MediaUtils.getMediaType("jpeg"));
+        Assert.assertNull(MediaUtils.getMediaType("/jpeg"));
+    }
 }
@@ -0,0 +1,114 @@
+package org.wordpress.android.fluxc.utils
+
+import android.graphics.Bitmap.CompressFormat
+import androidx.exifinterface.media.ExifInterface
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.shadows.ShadowBitmapFactory
+import org.wordpress.android.fluxc.model.MediaModel
+import java.io.ByteArrayOutputStream
+import java.io.File
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class UploadImageTransformerTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
+    @Test
+    fun testSampleSizeKeepsDecodedImageLargerThanTarget() {
+        assertEquals(1, UploadImageTransformer.getSampleSize(2000, 2000))
+        assertEquals(1, UploadImageTransformer.getSampleSize(3999, 2000))
+        assertEquals(2, UploadImageTransformer.getSampleSize(4000, 2000))
+        assertEquals(4, UploadImageTransformer.getSampleSize(8064, 2000))
+        assertEquals(1, UploadImageTransformer.getSampleSize(500, 2000))
+    }
+
+    @Test
+    fun testOnlyStillImagesAreTransformed() {
+        val options = UploadImageTransformer.Options(2000, CompressFormat.JPEG, 85)
+
+        listOf("image/gif", "video/mp4", "application/pdf").forEach { type ->
+            val media = MediaModel().apply {
+                mimeType = type
+                filePath = "/does/not/exist"
+            }
+            assertNull(UploadImageTransformer.transform(media, options), type)
+        }
+    }
+
+    @Test
+    fun testPngOutputIsRejected() {
+        assertFailsWith<IllegalArgumentException> { UploadImageTransformer.Options(2000, CompressFormat.PNG, 100) }
+    }
+
+    @Test
+    fun testQualityOutOfRangeIsRejected() {
+        assertFailsWith<IllegalArgumentException> { UploadImageTransformer.Options(2000, CompressFormat.JPEG, -1) }
+        assertFailsWith<IllegalArgumentException> { UploadImageTransformer.Options(2000, CompressFormat.JPEG, 101) }
+    }
+
+    @Test
+    fun testImageIsSampledScaledAndRotated() {
+        val file = newJpeg(ExifInterface.ORIENTATION_ROTATE_90, paddingSize = 100_000)
+        ShadowBitmapFactory.provideWidthAndHeightHints(file.path, 4000, 3000)
+        val media = MediaModel().apply {
+            mimeType = "image/jpeg"
+            filePath = file.path
+        }
+
+        val options = UploadImageTransformer.Options(1500, CompressFormat.JPEG, 85)
+
+        // Decoded at half the size, 2000x1500, scaled down to 1500x1125 and rotated
+        val result = assertNotNull(UploadImageTransformer.transform(media, options))
+        assertEquals(1125, result.width)
+        assertEquals(1500, result.height)
+        assertEquals("image/jpeg", result.mimeType)
+        assertEquals(file.length(), result.originalSize)
+        assertTrue(result.transformedSize < result.originalSize)
+        assertTrue(result.file.delete())
+    }
+
+    @Test
+    fun testOriginalIsKeptWhenTheTransformedImageIsNotSmaller() {
+        val file = newJpeg(ExifInterface.ORIENTATION_NORMAL, paddingSize = 0)
+        ShadowBitmapFactory.provideWidthAndHeightHints(file.path, 4000, 3000)
+        val media = MediaModel().apply {
+            mimeType = "image/jpeg"
+            filePath = file.path
+        }
+
+        val options = UploadImageTransformer.Options(1500, CompressFormat.JPEG, 85)
+
+        assertNull(UploadImageTransformer.transform(media, options))
+    }
+
+    /**
+     * Writes the markers of a JPEG file with the given EXIF orientation, followed by {@code paddingSize} bytes of
+     * image data. The pixels themselves come from the shadow of BitmapFactory.
+     */
+    private fun newJpeg(orientation: Int, paddingSize: Int): File {
+        val tiff = byteArrayOf(
+                0x4d, 0x4d, 0x00, 0x2a, 0x00, 0x00, 0x00, 0x08, // Big endian TIFF header, IFD at offset 8
+                0x00, 0x01, // One entry
+                0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, orientation.toByte(), 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00 // No next IFD
+        )
+        val jpeg = ByteArrayOutputStream().apply {
+            write(byteArrayOf(0xff.toByte(), 0xd8.toByte())) // SOI
+            write(byteArrayOf(0xff.toByte(), 0xe1.toByte(), 0x00, (2 + 6 + tiff.size).toByte())) // APP1
+            write("Exif\u0000\u0000".toByteArray(Charsets.US_ASCII))
+            write(tiff)
+            write(byteArrayOf(0xff.toByte(), 0xda.toByte(), 0x00, 0x02)) // SOS
+            write(ByteArray(paddingSize))
+            write(byteArrayOf(0xff.toByte(), 0xd9.toByte())) // EOI
+        }
+        return tempFolder.newFile("image.jpg").apply { writeBytes(jpeg.toByteArray()) }
+    }
+}
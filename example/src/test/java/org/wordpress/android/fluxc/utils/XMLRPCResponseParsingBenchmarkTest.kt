@@ -0,0 +1,96 @@
+package org.wordpress.android.fluxc.utils
+
+import com.android.volley.NetworkResponse
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.xmlrpc.XMLSerializerUtils
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.io.ByteArrayInputStream
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryType
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+
+/**
+ * Parses a multi-megabyte `wp.getPosts`-like response through the previous String-copying path and through the
+ * streaming path, and logs the peak heap and throughput of each.
+ */
+@RunWith(RobolectricTestRunner::class)
+class XMLRPCResponseParsingBenchmarkTest {
+    @Test
+    fun benchmarkStreamingParseAgainstStringCopyParse() {
+        val response = NetworkResponse(buildPostsResponse(POST_COUNT).toByteArray(Charsets.UTF_8),
+                mapOf("Content-Type" to "text/xml; charset=UTF-8"))
+
+        // Warm up both code paths
+        assertEquals(POST_COUNT, parseWithStringCopy(response).size)
+        assertEquals(POST_COUNT, parseStreaming(response).size)
+
+        val legacy = measure(response.data.size) { parseWithStringCopy(response) }
+        val streaming = measure(response.data.size) { parseStreaming(response) }
+
+        AppLog.i(T.TESTS, "XML-RPC parse benchmark (${response.data.size / 1024} KB) - " +
+                "string copy: ${legacy.megabytesPerSecond} MB/s, peak heap ${legacy.peakHeapKb} KB")
+        AppLog.i(T.TESTS, "XML-RPC parse benchmark (${response.data.size / 1024} KB) - " +
+                "streaming: ${streaming.megabytesPerSecond} MB/s, peak heap ${streaming.peakHeapKb} KB")
+    }
+
+    private fun parseWithStringCopy(response: NetworkResponse): Array<*> {
+        val data = String(response.data, Charsets.UTF_8)
+        val inputStream = ByteArrayInputStream(data.toByteArray(Charsets.UTF_8))
+        return XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(inputStream)) as Array<*>
+    }
+
+    private fun parseStreaming(response: NetworkResponse): Array<*> {
+        val inputStream = XMLSerializerUtils.scrubXmlResponse(ByteArrayInputStream(response.data))
+        return XMLSerializerUtils.deserialize(inputStream, "UTF-8") as Array<*>
+    }
+
+    private fun measure(responseSize: Int, parse: () -> Unit): BenchmarkResult {
+        val heapPools = ManagementFactory.getMemoryPoolMXBeans().filter { it.type == MemoryType.HEAP }
+        System.gc()
+        val usedBefore = heapPools.map { it.usage.used }.sum()
+        heapPools.forEach { it.resetPeakUsage() }
+
+        val start = System.nanoTime()
+        for (i in 0 until ITERATIONS) {
+            parse()
+        }
+        val elapsedNanos = System.nanoTime() - start
+
+        val peakHeap = heapPools.map { it.peakUsage.used }.sum() - usedBefore
+        val bytesPerSecond = responseSize.toLong() * ITERATIONS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos
+        return BenchmarkResult(bytesPerSecond / (1024 * 1024), peakHeap / 1024)
+    }
+
+    private fun buildPostsResponse(postCount: Int): String {
+        val content = "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit &amp; more.</p>".repeat(30)
+        val builder = StringBuilder("PHP Warning: junk before the response\n")
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param><value><array><data>")
+        for (i in 0 until postCount) {
+            builder.append("<value><struct>")
+            appendMember(builder, "post_id", "<string>$i</string>")
+            appendMember(builder, "post_title", "<string>Post $i</string>")
+            appendMember(builder, "post_status", "<string>publish</string>")
+            appendMember(builder, "post_content", "<string>$content</string>")
+            appendMember(builder, "post_modified_gmt", "<dateTime.iso8601>20191017T12:24:40</dateTime.iso8601>")
+            appendMember(builder, "sticky", "<boolean>0</boolean>")
+            builder.append("</struct></value>")
+        }
+        builder.append("</data></array></value></param></params></methodResponse>")
+        return builder.toString()
+    }
+
+    private fun appendMember(builder: StringBuilder, name: String, value: String) {
+        builder.append("<member><name>").append(name).append("</name><value>").append(value).append("</value></member>")
+    }
+
+    private data class BenchmarkResult(val megabytesPerSecond: Long, val peakHeapKb: Long)
+
+    companion object {
+        private const val POST_COUNT = 2000
+        private const val ITERATIONS = 5
+    }
+}
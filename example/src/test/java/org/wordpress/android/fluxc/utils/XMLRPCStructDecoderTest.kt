@@ -0,0 +1,83 @@
+package org.wordpress.android.fluxc.utils
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCFault
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCStructDecoder
+import org.wordpress.android.fluxc.network.xmlrpc.XMLSerializerUtils
+import org.xmlpull.v1.XmlPullParser
+import java.io.ByteArrayInputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+
+@RunWith(RobolectricTestRunner::class)
+class XMLRPCStructDecoderTest {
+    private class Item {
+        var id: Long = 0
+        var title: String? = null
+        var tagCount: Int = 0
+    }
+
+    private class ItemDecoder : XMLRPCStructDecoder<Item>() {
+        override fun createInstance() = Item()
+
+        override fun decodeMember(instance: Item, name: String, parser: XmlPullParser): Boolean {
+            when (name) {
+                "id" -> instance.id = readLong(parser)
+                "title" -> instance.title = readString(parser)
+                "tags" -> instance.tagCount = (readValue(parser) as Array<*>).size
+                else -> return false
+            }
+            return true
+        }
+
+        override fun finish(instance: Item) = if (instance.id == 0L) null else instance
+    }
+
+    @Test
+    fun testStructsAreDecodedAndUnknownMembersSkipped() {
+        val xml = response("<value><array><data>" +
+                "<value><struct>" +
+                member("id", "<string>12</string>") +
+                member("ignored", "<struct>${member("nested", "<array><data><value><i4>1</i4></value></data></array>")}" +
+                        "</struct>") +
+                member("title", "<string>First</string>") +
+                member("tags", "<array><data><value><string>a</string></value><value><string>b</string></value>" +
+                        "</data></array>") +
+                "</struct></value>" +
+                "<value><string>not a struct</string></value>" +
+                "<value><struct>${member("title", "<string>No id, dropped</string>")}</struct></value>" +
+                "<value><struct>${member("id", "<i4>13</i4>")}</struct></value>" +
+                "</data></array></value>")
+
+        val items = XMLSerializerUtils.deserializeStructArray(ByteArrayInputStream(xml.toByteArray()), "UTF-8",
+                ItemDecoder())
+
+        assertEquals(2, items.size)
+        assertEquals(12L, items[0].id)
+        assertEquals("First", items[0].title)
+        assertEquals(2, items[0].tagCount)
+        assertEquals(13L, items[1].id)
+        assertNull(items[1].title)
+    }
+
+    @Test
+    fun testFaultIsThrown() {
+        val xml = "<?xml version=\"1.0\"?><methodResponse><fault><value><struct>" +
+                member("faultCode", "<int>403</int>") +
+                member("faultString", "<string>Incorrect username or password.</string>") +
+                "</struct></value></fault></methodResponse>"
+
+        val fault = assertFailsWith(XMLRPCFault::class) {
+            XMLSerializerUtils.deserializeStructArray(ByteArrayInputStream(xml.toByteArray()), "UTF-8", ItemDecoder())
+        }
+        assertEquals(403, fault.faultCode)
+    }
+
+    private fun response(value: String) =
+            "<?xml version=\"1.0\"?><methodResponse><params><param>$value</param></params></methodResponse>"
+
+    private fun member(name: String, value: String) = "<member><name>$name</name><value>$value</value></member>"
+}
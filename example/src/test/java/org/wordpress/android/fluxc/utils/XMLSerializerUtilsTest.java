@@ -10,6 +10,7 @@ import org.wordpress.android.fluxc.network.xmlrpc.XMLSerializerUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 
 @RunWith(RobolectricTestRunner.class)
 public class XMLSerializerUtilsTest {
@@ -39,6 +40,26 @@ public class XMLSerializerUtilsTest {
         Assert.assertEquals(xml, result);
     }
 
+    @Test
+    public void testXmlRpcResponseScrubWithoutXmlDeclaration() {
+        final String xml = "<methodResponse><params></params></methodResponse>";
+        final String result = scrub(xml, xml.length());
+        Assert.assertEquals(xml, result);
+    }
+
+    @Test
+    public void testXmlRpcResponseDeserializeWithJunk() throws Exception {
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param><value>"
+                           + "<struct><member><name>title</name><value><string>Caf\u00e9</string></value></member>"
+                           + "</struct></value></param></params></methodResponse>";
+        final String junk = "Warning: something went wrong <br/>\n";
+        final InputStream is = new ByteArrayInputStream((junk + xml).getBytes("UTF-8"));
+
+        Map<?, ?> result = (Map<?, ?>) XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is), "UTF-8");
+
+        Assert.assertEquals("Caf\u00e9", result.get("title"));
+    }
+
     private String scrub(String input, int xmlLength) {
         try {
             final InputStream is = new ByteArrayInputStream(input.getBytes("UTF-8"));
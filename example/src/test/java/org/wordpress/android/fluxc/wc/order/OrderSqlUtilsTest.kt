@@ -11,10 +11,12 @@ import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests
 import org.wordpress.android.fluxc.UnitTestUtils
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCOrderLineItemModel
 import org.wordpress.android.fluxc.model.WCOrderModel
 import org.wordpress.android.fluxc.model.WCOrderNoteModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentProviderModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentTrackingModel
+import org.wordpress.android.fluxc.model.WCOrderShippingLineModel
 import org.wordpress.android.fluxc.model.WCOrderStatusModel
 import org.wordpress.android.fluxc.model.WCOrderSummaryModel
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.order.CoreOrderStatus
@@ -25,6 +27,7 @@ import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
@@ -36,6 +39,8 @@ class OrderSqlUtilsTest {
                 appContext,
                 listOf(
                         WCOrderModel::class.java,
+                        WCOrderLineItemModel::class.java,
+                        WCOrderShippingLineModel::class.java,
                         WCOrderNoteModel::class.java,
                         WCOrderStatusModel::class.java,
                         WCOrderShipmentTrackingModel::class.java,
@@ -115,6 +120,61 @@ class OrderSqlUtilsTest {
         assertEquals(0, deletedOrders.size)
     }
 
+    @Test
+    fun testOrderLinesAreStoredWithTheOrder() {
+        val order = OrderTestUtils.generateSampleOrder(1).apply {
+            lineItems = "[{\"id\":10,\"name\":\"Cap\",\"product_id\":100,\"variation_id\":0,\"quantity\":2," +
+                    "\"subtotal\":\"20.00\",\"total\":\"20.00\",\"price\":\"10.00\"}," +
+                    "{\"id\":11,\"name\":\"Shirt - Blue\",\"product_id\":200,\"variation_id\":201," +
+                    "\"quantity\":1}]"
+            shippingLines = "[{\"method_title\":\"Flat rate\"}]"
+        }
+        val otherOrder = OrderTestUtils.generateSampleOrder(2).apply {
+            lineItems = "[{\"id\":12,\"name\":\"Shirt - Red\",\"product_id\":200,\"variation_id\":202}]"
+        }
+        OrderSqlUtils.insertOrUpdateOrder(order)
+        OrderSqlUtils.insertOrUpdateOrder(otherOrder)
+
+        val lineItems = OrderSqlUtils.getLineItemsForOrders(listOf(order, otherOrder))
+        assertEquals(listOf(10L, 11L), lineItems.getValue(order.id).map { it.remoteLineItemId })
+        assertEquals(listOf(12L), lineItems.getValue(otherOrder.id).map { it.remoteLineItemId })
+        with(lineItems.getValue(order.id)[0]) {
+            assertEquals("Cap", name)
+            assertEquals(100L, productId)
+            assertEquals(2f, quantity)
+            assertEquals("10.00", price)
+        }
+        val shippingLines = OrderSqlUtils.getShippingLinesForOrders(listOf(order, otherOrder))
+        assertEquals(listOf("Flat rate"), shippingLines.getValue(order.id).map { it.methodTitle })
+        assertNull(shippingLines[otherOrder.id])
+
+        val site = SiteModel().apply { id = order.localSiteId }
+        assertEquals(listOf(order.id), OrderSqlUtils.getOrdersContainingProduct(site, 100).map { it.id })
+        assertEquals(2, OrderSqlUtils.getOrdersContainingProduct(site, 200).size)
+        assertEquals(listOf(otherOrder.id), OrderSqlUtils.getOrdersContainingProduct(site, 202).map { it.id })
+        assertTrue(OrderSqlUtils.getOrdersContainingProduct(SiteModel().apply { id = 7 }, 100).isEmpty())
+    }
+
+    @Test
+    fun testOrderLinesAreReplacedAndDeletedWithTheOrder() {
+        val order = OrderTestUtils.generateSampleOrder(1).apply {
+            lineItems = "[{\"id\":10,\"name\":\"Cap\",\"product_id\":100}]"
+        }
+        OrderSqlUtils.insertOrUpdateOrder(order)
+
+        order.lineItems = "[{\"id\":13,\"name\":\"Hoodie\",\"product_id\":300}]"
+        OrderSqlUtils.insertOrUpdateOrder(order)
+
+        val site = SiteModel().apply { id = order.localSiteId }
+        assertTrue(OrderSqlUtils.getOrdersContainingProduct(site, 100).isEmpty())
+        assertEquals(listOf(13L), OrderSqlUtils.getLineItemsForOrders(listOf(order)).getValue(order.id).map {
+            it.remoteLineItemId
+        })
+
+        OrderSqlUtils.deleteOrdersForSite(site)
+        assertTrue(OrderSqlUtils.getLineItemsForOrders(listOf(order)).isEmpty())
+    }
+
     @Test
     fun testInsertOrIgnoreOrderNotes() {
         val order = OrderTestUtils.generateSampleOrder(42)
@@ -0,0 +1,81 @@
+package org.wordpress.android.fluxc.wc.order
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.clearInvocations
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import org.junit.Test
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.store.WCOrderFetchScheduler
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class WCOrderFetchSchedulerTest {
+    private val site = SiteModel().apply { id = 6 }
+    private val otherSite = SiteModel().apply { id = 7 }
+    private val executor = mock<ScheduledExecutorService>()
+    private val fetches = mutableListOf<Pair<SiteModel, List<RemoteId>>>()
+    private val scheduler = WCOrderFetchScheduler(
+            { site, remoteIds -> fetches.add(site to remoteIds) },
+            maxOrdersPerFetch = 3,
+            scheduler = executor
+    )
+
+    @Test
+    fun testOrdersOfConsecutivePagesAreCoalesced() {
+        scheduler.scheduleFetch(site, remoteIds(1, 2))
+        scheduler.scheduleFetch(site, remoteIds(2, 3, 4))
+        scheduler.scheduleFetch(otherSite, remoteIds(1))
+
+        val flushes = runScheduledFlushes(2)
+
+        assertEquals(listOf(
+                site to remoteIds(1, 2, 3),
+                site to remoteIds(4),
+                otherSite to remoteIds(1)
+        ), fetches)
+        assertEquals(2, flushes)
+    }
+
+    @Test
+    fun testOrdersBeingFetchedAreNotRequestedAgain() {
+        scheduler.scheduleFetch(site, remoteIds(1, 2))
+        runScheduledFlushes(1)
+
+        scheduler.scheduleFetch(site, remoteIds(1, 2))
+        scheduler.onOrdersFetched(site, remoteIds(1))
+        scheduler.scheduleFetch(site, remoteIds(1, 2))
+        runScheduledFlushes(1)
+
+        assertEquals(listOf(site to remoteIds(1, 2), site to remoteIds(1)), fetches)
+    }
+
+    @Test
+    fun testNothingIsScheduledForNoOrders() {
+        scheduler.scheduleFetch(site, emptyList())
+
+        assertTrue(fetches.isEmpty())
+        verify(executor, never()).schedule(any<Runnable>(), any(), any())
+    }
+
+    private fun runScheduledFlushes(count: Int): Int {
+        val captor = argumentCaptor<Runnable>()
+        verify(executor, times(count)).schedule(
+                captor.capture(),
+                eq(WCOrderFetchScheduler.FETCH_WINDOW_MS),
+                eq(TimeUnit.MILLISECONDS)
+        )
+        captor.allValues.forEach { it.run() }
+        clearInvocations(executor)
+        return captor.allValues.size
+    }
+
+    private fun remoteIds(vararg ids: Long) = ids.map { RemoteId(it) }
+}
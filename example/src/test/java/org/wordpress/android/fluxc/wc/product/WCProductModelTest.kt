@@ -0,0 +1,119 @@
+package org.wordpress.android.fluxc.wc.product
+
+import org.junit.Ignore
+import org.junit.Test
+import org.wordpress.android.fluxc.model.WCProductModel
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.lang.management.ManagementFactory
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class WCProductModelTest {
+    @Test
+    fun testParsedFieldsAreReusedUntilTheColumnChanges() {
+        val product = generateProduct(1)
+
+        assertSame(product.getAttributes(), product.getAttributes())
+        assertSame(product.getDownloadableFiles(), product.getDownloadableFiles())
+        assertEquals(3, product.getNumVariations())
+        assertEquals("Red, Blue", product.getAttributes()[0].getCommaSeparatedOptions())
+
+        val attributes = product.getAttributes()
+        product.attributes = "[{\"id\":2,\"name\":\"Size\",\"visible\":false,\"options\":[\"S\"]}]"
+        assertNotSame(attributes, product.getAttributes())
+        assertEquals("Size", product.getAttributes()[0].name)
+
+        product.variations = "[]"
+        assertEquals(0, product.getNumVariations())
+    }
+
+    @Test
+    fun testImagesAreCopiedForCallers() {
+        val product = generateProduct(1)
+
+        product.getImages()[0].src = "https://example.com/changed.png"
+
+        assertEquals("https://example.com/image-1.png", product.getFirstImageUrl())
+        assertEquals(listOf("https://example.com/image-1.png", "https://example.com/image-2.png"),
+                product.getImageUrls())
+        assertTrue(product.hasSameImages(generateProduct(1)))
+    }
+
+    @Test
+    fun testEmptyAndInvalidColumns() {
+        val product = WCProductModel().apply {
+            images = ""
+            categories = "{}"
+        }
+
+        assertTrue(product.getImages().isEmpty())
+        assertNull(product.getFirstImageUrl())
+        assertTrue(product.getCategories().isEmpty())
+        assertEquals("", product.getCommaSeparatedTagNames())
+        assertEquals(0, product.getNumVariations())
+    }
+
+    /**
+     * Compares the bytes allocated binding a list of products whose fields are parsed once with those allocated when
+     * they're parsed on every bind, like before they were cached.
+     */
+    @Ignore("Benchmark, run manually")
+    @Test
+    fun benchmarkProductListScrollAllocations() {
+        val products = (0 until BENCHMARK_PRODUCT_COUNT).map { generateProduct(it.toLong()) }
+        val cachedBytes = measureAllocatedBytes { products.forEach { bind(it) } }
+        // A fresh copy of each product has nothing parsed yet
+        val uncachedBytes = measureAllocatedBytes { products.forEach { bind(copyOf(it)) } }
+
+        AppLog.i(T.TESTS, "Bytes allocated per scroll, cached: $cachedBytes, uncached: $uncachedBytes")
+        assertTrue(cachedBytes < uncachedBytes)
+    }
+
+    private fun bind(product: WCProductModel) {
+        product.getFirstImageUrl()
+        product.getImageUrls()
+        product.getAttributes()
+        product.getDownloadableFiles()
+        product.getNumVariations()
+        product.getCommaSeparatedCategoryNames()
+        product.getCommaSeparatedTagNames()
+    }
+
+    private fun measureAllocatedBytes(block: () -> Unit): Long {
+        val threadMXBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        // Warm up, which also parses the cached fields
+        block()
+        val start = threadMXBean.getThreadAllocatedBytes(threadId)
+        repeat(BENCHMARK_SCROLLS) { block() }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / BENCHMARK_SCROLLS
+    }
+
+    private fun copyOf(product: WCProductModel) = WCProductModel().apply {
+        images = product.images
+        attributes = product.attributes
+        downloads = product.downloads
+        variations = product.variations
+        categories = product.categories
+        tags = product.tags
+    }
+
+    private fun generateProduct(remoteId: Long) = ProductTestUtils.generateSampleProduct(remoteId).apply {
+        images = "[{\"id\":1,\"name\":\"One\",\"src\":\"https://example.com/image-1.png\",\"alt\":\"\"}," +
+                "{\"id\":2,\"name\":\"Two\",\"src\":\"https://example.com/image-2.png\",\"alt\":\"\"}]"
+        attributes = "[{\"id\":1,\"name\":\"Color\",\"visible\":true,\"options\":[\"Red\",\"Blue\"]}]"
+        downloads = "[{\"id\":\"abc\",\"name\":\"Manual\",\"file\":\"https://example.com/manual.pdf\"}]"
+        variations = "[11,12,13]"
+        categories = "[{\"id\":5,\"name\":\"Clothing\",\"slug\":\"clothing\"}]"
+        tags = "[{\"id\":7,\"name\":\"Summer\",\"slug\":\"summer\"}]"
+    }
+
+    companion object {
+        private const val BENCHMARK_PRODUCT_COUNT = 50
+        private const val BENCHMARK_SCROLLS = 100
+    }
+}
@@ -0,0 +1,18 @@
+package org.wordpress.android.fluxc.annotations.action;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the action enums a store handles in its {@code onAction()}, so the dispatcher can route actions of these
+ * types to the store only, instead of broadcasting every action to every store.
+ *
+ * Stores without this annotation receive all the actions.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(value = ElementType.TYPE)
+public @interface HandlesActions {
+    Class<? extends IAction>[] value();
+}
@@ -0,0 +1,318 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in latency metrics of the store operations, per action type: the time between the dispatch of an action and
+ * each change event emitted in response, and the network and database time spent on the way.
+ *
+ * Actions dispatched while a store handles an action, or from the callbacks of the requests it sent, are attributed
+ * to that first action, so the change emitted once a fetched site is saved counts toward FETCH_SITE. The coroutine
+ * based stores don't dispatch actions, their calls going through the {@code CoroutineEngine} are measured from start
+ * to end under the name of the store method.
+ *
+ * Metrics are off until a {@link Reporter} is set, and nothing is allocated on the dispatch path while they're off.
+ */
+public final class ActionMetrics {
+    public interface Reporter {
+        /**
+         * @param snapshot the stats recorded since the last {@link #reset()}, by operation name
+         */
+        void onReport(@NonNull Map<String, OperationStats> snapshot);
+    }
+
+    private static volatile Reporter sReporter;
+    private static final ConcurrentHashMap<String, OperationStats> STATS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ThreadState> THREAD_STATE = new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+            return new ThreadState();
+        }
+    };
+    // Traces of the dispatched actions until a store picks them up, actions are compared by identity
+    private static final Map<Action, Trace> ACTION_TRACES =
+            Collections.synchronizedMap(new WeakHashMap<Action, Trace>());
+
+    private ActionMetrics() {}
+
+    /**
+     * Starts recording metrics, which can then be sent to the reporter with {@link #report()}.
+     */
+    public static void enable(@NonNull Reporter reporter) {
+        sReporter = reporter;
+    }
+
+    /**
+     * Stops recording metrics, the recorded stats are kept until {@link #reset()}.
+     */
+    public static void disable() {
+        sReporter = null;
+        ACTION_TRACES.clear();
+    }
+
+    public static boolean isEnabled() {
+        return sReporter != null;
+    }
+
+    /**
+     * Sends a snapshot of the recorded stats to the reporter, if metrics are enabled.
+     */
+    public static void report() {
+        Reporter reporter = sReporter;
+        if (reporter != null) {
+            reporter.onReport(getSnapshot());
+        }
+    }
+
+    /**
+     * @return a copy of the stats recorded since the last {@link #reset()}, by operation name
+     */
+    @NonNull
+    public static Map<String, OperationStats> getSnapshot() {
+        Map<String, OperationStats> snapshot = new HashMap<>();
+        for (Map.Entry<String, OperationStats> entry : STATS.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().copy());
+        }
+        return snapshot;
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /**
+     * @return the name under which the stats of the given action type are recorded, e.g. "SiteAction-FETCH_SITE"
+     */
+    @NonNull
+    public static String getOperationName(@NonNull IAction actionType) {
+        // Enum constants with a body are instances of an anonymous subclass
+        Class<?> actionClass = actionType instanceof Enum
+                ? ((Enum<?>) actionType).getDeclaringClass() : actionType.getClass();
+        return actionClass.getSimpleName() + "-" + actionType;
+    }
+
+    static void onDispatch(@NonNull Action action) {
+        if (sReporter == null) {
+            return;
+        }
+        Trace trace = THREAD_STATE.get().mTrace;
+        if (trace == null) {
+            trace = new Trace(getOperationName(action.getType()));
+        }
+        ACTION_TRACES.put(action, trace);
+    }
+
+    /**
+     * @return the trace of a dispatched action, null if metrics are off
+     */
+    @Nullable
+    public static Trace getTrace(@NonNull Action action) {
+        if (sReporter == null) {
+            return null;
+        }
+        return ACTION_TRACES.get(action);
+    }
+
+    /**
+     * @return the trace of the operation running on the current thread, if any
+     */
+    @Nullable
+    public static Trace getCurrentTrace() {
+        if (sReporter == null) {
+            return null;
+        }
+        return THREAD_STATE.get().mTrace;
+    }
+
+    /**
+     * Makes the given trace the one of the current thread.
+     *
+     * @return the previous trace of the thread, to be restored once the operation is done
+     */
+    @Nullable
+    public static Trace resumeTrace(@Nullable Trace trace) {
+        ThreadState state = THREAD_STATE.get();
+        Trace previousTrace = state.mTrace;
+        state.mTrace = trace;
+        return previousTrace;
+    }
+
+    /**
+     * Starts the trace of an operation which isn't an action, see {@link #finishTrace(Trace)}.
+     *
+     * @return the new trace, or null if metrics are off
+     */
+    @Nullable
+    public static Trace startTrace(@NonNull String operationName) {
+        if (sReporter == null) {
+            return null;
+        }
+        return new Trace(operationName);
+    }
+
+    /**
+     * Records the latency of an operation started with {@link #startTrace(String)}.
+     */
+    public static void finishTrace(@Nullable Trace trace) {
+        if (trace != null && sReporter != null) {
+            trace.recordSample();
+        }
+    }
+
+    /**
+     * Records the time between the dispatch of the action being handled on this thread and the change event being
+     * emitted.
+     */
+    public static void onChangeEmitted() {
+        Trace trace = getCurrentTrace();
+        if (trace != null) {
+            trace.recordSample();
+        }
+    }
+
+    public static void addNetworkTime(@Nullable Trace trace, long durationNanos) {
+        if (trace != null) {
+            trace.mNetworkNanos.addAndGet(durationNanos);
+        }
+    }
+
+    /**
+     * Starts timing a database operation, to be called before a try block whose finally block calls
+     * {@link #stopDbTimer(long)}. Nested operations are only timed once, by the outermost timer.
+     *
+     * @return the start time, 0 if the operation isn't timed
+     */
+    public static long startDbTimer() {
+        if (sReporter == null) {
+            return 0;
+        }
+        ThreadState state = THREAD_STATE.get();
+        if (state.mTrace == null || state.mDbTimerRunning) {
+            return 0;
+        }
+        state.mDbTimerRunning = true;
+        return System.nanoTime();
+    }
+
+    public static void stopDbTimer(long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        ThreadState state = THREAD_STATE.get();
+        state.mDbTimerRunning = false;
+        if (state.mTrace != null) {
+            state.mTrace.mDbNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static OperationStats getOrCreateStats(String operationName) {
+        OperationStats stats = STATS.get(operationName);
+        if (stats == null) {
+            stats = new OperationStats();
+            OperationStats existingStats = STATS.putIfAbsent(operationName, stats);
+            if (existingStats != null) {
+                stats = existingStats;
+            }
+        }
+        return stats;
+    }
+
+    private static class ThreadState {
+        private Trace mTrace;
+        private boolean mDbTimerRunning;
+    }
+
+    /**
+     * The timings of one operation, shared by the threads working on it.
+     */
+    public static final class Trace {
+        private final String mOperationName;
+        private final long mStartNanos = System.nanoTime();
+        private final AtomicLong mNetworkNanos = new AtomicLong();
+        private final AtomicLong mDbNanos = new AtomicLong();
+
+        private Trace(String operationName) {
+            mOperationName = operationName;
+        }
+
+        @NonNull
+        public String getOperationName() {
+            return mOperationName;
+        }
+
+        private void recordSample() {
+            getOrCreateStats(mOperationName).record(System.nanoTime() - mStartNanos, mNetworkNanos.get(),
+                    mDbNanos.get());
+        }
+    }
+
+    /**
+     * Stats of an operation. A sample is recorded for each change event emitted in response to an action, with the
+     * network and database time spent until then.
+     */
+    public static class OperationStats {
+        private final AtomicLong mSampleCount = new AtomicLong();
+        private final AtomicLong mTotalLatencyNanos = new AtomicLong();
+        private final AtomicLong mMaxLatencyNanos = new AtomicLong();
+        private final AtomicLong mTotalNetworkNanos = new AtomicLong();
+        private final AtomicLong mTotalDbNanos = new AtomicLong();
+
+        public long getSampleCount() {
+            return mSampleCount.get();
+        }
+
+        public long getAverageLatencyMs() {
+            return average(mTotalLatencyNanos);
+        }
+
+        public long getMaxLatencyMs() {
+            return TimeUnit.NANOSECONDS.toMillis(mMaxLatencyNanos.get());
+        }
+
+        public long getAverageNetworkTimeMs() {
+            return average(mTotalNetworkNanos);
+        }
+
+        public long getAverageDbTimeMs() {
+            return average(mTotalDbNanos);
+        }
+
+        private long average(AtomicLong totalNanos) {
+            long sampleCount = mSampleCount.get();
+            return sampleCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / sampleCount);
+        }
+
+        private void record(long latencyNanos, long networkNanos, long dbNanos) {
+            mSampleCount.incrementAndGet();
+            mTotalLatencyNanos.addAndGet(latencyNanos);
+            mTotalNetworkNanos.addAndGet(networkNanos);
+            mTotalDbNanos.addAndGet(dbNanos);
+            long max = mMaxLatencyNanos.get();
+            while (latencyNanos > max && !mMaxLatencyNanos.compareAndSet(max, latencyNanos)) {
+                max = mMaxLatencyNanos.get();
+            }
+        }
+
+        private OperationStats copy() {
+            OperationStats copy = new OperationStats();
+            copy.mSampleCount.set(mSampleCount.get());
+            copy.mTotalLatencyNanos.set(mTotalLatencyNanos.get());
+            copy.mMaxLatencyNanos.set(mMaxLatencyNanos.get());
+            copy.mTotalNetworkNanos.set(mTotalNetworkNanos.get());
+            copy.mTotalDbNanos.set(mTotalDbNanos.get());
+            return copy;
+        }
+    }
+}
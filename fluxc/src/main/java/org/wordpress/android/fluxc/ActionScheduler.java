@@ -0,0 +1,134 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.store.Store;
+
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the actions routed to stores on a bounded pool of threads, user initiated actions first. The stores handling
+ * an action run one after the other, in the given order, so stores depending on another one seeing the action first
+ * keep working.
+ *
+ * This replaces the unbounded executor EventBus uses for {@code ThreadMode.ASYNC} subscribers, which spawns a new
+ * thread for each action waiting while all the others are busy.
+ */
+public class ActionScheduler {
+    public enum Priority {
+        USER_INITIATED,
+        BACKGROUND
+    }
+
+    private static final int DEFAULT_THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final ThreadPoolExecutor mExecutor;
+    private final AtomicLong mSequence = new AtomicLong();
+    private final AtomicInteger[] mQueuedActions = new AtomicInteger[Priority.values().length];
+    private final AtomicInteger mPeakQueuedActions = new AtomicInteger();
+
+    public ActionScheduler() {
+        this(DEFAULT_THREAD_COUNT);
+    }
+
+    public ActionScheduler(int threadCount) {
+        mExecutor = new ThreadPoolExecutor(threadCount, threadCount, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger mThreadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        return new Thread(runnable, "fluxc-action-" + mThreadNumber.incrementAndGet());
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+        for (Priority priority : Priority.values()) {
+            mQueuedActions[priority.ordinal()] = new AtomicInteger();
+        }
+    }
+
+    void schedule(@NonNull List<Store> stores, @NonNull Action action, @NonNull Priority priority) {
+        mQueuedActions[priority.ordinal()].incrementAndGet();
+        updatePeak(getQueuedActionCount());
+        mExecutor.execute(new ActionTask(stores, action, priority, mSequence.getAndIncrement()));
+    }
+
+    /**
+     * @return the number of actions waiting for a thread, for the given priority
+     */
+    public int getQueuedActionCount(@NonNull Priority priority) {
+        return mQueuedActions[priority.ordinal()].get();
+    }
+
+    /**
+     * @return the number of actions waiting for a thread
+     */
+    public int getQueuedActionCount() {
+        int count = 0;
+        for (AtomicInteger queued : mQueuedActions) {
+            count += queued.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return the highest number of actions that waited for a thread at the same time
+     */
+    public int getPeakQueuedActionCount() {
+        return mPeakQueuedActions.get();
+    }
+
+    /**
+     * @return the number of threads currently running actions
+     */
+    public int getActiveThreadCount() {
+        return mExecutor.getActiveCount();
+    }
+
+    private void updatePeak(int queued) {
+        int peak = mPeakQueuedActions.get();
+        while (queued > peak && !mPeakQueuedActions.compareAndSet(peak, queued)) {
+            peak = mPeakQueuedActions.get();
+        }
+    }
+
+    private class ActionTask implements Runnable, Comparable<ActionTask> {
+        private final List<Store> mStores;
+        private final Action mAction;
+        private final Priority mPriority;
+        private final long mSequenceNumber;
+        private final long mScheduledAtNanos = System.nanoTime();
+
+        ActionTask(List<Store> stores, Action action, Priority priority, long sequenceNumber) {
+            mStores = stores;
+            mAction = action;
+            mPriority = priority;
+            mSequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            mQueuedActions[mPriority.ordinal()].decrementAndGet();
+            for (Store store : mStores) {
+                store.handleAction(mAction);
+                ActionTracer.traceHandled(mAction, System.nanoTime() - mScheduledAtNanos);
+            }
+        }
+
+        @Override
+        public int compareTo(@NonNull ActionTask other) {
+            if (mPriority != other.mPriority) {
+                return mPriority.compareTo(other.mPriority);
+            }
+            // Keep the dispatch order within a priority
+            return mSequenceNumber < other.mSequenceNumber ? -1 : (mSequenceNumber == other.mSequenceNumber ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Traces the dispatched actions: logs them, and counts them per action type along with a histogram of their
+ * handling latency.
+ *
+ * Nothing is built or allocated on the dispatch path when the level is {@link Level#OFF}, the default, and no
+ * string is built below {@link Level#VERBOSE}. Debug builds can opt in with {@link #setLevel(Level)}.
+ */
+public final class ActionTracer {
+    public enum Level {
+        /**
+         * Actions aren't traced.
+         */
+        OFF,
+        /**
+         * Actions are counted, and their latency recorded, without being logged.
+         */
+        METRICS,
+        /**
+         * Actions are counted and logged.
+         */
+        VERBOSE
+    }
+
+    /**
+     * Upper bounds (exclusive) of the latency histogram buckets, in milliseconds. The last bucket holds everything
+     * above the last bound.
+     */
+    public static final long[] LATENCY_BUCKET_BOUNDS_MS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024};
+
+    private static volatile Level sLevel = Level.OFF;
+    private static final ConcurrentHashMap<IAction, ActionStats> STATS = new ConcurrentHashMap<>();
+
+    private ActionTracer() {}
+
+    public static void setLevel(@NonNull Level level) {
+        sLevel = level;
+    }
+
+    @NonNull
+    public static Level getLevel() {
+        return sLevel;
+    }
+
+    /**
+     * @return a copy of the stats recorded for each action type since the last {@link #resetStats()}
+     */
+    @NonNull
+    public static Map<IAction, ActionStats> getStats() {
+        Map<IAction, ActionStats> stats = new HashMap<>();
+        for (Map.Entry<IAction, ActionStats> entry : STATS.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().copy());
+        }
+        return stats;
+    }
+
+    public static void resetStats() {
+        STATS.clear();
+    }
+
+    static void traceDispatch(Action action) {
+        Level level = sLevel;
+        if (level == Level.OFF) {
+            return;
+        }
+        IAction actionType = action.getType();
+        getOrCreateStats(actionType).mDispatchCount.incrementAndGet();
+        if (level == Level.VERBOSE) {
+            AppLog.d(T.API, "Dispatching action: " + actionType.getClass().getSimpleName() + "-" + actionType);
+        }
+    }
+
+    /**
+     * Records the time between the dispatch of the action and the end of its handling by a store.
+     */
+    static void traceHandled(Action action, long latencyNanos) {
+        if (sLevel == Level.OFF) {
+            return;
+        }
+        getOrCreateStats(action.getType()).recordLatency(TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+    }
+
+    private static ActionStats getOrCreateStats(IAction actionType) {
+        ActionStats stats = STATS.get(actionType);
+        if (stats == null) {
+            stats = new ActionStats();
+            ActionStats existingStats = STATS.putIfAbsent(actionType, stats);
+            if (existingStats != null) {
+                stats = existingStats;
+            }
+        }
+        return stats;
+    }
+
+    public static class ActionStats {
+        private final AtomicLong mDispatchCount = new AtomicLong();
+        private final AtomicLong mHandledCount = new AtomicLong();
+        private final AtomicLong mTotalLatencyMs = new AtomicLong();
+        private final AtomicLongArray mLatencyHistogram = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MS.length + 1);
+
+        public long getDispatchCount() {
+            return mDispatchCount.get();
+        }
+
+        /**
+         * Actions are only timed when the {@link Dispatcher} routes them (see {@link ActionScheduler}), stores
+         * subscribed to the bus handle them out of its sight. Actions handled by several stores are counted once
+         * per store.
+         */
+        public long getHandledCount() {
+            return mHandledCount.get();
+        }
+
+        public long getAverageLatencyMs() {
+            long handledCount = mHandledCount.get();
+            return handledCount == 0 ? 0 : mTotalLatencyMs.get() / handledCount;
+        }
+
+        /**
+         * @return the number of handled actions in each bucket of {@link #LATENCY_BUCKET_BOUNDS_MS}
+         */
+        @NonNull
+        public long[] getLatencyHistogram() {
+            long[] histogram = new long[mLatencyHistogram.length()];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = mLatencyHistogram.get(i);
+            }
+            return histogram;
+        }
+
+        private void recordLatency(long latencyMs) {
+            mHandledCount.incrementAndGet();
+            mTotalLatencyMs.addAndGet(latencyMs);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_BOUNDS_MS.length && latencyMs >= LATENCY_BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            mLatencyHistogram.incrementAndGet(bucket);
+        }
+
+        private ActionStats copy() {
+            ActionStats copy = new ActionStats();
+            copy.mDispatchCount.set(mDispatchCount.get());
+            copy.mHandledCount.set(mHandledCount.get());
+            copy.mTotalLatencyMs.set(mTotalLatencyMs.get());
+            for (int i = 0; i < mLatencyHistogram.length(); i++) {
+                copy.mLatencyHistogram.set(i, mLatencyHistogram.get(i));
+            }
+            return copy;
+        }
+    }
+}
@@ -1,27 +1,78 @@
 package org.wordpress.android.fluxc;
 
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
 import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.wordpress.android.fluxc.ActionScheduler.Priority;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
+import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.store.Store;
-import org.wordpress.android.util.AppLog;
-import org.wordpress.android.util.AppLog.T;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.inject.Singleton;
 
 @Singleton
 public class Dispatcher {
     private final EventBus mBus;
+    @Nullable private final ActionScheduler mActionScheduler;
+
+    // Stores by the action enum they handle, and stores receiving all the actions, when routing actions
+    private final ConcurrentHashMap<Class<?>, List<Store>> mStoresByActionType = new ConcurrentHashMap<>();
+    private final List<Store> mStoresHandlingAllActions = new CopyOnWriteArrayList<>();
+    // Priority of the subscription of each routed store, the stores handling an action run by decreasing priority
+    private final Map<Store, Integer> mStorePriorities = new ConcurrentHashMap<>();
+    // Objects subscribing to actions on the bus themselves, when routing actions: actions are also posted to the bus
+    // while there are any
+    private final Set<Object> mActionSubscribers = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+    private final Comparator<Store> mStorePriorityComparator = new Comparator<Store>() {
+        @Override
+        public int compare(Store first, Store second) {
+            return getPriority(second) - getPriority(first);
+        }
+    };
 
     public Dispatcher() {
+        this(null);
+    }
+
+    /**
+     * @param actionScheduler when set, actions are routed to the stores handling their type (see
+     * {@link HandlesActions}) and run on the scheduler, instead of being posted to every subscriber of the bus.
+     * The stores handling an action run one after the other on the same thread, in the order of the priority of
+     * their {@link Store#onActionDispatched(Action)} subscription, then of their registration. Other objects
+     * subscribing to actions, and stores subscribing to them themselves, still receive them from the bus.
+     */
+    public Dispatcher(@Nullable ActionScheduler actionScheduler) {
         mBus = EventBus.builder()
                 .logNoSubscriberMessages(true)
                 .sendNoSubscriberEvent(true)
                 .throwSubscriberException(true)
                 .build();
+        mActionScheduler = actionScheduler;
     }
 
     public void register(final Object object) {
         mBus.register(object);
+        if (mActionScheduler != null) {
+            if (subscribesToActions(object)) {
+                mActionSubscribers.add(object);
+            } else if (object instanceof Store) {
+                addRoutes((Store) object);
+            }
+        }
         if (object instanceof Store) {
             ((Store) object).onRegister();
         }
@@ -29,12 +80,44 @@ public class Dispatcher {
 
     public void unregister(final Object object) {
         mBus.unregister(object);
+        if (mActionScheduler != null) {
+            mActionSubscribers.remove(object);
+            if (object instanceof Store) {
+                removeRoutes((Store) object);
+            }
+        }
     }
 
     public void dispatch(Action action) {
-        AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
-                + "-" + action.getType().toString());
-        post(action);
+        ActionTracer.traceDispatch(action);
+        ActionMetrics.onDispatch(action);
+        if (mActionScheduler == null) {
+            post(action);
+            return;
+        }
+        // Actions dispatched from the main thread come from the UI, the others are part of a background sync
+        route(action, Looper.myLooper() == Looper.getMainLooper() ? Priority.USER_INITIATED : Priority.BACKGROUND);
+    }
+
+    /**
+     * Dispatches an action with the given priority. The priority is ignored when actions aren't routed.
+     */
+    public void dispatch(Action action, Priority priority) {
+        if (mActionScheduler == null) {
+            dispatch(action);
+            return;
+        }
+        ActionTracer.traceDispatch(action);
+        ActionMetrics.onDispatch(action);
+        route(action, priority);
+    }
+
+    /**
+     * @return the scheduler running the actions, or null if actions are posted to the bus
+     */
+    @Nullable
+    public ActionScheduler getActionScheduler() {
+        return mActionScheduler;
     }
 
     public void emitChange(final Object changeEvent) {
@@ -44,4 +127,81 @@ public class Dispatcher {
     private void post(final Object event) {
         mBus.post(event);
     }
+
+    private void route(Action action, Priority priority) {
+        List<Store> stores = new ArrayList<>(mStoresHandlingAllActions);
+        List<Store> actionTypeStores = mStoresByActionType.get(getActionTypeClass(action.getType()));
+        if (actionTypeStores != null) {
+            stores.addAll(actionTypeStores);
+        }
+        if (!stores.isEmpty()) {
+            // The sort is stable, stores with the same priority keep their registration order
+            Collections.sort(stores, mStorePriorityComparator);
+            mActionScheduler.schedule(stores, action, priority);
+        }
+        if (!mActionSubscribers.isEmpty()) {
+            post(action);
+        }
+    }
+
+    private int getPriority(Store store) {
+        Integer priority = mStorePriorities.get(store);
+        return priority == null ? 0 : priority;
+    }
+
+    /**
+     * @return whether the object has a method subscribing to actions on the bus, other than
+     * {@link Store#onActionDispatched(Action)} for stores
+     */
+    private static boolean subscribesToActions(Object object) {
+        for (Method method : object.getClass().getMethods()) {
+            if (!method.isAnnotationPresent(Subscribe.class) || method.getParameterTypes().length != 1
+                || !method.getParameterTypes()[0].isAssignableFrom(Action.class)) {
+                continue;
+            }
+            if (!(object instanceof Store) || !method.getName().equals("onActionDispatched")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addRoutes(Store store) {
+        try {
+            Subscribe subscribe = store.getClass().getMethod("onActionDispatched", Action.class)
+                                       .getAnnotation(Subscribe.class);
+            mStorePriorities.put(store, subscribe == null ? 0 : subscribe.priority());
+        } catch (NoSuchMethodException e) {
+            mStorePriorities.put(store, 0);
+        }
+        HandlesActions handlesActions = store.getClass().getAnnotation(HandlesActions.class);
+        if (handlesActions == null) {
+            mStoresHandlingAllActions.add(store);
+            return;
+        }
+        for (Class<? extends IAction> actionType : handlesActions.value()) {
+            List<Store> stores = mStoresByActionType.get(actionType);
+            if (stores == null) {
+                stores = new CopyOnWriteArrayList<>();
+                List<Store> existingStores = mStoresByActionType.putIfAbsent(actionType, stores);
+                if (existingStores != null) {
+                    stores = existingStores;
+                }
+            }
+            stores.add(store);
+        }
+    }
+
+    private void removeRoutes(Store store) {
+        mStorePriorities.remove(store);
+        mStoresHandlingAllActions.remove(store);
+        for (List<Store> stores : mStoresByActionType.values()) {
+            stores.remove(store);
+        }
+    }
+
+    private static Class<?> getActionTypeClass(IAction actionType) {
+        // Enum constants with a body are instances of an anonymous subclass
+        return actionType instanceof Enum ? ((Enum<?>) actionType).getDeclaringClass() : actionType.getClass();
+    }
 }
@@ -10,6 +10,8 @@ import org.wordpress.android.fluxc.store.PostStore.DeletedPostPayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListPayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostResponsePayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsPayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostsPayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchRevisionsPayload;
@@ -29,6 +31,8 @@ public enum PostAction implements IAction {
     FETCH_POST,
     @Action(payloadType = RemotePostPayload.class)
     FETCH_POST_STATUS,
+    @Action(payloadType = FetchPostsByIdsPayload.class)
+    FETCH_POSTS_BY_IDS,
     @Action(payloadType = RemotePostPayload.class)
     PUSH_POST,
     @Action(payloadType = RemotePostPayload.class)
@@ -49,6 +53,8 @@ public enum PostAction implements IAction {
     FETCHED_POST,
     @Action(payloadType = FetchPostStatusResponsePayload.class)
     FETCHED_POST_STATUS,
+    @Action(payloadType = FetchPostsByIdsResponsePayload.class)
+    FETCHED_POSTS_BY_IDS,
     @Action(payloadType = RemotePostPayload.class)
     PUSHED_POST,
     @Action(payloadType = DeletedPostPayload.class)
@@ -54,6 +54,7 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
     @Column private String mFilePath;
     @Column private String mFileExtension;
     @Column private String mMimeType;
+    @Column private String mMediaType; // Top-level type of the MIME type, kept in sync with it for filtering
 
     // Descriptive strings
     @Column private String mTitle;
@@ -75,6 +76,7 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
     // Local only
     @Column private String mUploadState;
     @Column private boolean mMarkedLocallyAsFeatured;
+    @Column private String mContentHash; // Hex encoded SHA-256 of the local file, to find uploaded duplicates
 
     // Other Sizes. Only available for images on self-hosted (xmlrpc layer) sites
     @Column private String mFileUrlMediumSize;
@@ -124,6 +126,7 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
                 && StringUtils.equals(getAlt(), otherMedia.getAlt())
                 && StringUtils.equals(getVideoPressGuid(), otherMedia.getVideoPressGuid())
                 && StringUtils.equals(getUploadState(), otherMedia.getUploadState())
+                && StringUtils.equals(getContentHash(), otherMedia.getContentHash())
                 && StringUtils.equals(getFileUrlMediumSize(), otherMedia.getFileUrlMediumSize())
                 && StringUtils.equals(getFileUrlMediumLargeSize(), otherMedia.getFileUrlMediumLargeSize())
                 && StringUtils.equals(getFileUrlLargeSize(), otherMedia.getFileUrlLargeSize());
@@ -237,12 +240,27 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
 
     public void setMimeType(String mimeType) {
         mMimeType = mimeType;
+        mMediaType = MediaUtils.getMediaType(mimeType);
     }
 
     public String getMimeType() {
         return mMimeType;
     }
 
+    /**
+     * Only meant to be used when reading the media from the database, the media type follows the MIME type.
+     */
+    public void setMediaType(String mediaType) {
+        mMediaType = mediaType;
+    }
+
+    /**
+     * @return the top-level type of the MIME type, see {@link MediaUtils#getMediaType(String)}
+     */
+    public String getMediaType() {
+        return mMediaType;
+    }
+
     public void setTitle(String title) {
         mTitle = title;
     }
@@ -367,6 +385,14 @@ public class MediaModel extends Payload<BaseNetworkError> implements Identifiabl
         return mMarkedLocallyAsFeatured;
     }
 
+    public void setContentHash(String contentHash) {
+        mContentHash = contentHash;
+    }
+
+    public String getContentHash() {
+        return mContentHash;
+    }
+
     public void setMarkedLocallyAsFeatured(boolean markedLocallyAsFeatured) {
         mMarkedLocallyAsFeatured = markedLocallyAsFeatured;
     }
@@ -19,7 +19,8 @@ private const val PRE_FETCH_DISTANCE = DB_PAGE_SIZE * 3
  * of visible items onscreen). Smaller page sizes improve memory usage, latency, and avoid GC churn. Larger pages
  * generally improve loading throughput, to a point.
  * See [Builder.setPageSize] for more information.
- * @param prefetchDistance ?
+ * @param prefetchDistance The minimum number of items before the end of the loaded items at which the next page is
+ * fetched from the network. See [ListPrefetchPolicy].
  */
 class ListConfig(val networkPageSize: Int, val initialLoadSize: Int, val dbPageSize: Int, val prefetchDistance: Int) {
     companion object {
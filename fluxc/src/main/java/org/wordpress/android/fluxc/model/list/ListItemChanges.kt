@@ -0,0 +1,76 @@
+package org.wordpress.android.fluxc.model.list
+
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.ListUpdateCallback
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Inserted
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Moved
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Removed
+
+/**
+ * The changes made to the items of a list, as the [operations] that turn the previous items into the new ones when
+ * applied in order. The positions of each operation take the previous operations into account, the same way as the
+ * updates of a [DiffUtil.DiffResult], so they can be dispatched to a `RecyclerView` adapter.
+ */
+class ListItemChanges(val operations: List<Operation>) {
+    sealed class Operation {
+        data class Inserted(val position: Int, val count: Int) : Operation()
+        data class Removed(val position: Int, val count: Int) : Operation()
+        data class Moved(val fromPosition: Int, val toPosition: Int) : Operation()
+    }
+
+    fun isEmpty() = operations.isEmpty()
+
+    fun dispatchUpdatesTo(callback: ListUpdateCallback) {
+        operations.forEach { operation ->
+            when (operation) {
+                is Inserted -> callback.onInserted(operation.position, operation.count)
+                is Removed -> callback.onRemoved(operation.position, operation.count)
+                is Moved -> callback.onMoved(operation.fromPosition, operation.toPosition)
+            }
+        }
+    }
+
+    companion object {
+        // Detecting the moved items costs the square of the number of added and removed items, so larger lists get
+        // their moves as a removal followed by an insertion instead
+        private const val MAX_ITEMS_TO_DETECT_MOVES = 1000
+
+        /**
+         * Calculates the minimal changes that turn the [oldRemoteItemIds] into the [newRemoteItemIds].
+         */
+        fun calculate(oldRemoteItemIds: List<Long>, newRemoteItemIds: List<Long>): ListItemChanges {
+            if (oldRemoteItemIds == newRemoteItemIds) {
+                return ListItemChanges(emptyList())
+            }
+            val diffResult = DiffUtil.calculateDiff(object : DiffUtil.Callback() {
+                override fun getOldListSize() = oldRemoteItemIds.size
+
+                override fun getNewListSize() = newRemoteItemIds.size
+
+                override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+                        oldRemoteItemIds[oldItemPosition] == newRemoteItemIds[newItemPosition]
+
+                // The list only holds the remote item ids, their contents are invalidated separately
+                override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) = true
+            }, oldRemoteItemIds.size + newRemoteItemIds.size <= MAX_ITEMS_TO_DETECT_MOVES)
+            val operations = ArrayList<Operation>()
+            diffResult.dispatchUpdatesTo(object : ListUpdateCallback {
+                override fun onInserted(position: Int, count: Int) {
+                    operations.add(Inserted(position, count))
+                }
+
+                override fun onRemoved(position: Int, count: Int) {
+                    operations.add(Removed(position, count))
+                }
+
+                override fun onMoved(fromPosition: Int, toPosition: Int) {
+                    operations.add(Moved(fromPosition, toPosition))
+                }
+
+                override fun onChanged(position: Int, count: Int, payload: Any?) {
+                }
+            })
+            return ListItemChanges(operations)
+        }
+    }
+}
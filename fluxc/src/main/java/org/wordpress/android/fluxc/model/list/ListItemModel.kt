@@ -19,6 +19,7 @@ class ListItemModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable
 
     @Column var listId: Int = 0
     @Column var remoteItemId: Long = 0
+    @Column var position: Int = 0
 
     override fun getId(): Int = id
 
@@ -0,0 +1,123 @@
+package org.wordpress.android.fluxc.model.list
+
+import android.os.SystemClock
+
+private const val DEFAULT_PAGE_LATENCY_MS = 1000.0
+// Weight of the latest sample in the moving averages of the scroll velocity and page latency
+private const val SMOOTHING_FACTOR = 0.3
+// How much earlier than strictly needed the next page is requested, to absorb latency spikes
+private const val SAFETY_FACTOR = 1.5
+// Pauses longer than this reset the scroll velocity
+private const val MAX_SAMPLE_INTERVAL_MS = 1000L
+
+/**
+ * The number of times the next page of a list arrived before the user scrolled to the end of the loaded items, and
+ * the number of times the user reached the end first and had to wait for it.
+ */
+data class ListPrefetchStats(val hits: Int = 0, val misses: Int = 0)
+
+/**
+ * Decides when `ListStore` requests the next page of a list from the network, ahead of the end of the loaded items.
+ *
+ * The distance from the end at which the next page is requested grows with the recent scroll velocity and the
+ * observed page latency: it's the number of items the user is expected to scroll past while the page loads. It
+ * stays between [ListConfig.prefetchDistance] and [ListConfig.networkPageSize].
+ */
+class ListPrefetchPolicy(
+    private val config: ListConfig,
+    private val clock: () -> Long = { SystemClock.elapsedRealtime() }
+) {
+    private var lastEndPosition = -1
+    private var lastSampleTime = 0L
+    private var itemsPerMs = 0.0
+    private var pageLatencyMs = DEFAULT_PAGE_LATENCY_MS
+    private var pageFetchStartTime: Long? = null
+    private var isPrefetching = false
+    private var endReachedDuringFetch = false
+    private var stats = ListPrefetchStats()
+
+    /**
+     * Called with every change of the stats.
+     */
+    @Volatile var onStatsChanged: ((ListPrefetchStats) -> Unit)? = null
+
+    /**
+     * Records that the items up to [endPosition] of a list of [totalSize] items were loaded from the database.
+     *
+     * @return whether the next page should be requested now
+     */
+    @Synchronized
+    fun onItemsLoaded(endPosition: Int, totalSize: Int): Boolean {
+        val now = clock()
+        val interval = now - lastSampleTime
+        if (lastEndPosition >= 0 && interval in 1..MAX_SAMPLE_INTERVAL_MS && endPosition > lastEndPosition) {
+            val velocity = (endPosition - lastEndPosition).toDouble() / interval
+            itemsPerMs = SMOOTHING_FACTOR * velocity + (1 - SMOOTHING_FACTOR) * itemsPerMs
+        } else if (interval > MAX_SAMPLE_INTERVAL_MS) {
+            itemsPerMs = 0.0
+        }
+        lastEndPosition = endPosition
+        lastSampleTime = now
+        return pageFetchStartTime == null && totalSize - endPosition <= getPrefetchDistance()
+    }
+
+    /**
+     * @return how many items before the end of the loaded items the next page is requested
+     */
+    @Synchronized
+    fun getPrefetchDistance(): Int {
+        val expectedItems = (itemsPerMs * pageLatencyMs * SAFETY_FACTOR).toInt()
+        return expectedItems.coerceIn(config.prefetchDistance, maxOf(config.prefetchDistance, config.networkPageSize))
+    }
+
+    /**
+     * Records that the user reached the end of the loaded items while more could be loaded.
+     */
+    @Synchronized
+    fun onEndReached() {
+        if (pageFetchStartTime != null && isPrefetching && !endReachedDuringFetch) {
+            endReachedDuringFetch = true
+            updateStats(stats.copy(misses = stats.misses + 1))
+        } else if (pageFetchStartTime == null) {
+            updateStats(stats.copy(misses = stats.misses + 1))
+        }
+    }
+
+    /**
+     * Records that the next page started loading, [isPrefetch] telling whether it was requested ahead of the end.
+     */
+    @Synchronized
+    fun onPageFetchStarted(isPrefetch: Boolean) {
+        if (pageFetchStartTime != null) {
+            return
+        }
+        pageFetchStartTime = clock()
+        isPrefetching = isPrefetch
+        endReachedDuringFetch = false
+    }
+
+    /**
+     * Records that the page being loaded arrived or failed.
+     */
+    @Synchronized
+    fun onPageFetchFinished(succeeded: Boolean) {
+        val startTime = pageFetchStartTime ?: return
+        pageFetchStartTime = null
+        if (!succeeded) {
+            return
+        }
+        val latency = (clock() - startTime).toDouble()
+        pageLatencyMs = SMOOTHING_FACTOR * latency + (1 - SMOOTHING_FACTOR) * pageLatencyMs
+        if (isPrefetching && !endReachedDuringFetch) {
+            updateStats(stats.copy(hits = stats.hits + 1))
+        }
+    }
+
+    @Synchronized
+    fun getStats() = stats
+
+    private fun updateStats(newStats: ListPrefetchStats) {
+        stats = newStats
+        onStatsChanged?.invoke(newStats)
+    }
+}
@@ -8,14 +8,19 @@ import org.wordpress.android.fluxc.model.list.datasource.InternalPagedListDataSo
  * A [DataSource.Factory] instance for `ListStore` lists.
  *
  * @param createDataSource A function that creates an instance of [InternalPagedListDataSource].
+ * @param onItemsLoaded Called with the end position of each range of items loaded and the total number of items.
  */
 class PagedListFactory<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM>(
-    private val createDataSource: () -> InternalPagedListDataSource<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    private val createDataSource: () -> InternalPagedListDataSource<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+    private val onItemsLoaded: ((endPosition: Int, totalSize: Int) -> Unit)? = null
 ) : DataSource.Factory<Int, LIST_ITEM>() {
     private var currentSource: PagedListPositionalDataSource<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>? = null
 
     override fun create(): DataSource<Int, LIST_ITEM> {
-        val source = PagedListPositionalDataSource(dataSource = createDataSource.invoke())
+        val source = PagedListPositionalDataSource(
+                dataSource = createDataSource.invoke(),
+                onItemsLoaded = onItemsLoaded
+        )
         currentSource = source
         return source
     }
@@ -29,15 +34,22 @@ class PagedListFactory<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_I
  * A positional data source for [LIST_ITEM].
  *
  * @param dataSource Describes how to take certain actions such as fetching list for the item type [LIST_ITEM].
+ * @param onItemsLoaded Called with the end position of each range of items loaded and the total number of items.
  */
 private class PagedListPositionalDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM>(
-    private val dataSource: InternalPagedListDataSource<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    private val dataSource: InternalPagedListDataSource<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+    private val onItemsLoaded: ((endPosition: Int, totalSize: Int) -> Unit)?
 ) : PositionalDataSource<LIST_ITEM>() {
     override fun loadInitial(params: LoadInitialParams, callback: LoadInitialCallback<LIST_ITEM>) {
         val totalSize = dataSource.totalSize
         val startPosition = computeInitialLoadPosition(params, totalSize)
         val loadSize = computeInitialLoadSize(params, startPosition, totalSize)
         val items = loadRangeInternal(startPosition, loadSize)
+        if (isInvalid) {
+            // The result is dropped, but it still needs to pass the validation of the callback
+            callback.onResult(emptyList(), 0, 0)
+            return
+        }
         if (params.placeholdersEnabled) {
             callback.onResult(items, startPosition, totalSize)
         } else {
@@ -55,6 +67,12 @@ private class PagedListPositionalDataSource<LIST_DESCRIPTOR : ListDescriptor, IT
         if (startPosition == endPosition) {
             return emptyList()
         }
-        return dataSource.getItemsInRange(startPosition, endPosition)
+        return dataSource.getItemsInRange(startPosition, endPosition).also {
+            if (dataSource.isOutdated) {
+                // The list changed since this data source was created, so a new one should load it
+                invalidate()
+            }
+            onItemsLoaded?.invoke(endPosition, dataSource.totalSize)
+        }
     }
 }
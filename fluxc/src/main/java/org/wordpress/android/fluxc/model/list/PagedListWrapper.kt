@@ -30,6 +30,8 @@ import kotlin.coroutines.CoroutineContext
  * can be directly used in the UI.
  * @property listError A [LiveData] instance that tells whether the last fetch resulted in an error. It can be used
  * to either let the user know of each error or present the error in the empty view when it's visible.
+ * @property prefetchStats A [LiveData] instance that tells how often the next page arrived before the user scrolled to
+ * the end of the list, and how often the user had to wait for it.
  */
 class PagedListWrapper<T>(
     val data: LiveData<PagedList<T>>,
@@ -38,7 +40,8 @@ class PagedListWrapper<T>(
     private val lifecycle: Lifecycle,
     private val refresh: () -> Unit,
     private val invalidate: () -> Unit,
-    private val parentCoroutineContext: CoroutineContext
+    private val parentCoroutineContext: CoroutineContext,
+    private val prefetchPolicy: ListPrefetchPolicy? = null
 ) : LifecycleObserver, CoroutineScope {
     private var job: Job = Job()
 
@@ -57,6 +60,9 @@ class PagedListWrapper<T>(
     private val _isEmpty = MediatorLiveData<Boolean>()
     val isEmpty: LiveData<Boolean> = _isEmpty
 
+    private val _prefetchStats = MutableLiveData<ListPrefetchStats>()
+    val prefetchStats: LiveData<ListPrefetchStats> = _prefetchStats
+
     /**
      * Register the dispatcher so we can handle `ListStore` events and add an observer for the lifecycle so we can
      * cleanup properly in `onDestroy`.
@@ -65,6 +71,7 @@ class PagedListWrapper<T>(
         _isEmpty.addSource(data) {
             _isEmpty.value = it?.isEmpty()
         }
+        prefetchPolicy?.onStatsChanged = { _prefetchStats.postValue(it) }
         dispatcher.register(this)
         lifecycle.addObserver(this)
     }
@@ -77,6 +84,7 @@ class PagedListWrapper<T>(
     private fun onDestroy() {
         lifecycle.removeObserver(this)
         dispatcher.unregister(this)
+        prefetchPolicy?.onStatsChanged = null
         job.cancel()
     }
 
@@ -109,6 +117,11 @@ class PagedListWrapper<T>(
         if (event.listDescriptor != listDescriptor) {
             return
         }
+        when (event.newState) {
+            ListState.CAN_LOAD_MORE, ListState.FETCHED -> prefetchPolicy?.onPageFetchFinished(succeeded = true)
+            ListState.ERROR -> prefetchPolicy?.onPageFetchFinished(succeeded = false)
+            else -> Unit
+        }
         _isFetchingFirstPage.postValue(event.newState.isFetchingFirstPage())
         _isLoadingMore.postValue(event.newState.isLoadingMore())
         _listError.postValue(event.error)
@@ -117,11 +130,15 @@ class PagedListWrapper<T>(
     /**
      * Handles the [OnListChanged] `ListStore` event. It'll invalidate the data, so it can be reloaded. It'll also
      * updates whether the list is empty or not.
+     *
+     * The data is left as is if the event tells that none of the items of the list changed, since the positional
+     * data source of the list can only be invalidated as a whole. Changes to the items themselves are handled
+     * through [OnListDataInvalidated].
      */
     @Subscribe(threadMode = ThreadMode.BACKGROUND)
     @Suppress("unused")
     fun onListChanged(event: OnListChanged) {
-        if (!event.listDescriptors.contains(listDescriptor)) {
+        if (!event.listDescriptors.contains(listDescriptor) || event.changes?.isEmpty() == true) {
             return
         }
         invalidateData()
@@ -18,28 +18,74 @@ import org.wordpress.android.fluxc.model.list.ListDescriptor
  *
  * Most importantly, by separating this component, we are able to keep a single instance of [ListItemDataSourceInterface]
  * and hide the requirement for identifiers needing to be cached from it.
+ *
+ * If the [ListItemDataSourceInterface] has one item per remote id, only the number of items is taken as a snapshot
+ * instead, and the remote ids of each range are read as it's requested.
  */
-class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM>(
+class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM> private constructor(
     private val listDescriptor: LIST_DESCRIPTOR,
-    remoteItemIds: List<RemoteId>,
-    isListFullyFetched: Boolean,
-    private val itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    private val itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+    /**
+     * Number of items the list contains.
+     *
+     * Since [InternalPagedListDataSource] takes a snapshot of the list when it's created, this value will be valid
+     * and unchanged during the lifecycle of this instance.
+     */
+    val totalSize: Int,
+    private val getItemIdentifiersInRange: (startPosition: Int, endPosition: Int) -> List<ITEM_IDENTIFIER>,
+    private val hasListChanged: () -> Boolean
 ) {
     /*
      * PagedList library needs a snapshot of the data. It does the heavy lifting by caching the items provided to it,
      * but it still needs a consistent list of identifiers to work with. In order to do that, we take a snapshot of the
      * current identifiers and work with those until a new instance is created by PagedList.
      */
-    private val itemIdentifiers = itemDataSource.getItemIdentifiers(listDescriptor, remoteItemIds, isListFullyFetched)
+    constructor(
+        listDescriptor: LIST_DESCRIPTOR,
+        remoteItemIds: List<RemoteId>,
+        isListFullyFetched: Boolean,
+        itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    ) : this(
+            listDescriptor,
+            itemDataSource,
+            itemDataSource.getItemIdentifiers(listDescriptor, remoteItemIds, isListFullyFetched)
+    )
+
+    private constructor(
+        listDescriptor: LIST_DESCRIPTOR,
+        itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+        itemIdentifiers: List<ITEM_IDENTIFIER>
+    ) : this(listDescriptor, itemDataSource, itemIdentifiers.size, itemIdentifiers::subList, { false })
 
     /**
-     * Number of items the list contains.
+     * Creates an instance for a list whose [itemDataSource] has one item per remote id. Only the [totalSize] of the
+     * list is kept and the remote ids of each range are read with [getRemoteItemIdsInRange] when it's requested.
      *
-     * Since [InternalPagedListDataSource] takes a snapshot of the identifiers for the list when it's created, this
-     * value will be valid and unchanged during the lifecycle of this instance.
+     * Since the positions of the items after an inserted or removed item shift, a range of the same size may no longer
+     * hold the items of the snapshot: [hasListChanged] is called after reading each range and should return `true` if
+     * the list changed since the [totalSize] was read.
      */
-    val totalSize: Int
-        get() = itemIdentifiers.size
+    constructor(
+        listDescriptor: LIST_DESCRIPTOR,
+        totalSize: Int,
+        getRemoteItemIdsInRange: (startPosition: Int, endPosition: Int) -> List<RemoteId>,
+        hasListChanged: () -> Boolean,
+        isListFullyFetched: Boolean,
+        itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+    ) : this(listDescriptor, itemDataSource, totalSize, { startPosition, endPosition ->
+        itemDataSource.getItemIdentifiers(
+                listDescriptor,
+                getRemoteItemIdsInRange(startPosition, endPosition),
+                isListFullyFetched
+        )
+    }, hasListChanged)
+
+    /**
+     * Whether the list changed since this instance was created, so a range may not hold the items of the snapshot.
+     * Such an instance should be replaced.
+     */
+    @Volatile var isOutdated = false
+        private set
 
     /**
      * Returns the list of items [LIST_ITEM] by propagating the call to [ListItemDataSourceInterface]
@@ -51,8 +97,8 @@ class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIF
             itemDataSource.getItemsAndFetchIfNecessary(listDescriptor, getItemIds(startPosition, endPosition))
 
     /**
-     * Helper function that returns the list [ITEM_IDENTIFIER]s for the given start and end positions using the
-     * internal [itemIdentifiers].
+     * Helper function that returns the list [ITEM_IDENTIFIER]s for the given start and end positions, either from
+     * the snapshot of the identifiers or from the range of the list.
      *
      * @param startPosition Start position that's inclusive
      * @param endPosition End position that's exclusive
@@ -62,6 +108,10 @@ class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIF
             "Illegal start($startPosition) or end($endPosition) position for totalSize($totalSize)"
         }
 
-        return itemIdentifiers.subList(startPosition, endPosition)
+        return getItemIdentifiersInRange(startPosition, endPosition).also {
+            if (it.size != endPosition - startPosition || hasListChanged()) {
+                isOutdated = true
+            }
+        }
     }
 }
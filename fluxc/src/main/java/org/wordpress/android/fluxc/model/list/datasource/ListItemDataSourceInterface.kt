@@ -34,6 +34,13 @@ interface ListItemDataSourceInterface<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDE
         isListFullyFetched: Boolean
     ): List<ITEM_IDENTIFIER>
 
+    /**
+     * Should return `true` if [getItemIdentifiers] returns exactly one [ITEM_IDENTIFIER] for each remote id, in the
+     * same order, regardless of the rest of the list. The remote ids of such lists are then read one range at a time
+     * as the list is scrolled, instead of all at once every time the list is invalidated.
+     */
+    fun hasOneItemPerRemoteId(listDescriptor: LIST_DESCRIPTOR): Boolean = false
+
     /**
      * Should fetch the list for the given [LIST_DESCRIPTOR] and an offset.
      */
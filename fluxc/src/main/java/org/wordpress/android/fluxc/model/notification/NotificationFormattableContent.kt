@@ -0,0 +1,100 @@
+package org.wordpress.android.fluxc.model.notification
+
+import org.wordpress.android.fluxc.tools.FormattableContent
+import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import org.wordpress.android.fluxc.tools.FormattableMeta
+
+/**
+ * The formattable body, subject and meta of a [NotificationModel].
+ *
+ * When read from the database, each of them is only decoded from its JSON the first time it's accessed, so listing
+ * notifications doesn't pay for parsing the content of the ones which are never displayed. The JSON of a field is
+ * null once it's been replaced, or if the field itself is null.
+ */
+internal class NotificationFormattableContent private constructor(
+    // Whether all the fields are read from their JSON
+    private val isFromJson: Boolean,
+    internal val bodyJson: String?,
+    internal val subjectJson: String?,
+    internal val metaJson: String?,
+    bodyProvider: () -> List<FormattableContent>?,
+    subjectProvider: () -> List<FormattableContent>?,
+    metaProvider: () -> FormattableMeta?
+) {
+    constructor(
+        body: List<FormattableContent>? = null,
+        subject: List<FormattableContent>? = null,
+        meta: FormattableMeta? = null
+    ) : this(false, null, null, null, { body }, { subject }, { meta })
+
+    val body: List<FormattableContent>? by lazy(bodyProvider)
+    val subject: List<FormattableContent>? by lazy(subjectProvider)
+    val meta: FormattableMeta? by lazy(metaProvider)
+
+    /**
+     * @return whether this content was decoded from the given JSON
+     */
+    internal fun hasJson(bodyJson: String?, subjectJson: String?, metaJson: String?): Boolean {
+        return isFromJson && this.bodyJson == bodyJson && this.subjectJson == subjectJson && this.metaJson == metaJson
+    }
+
+    /**
+     * @return this content with the given fields replaced, the other ones keep their JSON and are still only decoded
+     * when accessed
+     */
+    fun copy(
+        body: List<FormattableContent>? = UNCHANGED_CONTENT,
+        subject: List<FormattableContent>? = UNCHANGED_CONTENT,
+        meta: FormattableMeta? = UNCHANGED_META
+    ): NotificationFormattableContent {
+        val isBodyUnchanged = body === UNCHANGED_CONTENT
+        val isSubjectUnchanged = subject === UNCHANGED_CONTENT
+        val isMetaUnchanged = meta === UNCHANGED_META
+        if (isBodyUnchanged && isSubjectUnchanged && isMetaUnchanged) {
+            return this
+        }
+        return NotificationFormattableContent(
+                false,
+                if (isBodyUnchanged) bodyJson else null,
+                if (isSubjectUnchanged) subjectJson else null,
+                if (isMetaUnchanged) metaJson else null,
+                if (isBodyUnchanged) ({ this.body }) else ({ body }),
+                if (isSubjectUnchanged) ({ this.subject }) else ({ subject }),
+                if (isMetaUnchanged) ({ this.meta }) else ({ meta })
+        )
+    }
+
+    /**
+     * @return whether this content is the same as the [other] one, only decoding them if they weren't read from the
+     * same JSON
+     */
+    fun hasSameContent(other: NotificationFormattableContent): Boolean {
+        if (this === other) return true
+        if (isFromJson && other.hasJson(bodyJson, subjectJson, metaJson)) return true
+        return body == other.body && subject == other.subject && meta == other.meta
+    }
+
+    companion object {
+        // Default values of the fields which aren't replaced by a copy, compared by identity
+        val UNCHANGED_CONTENT: List<FormattableContent> = ArrayList(0)
+        val UNCHANGED_META = FormattableMeta()
+
+        /**
+         * @return the content encoded in the given JSON, decoding each field with the mapper on first access
+         */
+        fun fromJson(
+            bodyJson: String?,
+            subjectJson: String?,
+            metaJson: String?,
+            formattableContentMapper: FormattableContentMapper
+        ) = NotificationFormattableContent(
+                true,
+                bodyJson,
+                subjectJson,
+                metaJson,
+                { bodyJson?.let { formattableContentMapper.mapToFormattableContentList(it) } },
+                { subjectJson?.let { formattableContentMapper.mapToFormattableContentList(it) } },
+                { metaJson?.let { formattableContentMapper.mapToFormattableMeta(it) } }
+        )
+    }
+}
@@ -4,7 +4,14 @@ import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableMeta
 import java.util.Locale
 
-data class NotificationModel(
+/**
+ * A notification, with the API of a data class.
+ *
+ * The [body], [subject] and [meta] of a notification read from the database are only decoded from their JSON the
+ * first time they're accessed, which is why this isn't a data class: [hashCode] never decodes them and [equals] only
+ * does when comparing notifications that weren't read from the same JSON.
+ */
+class NotificationModel(
     val noteId: Int = 0,
     val remoteNoteId: Long = 0L,
 
@@ -20,10 +27,140 @@ data class NotificationModel(
     val timestamp: String? = null,
     val url: String? = null,
     val title: String? = null,
-    val body: List<FormattableContent>? = null,
-    val subject: List<FormattableContent>? = null,
-    val meta: FormattableMeta? = null
+    body: List<FormattableContent>? = null,
+    subject: List<FormattableContent>? = null,
+    meta: FormattableMeta? = null
 ) {
+    private var content = NotificationFormattableContent(body, subject, meta)
+
+    internal constructor(
+        noteId: Int,
+        remoteNoteId: Long,
+        remoteSiteId: Long,
+        noteHash: Long,
+        type: Kind,
+        subtype: Subkind?,
+        read: Boolean,
+        icon: String?,
+        noticon: String?,
+        timestamp: String?,
+        url: String?,
+        title: String?,
+        content: NotificationFormattableContent
+    ) : this(noteId, remoteNoteId, remoteSiteId, noteHash, type, subtype, read, icon, noticon, timestamp, url, title) {
+        this.content = content
+    }
+
+    val body: List<FormattableContent>?
+        get() = content.body
+    val subject: List<FormattableContent>?
+        get() = content.subject
+    val meta: FormattableMeta?
+        get() = content.meta
+
+    /**
+     * The content of this notification, either decoded or still holding the JSON it was read from.
+     */
+    internal val formattableContent: NotificationFormattableContent
+        get() = content
+
+    operator fun component1() = noteId
+    operator fun component2() = remoteNoteId
+    operator fun component3() = remoteSiteId
+    operator fun component4() = noteHash
+    operator fun component5() = type
+    operator fun component6() = subtype
+    operator fun component7() = read
+    operator fun component8() = icon
+    operator fun component9() = noticon
+    operator fun component10() = timestamp
+    operator fun component11() = url
+    operator fun component12() = title
+    operator fun component13() = body
+    operator fun component14() = subject
+    operator fun component15() = meta
+
+    /**
+     * Same as the `copy` of a data class. The [body], [subject] and [meta] which aren't passed are shared with this
+     * notification without being decoded, along with the JSON they were read from.
+     */
+    fun copy(
+        noteId: Int = this.noteId,
+        remoteNoteId: Long = this.remoteNoteId,
+        remoteSiteId: Long = this.remoteSiteId,
+        noteHash: Long = this.noteHash,
+        type: Kind = this.type,
+        subtype: Subkind? = this.subtype,
+        read: Boolean = this.read,
+        icon: String? = this.icon,
+        noticon: String? = this.noticon,
+        timestamp: String? = this.timestamp,
+        url: String? = this.url,
+        title: String? = this.title,
+        body: List<FormattableContent>? = NotificationFormattableContent.UNCHANGED_CONTENT,
+        subject: List<FormattableContent>? = NotificationFormattableContent.UNCHANGED_CONTENT,
+        meta: FormattableMeta? = NotificationFormattableContent.UNCHANGED_META
+    ): NotificationModel {
+        return NotificationModel(
+                noteId,
+                remoteNoteId,
+                remoteSiteId,
+                noteHash,
+                type,
+                subtype,
+                read,
+                icon,
+                noticon,
+                timestamp,
+                url,
+                title,
+                content.copy(body, subject, meta)
+        )
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is NotificationModel) return false
+        return noteId == other.noteId &&
+                remoteNoteId == other.remoteNoteId &&
+                remoteSiteId == other.remoteSiteId &&
+                noteHash == other.noteHash &&
+                type == other.type &&
+                subtype == other.subtype &&
+                read == other.read &&
+                icon == other.icon &&
+                noticon == other.noticon &&
+                timestamp == other.timestamp &&
+                url == other.url &&
+                title == other.title &&
+                content.hasSameContent(other.content)
+    }
+
+    /**
+     * Doesn't hash the content, which would decode it. The [noteHash] changes along with it.
+     */
+    override fun hashCode(): Int {
+        var result = noteId
+        result = 31 * result + remoteNoteId.hashCode()
+        result = 31 * result + remoteSiteId.hashCode()
+        result = 31 * result + noteHash.hashCode()
+        result = 31 * result + type.hashCode()
+        result = 31 * result + (subtype?.hashCode() ?: 0)
+        result = 31 * result + read.hashCode()
+        result = 31 * result + (icon?.hashCode() ?: 0)
+        result = 31 * result + (noticon?.hashCode() ?: 0)
+        result = 31 * result + (timestamp?.hashCode() ?: 0)
+        result = 31 * result + (url?.hashCode() ?: 0)
+        result = 31 * result + (title?.hashCode() ?: 0)
+        return result
+    }
+
+    override fun toString(): String {
+        return "NotificationModel(noteId=$noteId, remoteNoteId=$remoteNoteId, remoteSiteId=$remoteSiteId, " +
+                "noteHash=$noteHash, type=$type, subtype=$subtype, read=$read, icon=$icon, noticon=$noticon, " +
+                "timestamp=$timestamp, url=$url, title=$title, body=$body, subject=$subject, meta=$meta)"
+    }
+
     enum class Kind {
         AUTOMATTCHER,
         COMMENT,
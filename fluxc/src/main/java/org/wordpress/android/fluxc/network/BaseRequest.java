@@ -18,6 +18,7 @@ import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.HttpHeaderParser;
 
+import org.wordpress.android.fluxc.ActionMetrics;
 import org.wordpress.android.fluxc.FluxCError;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
@@ -58,6 +59,10 @@ public abstract class BaseRequest<T> extends Request<T> {
     private int mCacheTtl;
     private int mCacheSoftTtl;
 
+    // The operation this request is part of, when metrics are enabled (see MetricsResponseDelivery)
+    private final ActionMetrics.Trace mMetricsTrace = ActionMetrics.getCurrentTrace();
+    private final long mCreatedAtNanos = System.nanoTime();
+
     public static class BaseNetworkError implements FluxCError {
         public GenericErrorType type;
         public String message;
@@ -133,6 +138,14 @@ public abstract class BaseRequest<T> extends Request<T> {
                 DefaultRetryPolicy.DEFAULT_MAX_RETRIES, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
     }
 
+    ActionMetrics.Trace getMetricsTrace() {
+        return mMetricsTrace;
+    }
+
+    long getCreatedAtNanos() {
+        return mCreatedAtNanos;
+    }
+
     @Override
     public String getUrl() {
         return mUri.toString();
@@ -236,6 +249,10 @@ public abstract class BaseRequest<T> extends Request<T> {
      * given are used to configure the cache entry.
      *
      * Otherwise, just generate a cache entry from the response's cache headers (default behaviour).
+     *
+     * The entry keeps the ETag and Last-Modified headers of the response, which Volley sends back as
+     * If-None-Match and If-Modified-Since once the entry expires: a 304 response then refreshes the entry without
+     * downloading the payload again.
      */
     protected Cache.Entry createCacheEntry(NetworkResponse response) {
         Cache.Entry cacheEntry = HttpHeaderParser.parseCacheHeaders(response);
@@ -257,6 +274,9 @@ public abstract class BaseRequest<T> extends Request<T> {
                 cacheEntry.lastModified = HttpHeaderParser.parseDateAsEpoch(headerValue);
             }
 
+            // Keep the validators, so expired entries are revalidated with a conditional request
+            cacheEntry.etag = response.headers.get("ETag");
+
             cacheEntry.data = response.data;
             cacheEntry.responseHeaders = response.headers;
         }
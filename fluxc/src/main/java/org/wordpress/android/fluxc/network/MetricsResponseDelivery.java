@@ -0,0 +1,92 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.ResponseDelivery;
+import com.android.volley.VolleyError;
+
+import org.wordpress.android.fluxc.ActionMetrics;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers the responses on the main thread like Volley's default delivery, and feeds {@link ActionMetrics}: the
+ * time between the creation of a request and its response counts as network time for the operation which sent it,
+ * and that operation stays the current one while the response listeners run, so the actions they dispatch are
+ * attributed to it.
+ */
+public class MetricsResponseDelivery implements ResponseDelivery {
+    private final ExecutorDelivery mDelivery;
+    // Trace of the request being posted, read by the executor, which ExecutorDelivery calls synchronously
+    private final ThreadLocal<ActionMetrics.Trace> mPostedTrace = new ThreadLocal<>();
+
+    public MetricsResponseDelivery() {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        mDelivery = new ExecutorDelivery(new Executor() {
+            @Override
+            public void execute(@NonNull final Runnable command) {
+                final ActionMetrics.Trace trace = mPostedTrace.get();
+                if (trace == null) {
+                    handler.post(command);
+                    return;
+                }
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        ActionMetrics.Trace previousTrace = ActionMetrics.resumeTrace(trace);
+                        try {
+                            command.run();
+                        } finally {
+                            ActionMetrics.resumeTrace(previousTrace);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void postResponse(Request<?> request, Response<?> response) {
+        postResponse(request, response, null);
+    }
+
+    @Override
+    public void postResponse(Request<?> request, Response<?> response, Runnable runnable) {
+        ActionMetrics.Trace trace = getTrace(request, !response.intermediate);
+        mPostedTrace.set(trace);
+        try {
+            mDelivery.postResponse(request, response, runnable);
+        } finally {
+            mPostedTrace.remove();
+        }
+    }
+
+    @Override
+    public void postError(Request<?> request, VolleyError error) {
+        ActionMetrics.Trace trace = getTrace(request, true);
+        mPostedTrace.set(trace);
+        try {
+            mDelivery.postError(request, error);
+        } finally {
+            mPostedTrace.remove();
+        }
+    }
+
+    private static ActionMetrics.Trace getTrace(Request<?> request, boolean recordNetworkTime) {
+        if (!(request instanceof BaseRequest) || !ActionMetrics.isEnabled()) {
+            return null;
+        }
+        BaseRequest<?> baseRequest = (BaseRequest<?>) request;
+        ActionMetrics.Trace trace = baseRequest.getMetricsTrace();
+        if (recordNetworkTime) {
+            ActionMetrics.addNetworkTime(trace, System.nanoTime() - baseRequest.getCreatedAtNanos());
+        }
+        return trace;
+    }
+}
@@ -15,6 +15,7 @@ import org.apache.http.message.BasicStatusLine;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
@@ -31,22 +32,25 @@ import okhttp3.ResponseBody;
  *
  * OkHttp backed {@link HttpStack HttpStack} that does not
  * use okhttp-urlconnection
+ *
+ * The base {@link OkHttpClient} is built once and every per-request timeout variant is derived from it with
+ * {@link OkHttpClient#newBuilder()}, so all of them share the same connection pool, dispatcher and TLS session cache.
  */
 public class OkHttpStack implements HttpStack {
-    private final OkHttpClient.Builder mClientBuilder;
+    private final OkHttpClient mBaseClient;
+    private final ConcurrentHashMap<Integer, OkHttpClient> mClientsByTimeout = new ConcurrentHashMap<>();
+
+    public OkHttpStack(OkHttpClient baseClient) {
+        mBaseClient = baseClient;
+    }
 
     public OkHttpStack(OkHttpClient.Builder clientBuilder) {
-        this.mClientBuilder = clientBuilder;
+        this(clientBuilder.build());
     }
 
     @Override
     public HttpResponse performRequest(Request<?> request, Map<String, String> additionalHeaders)
             throws IOException, AuthFailureError {
-        int timeoutMs = request.getTimeoutMs();
-        mClientBuilder.connectTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-        mClientBuilder.readTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-        mClientBuilder.writeTimeout(timeoutMs, TimeUnit.MILLISECONDS);
-
         Builder okHttpRequestBuilder = new okhttp3.Request.Builder();
         okHttpRequestBuilder.url(request.getUrl());
 
@@ -60,7 +64,7 @@ public class OkHttpStack implements HttpStack {
 
         setConnectionParametersForRequest(okHttpRequestBuilder, request);
 
-        OkHttpClient client = mClientBuilder.build();
+        OkHttpClient client = getClientForTimeout(request.getTimeoutMs());
         okhttp3.Request okHttpRequest = okHttpRequestBuilder.build();
         Call okHttpCall = client.newCall(okHttpRequest);
         okhttp3.Response okHttpResponse = okHttpCall.execute();
@@ -81,6 +85,30 @@ public class OkHttpStack implements HttpStack {
         return response;
     }
 
+    /**
+     * Returns a client using the given timeout for connect, read and write, derived from the base client.
+     * Volley requests only use a handful of distinct timeouts, so the derived clients are cached.
+     */
+    OkHttpClient getClientForTimeout(int timeoutMs) {
+        if (mBaseClient.connectTimeoutMillis() == timeoutMs && mBaseClient.readTimeoutMillis() == timeoutMs
+            && mBaseClient.writeTimeoutMillis() == timeoutMs) {
+            return mBaseClient;
+        }
+        OkHttpClient client = mClientsByTimeout.get(timeoutMs);
+        if (client == null) {
+            client = mBaseClient.newBuilder()
+                                .connectTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                                .build();
+            OkHttpClient existing = mClientsByTimeout.putIfAbsent(timeoutMs, client);
+            if (existing != null) {
+                client = existing;
+            }
+        }
+        return client;
+    }
+
     private static HttpEntity entityFromOkHttpResponse(okhttp3.Response r) throws IOException {
         BasicHttpEntity entity = new BasicHttpEntity();
         ResponseBody body = r.body();
@@ -0,0 +1,177 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+/**
+ * Upload {@link Call} that is sent again when the connection fails before the request body was completely sent,
+ * after an exponential backoff, so a transient connectivity loss doesn't fail the upload.
+ *
+ * A failure after the whole body was sent, such as a read timeout, isn't retried: the server may already have
+ * created the media, and sending the request again would upload a duplicate.
+ *
+ * The media endpoints don't accept partial bodies, so every attempt sends the whole request again. The request body
+ * must support being written more than once, as {@link BaseUploadRequestBody} implementations do.
+ */
+public class RetryingUploadCall {
+    static final int MAX_ATTEMPTS = 3;
+    static final long INITIAL_BACKOFF_MS = 2000;
+
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RetryingUploadCall");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final int mMaxAttempts;
+    private final long mInitialBackoffMs;
+    private Call mCall;
+    private ScheduledFuture<?> mScheduledRetry;
+    private int mAttemptCount = 0;
+    private boolean mCanceled = false;
+    private boolean mBodySent = false;
+
+    public RetryingUploadCall(OkHttpClient okHttpClient, Request request) {
+        this(okHttpClient, request, MAX_ATTEMPTS, INITIAL_BACKOFF_MS);
+    }
+
+    RetryingUploadCall(OkHttpClient okHttpClient, Request request, int maxAttempts, long initialBackoffMs) {
+        if (request.body() == null) {
+            throw new IllegalArgumentException("An upload request needs a body");
+        }
+        mCall = okHttpClient.newCall(request.newBuilder()
+                .method(request.method(), new SentTrackingRequestBody(request.body()))
+                .build());
+        mMaxAttempts = maxAttempts;
+        mInitialBackoffMs = initialBackoffMs;
+    }
+
+    /**
+     * Sends the request, {@code callback} being notified of the response, or of the failure of the last attempt.
+     */
+    public synchronized void enqueue(final Callback callback) {
+        if (mAttemptCount > 0) {
+            throw new IllegalStateException("Already executed");
+        }
+        enqueueAttempt(callback);
+    }
+
+    public synchronized void cancel() {
+        mCanceled = true;
+        if (mScheduledRetry != null) {
+            mScheduledRetry.cancel(false);
+        }
+        mCall.cancel();
+    }
+
+    public synchronized boolean isCanceled() {
+        return mCanceled;
+    }
+
+    /**
+     * @return the number of times the request was sent so far
+     */
+    public synchronized int getAttemptCount() {
+        return mAttemptCount;
+    }
+
+    private void enqueueAttempt(final Callback callback) {
+        mAttemptCount++;
+        mBodySent = false;
+        mCall.enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
+                callback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                if (!scheduleRetry(callback, e)) {
+                    callback.onFailure(call, e);
+                }
+            }
+        });
+    }
+
+    private synchronized boolean scheduleRetry(final Callback callback, IOException e) {
+        if (mCanceled || mAttemptCount >= mMaxAttempts || mBodySent || !isTransient(e)) {
+            return false;
+        }
+        long backoffMs = mInitialBackoffMs << (mAttemptCount - 1);
+        AppLog.w(T.MEDIA, "Upload attempt " + mAttemptCount + " failed, retrying in " + backoffMs + "ms: " + e);
+        mScheduledRetry = SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (RetryingUploadCall.this) {
+                    if (mCanceled) {
+                        return;
+                    }
+                    mCall = mCall.clone();
+                    enqueueAttempt(callback);
+                }
+            }
+        }, backoffMs, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private static boolean isTransient(IOException e) {
+        // Certificate errors won't go away by sending the request again
+        return !(e instanceof SSLHandshakeException) && !(e instanceof SSLPeerUnverifiedException);
+    }
+
+    private synchronized void onBodySent() {
+        mBodySent = true;
+    }
+
+    /**
+     * Records when the body of the current attempt was completely written to the connection.
+     */
+    private class SentTrackingRequestBody extends RequestBody {
+        private final RequestBody mDelegate;
+
+        SentTrackingRequestBody(RequestBody delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mDelegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return mDelegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            mDelegate.writeTo(sink);
+            onBodySent();
+        }
+    }
+}
@@ -114,12 +114,27 @@ public abstract class BaseWPComRestClient {
 
     private Request addRequest(BaseRequest request) {
         request.setOnParseErrorListener(mOnParseErrorListener);
+        applyCachePolicy(request);
         if (request.shouldCache() && request.shouldForceUpdate()) {
             mRequestQueue.getCache().invalidate(request.mUri.toString(), true);
         }
         return mRequestQueue.add(request);
     }
 
+    /**
+     * Enables caching for the GET requests of the endpoints listed in {@link WPComCachePolicies}, unless the caller
+     * already configured it.
+     */
+    private void applyCachePolicy(BaseRequest request) {
+        if (request.getMethod() != Request.Method.GET || request.shouldCache()) {
+            return;
+        }
+        int timeToLive = WPComCachePolicies.getTimeToLive(request.getUrl());
+        if (timeToLive > 0) {
+            request.enableCaching(timeToLive);
+        }
+    }
+
     private void addLocaleToRequest(BaseRequest request) {
         String url = request.getUrl();
         // Sanity check
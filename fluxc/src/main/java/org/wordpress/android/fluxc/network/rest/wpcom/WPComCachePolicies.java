@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.network.rest.wpcom;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache lifetimes of the WordPress.com GET endpoints whose responses are cached by default, declared with the
+ * endpoint syntax of wp-com-endpoints.txt and wp-com-v2-endpoints.txt.
+ *
+ * A cached response is returned without any network call for the lifetime of its endpoint. After that the request
+ * is sent with the ETag and Last-Modified of the cached response, and a 304 response refreshes the cache entry
+ * instead of downloading the payload again.
+ *
+ * Only list endpoints returning data that rarely changes, and that the app doesn't change itself: a stale response
+ * is served until its lifetime expires, unless the request is forced (see
+ * {@link org.wordpress.android.fluxc.network.BaseRequest#setShouldForceUpdate()}). The responses must also be the
+ * same for every user, since the cache key is the URL alone and isn't cleared when the account changes.
+ */
+class WPComCachePolicies {
+    private static final int MINUTE = 60 * 1000;
+    private static final int HOUR = 60 * MINUTE;
+    private static final int DAY = 24 * HOUR;
+
+    private static final Pattern API_PREFIX_PATTERN = Pattern.compile("^/(rest/v1(\\.\\d)?|wpcom/v2)(?=/)");
+    private static final Pattern ENDPOINT_VARIABLE_PATTERN = Pattern.compile("\\$[^/]+");
+
+    private static final Map<Pattern, Integer> TIMES_TO_LIVE = new LinkedHashMap<>();
+
+    static {
+        // WPCOMREST
+        add("/domains/supported-countries/", DAY);
+        add("/domains/supported-states/$countryCode#String/", DAY);
+        add("/themes/", HOUR);
+    }
+
+    private WPComCachePolicies() {}
+
+    /**
+     * @return the cache lifetime of the endpoint of the given URL in milliseconds, 0 if its responses aren't cached
+     */
+    static int getTimeToLive(@NonNull String url) {
+        String path = Uri.parse(url).getPath();
+        if (path == null) {
+            return 0;
+        }
+        Matcher prefixMatcher = API_PREFIX_PATTERN.matcher(path);
+        if (!prefixMatcher.find()) {
+            return 0;
+        }
+        String endpoint = path.substring(prefixMatcher.end());
+        if (!endpoint.endsWith("/")) {
+            endpoint += "/";
+        }
+        for (Map.Entry<Pattern, Integer> entry : TIMES_TO_LIVE.entrySet()) {
+            if (entry.getKey().matcher(endpoint).matches()) {
+                return entry.getValue();
+            }
+        }
+        return 0;
+    }
+
+    private static void add(String endpoint, int timeToLive) {
+        StringBuilder regex = new StringBuilder();
+        Matcher variableMatcher = ENDPOINT_VARIABLE_PATTERN.matcher(endpoint);
+        int literalStart = 0;
+        while (variableMatcher.find()) {
+            regex.append(Pattern.quote(endpoint.substring(literalStart, variableMatcher.start()))).append("[^/]+");
+            literalStart = variableMatcher.end();
+        }
+        regex.append(Pattern.quote(endpoint.substring(literalStart)));
+        TIMES_TO_LIVE.put(Pattern.compile(regex.toString()), timeToLive);
+    }
+}
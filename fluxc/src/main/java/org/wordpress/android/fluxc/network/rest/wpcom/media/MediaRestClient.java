@@ -25,6 +25,7 @@ import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.StockMediaModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
+import org.wordpress.android.fluxc.network.RetryingUploadCall;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
@@ -82,7 +83,7 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
     private OkHttpClient mOkHttpClient;
     // this will hold which media is being uploaded by which call, in order to be able
     // to monitor multiple uploads
-    private ConcurrentHashMap<Integer, Call> mCurrentUploadCalls = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, RetryingUploadCall> mCurrentUploadCalls = new ConcurrentHashMap<>();
 
     public MediaRestClient(Context appContext, Dispatcher dispatcher, RequestQueue requestQueue,
                            OkHttpClient okHttpClient, AccessToken accessToken, UserAgent userAgent) {
@@ -189,7 +190,7 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                 .post(body)
                 .build();
 
-        Call call = mOkHttpClient.newCall(request);
+        RetryingUploadCall call = new RetryingUploadCall(mOkHttpClient, request);
         mCurrentUploadCalls.put(media.getId(), call);
 
         AppLog.d(T.MEDIA, "starting upload for: " + media.getId());
@@ -373,8 +374,8 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
         }
 
         // cancel in-progress upload if necessary
-        Call correspondingCall = mCurrentUploadCalls.get(media.getId());
-        if (correspondingCall != null && correspondingCall.isExecuted() && !correspondingCall.isCanceled()) {
+        RetryingUploadCall correspondingCall = mCurrentUploadCalls.get(media.getId());
+        if (correspondingCall != null && !correspondingCall.isCanceled()) {
             AppLog.d(T.MEDIA, "Canceled in-progress upload: " + media.getFileName());
             removeCallFromCurrentUploadsMap(media.getId());
             correspondingCall.cancel();
@@ -44,6 +44,7 @@ import org.wordpress.android.fluxc.store.PostStore.DeletedPostPayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostStatusResponsePayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchRevisionsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.PostDeleteActionType;
@@ -105,6 +106,55 @@ public class PostRestClient extends BaseWPComRestClient {
         add(request);
     }
 
+    /**
+     * Fetches the given posts in a single request, using the {@code include} filter of the posts endpoint.
+     */
+    public void fetchPostsByIds(final List<PostModel> posts, final SiteModel site) {
+        String url = WPCOMREST.sites.site(site.getSiteId()).posts.getUrlV1_1();
+
+        List<Long> remotePostIds = new ArrayList<>(posts.size());
+        for (PostModel post : posts) {
+            remotePostIds.add(post.getRemotePostId());
+        }
+
+        Map<String, String> params = new HashMap<>();
+        params.put("context", "edit");
+        params.put("meta", "autosave");
+        params.put("number", String.valueOf(posts.size()));
+        // Posts and pages can be mixed in a batch, and we need them whatever their status is
+        params.put("type", "any");
+        params.put("status", "any");
+        params.put("include", TextUtils.join(",", remotePostIds));
+
+        final WPComGsonRequest<PostsResponse> request = WPComGsonRequest.buildGetRequest(url, params,
+                PostsResponse.class,
+                new Listener<PostsResponse>() {
+                    @Override
+                    public void onResponse(PostsResponse response) {
+                        List<PostModel> fetchedPosts = new ArrayList<>();
+                        for (PostWPComRestResponse postResponse : response.getPosts()) {
+                            PostModel fetchedPost = postResponseToPostModel(postResponse);
+                            fetchedPost.setLocalSiteId(site.getId());
+                            fetchedPosts.add(fetchedPost);
+                        }
+
+                        FetchPostsByIdsResponsePayload payload =
+                                new FetchPostsByIdsResponsePayload(posts, fetchedPosts, site);
+                        mDispatcher.dispatch(PostActionBuilder.newFetchedPostsByIdsAction(payload));
+                    }
+                },
+                new WPComErrorListener() {
+                    @Override
+                    public void onErrorResponse(@NonNull WPComGsonNetworkError error) {
+                        PostError postError = new PostError(error.apiError, error.message);
+                        FetchPostsByIdsResponsePayload payload =
+                                new FetchPostsByIdsResponsePayload(posts, site, postError);
+                        mDispatcher.dispatch(PostActionBuilder.newFetchedPostsByIdsAction(payload));
+                    }
+                });
+        add(request);
+    }
+
     public void fetchPostStatus(final PostModel post, final SiteModel site) {
         String url = WPCOMREST.sites.site(site.getSiteId()).posts.post(post.getRemotePostId()).getUrlV1_1();
 
@@ -40,6 +40,8 @@ import javax.inject.Singleton;
 @Singleton
 public class PluginWPOrgClient extends BaseWPOrgAPIClient {
     private static final int FETCH_PLUGIN_DIRECTORY_PAGE_SIZE = 50;
+    // The directory listings are cached, and revalidated with a conditional request once expired
+    private static final int PLUGIN_DIRECTORY_CACHE_LIFETIME = 60 * 60 * 1000;
     private final Dispatcher mDispatcher;
 
     public PluginWPOrgClient(Dispatcher dispatcher, RequestQueue requestQueue, UserAgent userAgent) {
@@ -88,6 +90,7 @@ public class PluginWPOrgClient extends BaseWPOrgAPIClient {
                             }
                         }
                 );
+        request.enableCaching(PLUGIN_DIRECTORY_CACHE_LIFETIME);
         add(request);
     }
 
@@ -122,6 +125,7 @@ public class PluginWPOrgClient extends BaseWPOrgAPIClient {
                             }
                         }
                 );
+        request.enableCaching(PLUGIN_DIRECTORY_CACHE_LIFETIME);
         add(request);
     }
 
@@ -24,6 +24,8 @@ public abstract class BaseXMLRPCClient {
     protected OnAuthFailedListener mOnAuthFailedListener;
     protected OnParseErrorListener mOnParseErrorListener;
 
+    private final XMLRPCMulticallBatcher mMulticallBatcher;
+
     public BaseXMLRPCClient(Dispatcher dispatcher, RequestQueue requestQueue, UserAgent userAgent,
                             HTTPAuthManager httpAuthManager) {
         mRequestQueue = requestQueue;
@@ -42,6 +44,12 @@ public abstract class BaseXMLRPCClient {
                 mDispatcher.emitChange(event);
             }
         };
+        mMulticallBatcher = new XMLRPCMulticallBatcher(new XMLRPCMulticallBatcher.RequestSender() {
+            @Override
+            public void send(XMLRPCRequest request) {
+                add(request);
+            }
+        });
     }
 
     protected Request add(XMLRPCRequest request) {
@@ -51,6 +59,21 @@ public abstract class BaseXMLRPCClient {
         return mRequestQueue.add(setRequestAuthParams(request));
     }
 
+    /**
+     * Queues the request to be sent along with the other requests queued for the same endpoint within a short window,
+     * as a single system.multicall call. Only use it for read-only calls that don't depend on each other.
+     */
+    protected void addToMulticall(XMLRPCRequest request) {
+        if (request.getClass() != XMLRPCRequest.class) {
+            // Subclasses decode the response body themselves, which can't be done for a single multicall result
+            add(request);
+            return;
+        }
+        // The request might never reach the queue, its listeners must be set before it's batched
+        setRequestAuthParams(request);
+        mMulticallBatcher.enqueue(request);
+    }
+
     protected Request add(DiscoveryRequest request) {
         return mRequestQueue.add(setRequestAuthParams(request));
     }
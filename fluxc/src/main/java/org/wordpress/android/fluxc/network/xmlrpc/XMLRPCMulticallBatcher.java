@@ -0,0 +1,118 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the XML-RPC requests queued for the same endpoint within a short window, and sends them as a single
+ * {@code system.multicall} request.
+ *
+ * A request queued while no other request was queued for its endpoint is sent right away, and opens the window: only
+ * the requests following it within the window wait to be batched.
+ *
+ * Endpoints rejecting {@code system.multicall} are remembered, and their requests are sent one by one from then on.
+ */
+class XMLRPCMulticallBatcher {
+    static final long BATCH_WINDOW_MS = 50;
+    static final int MAX_CALLS_PER_MULTICALL = 20;
+
+    interface RequestSender {
+        void send(XMLRPCRequest request);
+    }
+
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "XMLRPCMulticallBatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final RequestSender mRequestSender;
+    private final Map<String, List<XMLRPCRequest>> mPendingRequests = new HashMap<>();
+    private final Set<String> mUnsupportedUrls = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    XMLRPCMulticallBatcher(RequestSender requestSender) {
+        mRequestSender = requestSender;
+    }
+
+    void enqueue(XMLRPCRequest request) {
+        final String url = request.getUrl();
+        if (mUnsupportedUrls.contains(url)) {
+            mRequestSender.send(request);
+            return;
+        }
+
+        List<XMLRPCRequest> batch = null;
+        synchronized (mPendingRequests) {
+            List<XMLRPCRequest> pending = mPendingRequests.get(url);
+            if (pending == null) {
+                // Nothing else is queued for the endpoint: send the request without waiting, and batch the next ones
+                final List<XMLRPCRequest> scheduledBatch = new ArrayList<>();
+                mPendingRequests.put(url, scheduledBatch);
+                SCHEDULER.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(url, scheduledBatch);
+                    }
+                }, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+                batch = Collections.singletonList(request);
+            } else {
+                pending.add(request);
+                if (pending.size() >= MAX_CALLS_PER_MULTICALL) {
+                    mPendingRequests.remove(url);
+                    batch = pending;
+                }
+            }
+        }
+
+        if (batch != null) {
+            send(url, batch);
+        }
+    }
+
+    boolean isMulticallUnsupported(String url) {
+        return mUnsupportedUrls.contains(url);
+    }
+
+    void onMulticallUnsupported(String url, List<XMLRPCRequest> requests) {
+        mUnsupportedUrls.add(url);
+        for (XMLRPCRequest request : requests) {
+            mRequestSender.send(request);
+        }
+    }
+
+    private void flush(String url, List<XMLRPCRequest> batch) {
+        synchronized (mPendingRequests) {
+            // The batch may already have been sent because it was full
+            if (mPendingRequests.get(url) != batch) {
+                return;
+            }
+            mPendingRequests.remove(url);
+        }
+        send(url, batch);
+    }
+
+    private void send(String url, List<XMLRPCRequest> batch) {
+        if (batch.isEmpty()) {
+            // Only the request which opened the window was queued, and it has already been sent
+            return;
+        }
+        if (batch.size() == 1) {
+            mRequestSender.send(batch.get(0));
+        } else {
+            mRequestSender.send(new XMLRPCMulticallRequest(url, batch, this));
+        }
+    }
+}
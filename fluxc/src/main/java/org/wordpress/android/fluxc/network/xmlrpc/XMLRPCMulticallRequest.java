@@ -0,0 +1,98 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Response.Listener;
+import com.android.volley.VolleyError;
+
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
+import org.wordpress.android.util.MapUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a batch of XML-RPC requests to the same endpoint as a single {@code system.multicall} call, and delivers each
+ * call result (or fault) to the listeners of the request it belongs to.
+ *
+ * If the multicall itself is rejected, with a fault (the method is disabled or missing on some servers) or with a 403
+ * or 405 HTTP error (security plugins and firewalls blocking it), the batched requests are handed back to the
+ * {@link XMLRPCMulticallBatcher} to be sent one by one.
+ */
+class XMLRPCMulticallRequest extends XMLRPCRequest {
+    private final List<XMLRPCRequest> mRequests;
+
+    XMLRPCMulticallRequest(final String url, final List<XMLRPCRequest> requests,
+                           final XMLRPCMulticallBatcher batcher) {
+        super(url, XMLRPC.MULTICALL, createMulticallParams(requests), new Listener<Object[]>() {
+            @Override
+            public void onResponse(Object[] response) {
+                deliverCallResults(requests, response);
+            }
+        }, new BaseErrorListener() {
+            @Override
+            public void onErrorResponse(@NonNull BaseNetworkError error) {
+                if (isMulticallRejected(error)) {
+                    batcher.onMulticallUnsupported(url, requests);
+                    return;
+                }
+                VolleyError volleyError = error.hasVolleyError() ? error.volleyError : new VolleyError(error.message);
+                for (XMLRPCRequest request : requests) {
+                    request.deliverError(volleyError);
+                }
+            }
+        });
+        mRequests = requests;
+    }
+
+    List<XMLRPCRequest> getRequests() {
+        return mRequests;
+    }
+
+    @Override
+    public BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error) {
+        // Authentication errors are reported by the batched requests themselves, once the error is fanned out to them
+        return error;
+    }
+
+    private static boolean isMulticallRejected(BaseNetworkError error) {
+        if (!error.hasVolleyError()) {
+            return false;
+        }
+        if (error.volleyError.getCause() instanceof XMLRPCFault) {
+            return true;
+        }
+        NetworkResponse networkResponse = error.volleyError.networkResponse;
+        return networkResponse != null && (networkResponse.statusCode == 403 || networkResponse.statusCode == 405);
+    }
+
+    private static List<Object> createMulticallParams(List<XMLRPCRequest> requests) {
+        List<XMLRPC> methods = new ArrayList<>(requests.size());
+        List<Object[]> callParams = new ArrayList<>(requests.size());
+        for (XMLRPCRequest request : requests) {
+            methods.add(request.getXMLRPCMethod());
+            callParams.add(request.getXMLRPCParams());
+        }
+        return XMLRPCUtils.createMulticallParams(methods, callParams);
+    }
+
+    private static void deliverCallResults(List<XMLRPCRequest> requests, Object[] response) {
+        for (int i = 0; i < requests.size(); i++) {
+            XMLRPCRequest request = requests.get(i);
+            Object result = response != null && i < response.length ? response[i] : null;
+            if (result instanceof Object[] && ((Object[]) result).length == 1) {
+                // Successful call results are wrapped in a single element array
+                request.deliverResponse(((Object[]) result)[0]);
+            } else if (result instanceof Map) {
+                Map fault = (Map) result;
+                request.deliverError(new VolleyError(new XMLRPCFault(MapUtils.getMapStr(fault, "faultString"),
+                        MapUtils.getMapInt(fault, "faultCode"))));
+            } else {
+                request.deliverError(new ParseError(new XMLRPCException("Invalid system.multicall result")));
+            }
+        }
+    }
+}
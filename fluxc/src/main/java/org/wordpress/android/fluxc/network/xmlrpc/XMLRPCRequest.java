@@ -27,7 +27,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.nio.charset.Charset;
 import java.util.List;
 
 
@@ -50,6 +49,14 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         mParams = (params == null ? null : params.toArray());
     }
 
+    XMLRPC getXMLRPCMethod() {
+        return mMethod;
+    }
+
+    Object[] getXMLRPCParams() {
+        return mParams;
+    }
+
     @Override
     protected void deliverResponse(Object response) {
         deliverResponse(mListener, response);
@@ -58,9 +65,9 @@ public class XMLRPCRequest extends BaseRequest<Object> {
     @Override
     protected Response<Object> parseNetworkResponse(NetworkResponse response) {
         try {
-            String data = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
-            InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
-            Object obj = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
+            // Parse the response bytes in place, without building intermediate String or byte[] copies
+            InputStream is = XMLSerializerUtils.scrubXmlResponse(new ByteArrayInputStream(response.data));
+            Object obj = deserializeResponse(is, HttpHeaderParser.parseCharset(response.headers));
             return Response.success(obj, createCacheEntry(response));
         } catch (XMLRPCFault e) {
             return Response.error(new VolleyError(e));
@@ -78,6 +85,15 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         }
     }
 
+    /**
+     * Deserializes the scrubbed response stream, subclasses can override this to decode the response into typed
+     * objects directly.
+     */
+    protected Object deserializeResponse(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        return XMLSerializerUtils.deserialize(is, charset);
+    }
+
     @Override
     public String getBodyContentType() {
         return PROTOCOL_CONTENT_TYPE;
@@ -288,4 +288,88 @@ public class XMLRPCSerializer {
         parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
         return obj;
     }
+
+    /**
+     * Deserializes an {@code <array>} of {@code <struct>} values with the given decoder, without building the generic
+     * {@code Object[]} and {@code Map} tree.
+     * Array elements that aren't structs, or that the decoder drops, are skipped.
+     */
+    public static <T> List<T> deserializeStructArray(XmlPullParser parser, XMLRPCStructDecoder<T> decoder)
+            throws XmlPullParserException, IOException {
+        parser.require(XmlPullParser.START_TAG, null, TAG_VALUE);
+        parser.nextTag();
+        parser.require(XmlPullParser.START_TAG, null, TYPE_ARRAY);
+        parser.nextTag(); // TAG_DATA (<data>)
+        parser.require(XmlPullParser.START_TAG, null, TAG_DATA);
+
+        parser.nextTag();
+        List<T> list = new ArrayList<>();
+        while (parser.getName().equals(TAG_VALUE)) {
+            T item = deserializeStruct(parser, decoder);
+            if (item != null) {
+                list.add(item);
+            }
+            parser.nextTag();
+        }
+        parser.require(XmlPullParser.END_TAG, null, TAG_DATA);
+        parser.nextTag(); // TAG_ARRAY (</array>)
+        parser.require(XmlPullParser.END_TAG, null, TYPE_ARRAY);
+        parser.nextTag(); // TAG_VALUE (</value>)
+        parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
+        return list;
+    }
+
+    /**
+     * Deserializes a {@code <struct>} value with the given decoder. Returns null if the value isn't a struct or if the
+     * decoder dropped it.
+     */
+    public static <T> T deserializeStruct(XmlPullParser parser, XMLRPCStructDecoder<T> decoder)
+            throws XmlPullParserException, IOException {
+        parser.require(XmlPullParser.START_TAG, null, TAG_VALUE);
+        int valueDepth = parser.getDepth();
+
+        parser.nextTag();
+        if (!parser.getName().equals(TYPE_STRUCT)) {
+            skipToEndOfValue(parser, valueDepth);
+            return null;
+        }
+
+        T instance = decoder.startStruct();
+        parser.nextTag();
+        while (parser.getName().equals(TAG_MEMBER)) {
+            String memberName = null;
+            while (true) {
+                parser.nextTag();
+                String name = parser.getName();
+                if (name.equals(TAG_NAME)) {
+                    memberName = parser.nextText();
+                } else if (name.equals(TAG_VALUE)) {
+                    if (memberName == null || !decoder.decodeMember(instance, memberName, parser)) {
+                        skipToEndOfValue(parser, parser.getDepth());
+                    }
+                    parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
+                } else {
+                    break;
+                }
+            }
+            parser.require(XmlPullParser.END_TAG, null, TAG_MEMBER);
+            parser.nextTag();
+        }
+        parser.require(XmlPullParser.END_TAG, null, TYPE_STRUCT);
+        parser.nextTag(); // TAG_VALUE (</value>)
+        parser.require(XmlPullParser.END_TAG, null, TAG_VALUE);
+        return decoder.finish(instance);
+    }
+
+    /**
+     * Moves the parser to the closing {@code </value>} tag at the given depth, skipping everything on the way.
+     */
+    private static void skipToEndOfValue(XmlPullParser parser, int valueDepth)
+            throws XmlPullParserException, IOException {
+        while (parser.getEventType() != XmlPullParser.END_TAG || parser.getDepth() != valueDepth) {
+            if (parser.next() == XmlPullParser.END_DOCUMENT) {
+                throw new XmlPullParserException("Unexpected end of document while skipping a value");
+            }
+        }
+    }
 }
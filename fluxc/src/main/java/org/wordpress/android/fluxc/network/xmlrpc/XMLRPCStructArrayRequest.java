@@ -0,0 +1,39 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import com.android.volley.Response.Listener;
+
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * XML-RPC request for methods returning an array of structs (e.g. {@code wp.getPosts}), which decodes every struct
+ * into a typed object with the given {@link XMLRPCStructDecoder} while parsing the response.
+ */
+public class XMLRPCStructArrayRequest<T> extends XMLRPCRequest {
+    private final XMLRPCStructDecoder<T> mDecoder;
+    private final Listener<List<T>> mStructListener;
+
+    public XMLRPCStructArrayRequest(String url, XMLRPC method, List<Object> params, XMLRPCStructDecoder<T> decoder,
+                                    Listener<List<T>> listener, BaseErrorListener errorListener) {
+        super(url, method, params, null, errorListener);
+        mDecoder = decoder;
+        mStructListener = listener;
+    }
+
+    @Override
+    protected Object deserializeResponse(InputStream is, String charset)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        return XMLSerializerUtils.deserializeStructArray(is, charset, mDecoder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void deliverResponse(Object response) {
+        // The response can only be the list built in deserializeResponse()
+        mStructListener.onResponse((List<T>) response);
+    }
+}
@@ -0,0 +1,114 @@
+package org.wordpress.android.fluxc.network.xmlrpc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Decodes XML-RPC {@code <struct>} values straight into a typed object while the response is being parsed, member by
+ * member, instead of going through the generic {@code Map<String, Object>} built by
+ * {@link XMLRPCSerializer#deserialize(XmlPullParser)}.
+ *
+ * @param <T> the type holding the decoding state of a single struct
+ */
+public abstract class XMLRPCStructDecoder<T> {
+    private int mDecodedStructCount;
+
+    /**
+     * @return the number of structs decoded so far, including the ones dropped by {@link #finish(Object)}, e.g. to
+     * tell whether a full page of results was returned
+     */
+    public int getDecodedStructCount() {
+        return mDecodedStructCount;
+    }
+
+    @NonNull
+    T startStruct() {
+        mDecodedStructCount++;
+        return createInstance();
+    }
+
+    /**
+     * Returns a new instance that will receive the members of a single struct.
+     */
+    @NonNull
+    protected abstract T createInstance();
+
+    /**
+     * Decodes the member with the given name into the instance.
+     *
+     * The parser is positioned on the opening {@code <value>} tag of the member, and must be left on the closing
+     * {@code </value>} tag if the member was consumed, which is what the {@code read*} helpers below do.
+     *
+     * @return true if the value was consumed, false to have it skipped
+     */
+    protected abstract boolean decodeMember(@NonNull T instance, @NonNull String name, @NonNull XmlPullParser parser)
+            throws XmlPullParserException, IOException;
+
+    /**
+     * Called once all the members of the struct have been decoded.
+     *
+     * @return the decoded object, or null if it should be dropped from the results
+     */
+    @Nullable
+    protected T finish(@NonNull T instance) {
+        return instance;
+    }
+
+    protected static Object readValue(XmlPullParser parser) throws XmlPullParserException, IOException {
+        return XMLRPCSerializer.deserialize(parser);
+    }
+
+    /**
+     * Same semantics as {@code MapUtils.getMapStr()}: an empty string is returned for missing values.
+     */
+    @NonNull
+    protected static String readString(XmlPullParser parser) throws XmlPullParserException, IOException {
+        Object value = readValue(parser);
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Same semantics as {@code MapUtils.getMapLong()}: 0 is returned for missing or invalid values.
+     */
+    protected static long readLong(XmlPullParser parser) throws XmlPullParserException, IOException {
+        Object value = readValue(parser);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return value == null ? 0 : Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Same semantics as {@code MapUtils.getMapInt()}: 0 is returned for missing or invalid values.
+     */
+    protected static int readInt(XmlPullParser parser) throws XmlPullParserException, IOException {
+        Object value = readValue(parser);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return value == null ? 0 : Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Same semantics as {@code MapUtils.getMapDate()}: null is returned for values that aren't dates.
+     */
+    @Nullable
+    protected static Date readDate(XmlPullParser parser) throws XmlPullParserException, IOException {
+        Object value = readValue(parser);
+        return value instanceof Date ? (Date) value : null;
+    }
+}
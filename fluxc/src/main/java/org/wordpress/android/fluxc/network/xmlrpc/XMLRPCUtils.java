@@ -2,12 +2,34 @@ package org.wordpress.android.fluxc.network.xmlrpc;
 
 import androidx.annotation.NonNull;
 
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
 import org.wordpress.android.util.MapUtils;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class XMLRPCUtils {
+    /**
+     * Builds the params of a {@code system.multicall} wrapping one call per method, with the params at the same
+     * index in {@code callParams}.
+     */
+    @NonNull
+    public static List<Object> createMulticallParams(@NonNull List<XMLRPC> methods, @NonNull List<?> callParams) {
+        List<Map<String, Object>> calls = new ArrayList<>(methods.size());
+        for (int i = 0; i < methods.size(); i++) {
+            Map<String, Object> call = new HashMap<>();
+            call.put("methodName", methods.get(i).toString());
+            call.put("params", callParams.get(i) == null ? new Object[0] : callParams.get(i));
+            calls.add(call);
+        }
+        List<Object> params = new ArrayList<>(1);
+        params.add(calls);
+        return params;
+    }
+
     /**
      * Get value from a deserialized XMLRPC Map response
      */
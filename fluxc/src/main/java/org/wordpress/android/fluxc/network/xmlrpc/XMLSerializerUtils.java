@@ -27,6 +27,7 @@ public class XMLSerializerUtils {
     private static final String TAG_FAULT_STRING = "faultString";
 
     private static final int MAX_SCRUB_CHARACTERS = 5000;
+    private static final byte[] XML_DECLARATION_START = {'<', '?', 'x', 'm', 'l'};
 
     public static StringWriter serialize(XmlSerializer serializer, XMLRPC method, Object[] params)
             throws IOException {
@@ -55,9 +56,38 @@ public class XMLSerializerUtils {
 
     public static Object deserialize(InputStream is)
             throws IOException, XmlPullParserException, XMLRPCException {
+        return deserialize(is, "UTF-8");
+    }
+
+    /**
+     * Deserializes a XML-RPC response read straight from the given stream, decoding it with the given charset.
+     */
+    public static Object deserialize(InputStream is, String inputEncoding)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        XmlPullParser pullParser = startResponse(is, inputEncoding);
+        // no parser.require() here since its called in XMLRPCSerializer.deserialize() below
+        // deserialize result
+        return XMLRPCSerializer.deserialize(pullParser);
+    }
+
+    /**
+     * Deserializes a XML-RPC response made of an array of structs, decoding each struct with the given decoder.
+     */
+    public static <T> List<T> deserializeStructArray(InputStream is, String inputEncoding,
+                                                     XMLRPCStructDecoder<T> decoder)
+            throws IOException, XmlPullParserException, XMLRPCException {
+        XmlPullParser pullParser = startResponse(is, inputEncoding);
+        return XMLRPCSerializer.deserializeStructArray(pullParser, decoder);
+    }
+
+    /**
+     * Moves the parser to the {@code <value>} tag of the response, or throws the fault returned by the server.
+     */
+    private static XmlPullParser startResponse(InputStream is, String inputEncoding)
+            throws IOException, XmlPullParserException, XMLRPCException {
         // setup pull parser
         XmlPullParser pullParser = XmlPullParserFactory.newInstance().newPullParser();
-        pullParser.setInput(is, "UTF-8");
+        pullParser.setInput(is, inputEncoding);
 
         // lets start pulling...
         pullParser.nextTag();
@@ -70,9 +100,7 @@ public class XMLSerializerUtils {
             pullParser.nextTag(); // TAG_PARAM (<param>)
             pullParser.require(XmlPullParser.START_TAG, null, TAG_PARAM);
             pullParser.nextTag(); // TAG_VALUE (<value>)
-            // no parser.require() here since its called in XMLRPCSerializer.deserialize() below
-            // deserialize result
-            return XMLRPCSerializer.deserialize(pullParser);
+            return pullParser;
         } else if (tag.equals(TAG_FAULT)) {
             // fault response
             pullParser.nextTag(); // TAG_VALUE (<value>)
@@ -89,34 +117,34 @@ public class XMLSerializerUtils {
 
     public static InputStream scrubXmlResponse(InputStream is) throws IOException {
         // Many WordPress configs can output junk before the xml response (php warnings for example), this cleans it.
-        int bomCheck = -1;
-        int stopper = 0;
-        while ((bomCheck = is.read()) != -1 && stopper <= MAX_SCRUB_CHARACTERS) {
-            stopper++;
-            String snippet = "";
-            // 60 == '<' character
-            if (bomCheck == 60) {
-                for (int i = 0; i < 4; i++) {
-                    byte[] chunk = new byte[1];
-                    int numRead = is.read(chunk);
-                    if (numRead > 0) {
-                        snippet += new String(chunk, "UTF-8");
-                    }
-                }
-                if (snippet.equals("?xml")) {
-                    // it's all good, add xml tag back and start parsing
-                    String start = "<" + snippet;
-                    List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(start.getBytes()), is);
-                    is = new SequenceInputStream(Collections.enumeration(streams));
-                    break;
-                } else {
-                    // keep searching...
-                    List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(snippet.getBytes()), is);
-                    is = new SequenceInputStream(Collections.enumeration(streams));
-                }
-            }
+        // Only the head of the response is buffered while looking for the xml declaration, the rest of the stream is
+        // left untouched so the parser can keep reading it directly.
+        byte[] head = new byte[MAX_SCRUB_CHARACTERS + XML_DECLARATION_START.length];
+        int headLength = 0;
+        int numRead;
+        while (headLength < head.length && (numRead = is.read(head, headLength, head.length - headLength)) != -1) {
+            headLength += numRead;
+        }
+
+        int offset = indexOf(head, headLength, XML_DECLARATION_START);
+        if (offset < 0) {
+            // No xml declaration found, hand the response to the parser as it is
+            offset = 0;
         }
+        List<InputStream> streams = Arrays.asList(new ByteArrayInputStream(head, offset, headLength - offset), is);
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
 
-        return is;
+    private static int indexOf(byte[] data, int length, byte[] target) {
+        for (int i = 0; i <= length - target.length; i++) {
+            int j = 0;
+            while (j < target.length && data[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
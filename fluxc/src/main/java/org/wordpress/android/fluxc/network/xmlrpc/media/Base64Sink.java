@@ -0,0 +1,130 @@
+package org.wordpress.android.fluxc.network.xmlrpc.media;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Sink;
+import okio.Timeout;
+
+/**
+ * Sink that Base64 encodes the bytes written to it into a {@link BufferedSink}, with the same output as
+ * {@code android.util.Base64.DEFAULT}: lines of 76 characters, each followed by a line feed, and padding.
+ *
+ * The bytes are encoded through reusable buffers, so nothing is allocated per write. Closing this sink writes the
+ * last bytes and padding, it doesn't close the delegate.
+ */
+public class Base64Sink implements Sink {
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(Charset.forName("US-ASCII"));
+    private static final byte PADDING = '=';
+    private static final byte NEW_LINE = '\n';
+    private static final int LINE_LENGTH = 76;
+    // A multiple of 3, so only the last bytes written need padding
+    private static final int INPUT_BUFFER_SIZE = 8190;
+    private static final int OUTPUT_BUFFER_SIZE =
+            INPUT_BUFFER_SIZE / 3 * 4 + INPUT_BUFFER_SIZE / 3 * 4 / LINE_LENGTH + 1;
+
+    private final BufferedSink mDelegate;
+    private final byte[] mInput = new byte[INPUT_BUFFER_SIZE];
+    private final byte[] mOutput = new byte[OUTPUT_BUFFER_SIZE];
+    // Bytes waiting at the start of mInput to complete a group of 3
+    private int mInputLength = 0;
+    private int mLinePosition = 0;
+    private boolean mClosed = false;
+
+    public Base64Sink(BufferedSink delegate) {
+        mDelegate = delegate;
+    }
+
+    /**
+     * @return the number of characters {@code android.util.Base64.DEFAULT} encodes {@code byteCount} bytes into
+     */
+    public static long encodedSize(long byteCount) {
+        if (byteCount <= 0) {
+            return 0;
+        }
+        long base64Length = (byteCount + 2) / 3 * 4;
+        long lineCount = (base64Length + LINE_LENGTH - 1) / LINE_LENGTH;
+        return base64Length + lineCount;
+    }
+
+    @Override
+    public void write(@NonNull Buffer source, long byteCount) throws IOException {
+        if (mClosed) {
+            throw new IllegalStateException("closed");
+        }
+        long remaining = byteCount;
+        while (remaining > 0) {
+            int toRead = (int) Math.min(remaining, mInput.length - mInputLength);
+            int read = source.read(mInput, mInputLength, toRead);
+            if (read == -1) {
+                throw new IllegalArgumentException("source has fewer than " + byteCount + " bytes");
+            }
+            remaining -= read;
+            int available = mInputLength + read;
+            int encodable = available - available % 3;
+            int outputLength = 0;
+            for (int i = 0; i < encodable; i += 3) {
+                int bits = (mInput[i] & 0xff) << 16 | (mInput[i + 1] & 0xff) << 8 | (mInput[i + 2] & 0xff);
+                outputLength = writeGroup(bits, 4, outputLength);
+            }
+            mDelegate.write(mOutput, 0, outputLength);
+            mInputLength = available - encodable;
+            System.arraycopy(mInput, encodable, mInput, 0, mInputLength);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mDelegate.flush();
+    }
+
+    @Override
+    public Timeout timeout() {
+        return mDelegate.timeout();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        int outputLength = 0;
+        if (mInputLength == 1) {
+            outputLength = writeGroup((mInput[0] & 0xff) << 16, 2, outputLength);
+        } else if (mInputLength == 2) {
+            outputLength = writeGroup((mInput[0] & 0xff) << 16 | (mInput[1] & 0xff) << 8, 3, outputLength);
+        }
+        // The last line is terminated too, unless it was full
+        if (mLinePosition > 0) {
+            mOutput[outputLength++] = NEW_LINE;
+            mLinePosition = 0;
+        }
+        mDelegate.write(mOutput, 0, outputLength);
+        mDelegate.flush();
+    }
+
+    /**
+     * Writes the 4 characters encoding the 24 {@code bits} to the output buffer at {@code offset}, only
+     * {@code characterCount} of which carry data and the rest being padding, followed by a line feed if the line is
+     * complete.
+     *
+     * @return the offset following the characters written
+     */
+    private int writeGroup(int bits, int characterCount, int offset) {
+        for (int i = 0; i < 4; i++) {
+            mOutput[offset++] = i < characterCount ? ALPHABET[(bits >> (18 - 6 * i)) & 0x3f] : PADDING;
+        }
+        mLinePosition += 4;
+        if (mLinePosition == LINE_LENGTH) {
+            mOutput[offset++] = NEW_LINE;
+            mLinePosition = 0;
+        }
+        return offset;
+    }
+}
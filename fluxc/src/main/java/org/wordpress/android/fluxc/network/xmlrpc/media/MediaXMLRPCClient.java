@@ -23,6 +23,7 @@ import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
 import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.HTTPAuthModel;
+import org.wordpress.android.fluxc.network.RetryingUploadCall;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.xmlrpc.BaseXMLRPCClient;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCException;
@@ -41,13 +42,11 @@ import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.MapUtils;
 import org.xmlpull.v1.XmlPullParserException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -75,7 +74,7 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
     private OkHttpClient mOkHttpClient;
     // this will hold which media is being uploaded by which call, in order to be able
     // to monitor multiple uploads
-    private ConcurrentHashMap<Integer, Call> mCurrentUploadCalls = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<Integer, RetryingUploadCall> mCurrentUploadCalls = new ConcurrentHashMap<>();
 
     public MediaXMLRPCClient(Dispatcher dispatcher, RequestQueue requestQueue, OkHttpClient okHttpClient,
                              UserAgent userAgent, HTTPAuthManager httpAuthManager) {
@@ -181,7 +180,7 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
         }
         Request request = builder.build();
 
-        Call call = mOkHttpClient.newCall(request);
+        RetryingUploadCall call = new RetryingUploadCall(mOkHttpClient, request);
         mCurrentUploadCalls.put(media.getId(), call);
 
         AppLog.d(T.MEDIA, "starting upload for: " + media.getId());
@@ -397,8 +396,8 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
         }
 
         // cancel in-progress upload if necessary
-        Call correspondingCall = mCurrentUploadCalls.get(media.getId());
-        if (correspondingCall != null && correspondingCall.isExecuted() && !correspondingCall.isCanceled()) {
+        RetryingUploadCall correspondingCall = mCurrentUploadCalls.get(media.getId());
+        if (correspondingCall != null && !correspondingCall.isCanceled()) {
             AppLog.d(T.MEDIA, "Canceled in-progress upload: " + media.getFileName());
             removeCallFromCurrentUploadsMap(media.getId());
             correspondingCall.cancel();
@@ -573,21 +572,23 @@ public class MediaXMLRPCClient extends BaseXMLRPCClient implements ProgressListe
     }
 
     private static Map getMapFromUploadResponse(Response response) throws XMLRPCException {
+        ResponseBody responseBody = response.body();
+        if (responseBody == null) {
+            AppLog.e(T.MEDIA, "Failed to parse XMLRPC.wpUploadFile response - body was empty: " + response);
+            return null;
+        }
         try {
-            ResponseBody responseBody = response.body();
-            if (responseBody == null) {
-                AppLog.e(T.MEDIA, "Failed to parse XMLRPC.wpUploadFile response - body was empty: " + response);
-                return null;
-            }
-            String data = new String(responseBody.bytes(), "UTF-8");
-            InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
-            Object responseObject = XMLSerializerUtils.deserialize(XMLSerializerUtils.scrubXmlResponse(is));
+            // Parse straight from the network stream instead of loading the whole body in memory first
+            InputStream is = XMLSerializerUtils.scrubXmlResponse(responseBody.byteStream());
+            Object responseObject = XMLSerializerUtils.deserialize(is);
             if (responseObject instanceof Map) {
                 return (Map) responseObject;
             }
         } catch (IOException | XmlPullParserException e) {
             AppLog.e(T.MEDIA, "Failed to parse XMLRPC.wpUploadFile response: " + response);
             return null;
+        } finally {
+            responseBody.close();
         }
         return null;
     }
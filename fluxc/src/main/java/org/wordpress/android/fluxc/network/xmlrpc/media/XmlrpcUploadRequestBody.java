@@ -1,7 +1,5 @@
 package org.wordpress.android.fluxc.network.xmlrpc.media;
 
-import android.util.Base64;
-
 import androidx.annotation.NonNull;
 
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -9,13 +7,16 @@ import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.Locale;
 
 import okhttp3.MediaType;
+import okio.Buffer;
 import okio.BufferedSink;
 import okio.Okio;
+import okio.Source;
+import okio.Utf8;
 
 public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
     private static final MediaType MEDIA_TYPE = MediaType.parse("text/xml; charset=utf-8");
@@ -37,6 +38,7 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
             + "<member><name>bits</name><value><base64>"; // bits
     private static final String APPEND_XML =
             "</base64></value></member></struct></value></param></params></methodCall>";
+    private static final long READ_BUFFER_SIZE = 8192;
 
     private final String mPrependString;
     private long mMediaSize;
@@ -55,12 +57,8 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
                 StringEscapeUtils.escapeXml(media.getMimeType()),
                 media.getPostId());
 
-        try {
-            mMediaSize = contentLength();
-        } catch (IOException e) {
-            // Default to 1 (to avoid divide by zero errors)
-            mMediaSize = 1;
-        }
+        // Default to 1 (to avoid divide by zero errors)
+        mMediaSize = Math.max(new File(media.getFilePath()).length(), 1);
     }
 
     @Override
@@ -76,48 +74,38 @@ public class XmlrpcUploadRequestBody extends BaseUploadRequestBody {
     @Override
     public long contentLength() throws IOException {
         if (mContentSize == -1) {
-            mContentSize = getMediaBase64EncodedSize() + mPrependString.length() + APPEND_XML.length();
+            mContentSize = getMediaBase64EncodedSize() + Utf8.size(mPrependString) + APPEND_XML.length();
         }
         return mContentSize;
     }
 
-    private long getMediaBase64EncodedSize() throws IOException {
-        FileInputStream fis = new FileInputStream(getMedia().getFilePath());
-        int totalSize = 0;
-        try {
-            byte[] buffer = new byte[3600];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                totalSize += Base64.encodeToString(buffer, 0, length, Base64.DEFAULT).length();
-            }
-        } finally {
-            fis.close();
-        }
-        return totalSize;
+    private long getMediaBase64EncodedSize() {
+        return Base64Sink.encodedSize(new File(getMedia().getFilePath()).length());
     }
 
     @Override
     public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        // The body is written again when the upload is retried
+        mMediaBytesWritten = 0;
         CountingSink countingSink = new CountingSink(sink);
         BufferedSink bufferedSink = Okio.buffer(countingSink);
 
         // write XML up to point of file
         bufferedSink.writeUtf8(mPrependString);
 
-        // write file to xml
-
-        FileInputStream fis = new FileInputStream(getMedia().getFilePath());
+        // write file to xml, encoding it as it's read
+        Base64Sink base64Sink = new Base64Sink(bufferedSink);
+        Source source = Okio.source(new File(getMedia().getFilePath()));
         try {
-            byte[] buffer = new byte[3600]; // you must use a 24bit multiple
-            int length;
-            String chunk;
-            while ((length = fis.read(buffer)) > 0) {
-                chunk = Base64.encodeToString(buffer, 0, length, Base64.DEFAULT);
+            Buffer buffer = new Buffer();
+            long length;
+            while ((length = source.read(buffer, READ_BUFFER_SIZE)) != -1) {
                 mMediaBytesWritten += length;
-                bufferedSink.writeUtf8(chunk);
+                base64Sink.write(buffer, length);
             }
+            base64Sink.close();
         } finally {
-            fis.close();
+            source.close();
         }
 
         // write remainder or XML
@@ -4,11 +4,11 @@ import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.android.volley.RequestQueue;
 import com.android.volley.Response.Listener;
 
-import org.jetbrains.annotations.NotNull;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -30,12 +30,15 @@ import org.wordpress.android.fluxc.network.HTTPAuthManager;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.xmlrpc.BaseXMLRPCClient;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCRequest;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCStructArrayRequest;
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCStructDecoder;
 import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCUtils;
 import org.wordpress.android.fluxc.store.PostStore;
 import org.wordpress.android.fluxc.store.PostStore.DeletedPostPayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostStatusResponsePayload;
+import org.wordpress.android.fluxc.store.PostStore.FetchPostsByIdsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.FetchPostsResponsePayload;
 import org.wordpress.android.fluxc.store.PostStore.PostDeleteActionType;
 import org.wordpress.android.fluxc.store.PostStore.PostError;
@@ -46,7 +49,10 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.MapUtils;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -105,6 +111,57 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         add(request);
     }
 
+    /**
+     * Fetches the given posts in a single round-trip, by wrapping one {@code wp.getPost} call per post in a
+     * {@code system.multicall}.
+     */
+    public void fetchPostsByIds(final List<PostModel> posts, final SiteModel site) {
+        List<XMLRPC> methods = new ArrayList<>(posts.size());
+        List<List<Object>> callParams = new ArrayList<>(posts.size());
+        for (PostModel post : posts) {
+            methods.add(XMLRPC.GET_POST);
+            callParams.add(createfetchPostParams(post, site));
+        }
+        List<Object> params = XMLRPCUtils.createMulticallParams(methods, callParams);
+
+        final XMLRPCRequest request = new XMLRPCRequest(site.getXmlRpcUrl(), XMLRPC.MULTICALL, params,
+                new Listener<Object[]>() {
+                    @Override
+                    public void onResponse(Object[] response) {
+                        FetchPostsByIdsResponsePayload payload;
+                        if (response == null) {
+                            payload = new FetchPostsByIdsResponsePayload(posts, site,
+                                    new PostError(PostErrorType.INVALID_RESPONSE));
+                        } else {
+                            List<PostModel> fetchedPosts = new ArrayList<>(response.length);
+                            for (Object callResponse : response) {
+                                // Each call result is wrapped in a single element array, faults are returned as
+                                // structs and leave the post out of the results
+                                if (callResponse instanceof Object[] && ((Object[]) callResponse).length == 1
+                                    && ((Object[]) callResponse)[0] instanceof Map) {
+                                    PostModel fetchedPost = postResponseObjectToPostModel(
+                                            (Map) ((Object[]) callResponse)[0], site);
+                                    if (fetchedPost != null) {
+                                        fetchedPosts.add(fetchedPost);
+                                    }
+                                }
+                            }
+                            payload = new FetchPostsByIdsResponsePayload(posts, fetchedPosts, site);
+                        }
+                        mDispatcher.dispatch(PostActionBuilder.newFetchedPostsByIdsAction(payload));
+                    }
+                }, new BaseErrorListener() {
+            @Override
+            public void onErrorResponse(@NonNull BaseNetworkError error) {
+                FetchPostsByIdsResponsePayload payload =
+                        new FetchPostsByIdsResponsePayload(posts, site, createPostErrorFromBaseNetworkError(error));
+                mDispatcher.dispatch(PostActionBuilder.newFetchedPostsByIdsAction(payload));
+            }
+        });
+
+        add(request);
+    }
+
     public void fetchPostStatus(final PostModel post, final SiteModel site) {
         final String postStatusField = "post_status";
         List<Object> params = createfetchPostParams(post, site);
@@ -149,17 +206,17 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                         listDescriptor.getOrderBy().getValue(), listDescriptor.getOrder().getValue());
         final boolean loadedMore = offset > 0;
 
-        final XMLRPCRequest request = new XMLRPCRequest(site.getXmlRpcUrl(), XMLRPC.GET_POSTS, params,
-                new Listener<Object[]>() {
+        final PostListItemDecoder decoder = new PostListItemDecoder();
+        final XMLRPCStructArrayRequest<PostListItem> request = new XMLRPCStructArrayRequest<>(site.getXmlRpcUrl(),
+                XMLRPC.GET_POSTS, params, decoder,
+                new Listener<List<PostListItem>>() {
                     @Override
-                    public void onResponse(Object[] response) {
-                        boolean canLoadMore =
-                                response != null && response.length == pageSize;
-                        List<PostListItem> postListItems = postListItemsFromPostsResponse(response);
-                        PostError postError = response == null ? new PostError(PostErrorType.INVALID_RESPONSE) : null;
+                    public void onResponse(List<PostListItem> postListItems) {
+                        // Items dropped by the decoder (without an ID) still count towards the page size
+                        boolean canLoadMore = decoder.getDecodedStructCount() == pageSize;
                         FetchPostListResponsePayload responsePayload =
                                 new FetchPostListResponsePayload(listDescriptor, postListItems, loadedMore,
-                                        canLoadMore, postError);
+                                        canLoadMore, null);
                         mDispatcher.dispatch(PostActionBuilder.newFetchedPostListAction(responsePayload));
                     }
                 },
@@ -183,26 +240,22 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
                 createFetchPostListParameters(site.getSelfHostedSiteId(), site.getUsername(), site.getPassword(),
                         getPages, offset, PostStore.NUM_POSTS_PER_FETCH, statusList, null, null, null);
 
-        final XMLRPCRequest request = new XMLRPCRequest(site.getXmlRpcUrl(), XMLRPC.GET_POSTS, params,
-                new Listener<Object[]>() {
+        final PostModelDecoder decoder = new PostModelDecoder(site);
+        final XMLRPCStructArrayRequest<PostModel> request = new XMLRPCStructArrayRequest<>(site.getXmlRpcUrl(),
+                XMLRPC.GET_POSTS, params, decoder,
+                new Listener<List<PostModel>>() {
                     @Override
-                    public void onResponse(Object[] response) {
-                        boolean canLoadMore = false;
-                        if (response != null && response.length == PostStore.NUM_POSTS_PER_FETCH) {
-                            canLoadMore = true;
-                        }
-
-                        PostsModel posts = postsResponseToPostsModel(response, site);
-
-                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(posts, site, getPages,
-                                offset > 0, canLoadMore);
-
-                        if (posts != null) {
-                            mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
-                        } else {
+                    public void onResponse(List<PostModel> postList) {
+                        // Posts dropped by the decoder (without an ID) still count towards the page size
+                        int responseCount = decoder.getDecodedStructCount();
+                        boolean canLoadMore = responseCount == PostStore.NUM_POSTS_PER_FETCH;
+
+                        FetchPostsResponsePayload payload = new FetchPostsResponsePayload(new PostsModel(postList),
+                                site, getPages, offset > 0, canLoadMore);
+                        if (postList.isEmpty() && responseCount > 0) {
                             payload.error = new PostError(PostErrorType.INVALID_RESPONSE);
-                            mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
                         }
+                        mDispatcher.dispatch(PostActionBuilder.newFetchedPostsAction(payload));
                     }
                 },
                 new BaseErrorListener() {
@@ -309,47 +362,8 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         add(request);
     }
 
-    private @NotNull List<PostListItem> postListItemsFromPostsResponse(@Nullable Object[] response) {
-        if (response == null) {
-            return Collections.emptyList();
-        }
-        List<PostListItem> postListItems = new ArrayList<>();
-        for (Object responseObject : response) {
-            Map<?, ?> postMap = (Map<?, ?>) responseObject;
-            String postID = MapUtils.getMapStr(postMap, "post_id");
-            String postStatus = MapUtils.getMapStr(postMap, "post_status");
-            Date lastModifiedGmt = MapUtils.getMapDate(postMap, "post_modified_gmt");
-            String lastModifiedAsIso8601 = DateTimeUtils.iso8601UTCFromDate(lastModifiedGmt);
-
-            postListItems.add(new PostListItem(Long.parseLong(postID), lastModifiedAsIso8601, postStatus, null));
-        }
-        return postListItems;
-    }
-
-    private PostsModel postsResponseToPostsModel(@Nullable Object[] response, SiteModel site) {
-        List<PostModel> postArray = new ArrayList<>();
-        if (response == null) {
-            return null;
-        }
-        if (response.length == 0) {
-            return new PostsModel(postArray);
-        }
-        for (Object responseObject : response) {
-            Map<?, ?> postMap = (Map<?, ?>) responseObject;
-            PostModel post = postResponseObjectToPostModel(postMap, site);
-            if (post != null) {
-                postArray.add(post);
-            }
-        }
-
-        if (postArray.isEmpty()) {
-            return null;
-        }
-
-        return new PostsModel(postArray);
-    }
-
-    private static PostModel postResponseObjectToPostModel(@NonNull Map postObject, SiteModel site) {
+    @VisibleForTesting
+    static PostModel postResponseObjectToPostModel(@NonNull Map postObject, SiteModel site) {
         Map<?, ?> postMap = (Map<?, ?>) postObject;
         PostModel post = new PostModel();
 
@@ -375,7 +389,38 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         post.setContent(MapUtils.getMapStr(postMap, "post_content"));
         post.setLink(MapUtils.getMapStr(postMap, "link"));
 
-        Object[] terms = (Object[]) postMap.get("terms");
+        setTermsFromResponse(post, (Object[]) postMap.get("terms"));
+        setCustomFieldsFromResponse(post, (Object[]) postMap.get("custom_fields"));
+
+        post.setExcerpt(MapUtils.getMapStr(postMap, "post_excerpt"));
+        post.setSlug(MapUtils.getMapStr(postMap, "post_name"));
+
+        post.setPassword(MapUtils.getMapStr(postMap, "post_password"));
+        post.setStatus(MapUtils.getMapStr(postMap, "post_status"));
+
+        if ("page".equals(MapUtils.getMapStr(postMap, "post_type"))) {
+            post.setIsPage(true);
+        }
+
+        if (post.isPage()) {
+            post.setParentId(MapUtils.getMapLong(postMap, "post_parent"));
+            post.setParentTitle(MapUtils.getMapStr(postMap, "wp_page_parent"));
+            post.setSlug(MapUtils.getMapStr(postMap, "wp_slug"));
+        } else {
+            // Extract featured image ID from post_thumbnail struct
+            Object featuredImageObject = postMap.get("post_thumbnail");
+            if (featuredImageObject instanceof Map) {
+                Map<?, ?> featuredImageMap = (Map<?, ?>) featuredImageObject;
+                post.setFeaturedImageId(MapUtils.getMapInt(featuredImageMap, "attachment_id"));
+            }
+
+            post.setPostFormat(MapUtils.getMapStr(postMap, "post_format"));
+        }
+
+        return post;
+    }
+
+    private static void setTermsFromResponse(PostModel post, Object[] terms) {
         List<Long> categoryIds = new ArrayList<>();
         List<String> tagNames = new ArrayList<>();
         for (Object term : terms) {
@@ -392,8 +437,9 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
         }
         post.setCategoryIdList(categoryIds);
         post.setTagNameList(tagNames);
+    }
 
-        Object[] customFields = (Object[]) postMap.get("custom_fields");
+    private static void setCustomFieldsFromResponse(PostModel post, @Nullable Object[] customFields) {
         JSONArray jsonCustomFieldsArray = new JSONArray();
         if (customFields != null) {
             Double latitude = null;
@@ -423,33 +469,192 @@ public class PostXMLRPCClient extends BaseXMLRPCClient {
             }
         }
         post.setCustomFields(jsonCustomFieldsArray.toString());
+    }
 
-        post.setExcerpt(MapUtils.getMapStr(postMap, "post_excerpt"));
-        post.setSlug(MapUtils.getMapStr(postMap, "post_name"));
+    /**
+     * Decodes the {@code post_id}, {@code post_modified_gmt} and {@code post_status} fields requested by
+     * {@link #fetchPostList} into {@link PostListItem}s.
+     */
+    private static class PostListItemDecoder extends XMLRPCStructDecoder<PostListItem> {
+        @NonNull
+        @Override
+        protected PostListItem createInstance() {
+            return new PostListItem(null, DateTimeUtils.iso8601UTCFromDate(null), "", null);
+        }
 
-        post.setPassword(MapUtils.getMapStr(postMap, "post_password"));
-        post.setStatus(MapUtils.getMapStr(postMap, "post_status"));
+        @Override
+        protected boolean decodeMember(@NonNull PostListItem item, @NonNull String name,
+                                       @NonNull XmlPullParser parser) throws XmlPullParserException, IOException {
+            switch (name) {
+                case "post_id":
+                    String postId = readString(parser);
+                    item.remotePostId = TextUtils.isEmpty(postId) ? null : Long.parseLong(postId);
+                    return true;
+                case "post_status":
+                    item.status = readString(parser);
+                    return true;
+                case "post_modified_gmt":
+                    item.lastModified = DateTimeUtils.iso8601UTCFromDate(readDate(parser));
+                    return true;
+                default:
+                    return false;
+            }
+        }
 
-        if ("page".equals(MapUtils.getMapStr(postMap, "post_type"))) {
-            post.setIsPage(true);
+        @Nullable
+        @Override
+        protected PostListItem finish(@NonNull PostListItem item) {
+            return item.remotePostId == null ? null : item;
         }
+    }
 
-        if (post.isPage()) {
-            post.setParentId(MapUtils.getMapLong(postMap, "post_parent"));
-            post.setParentTitle(MapUtils.getMapStr(postMap, "wp_page_parent"));
-            post.setSlug(MapUtils.getMapStr(postMap, "wp_slug"));
-        } else {
-            // Extract featured image ID from post_thumbnail struct
-            Object featuredImageObject = postMap.get("post_thumbnail");
-            if (featuredImageObject instanceof Map) {
-                Map<?, ?> featuredImageMap = (Map<?, ?>) featuredImageObject;
-                post.setFeaturedImageId(MapUtils.getMapInt(featuredImageMap, "attachment_id"));
-            }
+    /**
+     * Decodes {@code wp.getPosts} structs straight into {@link PostModel}s, following the same rules as
+     * {@link #postResponseObjectToPostModel}.
+     */
+    @VisibleForTesting
+    static class PostModelDecoder extends XMLRPCStructDecoder<PostModel> {
+        private final SiteModel mSite;
+
+        // Fields that depend on whether the struct is a post or a page, which can only be known once it's all decoded
+        private String mPostId;
+        private String mPostType;
+        private String mPostName;
+        private String mPostFormat;
+        private String mWpSlug;
+        private String mParentTitle;
+        private long mParentId;
+        private int mFeaturedImageId;
+        private boolean mHasFeaturedImage;
+
+        PostModelDecoder(SiteModel site) {
+            mSite = site;
+        }
 
-            post.setPostFormat(MapUtils.getMapStr(postMap, "post_format"));
+        @NonNull
+        @Override
+        protected PostModel createInstance() {
+            mPostId = "";
+            mPostType = "";
+            mPostName = "";
+            mPostFormat = "";
+            mWpSlug = "";
+            mParentTitle = "";
+            mParentId = 0;
+            mFeaturedImageId = 0;
+            mHasFeaturedImage = false;
+
+            // Missing fields get the same values as when read from the response map with MapUtils
+            PostModel post = new PostModel();
+            post.setLocalSiteId(mSite.getId());
+            post.setTitle("");
+            post.setContent("");
+            post.setLink("");
+            post.setExcerpt("");
+            post.setPassword("");
+            post.setStatus("");
+            post.setDateCreated(DateTimeUtils.iso8601UTCFromDate(null));
+            post.setLastModified(DateTimeUtils.iso8601UTCFromDate(null));
+            post.setRemoteLastModified(DateTimeUtils.iso8601UTCFromDate(null));
+            setTermsFromResponse(post, new Object[0]);
+            setCustomFieldsFromResponse(post, null);
+            return post;
         }
 
-        return post;
+        @Override
+        protected boolean decodeMember(@NonNull PostModel post, @NonNull String name, @NonNull XmlPullParser parser)
+                throws XmlPullParserException, IOException {
+            switch (name) {
+                case "post_id":
+                    mPostId = readString(parser);
+                    return true;
+                case "post_title":
+                    post.setTitle(readString(parser));
+                    return true;
+                case "post_date_gmt":
+                    post.setDateCreated(DateTimeUtils.iso8601UTCFromDate(readDate(parser)));
+                    return true;
+                case "post_modified_gmt":
+                    String lastModifiedAsIso8601 = DateTimeUtils.iso8601UTCFromDate(readDate(parser));
+                    post.setLastModified(lastModifiedAsIso8601);
+                    post.setRemoteLastModified(lastModifiedAsIso8601);
+                    return true;
+                case "post_content":
+                    post.setContent(readString(parser));
+                    return true;
+                case "link":
+                    post.setLink(readString(parser));
+                    return true;
+                case "post_excerpt":
+                    post.setExcerpt(readString(parser));
+                    return true;
+                case "post_password":
+                    post.setPassword(readString(parser));
+                    return true;
+                case "post_status":
+                    post.setStatus(readString(parser));
+                    return true;
+                case "terms":
+                    Object terms = readValue(parser);
+                    setTermsFromResponse(post, terms instanceof Object[] ? (Object[]) terms : new Object[0]);
+                    return true;
+                case "custom_fields":
+                    Object customFields = readValue(parser);
+                    setCustomFieldsFromResponse(post, customFields instanceof Object[] ? (Object[]) customFields
+                            : null);
+                    return true;
+                case "post_type":
+                    mPostType = readString(parser);
+                    return true;
+                case "post_name":
+                    mPostName = readString(parser);
+                    return true;
+                case "post_format":
+                    mPostFormat = readString(parser);
+                    return true;
+                case "wp_slug":
+                    mWpSlug = readString(parser);
+                    return true;
+                case "wp_page_parent":
+                    mParentTitle = readString(parser);
+                    return true;
+                case "post_parent":
+                    mParentId = readLong(parser);
+                    return true;
+                case "post_thumbnail":
+                    Object featuredImageObject = readValue(parser);
+                    if (featuredImageObject instanceof Map) {
+                        mHasFeaturedImage = true;
+                        mFeaturedImageId = MapUtils.getMapInt((Map<?, ?>) featuredImageObject, "attachment_id");
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Nullable
+        @Override
+        protected PostModel finish(@NonNull PostModel post) {
+            if (TextUtils.isEmpty(mPostId)) {
+                // If we don't have a post or page ID, move on
+                return null;
+            }
+            post.setRemotePostId(Long.valueOf(mPostId));
+            if ("page".equals(mPostType)) {
+                post.setIsPage(true);
+                post.setParentId(mParentId);
+                post.setParentTitle(mParentTitle);
+                post.setSlug(mWpSlug);
+            } else {
+                post.setSlug(mPostName);
+                if (mHasFeaturedImage) {
+                    post.setFeaturedImageId(mFeaturedImageId);
+                }
+                post.setPostFormat(mPostFormat);
+            }
+            return post;
+        }
     }
 
     private static Map<String, Object> postModelToContentStruct(PostModel post) {
@@ -65,7 +65,7 @@ public class SiteXMLRPCClient extends BaseXMLRPCClient {
                 }
         );
 
-        add(request);
+        addToMulticall(request);
     }
 
     public void fetchSites(final String xmlrpcUrl, final String username, final String password) {
@@ -131,7 +131,7 @@ public class SiteXMLRPCClient extends BaseXMLRPCClient {
                     }
                 }
         );
-        add(request);
+        addToMulticall(request);
     }
 
     public void fetchPostFormats(final SiteModel site) {
@@ -177,7 +177,7 @@ public class SiteXMLRPCClient extends BaseXMLRPCClient {
                     }
                 }
         );
-        add(request);
+        addToMulticall(request);
     }
 
     private SiteModel profileResponseToAccountModel(Object response, SiteModel site) {
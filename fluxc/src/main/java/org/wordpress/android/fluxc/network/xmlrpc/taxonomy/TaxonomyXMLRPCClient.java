@@ -100,7 +100,7 @@ public class TaxonomyXMLRPCClient extends BaseXMLRPCClient {
                 }
         );
 
-        add(request);
+        addToMulticall(request);
     }
 
     public void fetchTerms(final SiteModel site, final String taxonomyName) {
@@ -147,7 +147,7 @@ public class TaxonomyXMLRPCClient extends BaseXMLRPCClient {
                 }
         );
 
-        add(request);
+        addToMulticall(request);
     }
 
     public void pushTerm(final TermModel term, final SiteModel site) {
@@ -0,0 +1,101 @@
+package org.wordpress.android.fluxc.persistence;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers shared by the full-text indexes, which use the FTS4 simple tokenizer: it's the only one available on every
+ * supported Android version, and it only folds the case of ASCII characters, so both the indexed text and the
+ * queries are lower-cased beforehand.
+ */
+class FullTextSearchUtils {
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+    private static final Pattern SCRIPT_PATTERN =
+            Pattern.compile("<(script|style)\\b.*?</\\1\\s*>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern TAG_PATTERN = Pattern.compile("<[^>]*>");
+    // Character.UnicodeScript needs API 24, so the scripts are told apart by their blocks
+    private static final Set<Character.UnicodeBlock> UNSPACED_BLOCKS = new HashSet<>(Arrays.asList(
+            Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS,
+            Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A,
+            Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS,
+            Character.UnicodeBlock.HIRAGANA,
+            Character.UnicodeBlock.KATAKANA,
+            Character.UnicodeBlock.KATAKANA_PHONETIC_EXTENSIONS,
+            Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS,
+            Character.UnicodeBlock.THAI,
+            Character.UnicodeBlock.LAO,
+            Character.UnicodeBlock.KHMER,
+            Character.UnicodeBlock.MYANMAR,
+            Character.UnicodeBlock.TIBETAN));
+
+    private FullTextSearchUtils() {}
+
+    /**
+     * Turns a user query into an FTS query matching the rows containing all of its words, as whole words or as
+     * prefixes.
+     *
+     * @return the FTS query, or null if the query has no searchable word
+     */
+    @Nullable
+    static String toMatchQuery(@Nullable String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder matchQuery = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lowerCaseQuery.length(); i++) {
+            char c = i < lowerCaseQuery.length() ? lowerCaseQuery.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                if (matchQuery.length() > 0) {
+                    matchQuery.append(' ');
+                }
+                // Every word is a prefix, so results show up while the user is typing
+                matchQuery.append(word).append('*');
+                word.setLength(0);
+            }
+        }
+        return matchQuery.length() == 0 ? null : matchQuery.toString();
+    }
+
+    /**
+     * @return true if the query has characters of a script written without spaces between words, like Chinese or
+     * Thai: the simple tokenizer indexes a whole run of such text as a single word, so the index can't match a query
+     * starting in the middle of it
+     */
+    static boolean hasUnspacedText(@Nullable String query) {
+        if (query == null) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (UNSPACED_BLOCKS.contains(Character.UnicodeBlock.of(query.charAt(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the text of the given HTML, without comments, scripts and tags, and lower-cased
+     */
+    @NonNull
+    static String toSearchableText(@Nullable String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = COMMENT_PATTERN.matcher(html).replaceAll(" ");
+        text = SCRIPT_PATTERN.matcher(text).replaceAll(" ");
+        text = TAG_PATTERN.matcher(text).replaceAll(" ");
+        return StringEscapeUtils.unescapeHtml4(text).toLowerCase(Locale.ROOT);
+    }
+}
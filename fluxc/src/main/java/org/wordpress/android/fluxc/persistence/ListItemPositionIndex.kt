@@ -0,0 +1,15 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+
+/**
+ * The index of the `ListItemModel` table on the position of the items in their list, which lets `ListStore` read a
+ * range of a list without reading the items before it.
+ */
+object ListItemPositionIndex {
+    private const val INDEX_NAME = "LIST_ITEM_POSITION_INDEX"
+
+    fun create(db: SQLiteDatabase) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS $INDEX_NAME ON ListItemModel(LIST_ID, POSITION)")
+    }
+}
@@ -1,15 +1,20 @@
 package org.wordpress.android.fluxc.persistence
 
+import android.content.ContentValues
 import com.wellsql.generated.ListItemModelTable
-import com.wellsql.generated.ListModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.WellSql
+import org.wordpress.android.fluxc.model.list.ListItemChanges
+import org.wordpress.android.fluxc.model.list.ListItemChanges.Operation.Inserted
 import org.wordpress.android.fluxc.model.list.ListItemModel
 import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
 class ListItemSqlUtils @Inject constructor() {
+    // Incremented when a change of the items of a list starts and once it's done, by list id
+    private val listVersions = HashMap<Int, Int>()
+
     /**
      * This function inserts the [itemList] in the [ListItemModelTable].
      *
@@ -18,7 +23,86 @@ class ListItemSqlUtils @Inject constructor() {
      * once the list data is refreshed.
      */
     fun insertItemList(itemList: List<ListItemModel>) {
-        WellSql.insert(itemList).asSingleTransaction(true).execute()
+        changingLists(itemList.map { it.listId }.distinct()) {
+            WellSql.insert(itemList).asSingleTransaction(true).execute()
+        }
+    }
+
+    /**
+     * This function replaces the items of the list with the given [listId] with the [remoteItemIds], in that order.
+     *
+     * Rather than deleting every record and inserting them again, it only deletes the items that are no longer in the
+     * list, inserts the new ones and updates the position of the ones that moved, in a single transaction. The
+     * changes are calculated once the transaction is over, so it doesn't hold the database while they're diffed.
+     *
+     * @return the changes made to the list
+     */
+    fun replaceItemList(listId: Int, remoteItemIds: List<Long>): ListItemChanges = changingLists(listOf(listId)) {
+        val newRemoteItemIds = remoteItemIds.distinct()
+        val existingRemoteItemIds = replaceItems(listId, newRemoteItemIds)
+        ListItemChanges.calculate(existingRemoteItemIds, newRemoteItemIds)
+    }
+
+    /**
+     * @return the remote item ids the list had before
+     */
+    private fun replaceItems(listId: Int, newRemoteItemIds: List<Long>): List<Long> {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val existingItems = getListItems(listId)
+            val newPositions = HashMap<Long, Int>(newRemoteItemIds.size)
+            newRemoteItemIds.forEachIndexed { position, remoteItemId -> newPositions[remoteItemId] = position }
+
+            val removedRemoteItemIds = existingItems.map { it.remoteItemId }.filterNot { newPositions.containsKey(it) }
+            // The positions of the remaining items are all updated below
+            removedRemoteItemIds.chunked(MAX_QUERY_ARGUMENTS).forEach { deleteRemoteItemIds(listOf(listId), it) }
+            existingItems.forEach { item ->
+                val newPosition = newPositions.remove(item.remoteItemId)
+                if (newPosition != null && newPosition != item.position) {
+                    updatePosition(item, newPosition)
+                }
+            }
+            // Only the new items are left
+            insertItemList(newPositions.map { (remoteItemId, position) ->
+                ListItemModel(listId, remoteItemId).apply { this.position = position }
+            })
+            db.setTransactionSuccessful()
+            return existingItems.map { it.remoteItemId }
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    /**
+     * This function adds the [remoteItemIds] to the end of the list with the given [listId], ignoring the items that
+     * are already in the list.
+     *
+     * @return the changes made to the list
+     */
+    fun appendItemList(listId: Int, remoteItemIds: List<Long>): ListItemChanges = changingLists(listOf(listId)) {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val existingRemoteItemIds = remoteItemIds.distinct().chunked(MAX_QUERY_ARGUMENTS).flatMap { chunk ->
+                getListItemsQuery(listId, chunk).asModel.map { it.remoteItemId }
+            }.toSet()
+            val newRemoteItemIds = remoteItemIds.distinct().filterNot { existingRemoteItemIds.contains(it) }
+            // The positions of a list go from 0 to its number of items
+            val itemCount = getListItemsCount(listId).toInt()
+            insertItemList(newRemoteItemIds.mapIndexed { index, remoteItemId ->
+                ListItemModel(listId, remoteItemId).apply { position = itemCount + index }
+            })
+            db.setTransactionSuccessful()
+            val operations = if (newRemoteItemIds.isEmpty()) {
+                emptyList()
+            } else {
+                listOf(Inserted(itemCount, newRemoteItemIds.size))
+            }
+            ListItemChanges(operations)
+        } finally {
+            db.endTransaction()
+        }
     }
 
     /**
@@ -26,6 +110,28 @@ class ListItemSqlUtils @Inject constructor() {
      */
     fun getListItems(listId: Int): List<ListItemModel> = getListItemsQuery(listId).asModel
 
+    /**
+     * This function returns the [ListItemModel] records of the list with the given [listId] whose position is between
+     * [startPosition] (inclusive) and [endPosition] (exclusive), using the `(LIST_ID, POSITION)` index.
+     */
+    fun getListItemsInRange(listId: Int, startPosition: Int, endPosition: Int): List<ListItemModel> =
+            WellSql.select(ListItemModel::class.java)
+                    .where()
+                    .equals(ListItemModelTable.LIST_ID, listId)
+                    .greaterThenOrEqual(ListItemModelTable.POSITION, startPosition)
+                    .lessThen(ListItemModelTable.POSITION, endPosition)
+                    .endWhere()
+                    .orderBy(ListItemModelTable.POSITION, SelectQuery.ORDER_ASCENDING)
+                    .asModel
+
+    /**
+     * This function returns the version of the list with the given [listId], which changes whenever its items change.
+     *
+     * It's kept in memory and only tells whether a list changed since an earlier call: reading it before and after
+     * reading items of the list tells whether they were changed meanwhile.
+     */
+    fun getListVersion(listId: Int): Int = synchronized(listVersions) { listVersions[listId] ?: 0 }
+
     /**
      * This function returns the number of records a list has for the given [listId].
      */
@@ -39,29 +145,48 @@ class ListItemSqlUtils @Inject constructor() {
                     .where()
                     .equals(ListItemModelTable.LIST_ID, listId)
                     .endWhere()
-                    .orderBy(ListModelTable.ID, SelectQuery.ORDER_ASCENDING)
+                    .orderBy(ListItemModelTable.POSITION, SelectQuery.ORDER_ASCENDING)
+                    .orderBy(ListItemModelTable.ID, SelectQuery.ORDER_ASCENDING)
+
+    /**
+     * A helper function that returns the select query for the [ListItemModel] records of the given [remoteItemIds] in
+     * the list with the given [listId].
+     */
+    private fun getListItemsQuery(listId: Int, remoteItemIds: List<Long>): SelectQuery<ListItemModel> =
+            WellSql.select(ListItemModel::class.java)
+                    .where()
+                    .equals(ListItemModelTable.LIST_ID, listId)
+                    .isIn(ListItemModelTable.REMOTE_ITEM_ID, remoteItemIds)
+                    .endWhere()
+
+    private fun updatePosition(item: ListItemModel, position: Int) {
+        WellSql.update(ListItemModel::class.java)
+                .whereId(item.id)
+                .put(position) { value ->
+                    val cv = ContentValues()
+                    cv.put(ListItemModelTable.POSITION, value)
+                    cv
+                }.execute()
+    }
 
     /**
      * This function deletes [ListItemModel] records for the [listIds].
      */
     fun deleteItem(listIds: List<Int>, remoteItemId: Long) {
-        WellSql.delete(ListItemModel::class.java)
-                .where()
-                .isIn(ListItemModelTable.LIST_ID, listIds)
-                .equals(ListItemModelTable.REMOTE_ITEM_ID, remoteItemId)
-                .endWhere()
-                .execute()
+        deleteAndShiftPositions(listIds, listOf(remoteItemId))
     }
 
     /**
      * This function deletes all [ListItemModel]s for a specific [listId].
      */
     fun deleteItems(listId: Int) {
-        WellSql.delete(ListItemModel::class.java)
-                .where()
-                .equals(ListItemModelTable.LIST_ID, listId)
-                .endWhere()
-                .execute()
+        changingLists(listOf(listId)) {
+            WellSql.delete(ListItemModel::class.java)
+                    .where()
+                    .equals(ListItemModelTable.LIST_ID, listId)
+                    .endWhere()
+                    .execute()
+        }
     }
 
     /**
@@ -73,11 +198,75 @@ class ListItemSqlUtils @Inject constructor() {
             return
         }
 
-        WellSql.delete(ListItemModel::class.java)
-                .where()
-                .isIn(ListItemModelTable.LIST_ID, listIds)
-                .isIn(ListItemModelTable.REMOTE_ITEM_ID, remoteItemIds)
-                .endWhere()
-                .execute()
+        deleteAndShiftPositions(listIds, remoteItemIds)
+    }
+
+    private fun deleteRemoteItemIds(listIds: List<Int>, remoteItemIds: List<Long>): Int =
+            WellSql.delete(ListItemModel::class.java)
+                    .where()
+                    .isIn(ListItemModelTable.LIST_ID, listIds)
+                    .isIn(ListItemModelTable.REMOTE_ITEM_ID, remoteItemIds)
+                    .endWhere()
+                    .execute()
+
+    /**
+     * A helper function that deletes the [remoteItemIds] from the lists with [listIds] and then closes the gaps they
+     * left in the positions, so the positions of each list keep going from 0 to its number of items, in a single
+     * transaction.
+     *
+     * Only the items after each deleted item are shifted, with one `UPDATE` per deleted item, rather than reading and
+     * renumbering the whole lists.
+     */
+    private fun deleteAndShiftPositions(listIds: List<Int>, remoteItemIds: List<Long>) {
+        changingLists(listIds) {
+            val db = WellSql.giveMeWritableDb()
+            db.beginTransaction()
+            try {
+                val deletedItems = WellSql.select(ListItemModel::class.java)
+                        .where()
+                        .isIn(ListItemModelTable.LIST_ID, listIds)
+                        .isIn(ListItemModelTable.REMOTE_ITEM_ID, remoteItemIds)
+                        .endWhere()
+                        .asModel
+                deleteRemoteItemIds(listIds, remoteItemIds)
+                // Going from the last position, the positions of the items still to be shifted haven't changed yet
+                deletedItems.sortedByDescending { it.position }.forEach { item ->
+                    db.execSQL(
+                            "UPDATE ListItemModel SET ${ListItemModelTable.POSITION} = " +
+                                    "${ListItemModelTable.POSITION} - 1 WHERE ${ListItemModelTable.LIST_ID} = ? " +
+                                    "AND ${ListItemModelTable.POSITION} > ?",
+                            arrayOf<Any>(item.listId, item.position)
+                    )
+                }
+                db.setTransactionSuccessful()
+            } finally {
+                db.endTransaction()
+            }
+        }
+    }
+
+    /**
+     * A helper function that runs [change] while incrementing the versions of the lists with [listIds] before and
+     * after it, so reading a version that didn't change around a read of the list means the list wasn't changed
+     * during that read. See [getListVersion].
+     */
+    private inline fun <T> changingLists(listIds: Collection<Int>, change: () -> T): T {
+        incrementListVersions(listIds)
+        try {
+            return change()
+        } finally {
+            incrementListVersions(listIds)
+        }
+    }
+
+    private fun incrementListVersions(listIds: Collection<Int>) {
+        synchronized(listVersions) {
+            listIds.forEach { listId -> listVersions[listId] = (listVersions[listId] ?: 0) + 1 }
+        }
+    }
+
+    companion object {
+        // SQLite limits the number of arguments of a query to 999
+        private const val MAX_QUERY_ARGUMENTS = 500
     }
 }
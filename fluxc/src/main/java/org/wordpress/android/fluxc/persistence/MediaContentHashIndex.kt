@@ -0,0 +1,15 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+
+/**
+ * The index of the `MediaModel` table on the hash of the local files, which lets `MediaStore` find whether a file
+ * about to be uploaded is already in the library of the site.
+ */
+object MediaContentHashIndex {
+    private const val INDEX_NAME = "MEDIA_CONTENT_HASH_INDEX"
+
+    fun create(db: SQLiteDatabase) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS $INDEX_NAME ON MediaModel(LOCAL_SITE_ID, CONTENT_HASH)")
+    }
+}
@@ -0,0 +1,121 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+
+import com.wellsql.generated.MediaModelTable;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.utils.MediaUtils;
+import org.wordpress.android.util.StringUtils;
+
+/**
+ * Indexes of the media library: an FTS4 table of the title, caption, description and alt text of the media, whose
+ * rows share the local id of the media they index, and a composite index listing the media of a site by type and
+ * upload date. The MIME type isn't indexed, so searching for "image" doesn't return every image: the type filters
+ * use the composite index instead.
+ *
+ * The full-text index is written along with the media by {@link MediaSqlUtils}. Queries always join it with the
+ * media table, so rows left behind by media deleted some other way never show up.
+ */
+public class MediaSearchIndex {
+    static final String TABLE_NAME = "MediaSearchIndex";
+
+    private static final String MEDIA_TABLE_NAME = "MediaModel";
+    private static final String TYPE_INDEX_NAME = "MEDIA_SITE_TYPE_UPLOAD_DATE_INDEX";
+
+    private MediaSearchIndex() {}
+
+    public static void createTable(@NonNull SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_NAME + " USING fts4(" + MediaModelTable.TITLE + ","
+                   + MediaModelTable.CAPTION + "," + MediaModelTable.DESCRIPTION + "," + MediaModelTable.ALT + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + TYPE_INDEX_NAME + " ON " + MEDIA_TABLE_NAME + "("
+                   + MediaModelTable.LOCAL_SITE_ID + "," + MediaModelTable.MEDIA_TYPE + ","
+                   + MediaModelTable.UPLOAD_DATE + ")");
+    }
+
+    /**
+     * Drops the full-text index, creates it again and indexes all the media.
+     */
+    public static void rebuild(@NonNull SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
+        createTable(db);
+        Cursor cursor = db.rawQuery("SELECT " + MediaModelTable.ID + "," + MediaModelTable.TITLE + ","
+                                    + MediaModelTable.CAPTION + "," + MediaModelTable.DESCRIPTION + ","
+                                    + MediaModelTable.ALT + " FROM " + MEDIA_TABLE_NAME, null);
+        try {
+            while (cursor.moveToNext()) {
+                insert(db, cursor.getInt(0), cursor.getString(1), cursor.getString(2), cursor.getString(3),
+                        cursor.getString(4));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Fills the media type column of the media stored before it existed.
+     */
+    public static void migrateMediaTypes(@NonNull SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT DISTINCT " + MediaModelTable.MIME_TYPE + " FROM " + MEDIA_TABLE_NAME
+                                    + " WHERE " + MediaModelTable.MIME_TYPE + " IS NOT NULL", null);
+        try {
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(0);
+                db.execSQL("UPDATE " + MEDIA_TABLE_NAME + " SET " + MediaModelTable.MEDIA_TYPE + " = ? WHERE "
+                           + MediaModelTable.MIME_TYPE + " = ?",
+                        new Object[]{MediaUtils.getMediaType(mimeType), mimeType});
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    static void index(@NonNull SQLiteDatabase db, int mediaId, @NonNull MediaModel media) {
+        remove(db, mediaId);
+        insert(db, mediaId, media.getTitle(), media.getCaption(), media.getDescription(), media.getAlt());
+    }
+
+    static void remove(@NonNull SQLiteDatabase db, int mediaId) {
+        db.execSQL("DELETE FROM " + TABLE_NAME + " WHERE docid = ?", new Object[]{mediaId});
+    }
+
+    /**
+     * Removes the rows of the media which no longer exist, after deleting media in bulk.
+     */
+    static void prune(@NonNull SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_NAME + " WHERE docid NOT IN (SELECT " + MediaModelTable.ID + " FROM "
+                   + MEDIA_TABLE_NAME + ")");
+    }
+
+    /**
+     * @return whether the text indexed for the media differs between the two versions
+     */
+    static boolean hasIndexedTextChanged(@NonNull MediaModel oldMedia, @NonNull MediaModel newMedia) {
+        return !StringUtils.equals(oldMedia.getTitle(), newMedia.getTitle())
+               || !StringUtils.equals(oldMedia.getCaption(), newMedia.getCaption())
+               || !StringUtils.equals(oldMedia.getDescription(), newMedia.getDescription())
+               || !StringUtils.equals(oldMedia.getAlt(), newMedia.getAlt());
+    }
+
+    /**
+     * @return the condition selecting the media matching an FTS query in the media table, whose argument is the FTS
+     * query (see {@link FullTextSearchUtils#toMatchQuery(String)})
+     */
+    @NonNull
+    static String getMatchingMediaCondition() {
+        return MediaModelTable.ID + " IN (SELECT docid FROM " + TABLE_NAME + " WHERE " + TABLE_NAME + " MATCH ?)";
+    }
+
+    private static void insert(SQLiteDatabase db, int mediaId, String title, String caption, String description,
+                               String alt) {
+        db.execSQL("INSERT INTO " + TABLE_NAME + " (docid," + MediaModelTable.TITLE + "," + MediaModelTable.CAPTION
+                   + "," + MediaModelTable.DESCRIPTION + "," + MediaModelTable.ALT + ") VALUES (?,?,?,?,?)",
+                new Object[]{mediaId, FullTextSearchUtils.toSearchableText(title),
+                        FullTextSearchUtils.toSearchableText(caption),
+                        FullTextSearchUtils.toSearchableText(description),
+                        FullTextSearchUtils.toSearchableText(alt)});
+    }
+}
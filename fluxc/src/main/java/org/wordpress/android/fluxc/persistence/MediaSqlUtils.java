@@ -1,20 +1,27 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.content.ContentValues;
+import android.database.Cursor;
 import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
+
 import com.wellsql.generated.MediaModelTable;
 import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.DeleteQuery;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellCursor;
 import com.yarolegovich.wellsql.WellSql;
+import com.yarolegovich.wellsql.mapper.InsertMapper;
 
+import org.wordpress.android.fluxc.ActionMetrics;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.utils.MediaUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class MediaSqlUtils {
@@ -47,10 +54,12 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
-                .contains(MediaModelTable.MIME_TYPE, MediaUtils.MIME_TYPE_IMAGE)
+                .equals(MediaModelTable.MEDIA_TYPE, MediaUtils.getMediaType(MediaUtils.MIME_TYPE_IMAGE))
                 .isIn(MediaModelTable.UPLOAD_STATE, uploadStates)
                 .endGroup().endWhere()
                 .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                // Keeps the insertion order of the media uploaded at the same time, whichever index is used
+                .orderBy(MediaModelTable.ID, SelectQuery.ORDER_ASCENDING)
                 .getAsCursor();
     }
 
@@ -114,55 +123,119 @@ public class MediaSqlUtils {
         }
     }
 
+    /**
+     * @return media of the site already uploaded from a file with the given content hash, or null if there's none
+     */
+    public static MediaModel getUploadedSiteMediaWithContentHash(SiteModel siteModel, String contentHash) {
+        List<MediaModel> result = WellSql.select(MediaModel.class).where().beginGroup()
+                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
+                .equals(MediaModelTable.CONTENT_HASH, contentHash)
+                .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString())
+                .greaterThen(MediaModelTable.MEDIA_ID, 0)
+                .endGroup().endWhere()
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                .getAsModel();
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    public static int updateContentHash(int localMediaId, final String contentHash) {
+        return WellSql.update(MediaModel.class).whereId(localMediaId)
+                .put(contentHash, new InsertMapper<String>() {
+                    @Override
+                    public ContentValues toCv(String item) {
+                        ContentValues cv = new ContentValues();
+                        cv.put(MediaModelTable.CONTENT_HASH, item);
+                        return cv;
+                    }
+                }).execute();
+    }
+
     public static List<MediaModel> searchSiteMedia(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaQuery(siteModel, searchTerm).getAsModel();
+        return toModels(searchSiteMediaAsCursor(siteModel, searchTerm, null));
     }
 
     public static List<MediaModel> searchSiteImages(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, MediaUtils.MIME_TYPE_IMAGE).getAsModel();
+        return toModels(searchSiteMediaAsCursor(siteModel, searchTerm, MediaUtils.MIME_TYPE_IMAGE));
     }
 
     public static List<MediaModel> searchSiteAudio(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, MediaUtils.MIME_TYPE_AUDIO).getAsModel();
+        return toModels(searchSiteMediaAsCursor(siteModel, searchTerm, MediaUtils.MIME_TYPE_AUDIO));
     }
 
     public static List<MediaModel> searchSiteVideos(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, MediaUtils.MIME_TYPE_VIDEO).getAsModel();
+        return toModels(searchSiteMediaAsCursor(siteModel, searchTerm, MediaUtils.MIME_TYPE_VIDEO));
     }
 
     public static List<MediaModel> searchSiteDocuments(SiteModel siteModel, String searchTerm) {
-        return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, MediaUtils.MIME_TYPE_APPLICATION).getAsModel();
-    }
-
-    private static SelectQuery<MediaModel> searchSiteMediaQuery(SiteModel siteModel,
-                                                                String searchTerm) {
-        return WellSql.select(MediaModel.class)
-                .where().beginGroup()
-                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .beginGroup()
-                    .contains(MediaModelTable.TITLE, searchTerm)
-                    .or().contains(MediaModelTable.CAPTION, searchTerm)
-                    .or().contains(MediaModelTable.DESCRIPTION, searchTerm)
-                    .or().contains(MediaModelTable.MIME_TYPE, searchTerm)
-                .endGroup()
-                .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
+        return toModels(searchSiteMediaAsCursor(siteModel, searchTerm, MediaUtils.MIME_TYPE_APPLICATION));
+    }
+
+    /**
+     * Searches the media of the site whose title, caption or description contains the search term, or, without a
+     * type, whose MIME type contains it. The full-text index extends these matches to the media whose title,
+     * caption, description and alt text have words starting with each word of the search term, in any order.
+     *
+     * @param mimeTypePrefix one of the {@code MediaUtils.MIME_TYPE_*} prefixes to only search the media of that type,
+     *                       or null to search all the media
+     * @return a cursor over the matching media, most recently uploaded first, which the caller must close
+     */
+    public static WellCursor<MediaModel> searchSiteMediaAsCursor(SiteModel siteModel, String searchTerm,
+                                                                 @Nullable String mimeTypePrefix) {
+        String matchQuery = FullTextSearchUtils.toMatchQuery(searchTerm);
+        if (matchQuery == null) {
+            return getSiteMediaWithTypeAsCursor(siteModel, mimeTypePrefix);
+        }
+        List<String> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM MediaModel WHERE ")
+                .append(MediaModelTable.LOCAL_SITE_ID).append(" = ?");
+        args.add(String.valueOf(siteModel.getId()));
+        if (mimeTypePrefix != null) {
+            sql.append(" AND ").append(MediaModelTable.MEDIA_TYPE).append(" = ?");
+            args.add(MediaUtils.getMediaType(mimeTypePrefix));
+        }
+        // The index only matches the start of words, so keep the substring matches, like "cation" in "vacation" or
+        // the words of a script written without spaces
+        String likePattern = "%" + searchTerm + "%";
+        sql.append(" AND (").append(MediaSearchIndex.getMatchingMediaCondition());
+        args.add(matchQuery);
+        List<String> likeColumns = new ArrayList<>(Arrays.asList(
+                MediaModelTable.TITLE, MediaModelTable.CAPTION, MediaModelTable.DESCRIPTION));
+        if (mimeTypePrefix == null) {
+            likeColumns.add(MediaModelTable.MIME_TYPE);
+        }
+        for (String column : likeColumns) {
+            sql.append(" OR ").append(column).append(" LIKE ?");
+            args.add(likePattern);
+        }
+        sql.append(") ORDER BY ").append(MediaModelTable.UPLOAD_DATE).append(" DESC, ").append(MediaModelTable.ID)
+           .append(" ASC");
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery(sql.toString(), args.toArray(new String[0]));
+        return new WellCursor<>(cursor, WellSql.mapperFor(MediaModel.class));
+    }
+
+    /**
+     * @param mimeTypePrefix one of the {@code MediaUtils.MIME_TYPE_*} prefixes to only list the media of that type,
+     *                       or null to list all the media
+     * @return a cursor over the media of the site, most recently uploaded first, which the caller must close
+     */
+    public static WellCursor<MediaModel> getSiteMediaWithTypeAsCursor(SiteModel siteModel,
+                                                                      @Nullable String mimeTypePrefix) {
+        if (mimeTypePrefix == null) {
+            return getAllSiteMediaQuery(siteModel).getAsCursor();
+        }
+        return getSiteMediaByMimeTypeQuery(siteModel, mimeTypePrefix).getAsCursor();
     }
 
-    private static SelectQuery<MediaModel> searchSiteMediaByMimeTypeQuery(SiteModel siteModel,
-                                                                          String searchTerm,
-                                                                          String mimeTypePrefix) {
-        return WellSql.select(MediaModel.class)
-                .where().beginGroup()
-                .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, mimeTypePrefix)
-                .beginGroup()
-                    .contains(MediaModelTable.TITLE, searchTerm)
-                    .or().contains(MediaModelTable.CAPTION, searchTerm)
-                    .or().contains(MediaModelTable.DESCRIPTION, searchTerm)
-                .endGroup()
-                .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
+    private static List<MediaModel> toModels(WellCursor<MediaModel> cursor) {
+        List<MediaModel> media = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                media.add(cursor.getModel());
+            }
+        } finally {
+            cursor.close();
+        }
+        return media;
     }
 
     public static List<MediaModel> getSiteImages(SiteModel siteModel) {
@@ -193,10 +266,11 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, MediaUtils.MIME_TYPE_IMAGE)
+                .equals(MediaModelTable.MEDIA_TYPE, MediaUtils.getMediaType(MediaUtils.MIME_TYPE_IMAGE))
                 .isNotIn(MediaModelTable.MEDIA_ID, filter)
                 .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                .orderBy(MediaModelTable.ID, SelectQuery.ORDER_ASCENDING);
     }
 
     private static SelectQuery<MediaModel> getSiteVideosQuery(SiteModel siteModel) {
@@ -215,9 +289,10 @@ public class MediaSqlUtils {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
-                .contains(MediaModelTable.MIME_TYPE, mimeTypePrefix)
+                .equals(MediaModelTable.MEDIA_TYPE, MediaUtils.getMediaType(mimeTypePrefix))
                 .endGroup().endWhere()
-                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING);
+                .orderBy(MediaModelTable.UPLOAD_DATE, SelectQuery.ORDER_DESCENDING)
+                .orderBy(MediaModelTable.ID, SelectQuery.ORDER_ASCENDING);
     }
 
     public static List<MediaModel> getSiteMediaExcluding(SiteModel site, String column, Object value) {
@@ -257,51 +332,110 @@ public class MediaSqlUtils {
     }
 
     public static int insertOrUpdateMedia(MediaModel media) {
-        if (media == null) return 0;
+        long dbTimerStart = ActionMetrics.startDbTimer();
+        try {
+            if (media == null) return 0;
+
+            List<MediaModel> existingMedia;
+            if (media.getMediaId() == 0) {
+                // If the remote media ID is 0, this is a local media file and we should only match by local ID
+                // Otherwise, we'd match all local media files for that site
+                existingMedia = WellSql.select(MediaModel.class)
+                        .where()
+                        .equals(MediaModelTable.ID, media.getId())
+                        .endWhere().getAsModel();
+            } else {
+                // For remote media, we can uniquely identify the media by either its local ID
+                // or its remote media ID + its (local) site ID
+                existingMedia = WellSql.select(MediaModel.class)
+                        .where().beginGroup()
+                        .equals(MediaModelTable.ID, media.getId())
+                        .or()
+                        .beginGroup()
+                        .equals(MediaModelTable.LOCAL_SITE_ID, media.getLocalSiteId())
+                        .equals(MediaModelTable.MEDIA_ID, media.getMediaId())
+                        .endGroup()
+                        .endGroup().endWhere().getAsModel();
+            }
 
-        List<MediaModel> existingMedia;
-        if (media.getMediaId() == 0) {
-            // If the remote media ID is 0, this is a local media file and we should only match by local ID
-            // Otherwise, we'd match all local media files for that site
-            existingMedia = WellSql.select(MediaModel.class)
-                    .where()
-                    .equals(MediaModelTable.ID, media.getId())
-                    .endWhere().getAsModel();
-        } else {
-            // For remote media, we can uniquely identify the media by either its local ID
-            // or its remote media ID + its (local) site ID
-            existingMedia = WellSql.select(MediaModel.class)
-                    .where().beginGroup()
-                    .equals(MediaModelTable.ID, media.getId())
-                    .or()
-                    .beginGroup()
-                    .equals(MediaModelTable.LOCAL_SITE_ID, media.getLocalSiteId())
-                    .equals(MediaModelTable.MEDIA_ID, media.getMediaId())
-                    .endGroup()
-                    .endGroup().endWhere().getAsModel();
+            if (existingMedia.isEmpty()) {
+                // insert, media item does not exist
+                WellSql.insert(media).asSingleTransaction(true).execute();
+                MediaSearchIndex.index(WellSql.giveMeWritableDb(), media.getId(), media);
+                return 1;
+            } else {
+                MediaModel oldMedia = existingMedia.get(0);
+                if (existingMedia.size() > 1) {
+                    MediaModel sameIdMedia = null;
+                    for (MediaModel existing : existingMedia) {
+                        if (existing.getId() == media.getId()) {
+                            sameIdMedia = existing;
+                        }
+                    }
+                    if (sameIdMedia == null || sameIdMedia.getMediaId() == media.getMediaId()) {
+                        // Rows reusing the same uploaded file share the remote media (see MediaStore), they're all
+                        // kept: update the one with the same local id, or all of them when updating from the remote
+                        // media
+                        return sameIdMedia != null
+                                ? updateMedia(sameIdMedia, media) : updateAllMedia(existingMedia, media);
+                    }
+                    // We've ended up with a duplicate entry, probably due to a push/fetch race condition
+                    // One matches based on local ID (this is the one we're trying to update with a remote media ID)
+                    // The other matches based on local site ID + remote media ID, and we got it from a fetch
+                    // Just remove the entry without a remote media ID (the one matching the current media's local ID)
+                    MediaSearchIndex.remove(WellSql.giveMeWritableDb(), media.getId());
+                    return WellSql.delete(MediaModel.class).whereId(media.getId());
+                }
+                // update, media item already exists
+                return updateMedia(oldMedia, media);
+            }
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart);
         }
+    }
 
-        if (existingMedia.isEmpty()) {
-            // insert, media item does not exist
-            WellSql.insert(media).asSingleTransaction(true).execute();
-            return 1;
-        } else {
-            if (existingMedia.size() > 1) {
-                // We've ended up with a duplicate entry, probably due to a push/fetch race condition
-                // One matches based on local ID (this is the one we're trying to update with a remote media ID)
-                // The other matches based on local site ID + remote media ID, and we got it from a fetch
-                // Just remove the entry without a remote media ID (the one matching the current media's local ID)
-                return WellSql.delete(MediaModel.class).whereId(media.getId());
-            }
-            // update, media item already exists
-            int oldId = existingMedia.get(0).getId();
-            return WellSql.update(MediaModel.class).whereId(oldId)
-                    .put(media, new UpdateAllExceptId<>(MediaModel.class)).execute();
+    /**
+     * Updates the row with the local id of the media only, even if other rows have the same remote media.
+     */
+    public static int updateMediaByLocalId(MediaModel media) {
+        List<MediaModel> existingMedia = WellSql.select(MediaModel.class)
+                .where()
+                .equals(MediaModelTable.ID, media.getId())
+                .endWhere().getAsModel();
+        return existingMedia.isEmpty() ? 0 : updateMedia(existingMedia.get(0), media);
+    }
+
+    private static int updateAllMedia(List<MediaModel> existingMedia, MediaModel media) {
+        int updatedRows = 0;
+        int localPostId = media.getLocalPostId();
+        String contentHash = media.getContentHash();
+        for (MediaModel oldMedia : existingMedia) {
+            // Every row keeps its own local post
+            media.setLocalPostId(oldMedia.getLocalPostId());
+            media.setContentHash(contentHash);
+            updatedRows += updateMedia(oldMedia, media);
+        }
+        media.setLocalPostId(localPostId);
+        media.setContentHash(contentHash);
+        return updatedRows;
+    }
+
+    private static int updateMedia(MediaModel oldMedia, MediaModel media) {
+        if (media.getContentHash() == null) {
+            // Remote media doesn't come with the hash of the local file it was uploaded from
+            media.setContentHash(oldMedia.getContentHash());
         }
+        int updatedRows = WellSql.update(MediaModel.class).whereId(oldMedia.getId())
+                .put(media, new UpdateAllExceptId<>(MediaModel.class)).execute();
+        if (MediaSearchIndex.hasIndexedTextChanged(oldMedia, media)) {
+            MediaSearchIndex.index(WellSql.giveMeWritableDb(), oldMedia.getId(), media);
+        }
+        return updatedRows;
     }
 
     public static MediaModel insertMediaForResult(MediaModel media) {
         WellSql.insert(media).asSingleTransaction(true).execute();
+        MediaSearchIndex.index(WellSql.giveMeWritableDb(), media.getId(), media);
         return media;
     }
 
@@ -310,6 +444,7 @@ public class MediaSqlUtils {
         if (media.getMediaId() == 0) {
             // If the remote media ID is 0, this is a local media file and we should only match by local ID
             // Otherwise, we'd match all local media files for that site
+            MediaSearchIndex.remove(WellSql.giveMeWritableDb(), media.getId());
             return WellSql.delete(MediaModel.class)
                     .where().beginGroup()
                     .equals(MediaModelTable.ID, media.getId())
@@ -318,7 +453,7 @@ public class MediaSqlUtils {
         } else {
             // For remote media, we can uniquely identify the media by either its local ID
             // or its remote media ID + its (local) site ID
-            return WellSql.delete(MediaModel.class)
+            return pruneSearchIndexAfter(WellSql.delete(MediaModel.class)
                     .where().beginGroup()
                     .equals(MediaModelTable.ID, media.getId())
                     .or()
@@ -327,16 +462,16 @@ public class MediaSqlUtils {
                     .equals(MediaModelTable.MEDIA_ID, media.getMediaId())
                     .endGroup()
                     .endGroup().endWhere()
-                    .execute();
+                    .execute());
         }
     }
 
     public static int deleteMatchingSiteMedia(SiteModel siteModel, String column, Object value) {
-        return WellSql.delete(MediaModel.class)
+        return pruneSearchIndexAfter(WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(column, value)
-                .endGroup().endWhere().execute();
+                .endGroup().endWhere().execute());
     }
 
     public static int deleteAllSiteMedia(SiteModel site) {
@@ -344,31 +479,31 @@ public class MediaSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(MediaModel.class)
+        return pruneSearchIndexAfter(WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
-                .endGroup().endWhere().execute();
+                .endGroup().endWhere().execute());
     }
 
     public static int deleteAllUploadedSiteMedia(SiteModel siteModel) {
-        return WellSql.delete(MediaModel.class)
+        return pruneSearchIndexAfter(WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString())
-                .endGroup().endWhere().execute();
+                .endGroup().endWhere().execute());
     }
 
     public static int deleteAllUploadedSiteMediaWithMimeType(SiteModel siteModel, String mimeType) {
-        return WellSql.delete(MediaModel.class)
+        return pruneSearchIndexAfter(WellSql.delete(MediaModel.class)
                 .where().beginGroup()
                 .equals(MediaModelTable.LOCAL_SITE_ID, siteModel.getId())
                 .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString())
                 .contains(MediaModelTable.MIME_TYPE, mimeType)
-                .endGroup().endWhere().execute();
+                .endGroup().endWhere().execute());
     }
 
     public static int deleteAllMedia() {
-        return WellSql.delete(MediaModel.class).execute();
+        return pruneSearchIndexAfter(WellSql.delete(MediaModel.class).execute());
     }
 
     public static int deleteUploadedSiteMediaNotInList(SiteModel site, List<MediaModel> mediaList, String mimeType) {
@@ -395,7 +530,14 @@ public class MediaSqlUtils {
             builder.contains(MediaModelTable.MIME_TYPE, mimeType);
         }
 
-        return builder.endGroup().endWhere().execute();
+        return pruneSearchIndexAfter(builder.endGroup().endWhere().execute());
+    }
+
+    private static int pruneSearchIndexAfter(int deletedRows) {
+        if (deletedRows > 0) {
+            MediaSearchIndex.prune(WellSql.giveMeWritableDb());
+        }
+        return deletedRows;
     }
 
     private static SelectQuery<MediaModel> getSiteMediaExcludingQuery(SiteModel site, String column, Object value) {
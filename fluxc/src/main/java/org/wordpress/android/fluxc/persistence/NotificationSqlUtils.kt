@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence
 
 import android.annotation.SuppressLint
+import android.util.LruCache
 import com.wellsql.generated.NotificationModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.SelectQuery.ORDER_DESCENDING
@@ -11,16 +12,18 @@ import com.yarolegovich.wellsql.core.annotation.PrimaryKey
 import com.yarolegovich.wellsql.core.annotation.Table
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.notification.NoteIdSet
+import org.wordpress.android.fluxc.model.notification.NotificationFormattableContent
 import org.wordpress.android.fluxc.model.notification.NotificationModel
 import org.wordpress.android.fluxc.model.notification.NotificationModel.Kind
-import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
-import org.wordpress.android.fluxc.tools.FormattableMeta
 import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
 class NotificationSqlUtils @Inject constructor(private val formattableContentMapper: FormattableContentMapper) {
+    private val formattableContentCache =
+            LruCache<Pair<Long, Long>, NotificationFormattableContent>(FORMATTABLE_CONTENT_CACHE_SIZE)
+
     fun insertOrUpdateNotification(notification: NotificationModel): Int {
         val notificationResult = WellSql.select(NotificationModelBuilder::class.java)
                 .where().beginGroup()
@@ -47,6 +50,67 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         }
     }
 
+    /**
+     * Inserts or updates the given notifications in a single transaction, looking up the existing ones with a single
+     * query per [MAX_SQL_VARIABLES] notifications rather than one query per notification.
+     *
+     * @return the number of inserted or updated rows
+     */
+    fun insertOrUpdateNotifications(notifications: List<NotificationModel>): Int {
+        if (notifications.isEmpty()) {
+            return 0
+        }
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            // Notifications with a local id go through the regular path, matching the local id first
+            val (localNotifications, remoteNotifications) = notifications.partition { it.noteId > 0 }
+            var rowsAffected = localNotifications.sumBy { insertOrUpdateNotification(it) }
+
+            // Only keep the last version of a notification listed twice, as it would have overwritten the first one
+            val notificationsByRemoteIds = remoteNotifications.associateBy { it.remoteSiteId to it.remoteNoteId }
+            val localIdsByRemoteIds = getLocalIdsByRemoteIds(notificationsByRemoteIds.keys.map { it.second })
+            val newNotifications = mutableListOf<NotificationModelBuilder>()
+            notificationsByRemoteIds.forEach { (remoteIds, notification) ->
+                val localId = localIdsByRemoteIds[remoteIds]
+                if (localId == null) {
+                    newNotifications.add(notification.toBuilder())
+                } else {
+                    rowsAffected += WellSql.update(NotificationModelBuilder::class.java).whereId(localId).put(
+                            notification.toBuilder(),
+                            UpdateAllExceptId<NotificationModelBuilder>(NotificationModelBuilder::class.java)
+                    ).execute()
+                }
+            }
+            if (newNotifications.isNotEmpty()) {
+                WellSql.insert(newNotifications).execute()
+                rowsAffected += newNotifications.size
+            }
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    /**
+     * @return the hash of every stored notification by remote note id, read without building the notifications
+     */
+    fun getNoteHashesByRemoteId(): Map<Long, Long> {
+        val cursor = WellSql.select(NotificationModelBuilder::class.java)
+                .columns(NotificationModelTable.REMOTE_NOTE_ID, NotificationModelTable.NOTE_HASH)
+                .asCursor
+        try {
+            val noteHashes = HashMap<Long, Long>(cursor.count)
+            while (cursor.moveToNext()) {
+                noteHashes[cursor.getLong(0)] = cursor.getLong(1)
+            }
+            return noteHashes
+        } finally {
+            cursor.close()
+        }
+    }
+
     /**
      * @return The total records in the notification table.
      */
@@ -82,7 +146,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.build(this::getFormattableContent) }
     }
 
     @SuppressLint("WrongConstant")
@@ -117,7 +181,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
         return conditionClauseBuilder.endWhere()
                 .orderBy(NotificationModelTable.TIMESTAMP, order)
                 .asModel
-                .map { it.build(formattableContentMapper) }
+                .map { it.build(this::getFormattableContent) }
     }
 
     fun hasUnreadNotificationsForSite(
@@ -163,7 +227,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup()
                 .endGroup().endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.build(this::getFormattableContent)
     }
 
     fun getNotificationByRemoteId(remoteNoteId: Long): NotificationModel? {
@@ -172,7 +236,7 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .equals(NotificationModelTable.REMOTE_NOTE_ID, remoteNoteId)
                 .endWhere()
                 .asModel
-                .firstOrNull()?.build(formattableContentMapper)
+                .firstOrNull()?.build(this::getFormattableContent)
     }
 
     fun deleteAllNotifications() = WellSql.delete(NotificationModelBuilder::class.java).execute()
@@ -184,6 +248,52 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .endGroup().endWhere().execute()
     }
 
+    /**
+     * Deletes the notifications with the given remote note ids in a single transaction.
+     *
+     * @return the number of deleted rows
+     */
+    fun deleteNotificationsByRemoteIds(remoteNoteIds: Collection<Long>): Int {
+        if (remoteNoteIds.isEmpty()) {
+            return 0
+        }
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val deletedRows = remoteNoteIds.chunked(MAX_SQL_VARIABLES).sumBy { chunk ->
+                WellSql.delete(NotificationModelBuilder::class.java)
+                        .where().isIn(NotificationModelTable.REMOTE_NOTE_ID, chunk).endWhere()
+                        .execute()
+            }
+            db.setTransactionSuccessful()
+            return deletedRows
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    private fun getLocalIdsByRemoteIds(remoteNoteIds: List<Long>): Map<Pair<Long, Long>, Int> {
+        val localIds = HashMap<Pair<Long, Long>, Int>(remoteNoteIds.size)
+        remoteNoteIds.chunked(MAX_SQL_VARIABLES).forEach { chunk ->
+            val cursor = WellSql.select(NotificationModelBuilder::class.java)
+                    .columns(
+                            NotificationModelTable.ID,
+                            NotificationModelTable.REMOTE_SITE_ID,
+                            NotificationModelTable.REMOTE_NOTE_ID
+                    )
+                    .where().isIn(NotificationModelTable.REMOTE_NOTE_ID, chunk).endWhere()
+                    .asCursor
+            try {
+                while (cursor.moveToNext()) {
+                    localIds[cursor.getLong(1) to cursor.getLong(2)] = cursor.getInt(0)
+                }
+            } finally {
+                cursor.close()
+            }
+        }
+        return localIds
+    }
+
     private fun NotificationModel.toBuilder(): NotificationModelBuilder {
         return NotificationModelBuilder(
                 mId = this.noteId,
@@ -198,12 +308,37 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 timestamp = this.timestamp,
                 url = this.url,
                 title = this.title,
-                formattableBody = this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableSubject = this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableMeta = this.meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
+                // The fields still holding the JSON they were read from are stored as is
+                formattableBody = formattableContent.bodyJson
+                        ?: body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableSubject = formattableContent.subjectJson
+                        ?: subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableMeta = formattableContent.metaJson
+                        ?: meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
         )
     }
 
+    /**
+     * Returns the lazily decoded content of a stored notification, reusing the one of a previous read of the same
+     * version of the notification so that its decoded fields are shared.
+     */
+    private fun getFormattableContent(
+        builder: NotificationModelBuilder
+    ): NotificationFormattableContent {
+        val key = builder.remoteNoteId to builder.noteHash
+        formattableContentCache.get(key)?.let { cached ->
+            if (cached.hasJson(builder.formattableBody, builder.formattableSubject, builder.formattableMeta)) {
+                return cached
+            }
+        }
+        return NotificationFormattableContent.fromJson(
+                builder.formattableBody,
+                builder.formattableSubject,
+                builder.formattableMeta,
+                formattableContentMapper
+        ).also { formattableContentCache.put(key, it) }
+    }
+
     @Table(name = "NotificationModel")
     data class NotificationModelBuilder(
         @PrimaryKey @Column private var mId: Int = -1,
@@ -229,18 +364,11 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
 
         override fun getId() = this.mId
 
-        fun build(formattableContentMapper: FormattableContentMapper): NotificationModel {
+        internal fun build(
+            getFormattableContent: (NotificationModelBuilder) -> NotificationFormattableContent
+        ): NotificationModel {
             val subkind: NotificationModel.Subkind? = subtype?.let { NotificationModel.Subkind.fromString(it) }
 
-            val body: List<FormattableContent>? = formattableBody?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val subject: List<FormattableContent>? = formattableSubject?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
-            }
-            val meta: FormattableMeta? = formattableMeta?.let {
-                formattableContentMapper.mapToFormattableMeta(it)
-            }
             return NotificationModel(
                     mId,
                     remoteNoteId,
@@ -254,10 +382,14 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                     timestamp,
                     url,
                     title,
-                    body,
-                    subject,
-                    meta
+                    getFormattableContent(this)
             )
         }
     }
+
+    companion object {
+        // Stays below the default limit of bound variables of SQLite, 999
+        private const val MAX_SQL_VARIABLES = 500
+        private const val FORMATTABLE_CONTENT_CACHE_SIZE = 200
+    }
 }
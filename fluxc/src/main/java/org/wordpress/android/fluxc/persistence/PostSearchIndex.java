@@ -0,0 +1,78 @@
+package org.wordpress.android.fluxc.persistence;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wellsql.generated.PostModelTable;
+
+/**
+ * Full-text index of the title and content of the posts, an FTS4 table whose rows share the local id of the post
+ * they index. The indexed text is stripped of HTML, see {@link FullTextSearchUtils#toSearchableText(String)}.
+ *
+ * The index is written along with the posts by {@link PostSqlUtils}. Queries always join it with the post table, so
+ * rows left behind by posts deleted some other way never show up, and they're replaced when the id is reused.
+ */
+public class PostSearchIndex {
+    static final String TABLE_NAME = "PostSearchIndex";
+
+    private static final String POST_TABLE_NAME = "PostModel";
+
+    private PostSearchIndex() {}
+
+    public static void createTable(@NonNull SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_NAME + " USING fts4("
+                   + PostModelTable.TITLE + "," + PostModelTable.CONTENT + ")");
+    }
+
+    /**
+     * Drops the index, creates it again and indexes all the posts.
+     */
+    public static void rebuild(@NonNull SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
+        createTable(db);
+        Cursor cursor = db.rawQuery("SELECT " + PostModelTable.ID + "," + PostModelTable.TITLE + ","
+                                    + PostModelTable.CONTENT + " FROM " + POST_TABLE_NAME, null);
+        try {
+            while (cursor.moveToNext()) {
+                insert(db, cursor.getInt(0), cursor.getString(1), cursor.getString(2));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    static void index(@NonNull SQLiteDatabase db, int postId, @Nullable String title, @Nullable String content) {
+        remove(db, postId);
+        insert(db, postId, title, content);
+    }
+
+    static void remove(@NonNull SQLiteDatabase db, int postId) {
+        db.execSQL("DELETE FROM " + TABLE_NAME + " WHERE docid = ?", new Object[]{postId});
+    }
+
+    /**
+     * Removes the rows of the posts which no longer exist, after deleting posts in bulk.
+     */
+    static void prune(@NonNull SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_NAME + " WHERE docid NOT IN (SELECT " + PostModelTable.ID + " FROM "
+                   + POST_TABLE_NAME + ")");
+    }
+
+    /**
+     * @return the condition selecting the posts matching an FTS query in the post table, whose argument is the FTS
+     * query (see {@link FullTextSearchUtils#toMatchQuery(String)})
+     */
+    @NonNull
+    static String getMatchingPostsCondition() {
+        return PostModelTable.ID + " IN (SELECT docid FROM " + TABLE_NAME + " WHERE " + TABLE_NAME + " MATCH ?)";
+    }
+
+    private static void insert(SQLiteDatabase db, int postId, String title, String content) {
+        db.execSQL("INSERT INTO " + TABLE_NAME + " (docid," + PostModelTable.TITLE + "," + PostModelTable.CONTENT
+                   + ") VALUES (?,?,?)", new Object[]{postId, FullTextSearchUtils.toSearchableText(title),
+                                                     FullTextSearchUtils.toSearchableText(content)});
+    }
+}
@@ -1,6 +1,8 @@
 package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
@@ -15,6 +17,7 @@ import com.yarolegovich.wellsql.SelectQuery.Order;
 import com.yarolegovich.wellsql.WellSql;
 import com.yarolegovich.wellsql.mapper.InsertMapper;
 
+import org.wordpress.android.fluxc.ActionMetrics;
 import org.wordpress.android.fluxc.model.LocalOrRemoteId;
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId;
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId;
@@ -40,59 +43,72 @@ public class PostSqlUtils {
     }
 
     public synchronized int insertOrUpdatePost(PostModel post, boolean overwriteLocalChanges) {
-        if (post == null) {
-            return 0;
-        }
+        long dbTimerStart = ActionMetrics.startDbTimer();
+        try {
+            if (post == null) {
+                return 0;
+            }
 
-        List<PostModel> postResult;
-        if (post.isLocalDraft()) {
-            postResult = WellSql.select(PostModel.class)
-                    .where()
-                    .equals(PostModelTable.ID, post.getId())
-                    .endWhere().getAsModel();
-        } else {
-            postResult = WellSql.select(PostModel.class)
-                    .where().beginGroup()
-                    .equals(PostModelTable.ID, post.getId())
-                    .or()
-                    .beginGroup()
-                    .equals(PostModelTable.REMOTE_POST_ID, post.getRemotePostId())
-                    .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
-                    .endGroup()
-                    .endGroup().endWhere().getAsModel();
-        }
-        int numberOfDeletedRows = 0;
-        if (postResult.isEmpty()) {
-            // insert
-            WellSql.insert(post).asSingleTransaction(true).execute();
-            return 1;
-        } else {
-            if (postResult.size() > 1) {
-                // We've ended up with a duplicate entry, probably due to a push/fetch race
-                // condition. One matches based on local ID (this is the one we're trying to
-                // update with a remote post ID). The other matches based on local site ID +
-                // remote post ID, and we got it from a fetch. Just remove the duplicated
-                // entry we got from the fetch as the chance the client app is already using it is
-                // lower (it was most probably fetched a few ms ago).
-                ListIterator<PostModel> postModelListIterator = postResult.listIterator();
-                while (postModelListIterator.hasNext()) {
-                    PostModel item = postModelListIterator.next();
-                    if (item.getId() != post.getId()) {
-                        WellSql.delete(PostModel.class).whereId(item.getId());
-                        postModelListIterator.remove();
-                        numberOfDeletedRows++;
+            List<PostModel> postResult;
+            if (post.isLocalDraft()) {
+                postResult = WellSql.select(PostModel.class)
+                        .where()
+                        .equals(PostModelTable.ID, post.getId())
+                        .endWhere().getAsModel();
+            } else {
+                postResult = WellSql.select(PostModel.class)
+                        .where().beginGroup()
+                        .equals(PostModelTable.ID, post.getId())
+                        .or()
+                        .beginGroup()
+                        .equals(PostModelTable.REMOTE_POST_ID, post.getRemotePostId())
+                        .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
+                        .endGroup()
+                        .endGroup().endWhere().getAsModel();
+            }
+            int numberOfDeletedRows = 0;
+            if (postResult.isEmpty()) {
+                // insert
+                WellSql.insert(post).asSingleTransaction(true).execute();
+                PostSearchIndex.index(WellSql.giveMeWritableDb(), post.getId(), post.getTitle(), post.getContent());
+                return 1;
+            } else {
+                if (postResult.size() > 1) {
+                    // We've ended up with a duplicate entry, probably due to a push/fetch race
+                    // condition. One matches based on local ID (this is the one we're trying to
+                    // update with a remote post ID). The other matches based on local site ID +
+                    // remote post ID, and we got it from a fetch. Just remove the duplicated
+                    // entry we got from the fetch as the chance the client app is already using it is
+                    // lower (it was most probably fetched a few ms ago).
+                    ListIterator<PostModel> postModelListIterator = postResult.listIterator();
+                    while (postModelListIterator.hasNext()) {
+                        PostModel item = postModelListIterator.next();
+                        if (item.getId() != post.getId()) {
+                            WellSql.delete(PostModel.class).whereId(item.getId());
+                            PostSearchIndex.remove(WellSql.giveMeWritableDb(), item.getId());
+                            postModelListIterator.remove();
+                            numberOfDeletedRows++;
+                        }
                     }
                 }
+                // Update only if local changes for this post don't exist
+                if (overwriteLocalChanges || !postResult.get(0).isLocallyChanged()) {
+                    PostModel oldPost = postResult.get(0);
+                    int oldId = oldPost.getId();
+                    int numberOfUpdatedRows = WellSql.update(PostModel.class).whereId(oldId)
+                                                     .put(post, new UpdateAllExceptId<>(PostModel.class)).execute();
+                    // Most updates come from fetches which don't change the text, which is costly to index again
+                    if (!TextUtils.equals(oldPost.getTitle(), post.getTitle())
+                        || !TextUtils.equals(oldPost.getContent(), post.getContent())) {
+                        PostSearchIndex.index(WellSql.giveMeWritableDb(), oldId, post.getTitle(), post.getContent());
+                    }
+                    return numberOfUpdatedRows + numberOfDeletedRows;
+                }
             }
-            // Update only if local changes for this post don't exist
-            if (overwriteLocalChanges || !postResult.get(0).isLocallyChanged()) {
-                int oldId = postResult.get(0).getId();
-                return WellSql.update(PostModel.class).whereId(oldId)
-                              .put(post, new UpdateAllExceptId<>(PostModel.class)).execute()
-                       + numberOfDeletedRows;
-            }
+            return numberOfDeletedRows;
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart);
         }
-        return numberOfDeletedRows;
     }
 
     public int insertOrUpdatePostKeepingLocalChanges(PostModel post) {
@@ -103,6 +119,31 @@ public class PostSqlUtils {
         return insertOrUpdatePost(post, true);
     }
 
+    /**
+     * Inserts or updates all the given posts in a single transaction.
+     *
+     * @return the number of affected rows for each post, in the same order as the given list
+     */
+    public List<Integer> insertOrUpdatePostsOverwritingLocalChanges(List<PostModel> posts) {
+        long dbTimerStart = ActionMetrics.startDbTimer();
+        try {
+            List<Integer> rowsAffected = new ArrayList<>(posts.size());
+            SQLiteDatabase db = WellSql.giveMeWritableDb();
+            db.beginTransaction();
+            try {
+                for (PostModel post : posts) {
+                    rowsAffected.add(insertOrUpdatePost(post, true));
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            return rowsAffected;
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart);
+        }
+    }
+
     public List<PostModel> getPostsForSite(SiteModel site, boolean getPages) {
         if (site == null) {
             return Collections.emptyList();
@@ -216,6 +257,7 @@ public class PostSqlUtils {
 
     public PostModel insertPostForResult(PostModel post) {
         WellSql.insert(post).asSingleTransaction(true).execute();
+        PostSearchIndex.index(WellSql.giveMeWritableDb(), post.getId(), post.getTitle(), post.getContent());
 
         return post;
     }
@@ -225,13 +267,17 @@ public class PostSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(PostModel.class)
+        int numberOfDeletedRows = WellSql.delete(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.ID, post.getId())
                 .equals(PostModelTable.LOCAL_SITE_ID, post.getLocalSiteId())
                 .endGroup()
                 .endWhere()
                 .execute();
+        if (numberOfDeletedRows > 0) {
+            PostSearchIndex.remove(WellSql.giveMeWritableDb(), post.getId());
+        }
+        return numberOfDeletedRows;
     }
 
     public int deleteUploadedPostsForSite(SiteModel site, boolean pages) {
@@ -239,7 +285,7 @@ public class PostSqlUtils {
             return 0;
         }
 
-        return WellSql.delete(PostModel.class)
+        int numberOfDeletedRows = WellSql.delete(PostModel.class)
                 .where().beginGroup()
                 .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
                 .equals(PostModelTable.IS_PAGE, pages)
@@ -248,10 +294,16 @@ public class PostSqlUtils {
                 .endGroup()
                 .endWhere()
                 .execute();
+        if (numberOfDeletedRows > 0) {
+            PostSearchIndex.prune(WellSql.giveMeWritableDb());
+        }
+        return numberOfDeletedRows;
     }
 
     public int deleteAllPosts() {
-        return WellSql.delete(PostModel.class).execute();
+        int numberOfDeletedRows = WellSql.delete(PostModel.class).execute();
+        PostSearchIndex.prune(WellSql.giveMeWritableDb());
+        return numberOfDeletedRows;
     }
 
     public boolean getSiteHasLocalChanges(SiteModel site) {
@@ -374,8 +426,20 @@ public class PostSqlUtils {
                 .endGroup().endWhere().execute();
     }
 
+    /**
+     * Lists the local drafts of the site, only the ones matching {@code searchQuery} if it isn't empty.
+     *
+     * A draft matches when its title or content contains the query, or when its title and content, without the HTML
+     * markup, have words starting with each word of the query, in any order (see {@link PostSearchIndex}). The
+     * second case extends the substring matching used before the full-text index existed, e.g. to queries whose
+     * words are in another order than in the post.
+     */
     public List<LocalId> getLocalPostIdsForFilter(SiteModel site, boolean isPage, String searchQuery,
                                                          String orderBy, @Order int order) {
+        String matchQuery = FullTextSearchUtils.toMatchQuery(searchQuery);
+        if (matchQuery != null) {
+            return getLocalPostIdsMatchingQuery(site, isPage, searchQuery, matchQuery, orderBy, order);
+        }
         ConditionClauseBuilder<SelectQuery<PostModel>> clauseBuilder =
                 WellSql.select(PostModel.class)
                        // We only need the local ids
@@ -400,4 +464,27 @@ public class PostSqlUtils {
         }
         return localPostIds;
     }
+
+    private List<LocalId> getLocalPostIdsMatchingQuery(SiteModel site, boolean isPage, String searchQuery,
+                                                       String matchQuery, String orderBy, @Order int order) {
+        String sql = "SELECT " + PostModelTable.ID + " FROM PostModel WHERE " + PostModelTable.IS_LOCAL_DRAFT
+                     + " = 1 AND " + PostModelTable.LOCAL_SITE_ID + " = ? AND " + PostModelTable.IS_PAGE
+                     + " = ? AND (" + PostSearchIndex.getMatchingPostsCondition() + " OR " + PostModelTable.TITLE
+                     + " LIKE ? OR " + PostModelTable.CONTENT + " LIKE ?)";
+        if (orderBy != null) {
+            sql += " ORDER BY " + orderBy + (order == SelectQuery.ORDER_ASCENDING ? " ASC" : " DESC");
+        }
+        String likePattern = "%" + searchQuery + "%";
+        Cursor cursor = WellSql.giveMeWritableDb().rawQuery(sql, new String[]{
+                String.valueOf(site.getId()), isPage ? "1" : "0", matchQuery, likePattern, likePattern});
+        List<LocalId> localPostIds = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                localPostIds.add(new LocalId(cursor.getInt(0)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return localPostIds;
+    }
 }
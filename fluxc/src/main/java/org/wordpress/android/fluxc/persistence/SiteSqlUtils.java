@@ -2,8 +2,10 @@ package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.wellsql.generated.AccountModelTable;
 import com.wellsql.generated.PostFormatModelTable;
@@ -13,6 +15,7 @@ import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 import com.yarolegovich.wellsql.mapper.InsertMapper;
 
+import org.wordpress.android.fluxc.ActionMetrics;
 import org.wordpress.android.fluxc.model.AccountModel;
 import org.wordpress.android.fluxc.model.PostFormatModel;
 import org.wordpress.android.fluxc.model.RoleModel;
@@ -21,14 +24,34 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.UrlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 public class SiteSqlUtils {
     public static class DuplicateSiteException extends Exception {
         private static final long serialVersionUID = -224883903136726226L;
     }
 
+    /**
+     * Result of a bulk site sync, with the time spent in each of its phases.
+     */
+    public static class SitesSyncResult {
+        public int rowsAffected = 0;
+        public int rowsRemoved = 0;
+        public boolean duplicateSiteFound = false;
+        public long loadTimeMs;
+        public long writeTimeMs;
+        public long removeTimeMs;
+    }
+
     public static SelectQuery<SiteModel> getSitesWith(String field, Object value) {
         return WellSql.select(SiteModel.class)
                 .where().equals(field, value).endWhere();
@@ -69,112 +92,202 @@ public class SiteSqlUtils {
      * 6. Not matching any previous cases -> INSERT
      */
     public static int insertOrUpdateSite(SiteModel site) throws DuplicateSiteException {
-        if (site == null) {
-            return 0;
-        }
-
-        // If we're inserting or updating a WP.com REST API site, validate that we actually have a WordPress.com
-        // AccountModel present
-        // This prevents a late UPDATE_SITES action from re-populating the database after sign out from WordPress.com
-        if (site.isUsingWpComRestApi()) {
-            List<AccountModel> accountModel = WellSql.select(AccountModel.class)
-                    .where()
-                    .not().equals(AccountModelTable.USER_ID, 0)
-                    .endWhere()
-                    .getAsModel();
-            if (accountModel.isEmpty()) {
-                AppLog.w(T.DB, "Can't insert WP.com site " + site.getUrl() + ", missing user account");
+        long dbTimerStart = ActionMetrics.startDbTimer();
+        try {
+            if (site == null) {
                 return 0;
             }
-        }
 
-        // If the site already exist and has an id, we want to update it.
-        List<SiteModel> siteResult = WellSql.select(SiteModel.class)
-                .where().beginGroup()
-                .equals(SiteModelTable.ID, site.getId())
-                .endGroup().endWhere().getAsModel();
-        if (!siteResult.isEmpty()) {
-            AppLog.d(T.DB, "Site found by (local) ID: " + site.getId());
-        }
+            // If we're inserting or updating a WP.com REST API site, validate that we actually have a WordPress.com
+            // AccountModel present
+            // This prevents a late UPDATE_SITES action from re-populating the database after sign out from
+            // WordPress.com
+            if (site.isUsingWpComRestApi()) {
+                List<AccountModel> accountModel = WellSql.select(AccountModel.class)
+                        .where()
+                        .not().equals(AccountModelTable.USER_ID, 0)
+                        .endWhere()
+                        .getAsModel();
+                if (accountModel.isEmpty()) {
+                    AppLog.w(T.DB, "Can't insert WP.com site " + site.getUrl() + ", missing user account");
+                    return 0;
+                }
+            }
 
-        // Looks like a new site, make sure we don't already have it.
-        if (siteResult.isEmpty()) {
-            if (site.getSiteId() > 0) {
-                // For WordPress.com and Jetpack sites, the WP.com ID is a unique enough identifier
-                siteResult = WellSql.select(SiteModel.class)
-                        .where().beginGroup()
-                        .equals(SiteModelTable.SITE_ID, site.getSiteId())
-                        .endGroup().endWhere().getAsModel();
-                if (!siteResult.isEmpty()) {
-                    AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId());
+            // If the site already exist and has an id, we want to update it.
+            List<SiteModel> siteResult = WellSql.select(SiteModel.class)
+                    .where().beginGroup()
+                    .equals(SiteModelTable.ID, site.getId())
+                    .endGroup().endWhere().getAsModel();
+            if (!siteResult.isEmpty()) {
+                AppLog.d(T.DB, "Site found by (local) ID: " + site.getId());
+            }
+
+            // Looks like a new site, make sure we don't already have it.
+            if (siteResult.isEmpty()) {
+                if (site.getSiteId() > 0) {
+                    // For WordPress.com and Jetpack sites, the WP.com ID is a unique enough identifier
+                    siteResult = WellSql.select(SiteModel.class)
+                            .where().beginGroup()
+                            .equals(SiteModelTable.SITE_ID, site.getSiteId())
+                            .endGroup().endWhere().getAsModel();
+                    if (!siteResult.isEmpty()) {
+                        AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId());
+                    }
+                } else {
+                    siteResult = WellSql.select(SiteModel.class)
+                            .where().beginGroup()
+                            .equals(SiteModelTable.SITE_ID, site.getSiteId())
+                            .equals(SiteModelTable.URL, site.getUrl())
+                            .endGroup().endWhere().getAsModel();
+                    if (!siteResult.isEmpty()) {
+                        AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId() + " and URL: " + site.getUrl());
+                    }
                 }
-            } else {
+            }
+
+            // If the site is a self hosted, maybe it's already in the DB as a Jetpack site, and we don't want to create
+            // a duplicate.
+            if (siteResult.isEmpty()) {
+                String forcedHttpXmlRpcUrl = "http://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
+                String forcedHttpsXmlRpcUrl = "https://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
+
                 siteResult = WellSql.select(SiteModel.class)
-                        .where().beginGroup()
-                        .equals(SiteModelTable.SITE_ID, site.getSiteId())
-                        .equals(SiteModelTable.URL, site.getUrl())
-                        .endGroup().endWhere().getAsModel();
+                        .where()
+                        .beginGroup()
+                        .equals(SiteModelTable.XMLRPC_URL, forcedHttpXmlRpcUrl)
+                        .or().equals(SiteModelTable.XMLRPC_URL, forcedHttpsXmlRpcUrl)
+                        .endGroup()
+                        .endWhere().getAsModel();
                 if (!siteResult.isEmpty()) {
-                    AppLog.d(T.DB, "Site found by SITE_ID: " + site.getSiteId() + " and URL: " + site.getUrl());
+                    AppLog.d(T.DB, "Site found using XML-RPC url: " + site.getXmlRpcUrl());
+                    // Four possibilities here:
+                    // 1. DB site is WP.com, new site is WP.com:
+                    // Something really weird is happening, this should have been caught earlier -->
+                    // DuplicateSiteException
+                    // 2. DB site is WP.com, new site is XML-RPC:
+                    // It looks like an existing Jetpack-connected site over the REST API was added again as an XML-RPC
+                    // Wed don't allow this --> DuplicateSiteException
+                    // 3. DB site is XML-RPC, new site is WP.com:
+                    // Upgrading a self-hosted site to Jetpack --> proceed
+                    // 4. DB site is XML-RPC, new site is XML-RPC:
+                    // An existing self-hosted site was logged-into again, and we couldn't identify it by URL or
+                    // by WP.com site ID + URL --> proceed
+                    if (siteResult.get(0).getOrigin() == SiteModel.ORIGIN_WPCOM_REST) {
+                        AppLog.d(T.DB, "Site is a duplicate");
+                        throw new DuplicateSiteException();
+                    }
                 }
             }
-        }
-
-        // If the site is a self hosted, maybe it's already in the DB as a Jetpack site, and we don't want to create
-        // a duplicate.
-        if (siteResult.isEmpty()) {
-            String forcedHttpXmlRpcUrl = "http://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
-            String forcedHttpsXmlRpcUrl = "https://" + UrlUtils.removeScheme(site.getXmlRpcUrl());
 
-            siteResult = WellSql.select(SiteModel.class)
-                    .where()
-                    .beginGroup()
-                    .equals(SiteModelTable.XMLRPC_URL, forcedHttpXmlRpcUrl)
-                    .or().equals(SiteModelTable.XMLRPC_URL, forcedHttpsXmlRpcUrl)
-                    .endGroup()
-                    .endWhere().getAsModel();
-            if (!siteResult.isEmpty()) {
-                AppLog.d(T.DB, "Site found using XML-RPC url: " + site.getXmlRpcUrl());
-                // Four possibilities here:
-                // 1. DB site is WP.com, new site is WP.com:
-                // Something really weird is happening, this should have been caught earlier --> DuplicateSiteException
-                // 2. DB site is WP.com, new site is XML-RPC:
-                // It looks like an existing Jetpack-connected site over the REST API was added again as an XML-RPC
-                // Wed don't allow this --> DuplicateSiteException
-                // 3. DB site is XML-RPC, new site is WP.com:
-                // Upgrading a self-hosted site to Jetpack --> proceed
-                // 4. DB site is XML-RPC, new site is XML-RPC:
-                // An existing self-hosted site was logged-into again, and we couldn't identify it by URL or
-                // by WP.com site ID + URL --> proceed
-                if (siteResult.get(0).getOrigin() == SiteModel.ORIGIN_WPCOM_REST) {
-                    AppLog.d(T.DB, "Site is a duplicate");
+            if (siteResult.isEmpty()) {
+                // No site with this local ID, REMOTE_ID + URL, or XMLRPC URL, then insert it
+                AppLog.d(T.DB, "Inserting site: " + site.getUrl());
+                WellSql.insert(site).asSingleTransaction(true).execute();
+                return 1;
+            } else {
+                // Update old site
+                AppLog.d(T.DB, "Updating site: " + site.getUrl());
+                int oldId = siteResult.get(0).getId();
+                try {
+                    return WellSql.update(SiteModel.class).whereId(oldId)
+                            .put(site, new UpdateAllExceptId<>(SiteModel.class)).execute();
+                } catch (SQLiteConstraintException e) {
+                    AppLog.e(T.DB, "Error while updating site: siteId=" + site.getSiteId() + " url=" + site.getUrl()
+                            + " xmlrpc=" + site.getXmlRpcUrl(), e);
+                    // Can happen on self hosted sites with incorrect url values in wp.getOption response.
+                    // See https://github.com/wordpress-mobile/WordPress-FluxC-Android/issues/397
                     throw new DuplicateSiteException();
                 }
             }
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart);
         }
+    }
 
-        if (siteResult.isEmpty()) {
-            // No site with this local ID, REMOTE_ID + URL, or XMLRPC URL, then insert it
-            AppLog.d(T.DB, "Inserting site: " + site.getUrl());
-            WellSql.insert(site).asSingleTransaction(true).execute();
-            return 1;
-        } else {
-            // Update old site
-            AppLog.d(T.DB, "Updating site: " + site.getUrl());
-            int oldId = siteResult.get(0).getId();
+    /**
+     * Inserts or updates all the given sites in a single transaction, matching them against the existing sites the
+     * same way {@link #insertOrUpdateSite(SiteModel)} does. The existing sites are loaded once and indexed in memory,
+     * instead of being looked up with several queries per site.
+     *
+     * Sites raising a {@link DuplicateSiteException} are skipped and reported with
+     * {@link SitesSyncResult#duplicateSiteFound}.
+     */
+    public static SitesSyncResult insertOrUpdateSites(@NonNull List<SiteModel> sites) {
+        return syncSites(sites, null);
+    }
+
+    /**
+     * Same as {@link #insertOrUpdateSites(List)}, and removes the WP.com REST API sites absent from the list in the
+     * same transaction, following the rules of {@link #removeWPComRestSitesAbsentFromList(PostSqlUtils, List)}.
+     */
+    public static SitesSyncResult insertOrUpdateWPComRestSites(PostSqlUtils postSqlUtils,
+                                                               @NonNull List<SiteModel> sites) {
+        return syncSites(sites, postSqlUtils);
+    }
+
+    private static SitesSyncResult syncSites(@NonNull List<SiteModel> sites, @Nullable PostSqlUtils postSqlUtils) {
+        long dbTimerStart = ActionMetrics.startDbTimer();
+        try {
+            SitesSyncResult result = new SitesSyncResult();
+
+            long phaseStart = System.nanoTime();
+            boolean hasWPComAccount = WellSql.select(AccountModel.class)
+                    .where()
+                    .not().equals(AccountModelTable.USER_ID, 0)
+                    .endWhere()
+                    .exists();
+            SiteIndex index = new SiteIndex(WellSql.select(SiteModel.class).getAsModel());
+            result.loadTimeMs = elapsedMsSince(phaseStart);
+
+            SQLiteDatabase db = WellSql.giveMeWritableDb();
+            db.beginTransaction();
             try {
-                return WellSql.update(SiteModel.class).whereId(oldId)
-                        .put(site, new UpdateAllExceptId<>(SiteModel.class)).execute();
-            } catch (SQLiteConstraintException e) {
-                AppLog.e(T.DB, "Error while updating site: siteId=" + site.getSiteId() + " url=" + site.getUrl()
-                        + " xmlrpc=" + site.getXmlRpcUrl(), e);
-                // Can happen on self hosted sites with incorrect url values in wp.getOption response.
-                // See https://github.com/wordpress-mobile/WordPress-FluxC-Android/issues/397
-                throw new DuplicateSiteException();
+                phaseStart = System.nanoTime();
+                for (SiteModel site : sites) {
+                    // See insertOrUpdateSite(): don't re-populate the database after sign out from WordPress.com
+                    if (site.isUsingWpComRestApi() && !hasWPComAccount) {
+                        AppLog.w(T.DB, "Can't insert WP.com site " + site.getUrl() + ", missing user account");
+                        continue;
+                    }
+                    // The REST API doesn't return info about the editor(s). Make sure to copy current values
+                    // available on the DB. Otherwise the apps will receive an update site without editor prefs set.
+                    SiteModel siteFromDB = index.getFirstBySiteId(site.getSiteId());
+                    if (siteFromDB != null) {
+                        site.setMobileEditor(siteFromDB.getMobileEditor());
+                        site.setWebEditor(siteFromDB.getWebEditor());
+                    }
+                    try {
+                        result.rowsAffected += index.insertOrUpdate(site);
+                    } catch (DuplicateSiteException e) {
+                        result.duplicateSiteFound = true;
+                    }
+                }
+                result.writeTimeMs = elapsedMsSince(phaseStart);
+
+                if (postSqlUtils != null) {
+                    phaseStart = System.nanoTime();
+                    result.rowsRemoved = index.removeWPComRestSitesAbsentFromList(postSqlUtils, sites);
+                    result.removeTimeMs = elapsedMsSince(phaseStart);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
             }
+
+            AppLog.d(T.DB, "Synced " + sites.size() + " sites (" + result.rowsAffected + " written, "
+                           + result.rowsRemoved + " removed): load " + result.loadTimeMs + "ms, write "
+                           + result.writeTimeMs + "ms, remove " + result.removeTimeMs + "ms");
+            return result;
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart);
         }
     }
 
+    private static long elapsedMsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     public static int deleteSite(SiteModel site) {
         if (site == null) {
             return 0;
@@ -322,4 +435,146 @@ public class SiteSqlUtils {
 
         return localSites.size();
     }
+
+    /**
+     * In-memory index of the site rows, keyed the same ways {@link #insertOrUpdateSite(SiteModel)} looks sites up.
+     * Rows matching the same key are kept ordered by local id, to pick the same row as the SQL queries would.
+     */
+    private static class SiteIndex {
+        private final Map<Integer, SiteModel> mSitesById = new HashMap<>();
+        private final Map<Long, TreeMap<Integer, SiteModel>> mSitesBySiteId = new HashMap<>();
+        private final Map<String, TreeMap<Integer, SiteModel>> mSitesByXmlRpcUrl = new HashMap<>();
+
+        SiteIndex(List<SiteModel> sites) {
+            for (SiteModel site : sites) {
+                add(site.getId(), site);
+            }
+        }
+
+        @Nullable
+        SiteModel getFirstBySiteId(long siteId) {
+            if (siteId == 0) {
+                return null;
+            }
+            TreeMap<Integer, SiteModel> sites = mSitesBySiteId.get(siteId);
+            return sites == null ? null : sites.firstEntry().getValue();
+        }
+
+        int insertOrUpdate(SiteModel site) throws DuplicateSiteException {
+            Integer oldId = findMatchingId(site);
+            if (oldId == null) {
+                AppLog.d(T.DB, "Inserting site: " + site.getUrl());
+                WellSql.insert(site).execute();
+                add(site.getId(), site);
+                return 1;
+            }
+
+            AppLog.d(T.DB, "Updating site: " + site.getUrl());
+            int rowsAffected;
+            try {
+                rowsAffected = WellSql.update(SiteModel.class).whereId(oldId)
+                        .put(site, new UpdateAllExceptId<>(SiteModel.class)).execute();
+            } catch (SQLiteConstraintException e) {
+                AppLog.e(T.DB, "Error while updating site: siteId=" + site.getSiteId() + " url=" + site.getUrl()
+                        + " xmlrpc=" + site.getXmlRpcUrl(), e);
+                throw new DuplicateSiteException();
+            }
+            // The row now holds the values of the new site
+            remove(oldId);
+            add(oldId, site);
+            return rowsAffected;
+        }
+
+        int removeWPComRestSitesAbsentFromList(PostSqlUtils postSqlUtils, List<SiteModel> sites) {
+            Set<Long> siteIdsToKeep = new HashSet<>();
+            for (SiteModel site : sites) {
+                siteIdsToKeep.add(site.getSiteId());
+            }
+            List<Integer> idsToRemove = new ArrayList<>();
+            for (Entry<Integer, SiteModel> entry : mSitesById.entrySet()) {
+                SiteModel localSite = entry.getValue();
+                if (localSite.getOrigin() == SiteModel.ORIGIN_WPCOM_REST
+                    && !siteIdsToKeep.contains(localSite.getSiteId())
+                    && !postSqlUtils.getSiteHasLocalChanges(localSite)) {
+                    idsToRemove.add(entry.getKey());
+                }
+            }
+            for (Integer id : idsToRemove) {
+                WellSql.delete(SiteModel.class).where().equals(SiteModelTable.ID, id).endWhere().execute();
+                remove(id);
+            }
+            return idsToRemove.size();
+        }
+
+        @Nullable
+        private Integer findMatchingId(SiteModel site) {
+            if (mSitesById.containsKey(site.getId())) {
+                return site.getId();
+            }
+
+            TreeMap<Integer, SiteModel> sitesWithSiteId = mSitesBySiteId.get(site.getSiteId());
+            if (sitesWithSiteId != null) {
+                for (Entry<Integer, SiteModel> entry : sitesWithSiteId.entrySet()) {
+                    // For WordPress.com and Jetpack sites, the WP.com ID is a unique enough identifier
+                    if (site.getSiteId() > 0 || (site.getUrl() != null
+                                                 && site.getUrl().equals(entry.getValue().getUrl()))) {
+                        return entry.getKey();
+                    }
+                }
+            }
+
+            TreeMap<Integer, SiteModel> sitesWithXmlRpcUrl =
+                    mSitesByXmlRpcUrl.get(UrlUtils.removeScheme(site.getXmlRpcUrl()));
+            if (sitesWithXmlRpcUrl != null) {
+                Entry<Integer, SiteModel> first = sitesWithXmlRpcUrl.firstEntry();
+                if (first.getValue().getOrigin() == SiteModel.ORIGIN_WPCOM_REST) {
+                    AppLog.d(T.DB, "Site is a duplicate");
+                    throw new DuplicateSiteException();
+                }
+                return first.getKey();
+            }
+            return null;
+        }
+
+        private void add(int id, SiteModel site) {
+            mSitesById.put(id, site);
+            addToIndex(mSitesBySiteId, site.getSiteId(), id, site);
+            String xmlRpcUrl = site.getXmlRpcUrl();
+            // insertOrUpdateSite() only matches http:// and https:// XML-RPC urls
+            if (xmlRpcUrl != null && (xmlRpcUrl.startsWith("http://") || xmlRpcUrl.startsWith("https://"))) {
+                addToIndex(mSitesByXmlRpcUrl, UrlUtils.removeScheme(xmlRpcUrl), id, site);
+            }
+        }
+
+        private void remove(int id) {
+            SiteModel site = mSitesById.remove(id);
+            if (site == null) {
+                return;
+            }
+            removeFromIndex(mSitesBySiteId, site.getSiteId(), id);
+            if (site.getXmlRpcUrl() != null) {
+                removeFromIndex(mSitesByXmlRpcUrl, UrlUtils.removeScheme(site.getXmlRpcUrl()), id);
+            }
+        }
+
+        private static <K> void addToIndex(Map<K, TreeMap<Integer, SiteModel>> index, K key, int id,
+                                           SiteModel site) {
+            TreeMap<Integer, SiteModel> sites = index.get(key);
+            if (sites == null) {
+                sites = new TreeMap<>();
+                index.put(key, sites);
+            }
+            sites.put(id, site);
+        }
+
+        private static <K> void removeFromIndex(Map<K, TreeMap<Integer, SiteModel>> index, K key, int id) {
+            TreeMap<Integer, SiteModel> sites = index.get(key);
+            if (sites != null) {
+                sites.remove(id);
+                if (sites.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
 }
@@ -9,6 +9,7 @@ import com.yarolegovich.wellsql.core.Identifiable
 import com.yarolegovich.wellsql.core.annotation.Column
 import com.yarolegovich.wellsql.core.annotation.PrimaryKey
 import com.yarolegovich.wellsql.core.annotation.Table
+import org.wordpress.android.fluxc.ActionMetrics
 import org.wordpress.android.fluxc.model.SiteModel
 import javax.inject.Inject
 import javax.inject.Singleton
@@ -33,31 +34,36 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ) {
-        val json = gson.toJson(item)
-        if (replaceExistingData) {
-            var deleteStatement = WellSql.delete(StatsBlockBuilder::class.java)
-                    .where()
-                    .equals(StatsBlockTable.LOCAL_SITE_ID, site.id)
-                    .equals(StatsBlockTable.BLOCK_TYPE, blockType.name)
-                    .equals(StatsBlockTable.STATS_TYPE, statsType.name)
-            if (date != null) {
-                deleteStatement = deleteStatement.equals(StatsBlockTable.DATE, date)
+        val dbTimerStart = ActionMetrics.startDbTimer()
+        try {
+            val json = gson.toJson(item)
+            if (replaceExistingData) {
+                var deleteStatement = WellSql.delete(StatsBlockBuilder::class.java)
+                        .where()
+                        .equals(StatsBlockTable.LOCAL_SITE_ID, site.id)
+                        .equals(StatsBlockTable.BLOCK_TYPE, blockType.name)
+                        .equals(StatsBlockTable.STATS_TYPE, statsType.name)
+                if (date != null) {
+                    deleteStatement = deleteStatement.equals(StatsBlockTable.DATE, date)
+                }
+                if (postId != null) {
+                    deleteStatement = deleteStatement.equals(StatsBlockTable.POST_ID, postId)
+                }
+                deleteStatement.endWhere().execute()
             }
-            if (postId != null) {
-                deleteStatement = deleteStatement.equals(StatsBlockTable.POST_ID, postId)
-            }
-            deleteStatement.endWhere().execute()
+            WellSql.insert(
+                    StatsBlockBuilder(
+                            localSiteId = site.id,
+                            blockType = blockType.name,
+                            statsType = statsType.name,
+                            date = date,
+                            postId = postId,
+                            json = json
+                    )
+            ).execute()
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart)
         }
-        WellSql.insert(
-                StatsBlockBuilder(
-                        localSiteId = site.id,
-                        blockType = blockType.name,
-                        statsType = statsType.name,
-                        date = date,
-                        postId = postId,
-                        json = json
-                )
-        ).execute()
     }
 
     fun <T> selectAll(
@@ -68,8 +74,13 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): List<T> {
-        val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
-        return models.map { gson.fromJson(it.json, classOfT) }
+        val dbTimerStart = ActionMetrics.startDbTimer()
+        try {
+            val models = createSelectStatement(site, blockType, statsType, date, postId).asModel
+            return models.map { gson.fromJson(it.json, classOfT) }
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart)
+        }
     }
 
     fun <T> select(
@@ -80,11 +91,16 @@ class StatsSqlUtils
         date: String? = null,
         postId: Long? = null
     ): T? {
-        val model = createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()
-        if (model != null) {
-            return gson.fromJson(model.json, classOfT)
+        val dbTimerStart = ActionMetrics.startDbTimer()
+        try {
+            val model = createSelectStatement(site, blockType, statsType, date, postId).asModel.firstOrNull()
+            if (model != null) {
+                return gson.fromJson(model.json, classOfT)
+            }
+            return null
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart)
         }
-        return null
     }
 
     fun deleteAllStats(): Int {
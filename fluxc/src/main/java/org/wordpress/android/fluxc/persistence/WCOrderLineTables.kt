@@ -0,0 +1,128 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.google.gson.JsonParseException
+import com.google.gson.JsonParser
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+
+/**
+ * The WooCommerce order line item and shipping line tables, which hold the rows of the `lineItems` and `shippingLines`
+ * JSON of the orders, their indexes, and the migration filling them from the orders stored before they existed.
+ */
+object WCOrderLineTables {
+    private const val LINE_ITEM_TABLE_NAME = "WCOrderLineItemModel"
+    private const val SHIPPING_LINE_TABLE_NAME = "WCOrderShippingLineModel"
+
+    fun createIndexes(db: SQLiteDatabase) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS WC_ORDER_LINE_ITEM_ORDER_INDEX " +
+                "ON $LINE_ITEM_TABLE_NAME(LOCAL_ORDER_ID, POSITION)")
+        db.execSQL("CREATE INDEX IF NOT EXISTS WC_ORDER_LINE_ITEM_PRODUCT_INDEX " +
+                "ON $LINE_ITEM_TABLE_NAME(LOCAL_SITE_ID, PRODUCT_ID)")
+        db.execSQL("CREATE INDEX IF NOT EXISTS WC_ORDER_LINE_ITEM_VARIATION_INDEX " +
+                "ON $LINE_ITEM_TABLE_NAME(LOCAL_SITE_ID, VARIATION_ID)")
+        db.execSQL("CREATE INDEX IF NOT EXISTS WC_ORDER_SHIPPING_LINE_ORDER_INDEX " +
+                "ON $SHIPPING_LINE_TABLE_NAME(LOCAL_ORDER_ID, POSITION)")
+    }
+
+    fun createTables(db: SQLiteDatabase) {
+        db.execSQL(
+                "CREATE TABLE $LINE_ITEM_TABLE_NAME (" +
+                        "_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "LOCAL_SITE_ID INTEGER," +
+                        "LOCAL_ORDER_ID INTEGER," +
+                        "POSITION INTEGER," +
+                        "REMOTE_LINE_ITEM_ID INTEGER," +
+                        "NAME TEXT NOT NULL," +
+                        "PRODUCT_ID INTEGER," +
+                        "VARIATION_ID INTEGER," +
+                        "QUANTITY REAL," +
+                        "SUBTOTAL TEXT NOT NULL," +
+                        "TOTAL TEXT NOT NULL," +
+                        "TOTAL_TAX TEXT NOT NULL," +
+                        "SKU TEXT NOT NULL," +
+                        "PRICE TEXT NOT NULL)"
+        )
+        db.execSQL(
+                "CREATE TABLE $SHIPPING_LINE_TABLE_NAME (" +
+                        "_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "LOCAL_SITE_ID INTEGER," +
+                        "LOCAL_ORDER_ID INTEGER," +
+                        "POSITION INTEGER," +
+                        "METHOD_TITLE TEXT NOT NULL)"
+        )
+        createIndexes(db)
+    }
+
+    /**
+     * Fills the line item and shipping line tables from the JSON of the orders stored before they existed.
+     */
+    fun migrateOrderLines(db: SQLiteDatabase) {
+        val parser = JsonParser()
+        val cursor = db.rawQuery("SELECT _id, LOCAL_SITE_ID, LINE_ITEMS, SHIPPING_LINES FROM WCOrderModel", null)
+        try {
+            while (cursor.moveToNext()) {
+                val localOrderId = cursor.getInt(0)
+                val localSiteId = cursor.getInt(1)
+                parseJsonArray(parser, cursor.getString(2)).forEachIndexed { position, lineItem ->
+                    db.execSQL(
+                            "INSERT INTO $LINE_ITEM_TABLE_NAME (LOCAL_SITE_ID, LOCAL_ORDER_ID, POSITION, " +
+                                    "REMOTE_LINE_ITEM_ID, NAME, PRODUCT_ID, VARIATION_ID, QUANTITY, SUBTOTAL, TOTAL, " +
+                                    "TOTAL_TAX, SKU, PRICE) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)",
+                            arrayOf(
+                                    localSiteId,
+                                    localOrderId,
+                                    position,
+                                    lineItem.getLongOrZero("id"),
+                                    lineItem.getStringOrEmpty("name"),
+                                    lineItem.getLongOrZero("product_id"),
+                                    lineItem.getLongOrZero("variation_id"),
+                                    lineItem.get("quantity")?.takeIf { it.isJsonPrimitive }?.asFloat ?: 0f,
+                                    lineItem.getStringOrEmpty("subtotal"),
+                                    lineItem.getStringOrEmpty("total"),
+                                    lineItem.getStringOrEmpty("total_tax"),
+                                    lineItem.getStringOrEmpty("sku"),
+                                    lineItem.getStringOrEmpty("price")
+                            )
+                    )
+                }
+                parseJsonArray(parser, cursor.getString(3)).forEachIndexed { position, shippingLine ->
+                    db.execSQL(
+                            "INSERT INTO $SHIPPING_LINE_TABLE_NAME (LOCAL_SITE_ID, LOCAL_ORDER_ID, POSITION, " +
+                                    "METHOD_TITLE) VALUES (?,?,?,?)",
+                            arrayOf(localSiteId, localOrderId, position, shippingLine.getStringOrEmpty("method_title"))
+                    )
+                }
+            }
+        } finally {
+            cursor.close()
+        }
+    }
+
+    private fun parseJsonArray(parser: JsonParser, json: String?): List<JsonObject> {
+        if (json.isNullOrEmpty()) {
+            return emptyList()
+        }
+        return try {
+            val element: JsonElement = parser.parse(json)
+            if (element.isJsonArray) {
+                element.asJsonArray.filter { it.isJsonObject }.map { it.asJsonObject }
+            } else {
+                emptyList()
+            }
+        } catch (e: JsonParseException) {
+            AppLog.e(T.DB, e)
+            emptyList()
+        }
+    }
+
+    private fun JsonObject.getLongOrZero(name: String): Long {
+        return get(name)?.takeIf { it.isJsonPrimitive }?.asLong ?: 0L
+    }
+
+    private fun JsonObject.getStringOrEmpty(name: String): String {
+        return get(name)?.takeIf { it.isJsonPrimitive }?.asString ?: ""
+    }
+}
@@ -27,7 +27,7 @@ open class WellSqlConfig : DefaultWellConfig {
     annotation class AddOn
 
     override fun getDbVersion(): Int {
-        return 104
+        return 111
     }
 
     override fun getDbName(): String {
@@ -36,6 +36,13 @@ open class WellSqlConfig : DefaultWellConfig {
 
     override fun onCreate(db: SQLiteDatabase, helper: WellTableManager) {
         mTables.forEach { table -> helper.createTable(table) }
+        PostSearchIndex.createTable(db)
+        MediaSearchIndex.createTable(db)
+        ListItemPositionIndex.create(db)
+        MediaContentHashIndex.create(db)
+        if (mActiveAddOns.contains(ADDON_WOOCOMMERCE)) {
+            WCOrderLineTables.createIndexes(db)
+        }
     }
 
     @Suppress("CheckStyle")
@@ -1079,6 +1086,36 @@ open class WellSqlConfig : DefaultWellConfig {
                 103 -> migrate(version) {
                     db.execSQL("ALTER TABLE CommentModel ADD URL TEXT")
                 }
+                104 -> migrate(version) {
+                    PostSearchIndex.rebuild(db)
+                }
+                105 -> migrate(version) {
+                    db.execSQL("ALTER TABLE MediaModel ADD MEDIA_TYPE TEXT")
+                    MediaSearchIndex.migrateMediaTypes(db)
+                    MediaSearchIndex.rebuild(db)
+                }
+                106 -> migrateAddOn(ADDON_WOOCOMMERCE, version) {
+                    WCOrderLineTables.createTables(db)
+                    WCOrderLineTables.migrateOrderLines(db)
+                }
+                107 -> migrate(version) {
+                    db.execSQL("ALTER TABLE ListItemModel ADD POSITION INTEGER")
+                    db.execSQL(
+                            "UPDATE ListItemModel SET POSITION = (SELECT COUNT(*) FROM ListItemModel AS previous " +
+                                    "WHERE previous.LIST_ID = ListItemModel.LIST_ID " +
+                                    "AND previous._id < ListItemModel._id)"
+                    )
+                }
+                108 -> migrate(version) {
+                    ListItemPositionIndex.create(db)
+                }
+                109 -> migrate(version) {
+                    db.execSQL("ALTER TABLE MediaModel ADD CONTENT_HASH TEXT")
+                    MediaContentHashIndex.create(db)
+                }
+                110 -> migrate(version) {
+                    MediaSearchIndex.rebuild(db)
+                }
             }
         }
         db.setTransactionSuccessful()
@@ -1105,6 +1142,13 @@ open class WellSqlConfig : DefaultWellConfig {
             db.execSQL("DROP TABLE IF EXISTS ${table.tableName}")
             db.execSQL(table.createStatement())
         }
+        PostSearchIndex.rebuild(db)
+        MediaSearchIndex.rebuild(db)
+        ListItemPositionIndex.create(db)
+        MediaContentHashIndex.create(db)
+        if (mActiveAddOns.contains(ADDON_WOOCOMMERCE)) {
+            WCOrderLineTables.createIndexes(db)
+        }
     }
 
     /**
@@ -8,13 +8,12 @@ import androidx.annotation.Nullable;
 import com.android.volley.VolleyError;
 import com.yarolegovich.wellsql.WellSql;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.AccountAction;
 import org.wordpress.android.fluxc.action.AuthenticationAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.AccountModel;
 import org.wordpress.android.fluxc.model.DomainContactModel;
@@ -52,6 +51,7 @@ import javax.inject.Singleton;
  * In-memory based and persisted in SQLite.
  */
 @Singleton
+@HandlesActions({AccountAction.class, AuthenticationAction.class})
 public class AccountStore extends Store {
     // Payloads
     public static class AuthenticatePayload extends Payload<BaseNetworkError> {
@@ -763,7 +763,6 @@ public class AccountStore extends Store {
         AppLog.d(T.API, "AccountStore onRegister");
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
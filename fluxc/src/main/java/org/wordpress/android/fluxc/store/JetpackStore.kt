@@ -9,6 +9,7 @@ import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.JetpackAction
 import org.wordpress.android.fluxc.action.JetpackAction.INSTALL_JETPACK
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.generated.SiteActionBuilder
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.rest.wpcom.jetpacktunnel.JetpackRestClient
@@ -22,6 +23,7 @@ import kotlin.coroutines.Continuation
 import kotlin.coroutines.resume
 
 @Singleton
+@HandlesActions(JetpackAction::class)
 class JetpackStore
 @Inject constructor(
     private val jetpackRestClient: JetpackRestClient,
@@ -31,7 +33,6 @@ class JetpackStore
 ) : Store(dispatcher) {
     private var siteContinuation: Continuation<Unit>? = null
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? JetpackAction ?: return
         when (actionType) {
@@ -5,9 +5,6 @@ import androidx.lifecycle.LiveData
 import androidx.paging.LivePagedListBuilder
 import androidx.paging.PagedList
 import androidx.paging.PagedList.BoundaryCallback
-import com.yarolegovich.wellsql.WellSql
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.ListAction
@@ -18,12 +15,15 @@ import org.wordpress.android.fluxc.action.ListAction.LIST_REQUIRES_REFRESH
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_ALL_LISTS
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_EXPIRED_LISTS
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.list.LIST_STATE_TIMEOUT
 import org.wordpress.android.fluxc.model.list.ListDescriptor
 import org.wordpress.android.fluxc.model.list.ListDescriptorTypeIdentifier
+import org.wordpress.android.fluxc.model.list.ListItemChanges
 import org.wordpress.android.fluxc.model.list.ListItemModel
 import org.wordpress.android.fluxc.model.list.ListModel
+import org.wordpress.android.fluxc.model.list.ListPrefetchPolicy
 import org.wordpress.android.fluxc.model.list.ListState
 import org.wordpress.android.fluxc.model.list.ListState.FETCHED
 import org.wordpress.android.fluxc.model.list.PagedListFactory
@@ -50,6 +50,7 @@ const val DEFAULT_EXPIRATION_DURATION = 1000L * 60 * 60 * 24 * 7
  * responsibility of mutation to the Store but also makes it much easier to use the exposed data.
  */
 @Singleton
+@HandlesActions(ListAction::class)
 class ListStore @Inject constructor(
     private val listSqlUtils: ListSqlUtils,
     private val listItemSqlUtils: ListItemSqlUtils,
@@ -57,7 +58,6 @@ class ListStore @Inject constructor(
     private val coroutineEngine: CoroutineEngine,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? ListAction ?: return
 
@@ -91,11 +91,13 @@ class ListStore @Inject constructor(
         dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
         lifecycle: Lifecycle
     ): PagedListWrapper<LIST_ITEM> {
-        val factory = createPagedListFactory(listDescriptor, dataSource)
+        val prefetchPolicy = ListPrefetchPolicy(listDescriptor.config)
+        val factory = createPagedListFactory(listDescriptor, dataSource, prefetchPolicy)
         val pagedListData = createPagedListLiveData(
                 listDescriptor = listDescriptor,
                 dataSource = dataSource,
-                pagedListFactory = factory
+                pagedListFactory = factory,
+                prefetchPolicy = prefetchPolicy
         )
         return PagedListWrapper(
                 data = pagedListData,
@@ -108,7 +110,8 @@ class ListStore @Inject constructor(
                     }
                 },
                 invalidate = factory::invalidate,
-                parentCoroutineContext = coroutineContext
+                parentCoroutineContext = coroutineContext,
+                prefetchPolicy = prefetchPolicy
         )
     }
 
@@ -119,7 +122,8 @@ class ListStore @Inject constructor(
     private fun <LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM> createPagedListLiveData(
         listDescriptor: LIST_DESCRIPTOR,
         dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
-        pagedListFactory: PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+        pagedListFactory: PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+        prefetchPolicy: ListPrefetchPolicy
     ): LiveData<PagedList<LIST_ITEM>> {
         val pagedListConfig = PagedList.Config.Builder()
                 .setEnablePlaceholders(true)
@@ -130,7 +134,15 @@ class ListStore @Inject constructor(
             override fun onItemAtEndLoaded(itemAtEnd: LIST_ITEM) {
                 // Load more items if we are near the end of list
                 coroutineEngine.launch(AppLog.T.API, this, "ListStore: Loading next page") {
-                    handleFetchList(listDescriptor, loadMore = true) { offset ->
+                    val state = getListState(listDescriptor)
+                    if (state.canLoadMore() || state.isLoadingMore()) {
+                        prefetchPolicy.onEndReached()
+                    }
+                    handleFetchList(
+                            listDescriptor,
+                            loadMore = true,
+                            onFetchStarted = { prefetchPolicy.onPageFetchStarted(isPrefetch = false) }
+                    ) { offset ->
                         dataSource.fetchList(listDescriptor, offset)
                     }
                 }
@@ -143,21 +155,59 @@ class ListStore @Inject constructor(
 
     /**
      * A helper function that creates a [PagedListFactory] for the given [LIST_DESCRIPTOR] and [dataSource].
+     *
+     * If the [dataSource] has one item per remote id, the data sources created by the factory only read the ranges of
+     * the list that are loaded, rather than all of its remote ids.
+     *
+     * As items are loaded from the DB, [prefetchPolicy] decides whether the next page should be fetched before the
+     * user reaches the end of the list. Only one page is fetched at a time for a list, since the offset of the next
+     * page depends on the items already fetched.
      */
     private fun <LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM> createPagedListFactory(
         listDescriptor: LIST_DESCRIPTOR,
-        dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
+        dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>,
+        prefetchPolicy: ListPrefetchPolicy
     ): PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM> {
         val getRemoteItemIds = { getListItems(listDescriptor).map { RemoteId(value = it) } }
         val getIsListFullyFetched = { getListState(listDescriptor) == FETCHED }
         return PagedListFactory(
                 createDataSource = {
-                    InternalPagedListDataSource(
-                            listDescriptor = listDescriptor,
-                            remoteItemIds = getRemoteItemIds(),
-                            isListFullyFetched = getIsListFullyFetched(),
-                            itemDataSource = dataSource
-                    )
+                    val listModel = listSqlUtils.getList(listDescriptor)
+                    if (listModel != null && dataSource.hasOneItemPerRemoteId(listDescriptor)) {
+                        // Read before the size, so a change made while the size is read is detected
+                        val listVersion = listItemSqlUtils.getListVersion(listModel.id)
+                        InternalPagedListDataSource(
+                                listDescriptor = listDescriptor,
+                                totalSize = listItemSqlUtils.getListItemsCount(listModel.id).toInt(),
+                                getRemoteItemIdsInRange = { startPosition, endPosition ->
+                                    listItemSqlUtils.getListItemsInRange(listModel.id, startPosition, endPosition)
+                                            .map { RemoteId(value = it.remoteItemId) }
+                                },
+                                hasListChanged = { listItemSqlUtils.getListVersion(listModel.id) != listVersion },
+                                isListFullyFetched = getIsListFullyFetched(),
+                                itemDataSource = dataSource
+                        )
+                    } else {
+                        InternalPagedListDataSource(
+                                listDescriptor = listDescriptor,
+                                remoteItemIds = getRemoteItemIds(),
+                                isListFullyFetched = getIsListFullyFetched(),
+                                itemDataSource = dataSource
+                        )
+                    }
+                },
+                onItemsLoaded = { endPosition, totalSize ->
+                    if (prefetchPolicy.onItemsLoaded(endPosition, totalSize)) {
+                        coroutineEngine.launch(AppLog.T.API, this, "ListStore: Prefetching next page") {
+                            handleFetchList(
+                                    listDescriptor,
+                                    loadMore = true,
+                                    onFetchStarted = { prefetchPolicy.onPageFetchStarted(isPrefetch = true) }
+                            ) { offset ->
+                                dataSource.fetchList(listDescriptor, offset)
+                            }
+                        }
+                    }
                 })
     }
 
@@ -176,11 +226,12 @@ class ListStore @Inject constructor(
      *
      * Before fetching the list, it'll first check if this is a valid fetch depending on the list's state. Then, it'll
      * update the list's state and emit that change. Finally, it'll calculate the offset and initiate the fetch with
-     * the given [fetchList] function.
+     * the given [fetchList] function, calling [onFetchStarted] right before.
      */
     private fun handleFetchList(
         listDescriptor: ListDescriptor,
         loadMore: Boolean,
+        onFetchStarted: () -> Unit = {},
         fetchList: (Long) -> Unit
     ) {
         val currentState = getListState(listDescriptor)
@@ -200,6 +251,7 @@ class ListStore @Inject constructor(
             "The `ListModel` can never be `null` here since either a new list is inserted or existing one updated"
         }
         val offset = if (loadMore) listItemSqlUtils.getListItemsCount(listModel.id) else 0L
+        onFetchStarted()
         fetchList(offset)
     }
 
@@ -215,9 +267,10 @@ class ListStore @Inject constructor(
      *
      * Here is how it works:
      * 1. If there was an error, update the list's state and emit the change. Otherwise:
-     * 2. If the first page is fetched, delete the existing [ListItemModel]s.
-     * 3. Update the [ListModel]'s state depending on whether there is more data to be fetched
-     * 4. Insert the [ListItemModel]s and emit the change
+     * 2. Update the [ListModel]'s state depending on whether there is more data to be fetched
+     * 3. If the first page is fetched, replace the existing [ListItemModel]s with the fetched ones, only writing the
+     * ones that changed. Otherwise, add the fetched [ListItemModel]s to the end of the list.
+     * 4. Emit the change along with the [ListItemChanges]
      *
      * See [handleFetchList] to see how items are fetched.
      */
@@ -229,34 +282,23 @@ class ListStore @Inject constructor(
         }
         listSqlUtils.insertOrUpdateList(payload.listDescriptor, newState)
 
-        if (!payload.isError) {
-            val db = WellSql.giveMeWritableDb()
-            db.beginTransaction()
-            try {
-                if (!payload.loadedMore) {
-                    deleteListItems(payload.listDescriptor)
-                }
-                val listModel = requireNotNull(listSqlUtils.getList(payload.listDescriptor)) {
-                    "The `ListModel` can never be `null` here since either a new list is inserted or existing one " +
-                            "updated"
-                }
-                listItemSqlUtils.insertItemList(payload.remoteItemIds.map { remoteItemId ->
-                    val listItemModel = ListItemModel()
-                    listItemModel.listId = listModel.id
-                    listItemModel.remoteItemId = remoteItemId
-                    return@map listItemModel
-                })
-                db.setTransactionSuccessful()
-            } finally {
-                db.endTransaction()
+        val changes = if (!payload.isError) {
+            val listModel = requireNotNull(listSqlUtils.getList(payload.listDescriptor)) {
+                "The `ListModel` can never be `null` here since either a new list is inserted or existing one " +
+                        "updated"
             }
-        }
+            if (payload.loadedMore) {
+                listItemSqlUtils.appendItemList(listModel.id, payload.remoteItemIds)
+            } else {
+                listItemSqlUtils.replaceItemList(listModel.id, payload.remoteItemIds)
+            }
+        } else null
         val causeOfChange = if (payload.isError) {
             CauseOfListChange.ERROR
         } else {
             if (payload.loadedMore) CauseOfListChange.LOADED_MORE else CauseOfListChange.FIRST_PAGE_FETCHED
         }
-        emitChange(OnListChanged(listOf(payload.listDescriptor), causeOfChange, payload.error))
+        emitChange(OnListChanged(listOf(payload.listDescriptor), causeOfChange, payload.error, changes))
         handleListStateChange(payload.listDescriptor, newState, payload.error)
     }
 
@@ -310,15 +352,6 @@ class ListStore @Inject constructor(
         listSqlUtils.deleteAllLists()
     }
 
-    /**
-     * Deletes all the items for the given [ListDescriptor].
-     */
-    private fun deleteListItems(listDescriptor: ListDescriptor) {
-        listSqlUtils.getList(listDescriptor)?.let {
-            listItemSqlUtils.deleteItems(it.id)
-        }
-    }
-
     /**
      * A helper function that returns the [ListState] for the given [ListDescriptor].
      */
@@ -351,11 +384,14 @@ class ListStore @Inject constructor(
 
     /**
      * The event to be emitted when there is a change to a [ListModel].
+     *
+     * @property changes The changes made to the items of the list, or `null` if they aren't known.
      */
     class OnListChanged(
         val listDescriptors: List<ListDescriptor>,
         val causeOfChange: CauseOfListChange,
-        error: ListError?
+        error: ListError?,
+        val changes: ListItemChanges? = null
     ) : Store.OnChanged<ListError>() {
         enum class CauseOfListChange {
             ERROR, FIRST_PAGE_FETCHED, LOADED_MORE
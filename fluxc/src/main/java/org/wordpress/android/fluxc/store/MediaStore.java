@@ -6,14 +6,16 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.wellsql.generated.MediaModelTable;
+import com.yarolegovich.wellsql.WellCursor;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.generated.MediaActionBuilder;
+import org.wordpress.android.fluxc.generated.UploadActionBuilder;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.PostImmutableModel;
@@ -26,6 +28,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.media.MediaXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.MediaSqlUtils;
 import org.wordpress.android.fluxc.utils.MediaUtils;
+import org.wordpress.android.fluxc.utils.UploadImageTransformer;
 import org.wordpress.android.util.AppLog;
 
 import java.io.IOException;
@@ -33,13 +36,26 @@ import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(MediaAction.class)
 public class MediaStore extends Store {
     public static final int DEFAULT_NUM_MEDIA_PER_FETCH = 50;
 
@@ -68,15 +84,27 @@ public class MediaStore extends Store {
      */
     public static class UploadMediaPayload extends MediaPayload {
         public final boolean stripLocation;
+        // Images are uploaded as they are when null
+        @Nullable public final UploadImageTransformer.Options imageOptions;
 
         public UploadMediaPayload(SiteModel site, MediaModel media, boolean stripLocation) {
-            super(site, media, null);
-            this.stripLocation = stripLocation;
+            this(site, media, null, stripLocation, null);
         }
 
         public UploadMediaPayload(SiteModel site, MediaModel media, MediaError error, boolean stripLocation) {
+            this(site, media, error, stripLocation, null);
+        }
+
+        public UploadMediaPayload(SiteModel site, MediaModel media, boolean stripLocation,
+                                  @Nullable UploadImageTransformer.Options imageOptions) {
+            this(site, media, null, stripLocation, imageOptions);
+        }
+
+        public UploadMediaPayload(SiteModel site, MediaModel media, MediaError error, boolean stripLocation,
+                                  @Nullable UploadImageTransformer.Options imageOptions) {
             super(site, media, error);
             this.stripLocation = stripLocation;
+            this.imageOptions = imageOptions;
         }
     }
 
@@ -299,6 +327,9 @@ public class MediaStore extends Store {
         public float progress;
         public boolean completed;
         public boolean canceled;
+        // Set once the upload ended, when the image was transformed before being uploaded
+        public long originalFileSize;
+        public long uploadedFileSize;
         public OnMediaUploaded(MediaModel media, float progress, boolean completed, boolean canceled) {
             this.media = media;
             this.progress = progress;
@@ -420,9 +451,34 @@ public class MediaStore extends Store {
     private final MediaRestClient mMediaRestClient;
     private final MediaXMLRPCClient mMediaXmlrpcClient;
     // Ensures that the UploadStore is initialized whenever the MediaStore is,
-    // to ensure actions are shadowed and repeated by the UploadStore
-    @SuppressWarnings("unused")
+    // to ensure actions are shadowed and repeated by the UploadStore. It also decides when uploads start.
     @Inject UploadStore mUploadStore;
+    // Bounded so hashing a large selection doesn't saturate the storage and the CPU
+    private static final int HASH_THREAD_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final ThreadPoolExecutor HASH_EXECUTOR = new ThreadPoolExecutor(HASH_THREAD_COUNT,
+            HASH_THREAD_COUNT, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger mThreadNumber = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "fluxc-media-hash-" + mThreadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    static {
+        HASH_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    // Images being uploaded from a transformed copy, by local media id
+    private final Map<Integer, TransformedUpload> mTransformedUploads = new ConcurrentHashMap<>();
+    // Local ids of the media whose upload is scheduled or starting, until the upload call is made: a cancellation
+    // arriving meanwhile removes the id, and the upload then reports it instead of starting
+    private final Set<Integer> mStartingUploads = new HashSet<>();
+    // Local ids of the media whose location was stripped before computeContentHashes hashed them, so uploading them
+    // doesn't strip the location again and can keep their hash
+    private final Set<Integer> mLocationStrippedMedia = Collections.synchronizedSet(new HashSet<Integer>());
 
     @Inject
     public MediaStore(Dispatcher dispatcher, MediaRestClient restClient, MediaXMLRPCClient xmlrpcClient) {
@@ -431,7 +487,6 @@ public class MediaStore extends Store {
         mMediaXmlrpcClient = xmlrpcClient;
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -515,6 +570,57 @@ public class MediaStore extends Store {
         return media;
     }
 
+    /**
+     * Same as {@link #computeContentHashes(List, boolean)}, for media uploaded without stripping their location.
+     */
+    public void computeContentHashes(@NonNull List<MediaModel> mediaList) {
+        computeContentHashes(mediaList, false);
+    }
+
+    /**
+     * Computes and stores the hash of the local files of the {@code mediaList}, a few files in parallel, so uploading
+     * them later doesn't wait for it. Uploading a file whose hash matches media already uploaded to the site reuses
+     * that media instead. Images uploaded with {@link UploadMediaPayload#imageOptions} are never reused, nor reused
+     * by other uploads.
+     *
+     * Stripping the location rewrites the file, so {@code stripLocation} must match the
+     * {@link UploadMediaPayload#stripLocation} the media are then uploaded with: when set, the location is stripped
+     * here before hashing and the upload doesn't strip it again. Otherwise, the upload hashes the file once more.
+     *
+     * Blocks until all the files are hashed, must not be called on the main thread.
+     */
+    public void computeContentHashes(@NonNull List<MediaModel> mediaList, final boolean stripLocation) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (final MediaModel media : mediaList) {
+            if (media.getContentHash() != null && !stripLocation) {
+                continue;
+            }
+            futures.add(HASH_EXECUTOR.submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (stripLocation) {
+                        MediaUtils.stripLocation(media.getFilePath());
+                        mLocationStrippedMedia.add(media.getId());
+                    }
+                    String contentHash = MediaUtils.getContentHash(media.getFilePath());
+                    if (contentHash != null) {
+                        media.setContentHash(contentHash);
+                        MediaSqlUtils.updateContentHash(media.getId(), contentHash);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            AppLog.e(AppLog.T.MEDIA, "Could not hash media: " + e.getCause());
+        }
+    }
+
     public List<MediaModel> getAllSiteMedia(SiteModel siteModel) {
         return MediaSqlUtils.getAllSiteMedia(siteModel);
     }
@@ -621,6 +727,29 @@ public class MediaStore extends Store {
         return MediaSqlUtils.searchSiteDocuments(siteModel, searchTerm);
     }
 
+    /**
+     * Returns a cursor over the media of the site matching the search term, most recently uploaded first, which
+     * loads the matching media as it's scrolled through. The caller must close it.
+     *
+     * @param mimeTypePrefix one of the {@code MediaUtils.MIME_TYPE_*} prefixes to only search the media of that type,
+     *                       or null to search all the media
+     */
+    public WellCursor<MediaModel> searchSiteMediaAsCursor(SiteModel siteModel, String searchTerm,
+                                                          @Nullable String mimeTypePrefix) {
+        return MediaSqlUtils.searchSiteMediaAsCursor(siteModel, searchTerm, mimeTypePrefix);
+    }
+
+    /**
+     * Returns a cursor over the media of the site, most recently uploaded first, which loads the media as it's
+     * scrolled through. The caller must close it.
+     *
+     * @param mimeTypePrefix one of the {@code MediaUtils.MIME_TYPE_*} prefixes to only list the media of that type,
+     *                       or null to list all the media
+     */
+    public WellCursor<MediaModel> getSiteMediaWithTypeAsCursor(SiteModel siteModel, @Nullable String mimeTypePrefix) {
+        return MediaSqlUtils.getSiteMediaWithTypeAsCursor(siteModel, mimeTypePrefix);
+    }
+
     public MediaModel getMediaForPostWithPath(PostImmutableModel postModel, String filePath) {
         List<MediaModel> media = MediaSqlUtils.matchPostMedia(postModel.getId(), MediaModelTable.FILE_PATH, filePath);
         return media.size() > 0 ? media.get(0) : null;
@@ -722,20 +851,113 @@ public class MediaStore extends Store {
             return;
         }
 
+        boolean locationStripped = mLocationStrippedMedia.remove(payload.media.getId());
+        if (payload.stripLocation && !locationStripped) {
+            MediaUtils.stripLocation(payload.media.getFilePath());
+            // Stripping the location rewrites the file
+            payload.media.setContentHash(null);
+        }
+        if (payload.imageOptions != null) {
+            // The hash is of the original file, it can't tell whether a transformed upload matches other media
+            payload.media.setContentHash(null);
+        }
+
         payload.media.setUploadState(MediaUploadState.UPLOADING);
         MediaSqlUtils.insertOrUpdateMedia(payload.media);
-
-        if (payload.stripLocation) {
-            MediaUtils.stripLocation(payload.media.getFilePath());
+        if (payload.imageOptions != null) {
+            // Updating the media keeps the stored hash when the model has none
+            MediaSqlUtils.updateContentHash(payload.media.getId(), null);
         }
 
-        if (payload.site.isUsingWpComRestApi()) {
-            mMediaRestClient.uploadMedia(payload.site, payload.media);
+        final SiteModel site = payload.site;
+        final MediaModel media = payload.media;
+        final UploadImageTransformer.Options imageOptions = payload.imageOptions;
+        Runnable startUpload = new Runnable() {
+            @Override
+            public void run() {
+                // Transforming or hashing once the upload can start bounds the number of files read at the same time,
+                // and keeps large files from blocking the thread handling the action
+                MediaModel uploadedMedia = null;
+                if (imageOptions != null) {
+                    transformImage(media, imageOptions);
+                } else {
+                    uploadedMedia = findUploadedMedia(site, media);
+                }
+                synchronized (mStartingUploads) {
+                    if (mStartingUploads.remove(media.getId())) {
+                        if (uploadedMedia != null) {
+                            reuseUploadedMedia(uploadedMedia, media);
+                        } else if (site.isUsingWpComRestApi()) {
+                            mMediaRestClient.uploadMedia(site, media);
+                        } else {
+                            mMediaXmlrpcClient.uploadMedia(site, media);
+                        }
+                        return;
+                    }
+                }
+                // Canceled while the file was transformed or hashed
+                ProgressPayload canceledPayload = new ProgressPayload(media, 0.f, false, true);
+                mDispatcher.dispatch(MediaActionBuilder.newCanceledMediaUploadAction(canceledPayload));
+            }
+        };
+        synchronized (mStartingUploads) {
+            // Added before scheduling, so a cancellation arriving once the scheduler started the upload still sees it
+            mStartingUploads.add(media.getId());
+        }
+        if (mUploadStore != null) {
+            mUploadStore.scheduleMediaUpload(media, startUpload);
         } else {
-            mMediaXmlrpcClient.uploadMedia(payload.site, payload.media);
+            startUpload.run();
         }
     }
 
+    /**
+     * Hashes the file of the media if it wasn't already (see {@link #computeContentHashes(List, boolean)}).
+     *
+     * @return the media of the site already uploaded from a file with the same contents, or null
+     */
+    @Nullable
+    private static MediaModel findUploadedMedia(@NonNull SiteModel site, @NonNull MediaModel media) {
+        if (media.getContentHash() == null) {
+            String contentHash = MediaUtils.getContentHash(media.getFilePath());
+            if (contentHash == null) {
+                return null;
+            }
+            media.setContentHash(contentHash);
+            MediaSqlUtils.updateContentHash(media.getId(), contentHash);
+        }
+        return MediaSqlUtils.getUploadedSiteMediaWithContentHash(site, media.getContentHash());
+    }
+
+    /**
+     * Completes the upload of {@code media} with the remote media already uploaded from the same file. Both rows
+     * are kept, as they may be attached to different posts: they share the remote media from now on.
+     */
+    private void reuseUploadedMedia(@NonNull MediaModel uploadedMedia, @NonNull MediaModel media) {
+        AppLog.d(AppLog.T.MEDIA, "File already uploaded as media " + uploadedMedia.getMediaId() + ", skipping upload");
+        copyRemoteFields(uploadedMedia, media);
+        MediaSqlUtils.updateMediaByLocalId(media);
+        ProgressPayload uploadedPayload = new ProgressPayload(media, 1.f, true, null);
+        mDispatcher.dispatch(UploadActionBuilder.newUploadedMediaAction(uploadedPayload));
+    }
+
+    private static void copyRemoteFields(@NonNull MediaModel from, @NonNull MediaModel to) {
+        to.setMediaId(from.getMediaId());
+        to.setGuid(from.getGuid());
+        to.setUploadDate(from.getUploadDate());
+        to.setUrl(from.getUrl());
+        to.setThumbnailUrl(from.getThumbnailUrl());
+        to.setWidth(from.getWidth());
+        to.setHeight(from.getHeight());
+        to.setLength(from.getLength());
+        to.setVideoPressGuid(from.getVideoPressGuid());
+        to.setVideoPressProcessingDone(from.getVideoPressProcessingDone());
+        to.setFileUrlMediumSize(from.getFileUrlMediumSize());
+        to.setFileUrlMediumLargeSize(from.getFileUrlMediumLargeSize());
+        to.setFileUrlLargeSize(from.getFileUrlLargeSize());
+        to.setUploadState(MediaUploadState.UPLOADED);
+    }
+
     private void performFetchMediaList(FetchMediaListPayload payload) {
         int offset = 0;
         if (payload.loadMore) {
@@ -787,6 +1009,7 @@ public class MediaStore extends Store {
         }
 
         MediaModel media = payload.media;
+        restoreTransformedImage(media);
         if (payload.delete) {
             MediaSqlUtils.deleteMedia(media);
         } else {
@@ -794,10 +1017,26 @@ public class MediaStore extends Store {
             MediaSqlUtils.insertOrUpdateMedia(media);
         }
 
-        if (payload.site.isUsingWpComRestApi()) {
-            mMediaRestClient.cancelUpload(media);
-        } else {
-            mMediaXmlrpcClient.cancelUpload(media);
+        if (mUploadStore != null && mUploadStore.cancelScheduledMediaUpload(media)) {
+            // The upload never started, there's no call to cancel
+            synchronized (mStartingUploads) {
+                mStartingUploads.remove(media.getId());
+            }
+            ProgressPayload canceledPayload = new ProgressPayload(media, 0.f, false, true);
+            mDispatcher.dispatch(MediaActionBuilder.newCanceledMediaUploadAction(canceledPayload));
+            return;
+        }
+
+        synchronized (mStartingUploads) {
+            if (mStartingUploads.remove(media.getId())) {
+                // The scheduler started the upload, which reports the cancellation instead of making the upload call
+                return;
+            }
+            if (payload.site.isUsingWpComRestApi()) {
+                mMediaRestClient.cancelUpload(media);
+            } else {
+                mMediaXmlrpcClient.cancelUpload(media);
+            }
         }
     }
 
@@ -812,23 +1051,101 @@ public class MediaStore extends Store {
     }
 
     private void handleMediaUploaded(@NonNull ProgressPayload payload) {
+        TransformedUpload transformedUpload = null;
         if (payload.isError() || payload.canceled || payload.completed) {
+            transformedUpload = restoreTransformedImage(payload.media);
             updateMedia(payload.media, false);
         }
         OnMediaUploaded onMediaUploaded =
                 new OnMediaUploaded(payload.media, payload.progress, payload.completed, payload.canceled);
         onMediaUploaded.error = payload.error;
+        setFileSizes(onMediaUploaded, transformedUpload);
         emitChange(onMediaUploaded);
     }
 
     private void handleMediaCanceled(@NonNull ProgressPayload payload) {
+        TransformedUpload transformedUpload = restoreTransformedImage(payload.media);
         OnMediaUploaded onMediaUploaded =
                 new OnMediaUploaded(payload.media, payload.progress, payload.completed, payload.canceled);
         onMediaUploaded.error = payload.error;
+        setFileSizes(onMediaUploaded, transformedUpload);
 
         emitChange(onMediaUploaded);
     }
 
+    /**
+     * Points the {@code media} to a transformed copy of its image, which is uploaded instead of the original until
+     * {@link #restoreTransformedImage(MediaModel)} is called.
+     */
+    private void transformImage(@NonNull MediaModel media, @NonNull UploadImageTransformer.Options options) {
+        UploadImageTransformer.Result result = UploadImageTransformer.transform(media, options);
+        if (result == null) {
+            return;
+        }
+        AppLog.d(AppLog.T.MEDIA, "Uploading transformed image of " + result.transformedSize + " bytes instead of "
+                + result.originalSize + " bytes");
+        mTransformedUploads.put(media.getId(), new TransformedUpload(media, result));
+        media.setFilePath(result.file.getPath());
+        media.setMimeType(result.mimeType);
+        media.setFileExtension(result.fileExtension);
+        media.setFileName(replaceExtension(media.getFileName(), result.fileExtension));
+    }
+
+    /**
+     * Deletes the transformed copy of the image of the {@code media}, if any, and points the media back to the
+     * original.
+     */
+    private @Nullable TransformedUpload restoreTransformedImage(@Nullable MediaModel media) {
+        if (media == null) {
+            return null;
+        }
+        TransformedUpload transformedUpload = mTransformedUploads.remove(media.getId());
+        if (transformedUpload == null) {
+            return null;
+        }
+        if (!transformedUpload.mResult.file.delete()) {
+            AppLog.w(AppLog.T.MEDIA, "Could not delete " + transformedUpload.mResult.file.getPath());
+        }
+        if (transformedUpload.mResult.file.getPath().equals(media.getFilePath())) {
+            media.setFilePath(transformedUpload.mOriginalFilePath);
+            media.setFileName(transformedUpload.mOriginalFileName);
+            media.setFileExtension(transformedUpload.mOriginalFileExtension);
+            media.setMimeType(transformedUpload.mOriginalMimeType);
+        }
+        return transformedUpload;
+    }
+
+    private static void setFileSizes(@NonNull OnMediaUploaded event, @Nullable TransformedUpload transformedUpload) {
+        if (transformedUpload != null) {
+            event.originalFileSize = transformedUpload.mResult.originalSize;
+            event.uploadedFileSize = transformedUpload.mResult.transformedSize;
+        }
+    }
+
+    private static @Nullable String replaceExtension(@Nullable String fileName, @NonNull String extension) {
+        if (fileName == null) {
+            return null;
+        }
+        int extensionIndex = fileName.lastIndexOf('.');
+        return (extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName) + "." + extension;
+    }
+
+    private static class TransformedUpload {
+        final UploadImageTransformer.Result mResult;
+        final String mOriginalFilePath;
+        final String mOriginalFileName;
+        final String mOriginalFileExtension;
+        final String mOriginalMimeType;
+
+        TransformedUpload(MediaModel media, UploadImageTransformer.Result result) {
+            mResult = result;
+            mOriginalFilePath = media.getFilePath();
+            mOriginalFileName = media.getFileName();
+            mOriginalFileExtension = media.getFileExtension();
+            mOriginalMimeType = media.getMimeType();
+        }
+    }
+
     private void updateFetchedMediaList(@NonNull FetchMediaListResponsePayload payload) {
         // if we loaded another page, simply add the fetched media and be done
         if (payload.loadedMore) {
@@ -0,0 +1,283 @@
+package org.wordpress.android.fluxc.store;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits the number of media uploads running at the same time, so selecting many files doesn't start as many
+ * uploads competing for bandwidth.
+ *
+ * Waiting uploads are started in this order:
+ * <ul>
+ *     <li>media attached to a post registered for upload, as decided by the {@link PriorityPolicy}</li>
+ *     <li>then one upload per site in turn, so a large selection on one site doesn't hold back the others</li>
+ *     <li>then in the order they were scheduled</li>
+ * </ul>
+ *
+ * The number of concurrent uploads adapts to the observed throughput, between 1 and the configured maximum: after
+ * each round of uploads, it grows by one while the overall throughput kept growing, and shrinks by one when it
+ * dropped, which is what happens once concurrent uploads saturate the connection.
+ */
+public class MediaUploadScheduler {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 3;
+    private static final int INITIAL_CONCURRENCY_LIMIT = 2;
+    // Throughput changes smaller than this ratio are considered noise
+    private static final double SIGNIFICANT_CHANGE = 0.1;
+
+    /**
+     * Decides whether an upload starts before the others. It's asked once, when the upload is scheduled, and may
+     * query the database; uploads becoming priority later are reported with {@link #prioritize(Collection)}.
+     */
+    public interface PriorityPolicy {
+        boolean isPriority(@NonNull MediaModel media);
+    }
+
+    interface Clock {
+        long elapsedRealtime();
+    }
+
+    private static class PendingUpload {
+        final MediaModel mMedia;
+        final Runnable mStartUpload;
+        final long mSize;
+        boolean mPriority;
+
+        PendingUpload(MediaModel media, Runnable startUpload, boolean priority) {
+            mMedia = media;
+            mStartUpload = startUpload;
+            mSize = media.getFilePath() != null ? new File(media.getFilePath()).length() : 0;
+            mPriority = priority;
+        }
+    }
+
+    private final PriorityPolicy mPriorityPolicy;
+    private final Clock mClock;
+    // Waiting uploads by local site id, in the order the sites take turns
+    private final LinkedHashMap<Integer, ArrayDeque<PendingUpload>> mQueuedUploads = new LinkedHashMap<>();
+    private final Map<Integer, PendingUpload> mInFlightUploads = new HashMap<>();
+    private int mLastStartedSiteId = -1;
+    private int mMaxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int mConcurrencyLimit = Math.min(INITIAL_CONCURRENCY_LIMIT, DEFAULT_MAX_IN_FLIGHT);
+    // A round lasts until as many uploads as the concurrency limit succeeded, its throughput is measured across them
+    private long mRoundStartTime = 0;
+    private long mRoundBytes = 0;
+    private int mRoundUploadCount = 0;
+    // Bytes per millisecond of the previous round
+    private double mPreviousRoundThroughput = 0;
+
+    public MediaUploadScheduler(@NonNull PriorityPolicy priorityPolicy) {
+        this(priorityPolicy, new Clock() {
+            @Override
+            public long elapsedRealtime() {
+                return SystemClock.elapsedRealtime();
+            }
+        });
+    }
+
+    MediaUploadScheduler(@NonNull PriorityPolicy priorityPolicy, @NonNull Clock clock) {
+        mPriorityPolicy = priorityPolicy;
+        mClock = clock;
+    }
+
+    /**
+     * Sets the maximum number of uploads running at the same time. The actual number may be lower when the
+     * connection is saturated.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        synchronized (this) {
+            mMaxInFlight = maxInFlight;
+            mConcurrencyLimit = Math.min(mConcurrencyLimit, maxInFlight);
+        }
+        startUploads();
+    }
+
+    public synchronized int getConcurrencyLimit() {
+        return mConcurrencyLimit;
+    }
+
+    public synchronized int getInFlightCount() {
+        return mInFlightUploads.size();
+    }
+
+    public synchronized int getQueuedCount() {
+        int count = 0;
+        for (ArrayDeque<PendingUpload> queue : mQueuedUploads.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Runs {@code startUpload} once the {@code media} can be uploaded, right away if fewer uploads than the limit are
+     * running. {@link #onUploadFinished(MediaModel, boolean)} must be called when the upload ends.
+     */
+    public void schedule(@NonNull MediaModel media, @NonNull Runnable startUpload) {
+        PendingUpload upload = new PendingUpload(media, startUpload, mPriorityPolicy.isPriority(media));
+        synchronized (this) {
+            ArrayDeque<PendingUpload> queue = mQueuedUploads.get(media.getLocalSiteId());
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                mQueuedUploads.put(media.getLocalSiteId(), queue);
+            }
+            queue.add(upload);
+        }
+        startUploads();
+    }
+
+    /**
+     * Starts the waiting uploads of the media with the given local ids before the others.
+     */
+    public synchronized void prioritize(@NonNull Collection<Integer> mediaIds) {
+        for (ArrayDeque<PendingUpload> queue : mQueuedUploads.values()) {
+            for (PendingUpload upload : queue) {
+                if (mediaIds.contains(upload.mMedia.getId())) {
+                    upload.mPriority = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that the upload of the {@code media} ended, which lets the next one start.
+     */
+    public void onUploadFinished(@NonNull MediaModel media, boolean succeeded) {
+        synchronized (this) {
+            PendingUpload upload = mInFlightUploads.remove(media.getId());
+            if (upload == null) {
+                return;
+            }
+            if (succeeded) {
+                onUploadSucceeded(upload);
+            }
+        }
+        startUploads();
+    }
+
+    /**
+     * Removes the {@code media} from the waiting uploads, or records that its upload ended if it already started.
+     *
+     * @return whether the upload was waiting, and so never started
+     */
+    public boolean cancel(@NonNull MediaModel media) {
+        synchronized (this) {
+            Iterator<ArrayDeque<PendingUpload>> queues = mQueuedUploads.values().iterator();
+            while (queues.hasNext()) {
+                ArrayDeque<PendingUpload> queue = queues.next();
+                Iterator<PendingUpload> uploads = queue.iterator();
+                while (uploads.hasNext()) {
+                    if (uploads.next().mMedia.getId() == media.getId()) {
+                        uploads.remove();
+                        if (queue.isEmpty()) {
+                            queues.remove();
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+        onUploadFinished(media, false);
+        return false;
+    }
+
+    private void onUploadSucceeded(PendingUpload upload) {
+        mRoundBytes += upload.mSize;
+        mRoundUploadCount++;
+        if (mRoundUploadCount < mConcurrencyLimit) {
+            return;
+        }
+        long now = mClock.elapsedRealtime();
+        double throughput = (double) mRoundBytes / Math.max(now - mRoundStartTime, 1);
+        if (throughput >= mPreviousRoundThroughput * (1 + SIGNIFICANT_CHANGE)) {
+            mConcurrencyLimit = Math.min(mConcurrencyLimit + 1, mMaxInFlight);
+        } else if (throughput < mPreviousRoundThroughput * (1 - SIGNIFICANT_CHANGE)) {
+            mConcurrencyLimit = Math.max(mConcurrencyLimit - 1, 1);
+        }
+        AppLog.d(T.MEDIA, "Media upload concurrency limit: " + mConcurrencyLimit + ", throughput: "
+                + (long) throughput + " bytes/ms");
+        mPreviousRoundThroughput = throughput;
+        startRound(now);
+    }
+
+    private void startRound(long now) {
+        mRoundStartTime = now;
+        mRoundBytes = 0;
+        mRoundUploadCount = 0;
+    }
+
+    private void startUploads() {
+        List<PendingUpload> uploadsToStart = new ArrayList<>();
+        synchronized (this) {
+            while (mInFlightUploads.size() < mConcurrencyLimit) {
+                PendingUpload upload = pollNextUpload();
+                if (upload == null) {
+                    break;
+                }
+                if (mInFlightUploads.isEmpty()) {
+                    // The time spent idle doesn't count towards the throughput
+                    startRound(mClock.elapsedRealtime());
+                }
+                mInFlightUploads.put(upload.mMedia.getId(), upload);
+                uploadsToStart.add(upload);
+            }
+        }
+        for (PendingUpload upload : uploadsToStart) {
+            upload.mStartUpload.run();
+        }
+    }
+
+    private PendingUpload pollNextUpload() {
+        Integer siteId = null;
+        PendingUpload next = null;
+        for (Map.Entry<Integer, ArrayDeque<PendingUpload>> entry : mQueuedUploads.entrySet()) {
+            for (PendingUpload upload : entry.getValue()) {
+                if (upload.mPriority) {
+                    siteId = entry.getKey();
+                    next = upload;
+                    break;
+                }
+            }
+            if (next != null) {
+                break;
+            }
+        }
+        if (next == null) {
+            if (mQueuedUploads.isEmpty()) {
+                return null;
+            }
+            Iterator<Integer> siteIds = mQueuedUploads.keySet().iterator();
+            siteId = siteIds.next();
+            // A site whose queue emptied and filled again doesn't get two turns in a row
+            if (siteId == mLastStartedSiteId && siteIds.hasNext()) {
+                siteId = siteIds.next();
+            }
+            next = mQueuedUploads.get(siteId).peek();
+        }
+        mLastStartedSiteId = siteId;
+
+        // The site goes to the back of the line
+        ArrayDeque<PendingUpload> queue = mQueuedUploads.remove(siteId);
+        queue.remove(next);
+        if (!queue.isEmpty()) {
+            mQueuedUploads.put(siteId, queue);
+        }
+        return next;
+    }
+}
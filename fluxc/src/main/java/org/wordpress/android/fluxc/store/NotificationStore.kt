@@ -3,12 +3,11 @@ package org.wordpress.android.fluxc.store
 import android.annotation.SuppressLint
 import android.content.Context
 import com.yarolegovich.wellsql.SelectQuery.ORDER_DESCENDING
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.NotificationAction
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.notification.NotificationModel
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.notification.NoteIdSet
@@ -25,6 +24,7 @@ import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
+@HandlesActions(NotificationAction::class)
 class NotificationStore @Inject
 constructor(
     dispatcher: Dispatcher,
@@ -162,7 +162,6 @@ constructor(
         val changedNotificationLocalIds = mutableListOf<Int>()
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? NotificationAction ?: return
         when (actionType) {
@@ -371,25 +370,15 @@ constructor(
             return
         }
 
-        // Create a mutable copy of freshly fetched notifications map
-        val notifsToFetch = payload.hashesMap.toMutableMap()
-
-        // Pull cached notifications from the database and build a map of remoteNoteId to noteHash
-        val existingNotifsByRemoteIdMap = notificationSqlUtils
-                .getNotifications().associateBy { it.remoteNoteId }.toMap()
-
-        // Scrub the newly fetched list against the cached db records. Remove any entries for records that
-        // do not require an update from the remote API
-        existingNotifsByRemoteIdMap.entries.forEach { cached ->
-            // Compare new note_hash values against cached values. Delete from db if
-            // cached notification not present in new list
-            notifsToFetch[cached.key]?.let { newNoteHash ->
-                if (cached.value.noteHash == newNoteHash) {
-                    // Notifications are identical. No update needed, remove from
-                    // list of notifs to fetch
-                    notifsToFetch.remove(cached.key)
-                }
-            } ?: notificationSqlUtils.deleteNotificationByRemoteId(cached.key) // Delete notification from the db
+        // Only read the hash of the cached notifications, building them would parse all their content
+        val cachedNoteHashes = notificationSqlUtils.getNoteHashesByRemoteId()
+
+        // Delete the cached notifications which aren't present in the new list
+        notificationSqlUtils.deleteNotificationsByRemoteIds(cachedNoteHashes.keys - payload.hashesMap.keys)
+
+        // Only fetch the new notifications and the ones whose note_hash changed
+        val notifsToFetch = payload.hashesMap.filter { (remoteNoteId, noteHash) ->
+            cachedNoteHashes[remoteNoteId] != noteHash
         }
 
         // Fetch new and updated notifications from the remote api
@@ -402,7 +391,7 @@ constructor(
             OnNotificationChanged(0).also { it.error = payload.error }
         } else {
             // Save notifications to the database
-            val rowsAffected = payload.notifs.sumBy { notificationSqlUtils.insertOrUpdateNotification(it) }
+            val rowsAffected = notificationSqlUtils.insertOrUpdateNotifications(payload.notifs)
 
             OnNotificationChanged(rowsAffected)
         }.apply {
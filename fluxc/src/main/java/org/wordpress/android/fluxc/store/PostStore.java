@@ -9,14 +9,13 @@ import com.wellsql.generated.PostModelTable;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellSql;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.jetbrains.annotations.NotNull;
 import org.wordpress.android.fluxc.BuildConfig;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.PostAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.ListActionBuilder;
 import org.wordpress.android.fluxc.generated.PostActionBuilder;
@@ -66,8 +65,10 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions(PostAction.class)
 public class PostStore extends Store {
     public static final int NUM_POSTS_PER_FETCH = 20;
+    public static final int NUM_POSTS_PER_BATCH_FETCH = 20;
 
     public static final List<PostStatus> DEFAULT_POST_STATUS_LIST = Collections.unmodifiableList(Arrays.asList(
             PostStatus.DRAFT,
@@ -217,6 +218,36 @@ public class PostStore extends Store {
         }
     }
 
+    public static class FetchPostsByIdsPayload extends Payload<PostError> {
+        public List<PostModel> posts;
+        public SiteModel site;
+
+        public FetchPostsByIdsPayload(List<PostModel> posts, SiteModel site) {
+            this.posts = posts;
+            this.site = site;
+        }
+    }
+
+    public static class FetchPostsByIdsResponsePayload extends Payload<PostError> {
+        public List<PostModel> requestedPosts;
+        public List<PostModel> fetchedPosts;
+        public SiteModel site;
+
+        public FetchPostsByIdsResponsePayload(List<PostModel> requestedPosts, List<PostModel> fetchedPosts,
+                                              SiteModel site) {
+            this.requestedPosts = requestedPosts;
+            this.fetchedPosts = fetchedPosts;
+            this.site = site;
+        }
+
+        public FetchPostsByIdsResponsePayload(List<PostModel> requestedPosts, SiteModel site, PostError error) {
+            this.requestedPosts = requestedPosts;
+            this.fetchedPosts = Collections.emptyList();
+            this.site = site;
+            this.error = error;
+        }
+    }
+
     public static class FetchRevisionsResponsePayload extends Payload<BaseNetworkError> {
         public PostModel post;
         public RevisionsModel revisionsModel;
@@ -592,7 +623,6 @@ public class PostStore extends Store {
         return mPostSqlUtils.getNumLocalChanges();
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -622,6 +652,12 @@ public class PostStore extends Store {
             case FETCH_POST_STATUS:
                 fetchPostStatus((RemotePostPayload) action.getPayload());
                 break;
+            case FETCH_POSTS_BY_IDS:
+                fetchPostsByIds((FetchPostsByIdsPayload) action.getPayload());
+                break;
+            case FETCHED_POSTS_BY_IDS:
+                handleFetchPostsByIdsCompleted((FetchPostsByIdsResponsePayload) action.getPayload());
+                break;
             case FETCHED_POST:
                 handleFetchSinglePostCompleted((FetchPostResponsePayload) action.getPayload());
                 break;
@@ -745,6 +781,7 @@ public class PostStore extends Store {
                 postIds.add(item.remotePostId);
             }
             Map<Long, PostModel> posts = getPostsByRemotePostIds(postIds, site);
+            List<PostModel> postsToFetch = new ArrayList<>();
             for (PostListItem item : payload.postListItems) {
                 PostModel post = posts.get(item.remotePostId);
                 if (post == null) {
@@ -782,7 +819,7 @@ public class PostStore extends Store {
                     // Dispatch a fetch action for the posts that are changed, but not for posts with local changes
                     // as we'd otherwise overwrite and lose these local changes forever
                     if (!post.isLocallyChanged()) {
-                        mDispatcher.dispatch(PostActionBuilder.newFetchPostAction(new RemotePostPayload(post, site)));
+                        postsToFetch.add(post);
                     } else if (isPostChanged) {
                         // at this point we know there's a potential version conflict (the post has been modified
                         // both locally and on the remote), so flag the local version of the Post so the
@@ -800,6 +837,13 @@ public class PostStore extends Store {
                     }
                 }
             }
+            // Fetch the changed posts in batches instead of one request per post
+            for (int i = 0; i < postsToFetch.size(); i += NUM_POSTS_PER_BATCH_FETCH) {
+                List<PostModel> batch = new ArrayList<>(
+                        postsToFetch.subList(i, Math.min(i + NUM_POSTS_PER_BATCH_FETCH, postsToFetch.size())));
+                mDispatcher.dispatch(PostActionBuilder.newFetchPostsByIdsAction(new FetchPostsByIdsPayload(batch,
+                        site)));
+            }
         }
 
         FetchedListItemsPayload fetchedListItemsPayload =
@@ -822,6 +866,47 @@ public class PostStore extends Store {
         }
     }
 
+    private void fetchPostsByIds(FetchPostsByIdsPayload payload) {
+        if (payload.site.isUsingWpComRestApi()) {
+            mPostRestClient.fetchPostsByIds(payload.posts, payload.site);
+        } else {
+            mPostXMLRPCClient.fetchPostsByIds(payload.posts, payload.site);
+        }
+    }
+
+    private void handleFetchPostsByIdsCompleted(FetchPostsByIdsResponsePayload payload) {
+        List<PostModel> missingPosts = new ArrayList<>();
+        if (payload.isError()) {
+            // The batch request failed (e.g. system.multicall is disabled on the site), fall back to one request
+            // per post so each post gets its own result
+            missingPosts.addAll(payload.requestedPosts);
+        } else {
+            Map<Long, PostModel> fetchedPosts = new HashMap<>(payload.fetchedPosts.size());
+            for (PostModel fetchedPost : payload.fetchedPosts) {
+                fetchedPosts.put(fetchedPost.getRemotePostId(), fetchedPost);
+            }
+            List<PostModel> postsToUpdate = new ArrayList<>(payload.fetchedPosts.size());
+            for (PostModel requestedPost : payload.requestedPosts) {
+                PostModel fetchedPost = fetchedPosts.get(requestedPost.getRemotePostId());
+                if (fetchedPost == null) {
+                    missingPosts.add(requestedPost);
+                } else {
+                    fetchedPost.setId(requestedPost.getId());
+                    postsToUpdate.add(fetchedPost);
+                }
+            }
+            if (!postsToUpdate.isEmpty()) {
+                updatePosts(postsToUpdate, payload.site);
+            }
+        }
+
+        // Posts that weren't part of the response are fetched one by one, so a deleted or inaccessible post is
+        // reported the same way as before
+        for (PostModel post : missingPosts) {
+            mDispatcher.dispatch(PostActionBuilder.newFetchPostAction(new RemotePostPayload(post, payload.site)));
+        }
+    }
+
     private void fetchRevisions(FetchRevisionsPayload payload) {
         mPostRestClient.fetchRevisions(payload.post, payload.site);
     }
@@ -1007,6 +1092,22 @@ public class PostStore extends Store {
                 PostListDescriptor.calculateTypeIdentifier(post.getLocalSiteId())));
     }
 
+    /**
+     * Stores the fetched posts in a single transaction and emits an {@link OnPostChanged} for each of them.
+     */
+    private void updatePosts(List<PostModel> posts, SiteModel site) {
+        List<Integer> rowsAffected = mPostSqlUtils.insertOrUpdatePostsOverwritingLocalChanges(posts);
+        for (int i = 0; i < posts.size(); i++) {
+            PostModel post = posts.get(i);
+            CauseOfOnPostChanged causeOfChange =
+                    new CauseOfOnPostChanged.UpdatePost(post.getId(), post.getRemotePostId());
+            emitChange(new OnPostChanged(causeOfChange, rowsAffected.get(i)));
+        }
+
+        mDispatcher.dispatch(ListActionBuilder.newListDataInvalidatedAction(
+                PostListDescriptor.calculateTypeIdentifier(site.getId())));
+    }
+
     private void removePost(PostModel post) {
         if (post == null) {
             return;
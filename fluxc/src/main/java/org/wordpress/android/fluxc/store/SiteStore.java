@@ -10,12 +10,11 @@ import com.wellsql.generated.SiteModelTable;
 import com.yarolegovich.wellsql.WellSql;
 import com.yarolegovich.wellsql.mapper.SelectMapper;
 
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.SiteAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.model.PlanModel;
 import org.wordpress.android.fluxc.model.PostFormatModel;
@@ -39,6 +38,7 @@ import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils;
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils.DuplicateSiteException;
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SitesSyncResult;
 import org.wordpress.android.fluxc.utils.SiteErrorUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
@@ -55,6 +55,7 @@ import javax.inject.Singleton;
  * SQLite based only. There is no in memory copy of mapped data, everything is queried from the DB.
  */
 @Singleton
+@HandlesActions(SiteAction.class)
 public class SiteStore extends Store {
     // Payloads
     public static class CompleteQuickStartPayload extends Payload<BaseNetworkError> {
@@ -1385,7 +1386,6 @@ public class SiteStore extends Store {
         return SiteSqlUtils.getUserRoles(site);
     }
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -1646,33 +1646,20 @@ public class SiteStore extends Store {
             // TODO: what kind of error could we get here?
             event.error = SiteErrorUtils.genericToSiteError(fetchedSites.error);
         } else {
-            UpdateSitesResult res = createOrUpdateSites(fetchedSites);
+            SitesSyncResult res = SiteSqlUtils.insertOrUpdateWPComRestSites(mPostSqlUtils, fetchedSites.getSites());
             event.rowsAffected = res.rowsAffected;
             if (res.duplicateSiteFound) {
                 event.error = new SiteError(SiteErrorType.DUPLICATE_SITE);
             }
-            SiteSqlUtils.removeWPComRestSitesAbsentFromList(mPostSqlUtils, fetchedSites.getSites());
         }
         emitChange(event);
     }
 
     private UpdateSitesResult createOrUpdateSites(SitesModel sites) {
+        SitesSyncResult syncResult = SiteSqlUtils.insertOrUpdateSites(sites.getSites());
         UpdateSitesResult result = new UpdateSitesResult();
-        for (SiteModel site : sites.getSites()) {
-            try {
-                // The REST API doesn't return info about the editor(s). Make sure to copy current values
-                // available on the DB. Otherwise the apps will receive an update site without editor prefs set.
-                // The apps will dispatch the action to update editor(s) when necessary.
-                SiteModel siteFromDB = getSiteBySiteId(site.getSiteId());
-                if (siteFromDB != null) {
-                    site.setMobileEditor(siteFromDB.getMobileEditor());
-                    site.setWebEditor(siteFromDB.getWebEditor());
-                }
-                result.rowsAffected += SiteSqlUtils.insertOrUpdateSite(site);
-            } catch (DuplicateSiteException caughtException) {
-                result.duplicateSiteFound = true;
-            }
-        }
+        result.rowsAffected = syncResult.rowsAffected;
+        result.duplicateSiteFound = syncResult.duplicateSiteFound;
         return result;
     }
 
@@ -1,10 +1,21 @@
 package org.wordpress.android.fluxc.store;
 
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.wordpress.android.fluxc.ActionMetrics;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.FluxCError;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Store {
+    // Whether the onAction method of each store class is annotated with @Subscribe
+    private static final Map<Class<?>, Boolean> SUBSCRIBING_STORE_CLASSES = new ConcurrentHashMap<>();
+
     protected final Dispatcher mDispatcher;
 
     Store(Dispatcher dispatcher) {
@@ -23,12 +34,72 @@ public abstract class Store {
     }
 
     /**
-     * onAction should {@link org.greenrobot.eventbus.Subscribe} with ASYNC {@link org.greenrobot.eventbus.ThreadMode}.
+     * Receives the actions posted on the bus and passes them to {@link #onAction(Action)}, see
+     * {@link #handleAction(Action)}.
+     *
+     * Only meant to be overridden to change the subscription, e.g. its priority, in which case the override should
+     * call this implementation. The priority is also honored when the {@link Dispatcher} routes actions, while the
+     * actions posted on the bus are then ignored here.
+     *
+     * Stores whose {@link #onAction(Action)} is annotated with {@link Subscribe} themselves, as was required before
+     * this method existed, keep receiving the actions there directly, on a background thread, and this method ignores
+     * them. Such stores should remove the annotation from {@link #onAction(Action)} so their actions are measured by
+     * {@link ActionMetrics}.
+     */
+    @Subscribe(threadMode = ThreadMode.ASYNC)
+    public void onActionDispatched(Action action) {
+        if (mDispatcher.getActionScheduler() != null || subscribesToActionsItself(getClass())) {
+            // Routed by the dispatcher, or received by onAction() directly
+            return;
+        }
+        handleAction(action);
+    }
+
+    /**
+     * Passes the {@code action} to {@link #onAction(Action)} along with its metrics trace (see {@link ActionMetrics}).
+     * Called for the actions posted on the bus and for the actions routed to this store by the {@link Dispatcher}.
+     */
+    public final void handleAction(Action action) {
+        if (!ActionMetrics.isEnabled()) {
+            onAction(action);
+            return;
+        }
+        ActionMetrics.Trace previousTrace = ActionMetrics.resumeTrace(ActionMetrics.getTrace(action));
+        try {
+            onAction(action);
+        } finally {
+            ActionMetrics.resumeTrace(previousTrace);
+        }
+    }
+
+    private static boolean subscribesToActionsItself(Class<? extends Store> storeClass) {
+        Boolean subscribes = SUBSCRIBING_STORE_CLASSES.get(storeClass);
+        if (subscribes == null) {
+            try {
+                subscribes = storeClass.getMethod("onAction", Action.class).isAnnotationPresent(Subscribe.class);
+            } catch (NoSuchMethodException e) {
+                subscribes = false;
+            }
+            if (subscribes) {
+                AppLog.w(T.API, storeClass.getSimpleName() + ".onAction is annotated with @Subscribe, its actions "
+                                + "aren't measured by ActionMetrics");
+            }
+            SUBSCRIBING_STORE_CLASSES.put(storeClass, subscribes);
+        }
+        return subscribes;
+    }
+
+    /**
+     * Handles the actions received by {@link #handleAction(Action)}, on a background thread.
+     * Stores should also declare the action types they handle with
+     * {@link org.wordpress.android.fluxc.annotations.action.HandlesActions}, which is used when the
+     * {@link Dispatcher} routes actions.
      */
     public abstract void onAction(Action action);
     public abstract void onRegister();
 
     protected void emitChange(OnChanged onChangedEvent) {
+        ActionMetrics.onChangeEmitted();
         mDispatcher.emitChange(onChangedEvent);
     }
 }
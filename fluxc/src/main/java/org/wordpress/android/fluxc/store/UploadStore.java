@@ -10,6 +10,7 @@ import org.wordpress.android.fluxc.Payload;
 import org.wordpress.android.fluxc.action.MediaAction;
 import org.wordpress.android.fluxc.action.UploadAction;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.annotations.action.HandlesActions;
 import org.wordpress.android.fluxc.annotations.action.IAction;
 import org.wordpress.android.fluxc.generated.MediaActionBuilder;
 import org.wordpress.android.fluxc.generated.PostActionBuilder;
@@ -44,6 +45,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
+@HandlesActions({UploadAction.class, MediaAction.class})
 public class UploadStore extends Store {
     public static class ClearMediaPayload extends Payload<BaseNetworkError> {
         public PostImmutableModel post;
@@ -80,6 +82,14 @@ public class UploadStore extends Store {
         }
     }
 
+    private final MediaUploadScheduler mMediaUploadScheduler =
+            new MediaUploadScheduler(new MediaUploadScheduler.PriorityPolicy() {
+                @Override
+                public boolean isPriority(@NonNull MediaModel media) {
+                    return isMediaOfPendingPost(media);
+                }
+            });
+
     @Inject
     public UploadStore(Dispatcher dispatcher) {
         super(dispatcher);
@@ -92,6 +102,11 @@ public class UploadStore extends Store {
 
     // Ensure that events reach the UploadStore before their main stores (MediaStore, PostStore)
     @Subscribe(threadMode = ThreadMode.ASYNC, priority = 1)
+    @Override
+    public void onActionDispatched(Action action) {
+        super.onActionDispatched(action);
+    }
+
     @Override
     public void onAction(Action action) {
         IAction actionType = action.getType();
@@ -162,6 +177,7 @@ public class UploadStore extends Store {
         postUploadModel.setAssociatedMediaIdSet(mediaIdSet);
         postUploadModel.setUploadState(PostUploadModel.PENDING);
         UploadSqlUtils.insertOrUpdatePost(postUploadModel);
+        mMediaUploadScheduler.prioritize(mediaIdSet);
     }
 
     public @NonNull Set<MediaModel> getUploadingMediaForPost(PostImmutableModel post) {
@@ -258,6 +274,15 @@ public class UploadStore extends Store {
         return null;
     }
 
+    /**
+     * Sets the maximum number of media uploads running at the same time,
+     * {@link MediaUploadScheduler#DEFAULT_MAX_IN_FLIGHT} by default. Media attached to posts registered with
+     * {@link #registerPostModel(PostImmutableModel, List)} are uploaded first.
+     */
+    public void setMaxConcurrentMediaUploads(int maxConcurrentMediaUploads) {
+        mMediaUploadScheduler.setMaxInFlight(maxConcurrentMediaUploads);
+    }
+
     public float getUploadProgressForMedia(MediaModel mediaModel) {
         MediaUploadModel mediaUploadModel = UploadSqlUtils.getMediaUploadModelForLocalId(mediaModel.getId());
         if (mediaUploadModel != null) {
@@ -266,6 +291,30 @@ public class UploadStore extends Store {
         return 0;
     }
 
+    /**
+     * Runs {@code startUpload} once the {@code media} can be uploaded without exceeding the concurrent uploads limit.
+     */
+    void scheduleMediaUpload(@NonNull MediaModel media, @NonNull Runnable startUpload) {
+        mMediaUploadScheduler.schedule(media, startUpload);
+    }
+
+    /**
+     * @return whether the upload of the {@code media} was still waiting to start, and so doesn't need to be cancelled
+     * on the network
+     */
+    boolean cancelScheduledMediaUpload(@NonNull MediaModel media) {
+        return mMediaUploadScheduler.cancel(media);
+    }
+
+    private boolean isMediaOfPendingPost(@NonNull MediaModel media) {
+        if (media.getLocalPostId() <= 0) {
+            return false;
+        }
+        PostUploadModel postUploadModel = UploadSqlUtils.getPostUploadModelForLocalId(media.getLocalPostId());
+        return postUploadModel != null && postUploadModel.getUploadState() == PostUploadModel.PENDING
+               && postUploadModel.getAssociatedMediaIdSet().contains(media.getId());
+    }
+
     private void handleUploadMedia(MediaPayload payload) {
         MediaUploadModel mediaUploadModel = new MediaUploadModel(payload.media.getId());
         String errorMessage = MediaUtils.getMediaValidationError(payload.media);
@@ -291,6 +340,10 @@ public class UploadStore extends Store {
             mediaUploadModel = new MediaUploadModel(payload.media.getId());
         }
 
+        if (payload.isError() || payload.canceled || payload.completed) {
+            mMediaUploadScheduler.onUploadFinished(payload.media, payload.completed && !payload.isError());
+        }
+
         if (payload.isError() || payload.canceled) {
             mediaUploadModel.setUploadState(MediaUploadModel.FAILED);
             if (payload.isError()) {
@@ -2,8 +2,11 @@ package org.wordpress.android.fluxc.tools
 
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.ThreadContextElement
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
+import org.wordpress.android.fluxc.ActionMetrics
+import org.wordpress.android.fluxc.ActionMetrics.Trace
 import org.wordpress.android.fluxc.utils.AppLogWrapper
 import org.wordpress.android.util.AppLog
 import javax.inject.Inject
@@ -23,13 +26,25 @@ open class CoroutineEngine
         loggedMessage: String,
         block: suspend CoroutineScope.() -> RESULT_TYPE
     ): RESULT_TYPE {
-        appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
-        return withContext(context, block)
+        log(tag, caller, loggedMessage)
+        val trace = startTrace(caller, loggedMessage) ?: return withContext(context, block)
+        try {
+            return withContext(context + MetricsTraceElement(trace), block)
+        } finally {
+            ActionMetrics.finishTrace(trace)
+        }
     }
 
     fun <RESULT_TYPE> run(tag: AppLog.T, caller: Any, loggedMessage: String, block: () -> RESULT_TYPE): RESULT_TYPE {
-        appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
-        return block()
+        log(tag, caller, loggedMessage)
+        val trace = startTrace(caller, loggedMessage) ?: return block()
+        val previousTrace = ActionMetrics.resumeTrace(trace)
+        try {
+            return block()
+        } finally {
+            ActionMetrics.resumeTrace(previousTrace)
+            ActionMetrics.finishTrace(trace)
+        }
     }
 
     fun <RESULT_TYPE> launch(
@@ -38,9 +53,37 @@ open class CoroutineEngine
         loggedMessage: String,
         block: suspend CoroutineScope.() -> RESULT_TYPE
     ): Job {
-        appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
+        log(tag, caller, loggedMessage)
         return coroutineScope.launch {
             block(this)
         }
     }
+
+    private fun log(tag: AppLog.T, caller: Any, loggedMessage: String) {
+        appLog.d(tag, "${caller.javaClass.simpleName}: $loggedMessage")
+    }
+
+    private fun startTrace(caller: Any, loggedMessage: String): Trace? {
+        if (!ActionMetrics.isEnabled()) {
+            return null
+        }
+        return ActionMetrics.startTrace("${caller.javaClass.simpleName}-$loggedMessage")
+    }
+
+    /**
+     * Makes the trace of a store call the current one on the threads its coroutine runs on, so the requests it sends
+     * and the database calls it makes are counted in.
+     */
+    private class MetricsTraceElement(private val trace: Trace) : ThreadContextElement<Trace?> {
+        companion object Key : CoroutineContext.Key<MetricsTraceElement>
+
+        override val key: CoroutineContext.Key<MetricsTraceElement>
+            get() = Key
+
+        override fun updateThreadContext(context: CoroutineContext): Trace? = ActionMetrics.resumeTrace(trace)
+
+        override fun restoreThreadContext(context: CoroutineContext, oldState: Trace?) {
+            ActionMetrics.resumeTrace(oldState)
+        }
+    }
 }
@@ -11,10 +11,16 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
 
 public class MediaUtils {
     public static final double MEMORY_LIMIT_FILESIZE_MULTIPLIER = 0.75D;
+    private static final int HASH_BUFFER_SIZE = 8192;
 
     //
     // MIME types
@@ -27,7 +33,7 @@ public class MediaUtils {
 
     // ref https://en.support.wordpress.com/accepted-filetypes/
     public static final String[] SUPPORTED_IMAGE_SUBTYPES = {
-            "jpg", "jpeg", "png", "gif"
+            "jpg", "jpeg", "png", "gif", "webp"
     };
     public static final String[] SUPPORTED_VIDEO_SUBTYPES = {
             "mp4", "m4v", "mov", "wmv", "avi", "mpg", "ogv", "3gp", "3gpp", "3gpp2", "3g2", "mpeg", "quicktime", "webm"
@@ -94,6 +100,17 @@ public class MediaUtils {
         return null;
     }
 
+    /**
+     * @return the lower-cased top-level type of the given MIME type or {@code MIME_TYPE_*} prefix, such as "image"
+     * for "image/jpeg" or "image/", or null if it isn't a valid MIME type
+     */
+    public static String getMediaType(String mimeType) {
+        if (mimeType == null) return null;
+        int separatorIndex = mimeType.indexOf('/');
+        if (separatorIndex <= 0) return null;
+        return mimeType.substring(0, separatorIndex).trim().toLowerCase(Locale.ROOT);
+    }
+
     private static boolean isExpectedMimeType(String expected, String type) {
         if (type == null) return false;
         String[] split = type.split("/");
@@ -143,6 +160,36 @@ public class MediaUtils {
         return filePath.substring(filePath.lastIndexOf("/") + 1);
     }
 
+    /**
+     * Computes the SHA-256 of a file, reading it in small chunks.
+     *
+     * @return the hex encoded hash, or null if the file can't be read
+     */
+    public static String getContentHash(String filePath) {
+        if (!canReadFile(filePath)) return null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            InputStream inputStream = new FileInputStream(filePath);
+            try {
+                byte[] buffer = new byte[HASH_BUFFER_SIZE];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            } finally {
+                inputStream.close();
+            }
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hash.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return hash.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            AppLog.e(T.MEDIA, "Could not hash " + filePath + ": " + e);
+            return null;
+        }
+    }
+
     /**
      * Given the memory limit for media for a site, returns the maximum 'safe' file size we can upload to that site.
      */
@@ -0,0 +1,198 @@
+package org.wordpress.android.fluxc.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.CompressFormat;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.exifinterface.media.ExifInterface;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Downscales and re-encodes images before they're uploaded, to save bandwidth.
+ *
+ * The image is decoded at the smallest power of two sample size that keeps it larger than the target size, so the
+ * memory used depends on {@link Options#maxDimension} rather than on the size of the original. The EXIF orientation
+ * is applied to the pixels, and the other metadata, including the location, isn't carried over.
+ */
+public class UploadImageTransformer {
+    public static class Options {
+        public final int maxDimension;
+        @NonNull public final CompressFormat format;
+        public final int quality;
+
+        /**
+         * @param maxDimension the largest width or height of the uploaded image
+         * @param format {@link CompressFormat#JPEG} or {@link CompressFormat#WEBP}
+         * @param quality the compression quality, from 0 to 100
+         */
+        public Options(int maxDimension, @NonNull CompressFormat format, int quality) {
+            if (maxDimension <= 0) {
+                throw new IllegalArgumentException("maxDimension must be positive");
+            }
+            if (format == CompressFormat.PNG) {
+                throw new IllegalArgumentException("PNG doesn't reduce the size of photos");
+            }
+            if (quality < 0 || quality > 100) {
+                throw new IllegalArgumentException("quality must be between 0 and 100");
+            }
+            this.maxDimension = maxDimension;
+            this.format = format;
+            this.quality = quality;
+        }
+    }
+
+    public static class Result {
+        @NonNull public final File file;
+        @NonNull public final String mimeType;
+        @NonNull public final String fileExtension;
+        public final int width;
+        public final int height;
+        public final long originalSize;
+        public final long transformedSize;
+
+        Result(@NonNull File file, @NonNull String mimeType, @NonNull String fileExtension, int width, int height,
+               long originalSize) {
+            this.file = file;
+            this.mimeType = mimeType;
+            this.fileExtension = fileExtension;
+            this.width = width;
+            this.height = height;
+            this.originalSize = originalSize;
+            this.transformedSize = file.length();
+        }
+    }
+
+    /**
+     * Writes a transformed copy of the image of the {@code media} to a temporary file, which the caller must delete.
+     *
+     * @return the transformed copy, or null if the media isn't a still image, can't be decoded, or if the copy isn't
+     * smaller than the original
+     */
+    public static @Nullable Result transform(@NonNull MediaModel media, @NonNull Options options) {
+        String mimeType = media.getMimeType();
+        if (!MediaUtils.isImageMimeType(mimeType) || "image/gif".equals(mimeType) || media.getFilePath() == null) {
+            return null;
+        }
+        File original = new File(media.getFilePath());
+
+        BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+        decodeOptions.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(original.getPath(), decodeOptions);
+        int largestDimension = Math.max(decodeOptions.outWidth, decodeOptions.outHeight);
+        if (largestDimension <= 0) {
+            AppLog.w(T.MEDIA, "Could not decode image bounds: " + original.getPath());
+            return null;
+        }
+        decodeOptions.inJustDecodeBounds = false;
+        decodeOptions.inSampleSize = getSampleSize(largestDimension, options.maxDimension);
+
+        Bitmap decoded = BitmapFactory.decodeFile(original.getPath(), decodeOptions);
+        if (decoded == null) {
+            AppLog.w(T.MEDIA, "Could not decode image: " + original.getPath());
+            return null;
+        }
+        Bitmap transformed = null;
+        File output = null;
+        try {
+            if (decoded.hasAlpha() && options.format == CompressFormat.JPEG) {
+                // Transparent pixels would turn black
+                return null;
+            }
+            Matrix matrix = getOrientationMatrix(original);
+            float scale = (float) options.maxDimension / Math.max(decoded.getWidth(), decoded.getHeight());
+            if (scale < 1) {
+                matrix.postScale(scale, scale);
+            }
+            transformed = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+
+            String extension = options.format == CompressFormat.WEBP ? "webp" : "jpg";
+            output = File.createTempFile("upload", "." + extension);
+            OutputStream outputStream = new FileOutputStream(output);
+            try {
+                if (!transformed.compress(options.format, options.quality, outputStream)) {
+                    throw new IOException("Could not encode image");
+                }
+            } finally {
+                outputStream.close();
+            }
+
+            if (output.length() >= original.length()) {
+                AppLog.d(T.MEDIA, "Transformed image isn't smaller than the original, uploading the original");
+                deleteFile(output);
+                return null;
+            }
+            String outputMimeType = options.format == CompressFormat.WEBP ? "image/webp" : "image/jpeg";
+            return new Result(output, outputMimeType, extension, transformed.getWidth(), transformed.getHeight(),
+                    original.length());
+        } catch (IOException | OutOfMemoryError e) {
+            AppLog.e(T.MEDIA, "Could not transform image, uploading the original: " + e);
+            deleteFile(output);
+            return null;
+        } finally {
+            if (transformed != null && transformed != decoded) {
+                transformed.recycle();
+            }
+            decoded.recycle();
+        }
+    }
+
+    /**
+     * @return the largest power of two dividing {@code size} into a size still larger than {@code targetSize}
+     */
+    static int getSampleSize(int size, int targetSize) {
+        int sampleSize = 1;
+        while (size / (sampleSize * 2) >= targetSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static Matrix getOrientationMatrix(File file) throws IOException {
+        int orientation = new ExifInterface(file.getPath())
+                .getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+        }
+        return matrix;
+    }
+
+    private static void deleteFile(@Nullable File file) {
+        if (file != null && !file.delete()) {
+            AppLog.w(T.MEDIA, "Could not delete " + file.getPath());
+        }
+    }
+}
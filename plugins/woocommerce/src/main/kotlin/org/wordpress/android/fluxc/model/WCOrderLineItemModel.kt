@@ -0,0 +1,34 @@
+package org.wordpress.android.fluxc.model
+
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.Table
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+
+/**
+ * A line item of a [WCOrderModel], stored in its own table when the order is stored so that the line items of many
+ * orders can be loaded at once and orders can be looked up by product.
+ */
+@Table(addOn = WellSqlConfig.ADDON_WOOCOMMERCE)
+data class WCOrderLineItemModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable {
+    @Column var localSiteId = 0
+    @Column var localOrderId = 0
+    @Column var position = 0 // The position of the line item in the order
+    @Column var remoteLineItemId = 0L
+    @Column var name = ""
+    @Column var productId = 0L
+    @Column var variationId = 0L
+    @Column var quantity = 0f
+    @Column var subtotal = ""
+    @Column var total = "" // Price x quantity
+    @Column var totalTax = ""
+    @Column var sku = ""
+    @Column var price = "" // The per-item price
+
+    override fun setId(id: Int) {
+        this.id = id
+    }
+
+    override fun getId() = this.id
+}
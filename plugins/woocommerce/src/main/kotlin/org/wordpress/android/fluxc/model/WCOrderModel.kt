@@ -63,6 +63,10 @@ data class WCOrderModel(@PrimaryKey @Column private var id: Int = 0) : Identifia
 
     @Column var shippingLines = ""
 
+    // The lists last parsed from [lineItems] and [shippingLines], along with the JSON they were parsed from
+    @Transient private var parsedLineItems: Pair<String, List<LineItem>>? = null
+    @Transient private var parsedShippingLines: Pair<String, List<ShippingLine>>? = null
+
     companion object {
         private val gson by lazy { Gson() }
     }
@@ -119,11 +123,16 @@ data class WCOrderModel(@PrimaryKey @Column private var id: Int = 0) : Identifia
     fun getShippingAddress() = OrderAddress(this, AddressType.SHIPPING)
 
     /**
-     * Deserializes the JSON contained in [lineItems] into a list of [LineItem] objects.
+     * Deserializes the JSON contained in [lineItems] into a list of [LineItem] objects. The list is parsed again only
+     * once [lineItems] changes.
      */
     fun getLineItemList(): List<LineItem> {
+        val json = lineItems
+        parsedLineItems?.let { (parsedJson, parsed) -> if (parsedJson == json) return parsed }
         val responseType = object : TypeToken<List<LineItem>>() {}.type
-        return gson.fromJson(lineItems, responseType) as? List<LineItem> ?: emptyList()
+        val lineItemList = gson.fromJson(json, responseType) as? List<LineItem> ?: emptyList()
+        parsedLineItems = json to lineItemList
+        return lineItemList
     }
 
     /**
@@ -134,11 +143,16 @@ data class WCOrderModel(@PrimaryKey @Column private var id: Int = 0) : Identifia
     }
 
     /**
-     * Deserializes the JSON contained in [shippingLines] into a list of [ShippingLine] objects.
+     * Deserializes the JSON contained in [shippingLines] into a list of [ShippingLine] objects. The list is parsed
+     * again only once [shippingLines] changes.
      */
     fun getShippingLineList(): List<ShippingLine> {
+        val json = shippingLines
+        parsedShippingLines?.let { (parsedJson, parsed) -> if (parsedJson == json) return parsed }
         val responseType = object : TypeToken<List<ShippingLine>>() {}.type
-        return gson.fromJson(shippingLines, responseType) as? List<ShippingLine> ?: emptyList()
+        val shippingLineList = gson.fromJson(json, responseType) as? List<ShippingLine> ?: emptyList()
+        parsedShippingLines = json to shippingLineList
+        return shippingLineList
     }
 
     fun isMultiShippingLinesAvailable() = getShippingLineList()?.size > 1
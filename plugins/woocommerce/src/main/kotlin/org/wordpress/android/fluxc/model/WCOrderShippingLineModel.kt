@@ -0,0 +1,24 @@
+package org.wordpress.android.fluxc.model
+
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.Table
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+
+/**
+ * A shipping line of a [WCOrderModel], stored in its own table when the order is stored.
+ */
+@Table(addOn = WellSqlConfig.ADDON_WOOCOMMERCE)
+data class WCOrderShippingLineModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable {
+    @Column var localSiteId = 0
+    @Column var localOrderId = 0
+    @Column var position = 0 // The position of the shipping line in the order
+    @Column var methodTitle = ""
+
+    override fun setId(id: Int) {
+        this.id = id
+    }
+
+    override fun getId() = this.id
+}
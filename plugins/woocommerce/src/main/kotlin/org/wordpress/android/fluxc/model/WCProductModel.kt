@@ -114,6 +114,36 @@ data class WCProductModel(@PrimaryKey @Column private var id: Int = 0) : Identif
         }
     }
 
+    companion object {
+        private val gson by lazy { Gson() }
+    }
+
+    @Transient private val parsedImages = ParsedJsonColumn { parseImages(it) }
+    @Transient private val parsedAttributes = ParsedJsonColumn { parseAttributes(it) }
+    @Transient private val parsedDownloads = ParsedJsonColumn { parseDownloadableFiles(it) }
+    @Transient private val parsedVariations = ParsedJsonColumn { parseJsonArray(it)?.size() ?: 0 }
+    @Transient private val parsedCategories = ParsedJsonColumn { parseTriplets(it) }
+    @Transient private val parsedTags = ParsedJsonColumn { parseTriplets(it) }
+
+    /**
+     * A value parsed from a JSON column of the product, which is only parsed again once the column changes, since
+     * lists bind the same product many times
+     */
+    private class ParsedJsonColumn<T>(private val parse: (String) -> T) {
+        private var json: String? = null
+        private var value: T? = null
+
+        @Synchronized
+        @Suppress("UNCHECKED_CAST")
+        fun get(json: String): T {
+            if (this.json != json) {
+                value = parse(json)
+                this.json = json
+            }
+            return value as T
+        }
+    }
+
     override fun getId() = id
 
     override fun setId(id: Int) {
@@ -124,52 +154,85 @@ data class WCProductModel(@PrimaryKey @Column private var id: Int = 0) : Identif
      * Parses the images json array into a list of product images
      */
     fun getImages(): ArrayList<WCProductImageModel> {
-        val imageList = ArrayList<WCProductImageModel>()
-        if (!images.isEmpty()) {
-            try {
-                Gson().fromJson<JsonElement>(images, JsonElement::class.java).asJsonArray.forEach { jsonElement ->
-                    with(jsonElement.asJsonObject) {
-                        WCProductImageModel(this.getLong("id")).also {
-                            it.name = this.getString("name") ?: ""
-                            it.src = this.getString("src") ?: ""
-                            it.alt = this.getString("alt") ?: ""
-                            imageList.add(it)
-                        }
-                    }
-                }
-            } catch (e: JsonParseException) {
-                AppLog.e(T.API, e)
+        // The images are mutable, so callers get their own copies rather than the parsed ones
+        return parsedImages.get(images).mapTo(ArrayList()) { image ->
+            WCProductImageModel(image.id).also {
+                it.name = image.name
+                it.src = image.src
+                it.alt = image.alt
             }
         }
-        return imageList
     }
 
     /**
      * Extract the first image url from the json array of images
      */
     fun getFirstImageUrl(): String? {
-        try {
-            Gson().fromJson<JsonElement>(images, JsonElement::class.java).asJsonArray.firstOrNull { jsonElement ->
-                return (jsonElement.asJsonObject).getString("src")
-            }
-        } catch (e: JsonParseException) {
-            AppLog.e(T.API, e)
-        }
-        return null
+        return parsedImages.get(images).firstOrNull()?.src?.takeIf { it.isNotEmpty() }
     }
 
     /**
      * Extract all image urls from the json array of images
      */
     fun getImageUrls(): List<String> {
-        val imageUrls = ArrayList<String>()
-        getImages().forEach {
-            imageUrls.add(it.src)
+        return parsedImages.get(images).map { it.src }
+    }
+
+    fun getAttributes(): List<ProductAttribute> = parsedAttributes.get(attributes)
+
+    fun getDownloadableFiles(): List<String> = parsedDownloads.get(downloads)
+
+    fun getNumVariations(): Int = parsedVariations.get(variations)
+
+    fun getCategories() = ArrayList(parsedCategories.get(categories))
+
+    fun getCommaSeparatedCategoryNames() = getCommaSeparatedTripletNames(parsedCategories.get(categories))
+
+    fun getTags() = ArrayList(parsedTags.get(tags))
+
+    fun getCommaSeparatedTagNames() = getCommaSeparatedTripletNames(parsedTags.get(tags))
+
+    private fun getCommaSeparatedTripletNames(triplets: List<ProductTriplet>): String {
+        if (triplets.isEmpty()) return ""
+        var commaSeparatedNames = ""
+        triplets.forEach {
+            if (commaSeparatedNames.isEmpty()) {
+                commaSeparatedNames = it.name
+            } else {
+                commaSeparatedNames += ", ${it.name}"
+            }
         }
-        return imageUrls
+        return commaSeparatedNames
     }
 
-    fun getAttributes(): List<ProductAttribute> {
+    private fun parseJsonArray(json: String): JsonArray? {
+        if (json.isEmpty()) {
+            return null
+        }
+        return try {
+            gson.fromJson(json, JsonElement::class.java)?.takeIf { it.isJsonArray }?.asJsonArray
+        } catch (e: JsonParseException) {
+            AppLog.e(T.API, e)
+            null
+        }
+    }
+
+    private fun parseImages(json: String): List<WCProductImageModel> {
+        val imageList = ArrayList<WCProductImageModel>()
+        parseJsonArray(json)?.forEach { jsonElement ->
+            with(jsonElement.asJsonObject) {
+                WCProductImageModel(this.getLong("id")).also {
+                    it.name = this.getString("name") ?: ""
+                    it.src = this.getString("src") ?: ""
+                    it.alt = this.getString("alt") ?: ""
+                    imageList.add(it)
+                }
+            }
+        }
+        return imageList
+    }
+
+    private fun parseAttributes(json: String): List<ProductAttribute> {
         fun getAttributeOptions(jsonArray: JsonArray?): List<String> {
             val options = ArrayList<String>()
             try {
@@ -185,85 +248,43 @@ data class WCProductModel(@PrimaryKey @Column private var id: Int = 0) : Identif
         }
 
         val attrList = ArrayList<ProductAttribute>()
-        try {
-            Gson().fromJson<JsonElement>(attributes, JsonElement::class.java).asJsonArray.forEach { jsonElement ->
-                with(jsonElement.asJsonObject) {
-                    attrList.add(
-                            ProductAttribute(
-                                    id = this.getLong("id"),
-                                    name = this.getString("name") ?: "",
-                                    visible = this.getBoolean("visible", true),
-                                    options = getAttributeOptions(this.getAsJsonArray("options"))
-                            )
-                    )
-                }
+        parseJsonArray(json)?.forEach { jsonElement ->
+            with(jsonElement.asJsonObject) {
+                attrList.add(
+                        ProductAttribute(
+                                id = this.getLong("id"),
+                                name = this.getString("name") ?: "",
+                                visible = this.getBoolean("visible", true),
+                                options = getAttributeOptions(this.getAsJsonArray("options"))
+                        )
+                )
             }
-        } catch (e: JsonParseException) {
-            AppLog.e(T.API, e)
         }
         return attrList
     }
 
-    fun getDownloadableFiles(): List<String> {
+    private fun parseDownloadableFiles(json: String): List<String> {
         val fileList = ArrayList<String>()
-        try {
-            Gson().fromJson<JsonElement>(downloads, JsonElement::class.java).asJsonArray.forEach { jsonElement ->
-                jsonElement.asJsonObject.getString("file")?.let {
-                    fileList.add(it)
-                }
+        parseJsonArray(json)?.forEach { jsonElement ->
+            jsonElement.asJsonObject.getString("file")?.let {
+                fileList.add(it)
             }
-        } catch (e: JsonParseException) {
-            AppLog.e(T.API, e)
         }
         return fileList
     }
 
-    fun getNumVariations(): Int {
-        try {
-            return Gson().fromJson<JsonElement>(variations, JsonElement::class.java).asJsonArray.size()
-        } catch (e: JsonParseException) {
-            AppLog.e(T.API, e)
-            return 0
-        }
-    }
-
-    fun getCategories() = getTriplets(categories)
-
-    fun getCommaSeparatedCategoryNames() = getCommaSeparatedTripletNames(getCategories())
-
-    fun getTags() = getTriplets(tags)
-
-    fun getCommaSeparatedTagNames() = getCommaSeparatedTripletNames(getTags())
-
-    private fun getCommaSeparatedTripletNames(triplets: List<ProductTriplet>): String {
-        if (triplets.isEmpty()) return ""
-        var commaSeparatedNames = ""
-        triplets.forEach {
-            if (commaSeparatedNames.isEmpty()) {
-                commaSeparatedNames = it.name
-            } else {
-                commaSeparatedNames += ", ${it.name}"
-            }
-        }
-        return commaSeparatedNames
-    }
-
-    private fun getTriplets(jsonStr: String): ArrayList<ProductTriplet> {
+    private fun parseTriplets(json: String): List<ProductTriplet> {
         val triplets = ArrayList<ProductTriplet>()
-        try {
-            Gson().fromJson<JsonElement>(jsonStr, JsonElement::class.java).asJsonArray.forEach { jsonElement ->
-                with(jsonElement.asJsonObject) {
-                    triplets.add(
-                            ProductTriplet(
-                                    id = this.getLong("id"),
-                                    name = this.getString("name") ?: "",
-                                    slug = this.getString("slug") ?: ""
-                            )
-                    )
-                }
+        parseJsonArray(json)?.forEach { jsonElement ->
+            with(jsonElement.asJsonObject) {
+                triplets.add(
+                        ProductTriplet(
+                                id = this.getLong("id"),
+                                name = this.getString("name") ?: "",
+                                slug = this.getString("slug") ?: ""
+                        )
+                )
             }
-        } catch (e: JsonParseException) {
-            AppLog.e(T.API, e)
         }
         return triplets
     }
@@ -273,8 +294,8 @@ data class WCProductModel(@PrimaryKey @Column private var id: Int = 0) : Identif
      * lists contain the same images in the same order
      */
     fun hasSameImages(updatedProduct: WCProductModel): Boolean {
-        val updatedImages = updatedProduct.getImages()
-        val thisImages = getImages()
+        val updatedImages = updatedProduct.parsedImages.get(updatedProduct.images)
+        val thisImages = parsedImages.get(images)
         if (thisImages.size != updatedImages.size) {
             return false
         }
@@ -1,19 +1,24 @@
 package org.wordpress.android.fluxc.persistence
 
+import com.wellsql.generated.WCOrderLineItemModelTable
 import com.wellsql.generated.WCOrderModelTable
 import com.wellsql.generated.WCOrderNoteModelTable
 import com.wellsql.generated.WCOrderShipmentProviderModelTable
 import com.wellsql.generated.WCOrderShipmentTrackingModelTable
+import com.wellsql.generated.WCOrderShippingLineModelTable
 import com.wellsql.generated.WCOrderStatusModelTable
 import com.wellsql.generated.WCOrderSummaryModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.WellSql
+import org.wordpress.android.fluxc.ActionMetrics
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCOrderLineItemModel
 import org.wordpress.android.fluxc.model.WCOrderModel
 import org.wordpress.android.fluxc.model.WCOrderNoteModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentProviderModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentTrackingModel
+import org.wordpress.android.fluxc.model.WCOrderShippingLineModel
 import org.wordpress.android.fluxc.model.WCOrderStatusModel
 import org.wordpress.android.fluxc.model.WCOrderSummaryModel
 import org.wordpress.android.fluxc.model.order.OrderIdSet
@@ -22,7 +27,12 @@ object OrderSqlUtils {
     private const val CHUNK_SIZE = 200
 
     fun insertOrUpdateOrderSummaries(orderSummaries: List<WCOrderSummaryModel>) {
-        WellSql.insert(orderSummaries).asSingleTransaction(true).execute()
+        val dbTimerStart = ActionMetrics.startDbTimer()
+        try {
+            WellSql.insert(orderSummaries).asSingleTransaction(true).execute()
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart)
+        }
     }
 
     /**
@@ -59,29 +69,115 @@ object OrderSqlUtils {
     }
 
     fun insertOrUpdateOrder(order: WCOrderModel): Int {
-        val orderResult = WellSql.select(WCOrderModel::class.java)
-                .where().beginGroup()
-                .equals(WCOrderModelTable.ID, order.id)
-                .or()
-                .beginGroup()
-                .equals(WCOrderModelTable.REMOTE_ORDER_ID, order.remoteOrderId)
-                .equals(WCOrderModelTable.LOCAL_SITE_ID, order.localSiteId)
-                .endGroup()
-                .endGroup().endWhere()
-                .asModel
+        val dbTimerStart = ActionMetrics.startDbTimer()
+        try {
+            val orderResult = WellSql.select(WCOrderModel::class.java)
+                    .where().beginGroup()
+                    .equals(WCOrderModelTable.ID, order.id)
+                    .or()
+                    .beginGroup()
+                    .equals(WCOrderModelTable.REMOTE_ORDER_ID, order.remoteOrderId)
+                    .equals(WCOrderModelTable.LOCAL_SITE_ID, order.localSiteId)
+                    .endGroup()
+                    .endGroup().endWhere()
+                    .asModel
 
-        if (orderResult.isEmpty()) {
-            // Insert
-            WellSql.insert(order).asSingleTransaction(true).execute()
-            return 1
-        } else {
-            // Update
-            val oldId = orderResult[0].id
-            return WellSql.update(WCOrderModel::class.java).whereId(oldId)
-                    .put(order, UpdateAllExceptId(WCOrderModel::class.java)).execute()
+            val db = WellSql.giveMeWritableDb()
+            db.beginTransaction()
+            try {
+                val rowsAffected = if (orderResult.isEmpty()) {
+                    // Insert
+                    WellSql.insert(order).asSingleTransaction(false).execute()
+                    insertOrderLines(order.id, order)
+                    1
+                } else {
+                    // Update
+                    val oldOrder = orderResult[0]
+                    val rowsUpdated = WellSql.update(WCOrderModel::class.java).whereId(oldOrder.id)
+                            .put(order, UpdateAllExceptId(WCOrderModel::class.java)).execute()
+                    if (oldOrder.lineItems != order.lineItems || oldOrder.shippingLines != order.shippingLines) {
+                        deleteOrderLines(oldOrder.id)
+                        insertOrderLines(oldOrder.id, order)
+                    }
+                    rowsUpdated
+                }
+                db.setTransactionSuccessful()
+                return rowsAffected
+            } finally {
+                db.endTransaction()
+            }
+        } finally {
+            ActionMetrics.stopDbTimer(dbTimerStart)
+        }
+    }
+
+    /**
+     * Inserts or updates the given orders in a single transaction.
+     *
+     * @return the number of inserted or updated rows
+     */
+    fun insertOrUpdateOrders(orders: List<WCOrderModel>): Int {
+        if (orders.isEmpty()) {
+            return 0
+        }
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            val rowsAffected = orders.sumBy { insertOrUpdateOrder(it) }
+            db.setTransactionSuccessful()
+            return rowsAffected
+        } finally {
+            db.endTransaction()
         }
     }
 
+    private fun insertOrderLines(localOrderId: Int, order: WCOrderModel) {
+        val lineItems = order.getLineItemList().mapIndexed { index, lineItem ->
+            WCOrderLineItemModel().apply {
+                localSiteId = order.localSiteId
+                this.localOrderId = localOrderId
+                position = index
+                remoteLineItemId = lineItem.id ?: 0L
+                name = lineItem.name ?: ""
+                productId = lineItem.productId ?: 0L
+                variationId = lineItem.variationId ?: 0L
+                quantity = lineItem.quantity ?: 0f
+                subtotal = lineItem.subtotal ?: ""
+                total = lineItem.total ?: ""
+                totalTax = lineItem.totalTax ?: ""
+                sku = lineItem.sku ?: ""
+                price = lineItem.price ?: ""
+            }
+        }
+        val shippingLines = order.getShippingLineList().mapIndexed { index, shippingLine ->
+            WCOrderShippingLineModel().apply {
+                localSiteId = order.localSiteId
+                this.localOrderId = localOrderId
+                position = index
+                methodTitle = shippingLine.methodTitle ?: ""
+            }
+        }
+        if (lineItems.isNotEmpty()) {
+            WellSql.insert(lineItems).asSingleTransaction(false).execute()
+        }
+        if (shippingLines.isNotEmpty()) {
+            WellSql.insert(shippingLines).asSingleTransaction(false).execute()
+        }
+    }
+
+    private fun deleteOrderLines(localOrderId: Int) {
+        WellSql.delete(WCOrderLineItemModel::class.java)
+                .where()
+                .equals(WCOrderLineItemModelTable.LOCAL_ORDER_ID, localOrderId)
+                .endWhere()
+                .execute()
+        WellSql.delete(WCOrderShippingLineModel::class.java)
+                .where()
+                .equals(WCOrderShippingLineModelTable.LOCAL_ORDER_ID, localOrderId)
+                .endWhere()
+                .execute()
+    }
+
     fun getOrderForIdSet(orderIdSet: OrderIdSet): WCOrderModel? {
         val (id, remoteOrderId, localSiteId) = orderIdSet
         return WellSql.select(WCOrderModel::class.java)
@@ -123,7 +219,88 @@ object OrderSqlUtils {
                 .asModel
     }
 
+    /**
+     * Returns the line items of the given orders, keyed by the local id of their order, in their order within each
+     * order. The line items are loaded with one query per [CHUNK_SIZE] orders.
+     */
+    fun getLineItemsForOrders(orders: List<WCOrderModel>): Map<Int, List<WCOrderLineItemModel>> {
+        if (orders.isEmpty()) {
+            return emptyMap()
+        }
+        return orders.map { it.id }.chunked(CHUNK_SIZE).flatMap { localOrderIds ->
+            WellSql.select(WCOrderLineItemModel::class.java)
+                    .where()
+                    .isIn(WCOrderLineItemModelTable.LOCAL_ORDER_ID, localOrderIds)
+                    .endWhere()
+                    .orderBy(WCOrderLineItemModelTable.LOCAL_ORDER_ID, SelectQuery.ORDER_ASCENDING)
+                    .orderBy(WCOrderLineItemModelTable.POSITION, SelectQuery.ORDER_ASCENDING)
+                    .asModel
+        }.groupBy { it.localOrderId }
+    }
+
+    /**
+     * Returns the shipping lines of the given orders, keyed by the local id of their order, in their order within
+     * each order. The shipping lines are loaded with one query per [CHUNK_SIZE] orders.
+     */
+    fun getShippingLinesForOrders(orders: List<WCOrderModel>): Map<Int, List<WCOrderShippingLineModel>> {
+        if (orders.isEmpty()) {
+            return emptyMap()
+        }
+        return orders.map { it.id }.chunked(CHUNK_SIZE).flatMap { localOrderIds ->
+            WellSql.select(WCOrderShippingLineModel::class.java)
+                    .where()
+                    .isIn(WCOrderShippingLineModelTable.LOCAL_ORDER_ID, localOrderIds)
+                    .endWhere()
+                    .orderBy(WCOrderShippingLineModelTable.LOCAL_ORDER_ID, SelectQuery.ORDER_ASCENDING)
+                    .orderBy(WCOrderShippingLineModelTable.POSITION, SelectQuery.ORDER_ASCENDING)
+                    .asModel
+        }.groupBy { it.localOrderId }
+    }
+
+    /**
+     * Returns the orders of the site which contain the given product, either directly or through one of its
+     * variations, newest first.
+     */
+    fun getOrdersContainingProduct(site: SiteModel, remoteProductId: Long): List<WCOrderModel> {
+        val cursor = WellSql.select(WCOrderLineItemModel::class.java)
+                .columns(WCOrderLineItemModelTable.LOCAL_ORDER_ID)
+                .where().beginGroup()
+                .equals(WCOrderLineItemModelTable.LOCAL_SITE_ID, site.id)
+                .beginGroup()
+                .equals(WCOrderLineItemModelTable.PRODUCT_ID, remoteProductId)
+                .or()
+                .equals(WCOrderLineItemModelTable.VARIATION_ID, remoteProductId)
+                .endGroup()
+                .endGroup().endWhere()
+                .asCursor
+        val localOrderIds = HashSet<Int>()
+        try {
+            while (cursor.moveToNext()) {
+                localOrderIds.add(cursor.getInt(0))
+            }
+        } finally {
+            cursor.close()
+        }
+        return localOrderIds.chunked(CHUNK_SIZE).flatMap { chunk ->
+            WellSql.select(WCOrderModel::class.java)
+                    .where()
+                    .isIn(WCOrderModelTable.ID, chunk)
+                    .endWhere()
+                    .asModel
+        }.sortedByDescending { it.dateCreated }
+    }
+
     fun deleteOrdersForSite(site: SiteModel): Int {
+        WellSql.delete(WCOrderLineItemModel::class.java)
+                .where()
+                .equals(WCOrderLineItemModelTable.LOCAL_SITE_ID, site.id)
+                .endWhere()
+                .execute()
+        WellSql.delete(WCOrderShippingLineModel::class.java)
+                .where()
+                .equals(WCOrderShippingLineModelTable.LOCAL_SITE_ID, site.id)
+                .endWhere()
+                .execute()
         return WellSql.delete(WCOrderModel::class.java)
                 .where().beginGroup()
                 .equals(WCOrderModelTable.LOCAL_SITE_ID, site.id)
@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.store
+
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
+import org.wordpress.android.fluxc.model.SiteModel
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Coalesces the orders requested for a site within a short window, such as the missing and outdated orders of
+ * consecutive order list pages, and fetches them in chunks of at most [maxOrdersPerFetch] orders.
+ *
+ * Orders already being fetched aren't requested again until [onOrdersFetched] is called for them.
+ */
+class WCOrderFetchScheduler(
+    private val fetchOrders: (SiteModel, List<RemoteId>) -> Unit,
+    private val maxOrdersPerFetch: Int = WCOrderStore.NUM_ORDERS_PER_FETCH,
+    private val scheduler: ScheduledExecutorService = SCHEDULER
+) {
+    private class PendingOrders(val site: SiteModel) {
+        val remoteIds = LinkedHashSet<RemoteId>()
+    }
+
+    private val pendingOrders = HashMap<Int, PendingOrders>()
+    private val inFlightOrders = HashMap<Int, MutableSet<RemoteId>>()
+
+    /**
+     * Schedules fetching the given orders of the site, unless they're already scheduled or being fetched.
+     */
+    fun scheduleFetch(site: SiteModel, remoteIds: Collection<RemoteId>) {
+        if (remoteIds.isEmpty()) {
+            return
+        }
+        synchronized(this) {
+            val inFlight = inFlightOrders[site.id].orEmpty()
+            val newRemoteIds = remoteIds.filterNot { inFlight.contains(it) }
+            if (newRemoteIds.isEmpty()) {
+                return
+            }
+            val pending = pendingOrders[site.id] ?: PendingOrders(site).also {
+                pendingOrders[site.id] = it
+                scheduler.schedule(Runnable { flush(site.id) }, FETCH_WINDOW_MS, TimeUnit.MILLISECONDS)
+            }
+            pending.remoteIds.addAll(newRemoteIds)
+        }
+    }
+
+    /**
+     * Marks the given orders of the site as no longer being fetched, whether fetching them succeeded or failed.
+     */
+    fun onOrdersFetched(site: SiteModel, remoteIds: Collection<RemoteId>) {
+        synchronized(this) {
+            inFlightOrders[site.id]?.let { inFlight ->
+                inFlight.removeAll(remoteIds)
+                if (inFlight.isEmpty()) {
+                    inFlightOrders.remove(site.id)
+                }
+            }
+        }
+    }
+
+    private fun flush(localSiteId: Int) {
+        val pending = synchronized(this) {
+            pendingOrders.remove(localSiteId)?.also { pending ->
+                inFlightOrders.getOrPut(localSiteId) { HashSet() }.addAll(pending.remoteIds)
+            }
+        } ?: return
+        // Each chunk is a separate request, so they're sent concurrently
+        pending.remoteIds.chunked(maxOrdersPerFetch).forEach { fetchOrders(pending.site, it) }
+    }
+
+    companion object {
+        const val FETCH_WINDOW_MS = 200L
+
+        private val SCHEDULER = Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "WCOrderFetchScheduler").apply { isDaemon = true }
+        }
+    }
+}
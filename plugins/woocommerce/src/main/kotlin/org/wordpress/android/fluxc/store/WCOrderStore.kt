@@ -1,20 +1,20 @@
 package org.wordpress.android.fluxc.store
 
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCOrderAction
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.generated.ListActionBuilder
-import org.wordpress.android.fluxc.generated.WCOrderActionBuilder
 import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.WCOrderLineItemModel
 import org.wordpress.android.fluxc.model.WCOrderListDescriptor
 import org.wordpress.android.fluxc.model.WCOrderModel
 import org.wordpress.android.fluxc.model.WCOrderNoteModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentProviderModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentTrackingModel
+import org.wordpress.android.fluxc.model.WCOrderShippingLineModel
 import org.wordpress.android.fluxc.model.WCOrderStatusModel
 import org.wordpress.android.fluxc.model.WCOrderSummaryModel
 import org.wordpress.android.fluxc.model.order.OrderIdentifier
@@ -33,6 +33,7 @@ import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
+@HandlesActions(WCOrderAction::class)
 class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrderRestClient: OrderRestClient) :
         Store(dispatcher) {
     companion object {
@@ -40,6 +41,10 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
         const val DEFAULT_ORDER_STATUS = "any"
     }
 
+    private val orderFetchScheduler = WCOrderFetchScheduler({ site, remoteIds ->
+        wcOrderRestClient.fetchOrdersByIds(site, remoteIds)
+    })
+
     class FetchOrdersPayload(
         var site: SiteModel,
         var statusFilter: String? = null,
@@ -333,6 +338,26 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
         return OrderSqlUtils.getOrderForIdSet((orderIdentifier.toIdSet()))
     }
 
+    /**
+     * Returns the line items of the given orders, such as a page of the order list, loaded together and keyed by the
+     * local id of their order.
+     */
+    fun getLineItemsForOrders(orders: List<WCOrderModel>): Map<Int, List<WCOrderLineItemModel>> =
+            OrderSqlUtils.getLineItemsForOrders(orders)
+
+    /**
+     * Returns the shipping lines of the given orders, loaded together and keyed by the local id of their order.
+     */
+    fun getShippingLinesForOrders(orders: List<WCOrderModel>): Map<Int, List<WCOrderShippingLineModel>> =
+            OrderSqlUtils.getShippingLinesForOrders(orders)
+
+    /**
+     * Returns the orders of the site stored in the database which contain the given product or variation, newest
+     * first.
+     */
+    fun getOrdersContainingProduct(site: SiteModel, remoteProductId: Long): List<WCOrderModel> =
+            OrderSqlUtils.getOrdersContainingProduct(site, remoteProductId)
+
     /**
      * Returns the notes belonging to supplied [WCOrderModel] as a list of [WCOrderNoteModel].
      */
@@ -368,7 +393,6 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
      */
     fun hasCachedOrdersForSite(site: SiteModel) = OrderSqlUtils.getOrdersForSite(site).isNotEmpty()
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? WCOrderAction ?: return
         when (actionType) {
@@ -542,17 +566,24 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
         )))
     }
 
+    /**
+     * Schedules fetching the orders of the summaries which are missing from the database or were modified since they
+     * were stored. The orders of consecutive pages are coalesced by [orderFetchScheduler].
+     */
     private fun fetchOutdatedOrders(site: SiteModel, orderSummaries: List<WCOrderSummaryModel>) {
-        val summaryModifiedDates = orderSummaries.associate { it.remoteOrderId to it.dateModified }
-        val remoteIds = orderSummaries.map { RemoteId(it.remoteOrderId) }
-        val remoteIdsToFetch = OrderSqlUtils.getOrdersForSiteByRemoteIds(site, remoteIds).filter {
-            it.dateModified != summaryModifiedDates[it.remoteOrderId]
+        val storedModifiedDates = OrderSqlUtils.getOrdersForSiteByRemoteIds(
+                site,
+                orderSummaries.map { RemoteId(it.remoteOrderId) }
+        ).associate { it.remoteOrderId to it.dateModified }
+        val remoteIdsToFetch = orderSummaries.filter {
+            storedModifiedDates[it.remoteOrderId] != it.dateModified
         }.map { RemoteId(it.remoteOrderId) }
-        val payload = FetchOrdersByIdsPayload(site = site, remoteIds = remoteIdsToFetch)
-        mDispatcher.dispatch(WCOrderActionBuilder.newFetchOrdersByIdsAction(payload))
+        orderFetchScheduler.scheduleFetch(site, remoteIdsToFetch)
     }
 
     private fun handleFetchOrderByIdsCompleted(payload: FetchOrdersByIdsResponsePayload) {
+        orderFetchScheduler.onOrdersFetched(payload.site, payload.remoteOrderIds)
+
         val onOrdersFetchedByIds = if (payload.isError) {
             OnOrdersFetchedByIds(payload.site, payload.remoteOrderIds).apply { error = payload.error }
         } else {
@@ -561,7 +592,7 @@ class WCOrderStore @Inject constructor(dispatcher: Dispatcher, private val wcOrd
 
         if (!payload.isError) {
             // Save the list of orders to the database
-            payload.fetchedOrders.forEach { OrderSqlUtils.insertOrUpdateOrder(it) }
+            OrderSqlUtils.insertOrUpdateOrders(payload.fetchedOrders)
 
             // Notify listeners that the list of orders has changed (only call this if there is no error)
             val listTypeIdentifier = WCOrderListDescriptor.calculateTypeIdentifier(localSiteId = payload.site.id)
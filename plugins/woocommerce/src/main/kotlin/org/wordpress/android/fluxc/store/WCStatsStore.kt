@@ -1,12 +1,11 @@
 package org.wordpress.android.fluxc.store
 
 import android.content.Context
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.Payload
 import org.wordpress.android.fluxc.action.WCStatsAction
 import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.annotations.action.HandlesActions
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCNewVisitorStatsModel
 import org.wordpress.android.fluxc.model.WCOrderStatsModel
@@ -33,6 +32,7 @@ import javax.inject.Singleton
 import kotlin.random.Random
 
 @Singleton
+@HandlesActions(WCStatsAction::class)
 class WCStatsStore @Inject constructor(
     dispatcher: Dispatcher,
     private val context: Context,
@@ -247,7 +247,6 @@ class WCStatsStore @Inject constructor(
 
     override fun onRegister() = AppLog.d(T.API, "WCStatsStore onRegister")
 
-    @Subscribe(threadMode = ThreadMode.ASYNC)
     override fun onAction(action: Action<*>) {
         val actionType = action.type as? WCStatsAction ?: return
         when (actionType) {